@@ -329,7 +329,7 @@ export const modelsApi = {
 
 // Cars API
 export const carsApi = {
-  getAll: () => api.get<Car[]>('/cars'),
+  getAll: () => api.get<Car[]>('/cars/all'),
   getById: (id: number) => api.get<Car>(`/cars/${id}`),
   create: (car: Car) => api.post<Car>('/cars', car),
   update: (car: Car) => api.put<Car>('/cars', car),
@@ -376,7 +376,7 @@ export const carsApi = {
 
 // Customers API
 export const customersApi = {
-  getAll: () => api.get<Customer[]>('/customers'),
+  getAll: () => api.get<Customer[]>('/customers/all'),
   getById: (id: number) => api.get<Customer>(`/customers/${id}`),
   create: (customer: Customer) => api.post<Customer>('/customers', customer),
   update: (customer: Customer) => api.put<Customer>('/customers', customer),
@@ -390,7 +390,7 @@ export const customersApi = {
 
 // Rentals API
 export const rentalsApi = {
-  getAll: () => api.get<Rental[]>('/rentals'),
+  getAll: () => api.get<Rental[]>('/rentals/all'),
   getById: (id: number) => api.get<Rental>(`/rentals/${id}`),
   create: (rental: Rental) => api.post<Rental>('/rentals', rental),
   update: (rental: Rental) => api.put<Rental>('/rentals', rental),
@@ -702,7 +702,7 @@ export const customerPortalApi = {
 };
 
 export const reservationsApi = {
-  getAll: () => api.get<Reservation[]>('/reservations'),
+  getAll: () => api.get<Reservation[]>('/reservations/all'),
   getById: (id: number) => api.get<Reservation>(`/reservations/${id}`),
   getByCustomerId: (customerId: number) => api.get<Reservation[]>(`/reservations/customer/${customerId}`),
   getByCarId: (carId: number) => api.get<Reservation[]>(`/reservations/car/${carId}`),
@@ -720,7 +720,7 @@ export const reservationsApi = {
 
 // Payments API
 export const paymentsApi = {
-  getAll: () => api.get<Payment[]>('/payments'),
+  getAll: () => api.get<Payment[]>('/payments/all'),
   getById: (id: number) => api.get<Payment>(`/payments/${id}`),
   getByRentalId: (rentalId: number) => api.get<Payment[]>(`/payments/rental/${rentalId}`),
   getByCustomerId: (customerId: number) => api.get<Payment[]>(`/payments/customer/${customerId}`),
@@ -738,7 +738,7 @@ export const paymentsApi = {
 
 // Invoices API
 export const invoicesApi = {
-  getAll: () => api.get<Invoice[]>('/invoices'),
+  getAll: () => api.get<Invoice[]>('/invoices/all'),
   getById: (id: number) => api.get<Invoice>(`/invoices/${id}`),
   getByRentalId: (rentalId: number) => api.get<Invoice[]>(`/invoices/rental/${rentalId}`),
   getByCustomerId: (customerId: number) => api.get<Invoice[]>(`/invoices/customer/${customerId}`),
@@ -3,6 +3,8 @@ package hakan.rentacar;
 import hakan.rentacar.exceptions.BusinessException;
 import hakan.rentacar.exceptions.ProblemDetails;
 import hakan.rentacar.exceptions.ValidationProblemDetails;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
@@ -46,6 +48,21 @@ public class RentACarApplication {
         return validationProblemDetails;
     }
 
+    // Method-level validation (@Validated controllers), e.g. elements of a request body list
+    @ExceptionHandler
+    @ResponseStatus(code = HttpStatus.BAD_REQUEST)
+    public ProblemDetails handleConstraintViolationException(ConstraintViolationException constraintViolationException){
+        ValidationProblemDetails validationProblemDetails = new ValidationProblemDetails();
+        validationProblemDetails.setMessage("VALIDATION.EXCEPTION");
+        validationProblemDetails.setValidationErrors(new HashMap<String,String>());
+
+        for (ConstraintViolation<?> violation: constraintViolationException.getConstraintViolations()) {
+            validationProblemDetails.getValidationErrors().put(violation.getPropertyPath().toString(),violation.getMessage());
+        }
+
+        return validationProblemDetails;
+    }
+
     @ExceptionHandler
     @ResponseStatus(code = HttpStatus.BAD_REQUEST)
     public ProblemDetails handleRuntimeException(RuntimeException runtimeException){
@@ -1,7 +1,12 @@
 package hakan.rentacar.api.controllers;
 
+import hakan.rentacar.entities.concretes.CustomerRentalStats;
 import hakan.rentacar.entities.dtos.*;
 import hakan.rentacar.service.AnalyticsService;
+import hakan.rentacar.service.CustomerSegmentationService;
+import hakan.rentacar.service.OccupancyCalendarService;
+import hakan.rentacar.service.RevenueCubeService;
+import hakan.rentacar.service.UtilizationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -9,10 +14,14 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Locale;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/analytics")
@@ -24,6 +33,18 @@ public class AnalyticsController {
     @Autowired
     private AnalyticsService analyticsService;
 
+    @Autowired
+    private OccupancyCalendarService occupancyCalendarService;
+
+    @Autowired
+    private UtilizationService utilizationService;
+
+    @Autowired
+    private RevenueCubeService revenueCubeService;
+
+    @Autowired
+    private CustomerSegmentationService customerSegmentationService;
+
     // Revenue Reports
     @GetMapping("/revenue/monthly")
     public ResponseEntity<List<RevenueReportDto>> getMonthlyRevenue(@RequestParam int year) {
@@ -73,6 +94,20 @@ public class AnalyticsController {
         return ResponseEntity.ok(segments);
     }
 
+    @GetMapping("/customers/targets")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Kampanya hedef müşterileri", description = "Segmente veya en az kiralama sayısı / ömür boyu gelire göre müşteri ID listesi")
+    public ResponseEntity<List<Long>> getTargetCustomerIds(
+            @RequestParam(required = false) String segment,
+            @RequestParam(defaultValue = "0") long minRentals,
+            @RequestParam(required = false) BigDecimal minRevenue) {
+        if (segment != null) {
+            CustomerRentalStats.Segment value = CustomerRentalStats.Segment.valueOf(segment.toUpperCase(Locale.ROOT));
+            return ResponseEntity.ok(customerSegmentationService.getCustomerIds(value));
+        }
+        return ResponseEntity.ok(customerSegmentationService.getCustomerIds(minRentals, minRevenue));
+    }
+
     // Dashboard Statistics
     @GetMapping("/dashboard")
     public ResponseEntity<DashboardStatsDto> getDashboardStats() {
@@ -82,7 +117,19 @@ public class AnalyticsController {
 
     // Trend Analysis
     @GetMapping("/trends/revenue")
-    public ResponseEntity<List<TrendAnalysisDto>> getRevenueTrend(@RequestParam(defaultValue = "12") int months) {
+    @Operation(summary = "Gelir trendi", description = "Aylık dönemsel büyüme veya günlük hareketli ortalamalar, üstel ağırlıklı ortalama, haftalık/yıllık değişim ve anomali işaretleri (granularity=daily, en fazla 5 yıllık aralık)")
+    public ResponseEntity<List<TrendAnalysisDto>> getRevenueTrend(
+            @RequestParam(defaultValue = "12") int months,
+            @RequestParam(defaultValue = "monthly") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @Parameter(description = "Üstel ağırlıklı ortalama katsayısı (0-1]") @RequestParam(defaultValue = "0.3") double alpha,
+            @Parameter(description = "Anomali için z-skoru eşiği") @RequestParam(defaultValue = "3") double anomalyThreshold) {
+        if ("daily".equalsIgnoreCase(granularity)) {
+            LocalDate end = endDate != null ? endDate : LocalDate.now();
+            LocalDate start = startDate != null ? startDate : end.minusMonths(months);
+            return ResponseEntity.ok(analyticsService.getDailyRevenueTrend(start, end, alpha, anomalyThreshold));
+        }
         List<TrendAnalysisDto> trends = analyticsService.getRevenueTrend(months);
         return ResponseEntity.ok(trends);
     }
@@ -99,7 +146,82 @@ public class AnalyticsController {
     }
 
     @GetMapping("/realtime/avg-rental-duration")
-    public ResponseEntity<String> getAverageRentalDuration() {
+    public ResponseEntity<String> getAverageRentalDuration(@RequestParam(defaultValue = "false") boolean approximate) {
+        if (approximate) {
+            BigDecimal average = analyticsService.getRentalDistribution(null, null, null, true).getAverageDuration();
+            return ResponseEntity.ok((average != null ? average : BigDecimal.ZERO).toString());
+        }
         return ResponseEntity.ok(analyticsService.getAverageRentalDuration().toString());
     }
+
+    @GetMapping("/rentals/distribution")
+    @Operation(summary = "Kiralama dağılımı", description = "Kiralama süresi ve kiralama başı gelir için p50/p90/p99 ile tekil müşteri sayısı. approximate=true: günlük ve araç bazlı HyperLogLog (yaklaşık %1,6 standart hata) ve t-digest özetlerinden, kiralama sayısından bağımsız sürede; carId verilirse aracın tüm geçmişi kullanılır ve tarih filtresi verilemez")
+    public ResponseEntity<RentalDistributionDto> getRentalDistribution(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Long carId,
+            @RequestParam(defaultValue = "false") boolean approximate) {
+        return ResponseEntity.ok(analyticsService.getRentalDistribution(startDate, endDate, carId, approximate));
+    }
+
+    // Fleet Occupancy Calendar
+    @GetMapping("/occupancy/heatmap")
+    @Operation(summary = "Filo doluluk haritası", description = "Tüm araçlar için günlük doluluk haritası (varsayılan 90 gün)")
+    public ResponseEntity<OccupancyHeatmapDto> getOccupancyHeatmap(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(defaultValue = "90") int days) {
+        LocalDate start = startDate != null ? startDate : LocalDate.now();
+        return ResponseEntity.ok(occupancyCalendarService.getHeatmap(start, days));
+    }
+
+    @GetMapping("/occupancy/free-cars")
+    @Operation(summary = "Tüm günlerde boş araçlar", description = "Tarih aralığındaki her gün boş olan araçların id listesi")
+    public ResponseEntity<List<Long>> getCarsFreeForEveryDay(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return ResponseEntity.ok(occupancyCalendarService.getCarsFreeForEveryDay(startDate, endDate));
+    }
+
+    @GetMapping("/occupancy/segments")
+    @Operation(summary = "Segment bazlı doluluk", description = "Her segment için günlük doluluk yüzdesi")
+    public ResponseEntity<Map<String, List<Double>>> getSegmentOccupancy(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return ResponseEntity.ok(occupancyCalendarService.getSegmentOccupancy(startDate, endDate));
+    }
+
+    // Fleet Utilization
+    @GetMapping("/utilization")
+    @Operation(summary = "Filo kullanım oranı", description = "Kiralı gün / müsait gün (bakım günleri hariç); segment ve marka kırılımlı")
+    public ResponseEntity<FleetUtilizationDto> getFleetUtilization(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return ResponseEntity.ok(utilizationService.getFleetUtilization(startDate, endDate));
+    }
+
+    @GetMapping("/utilization/cars")
+    @Operation(summary = "Araç bazlı kullanım oranı", description = "Tarih aralığında her aracın kullanım oranı, yüksekten düşüğe")
+    public ResponseEntity<List<CarAnalyticsDto>> getCarUtilization(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return ResponseEntity.ok(utilizationService.getCarUtilization(startDate, endDate));
+    }
+
+    // Revenue Cube
+    @GetMapping("/cube")
+    @Operation(summary = "Gelir küpü sorgusu", description = "En fazla 3 boyuta göre gruplama ve filtreleme; filtre biçimi boyut:değer1|değer2 (ör. brand:BMW, year:2024)")
+    public ResponseEntity<CubeResultDto> queryRevenueCube(
+            @RequestParam(required = false) List<String> groupBy,
+            @RequestParam(required = false) List<String> filter,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(revenueCubeService.query(groupBy, filter, startDate, endDate, limit));
+    }
+
+    @GetMapping("/cube/dimensions")
+    @Operation(summary = "Gelir küpü boyutları", description = "Gruplama ve filtrelemede kullanılabilecek boyutlar")
+    public ResponseEntity<List<String>> getRevenueCubeDimensions() {
+        return ResponseEntity.ok(revenueCubeService.getDimensions());
+    }
 }
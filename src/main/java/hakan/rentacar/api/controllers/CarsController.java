@@ -3,6 +3,7 @@ package hakan.rentacar.api.controllers;
 import hakan.rentacar.entities.dtos.CarDto;
 import hakan.rentacar.entities.dtos.GpsLocationDto;
 import hakan.rentacar.entities.dtos.MaintenanceRecordDto;
+import hakan.rentacar.entities.dtos.KeysetPageDto;
 import hakan.rentacar.service.CarService;
 import hakan.rentacar.service.GpsService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -37,6 +38,15 @@ public class CarsController {
     }
 
     @GetMapping()
+    @Operation(summary = "Araçları sayfalı listele", description = "(createdDate, id) sırasına göre en yeniden eskiye sayfalı liste döner")
+    public ResponseEntity<KeysetPageDto<CarDto>> getPage(
+            @Parameter(description = "Önceki sayfanın next değeri") @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return new ResponseEntity<>(carService.getPage(cursor, size), HttpStatus.OK);
+    }
+
+    @GetMapping("/all")
+    @Operation(summary = "Tüm araçları listele", description = "Sayfalamasız tam liste; büyük tablolarda sayfalı listeyi kullanın")
     public ResponseEntity<List<CarDto>> getAll() {
         return new ResponseEntity<>(carService.getAll(), HttpStatus.OK);
     }
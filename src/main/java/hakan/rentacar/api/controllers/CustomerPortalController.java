@@ -1,8 +1,10 @@
 package hakan.rentacar.api.controllers;
 
+import hakan.rentacar.entities.concretes.Car;
 import hakan.rentacar.entities.concretes.Customer;
 import hakan.rentacar.entities.concretes.User;
 import hakan.rentacar.entities.dtos.*;
+import hakan.rentacar.repostories.CarRepository;
 import hakan.rentacar.repostories.CustomerRepository;
 import hakan.rentacar.repostories.UserRepository;
 import hakan.rentacar.security.JwtUtils;
@@ -10,7 +12,7 @@ import hakan.rentacar.service.NotificationService;
 import hakan.rentacar.service.ReservationRatingService;
 import hakan.rentacar.service.ReservationService;
 import hakan.rentacar.service.CustomerService;
-import hakan.rentacar.service.CarService;
+import hakan.rentacar.service.AvailabilityIndexService;
 import hakan.rentacar.service.RentalService;
 import hakan.rentacar.service.PaymentService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -29,7 +31,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
-import org.modelmapper.ModelMapper;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -65,10 +66,10 @@ public class CustomerPortalController {
     private CustomerService customerService;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private CarRepository carRepository;
 
     @Autowired
-    private CarService carService;
+    private AvailabilityIndexService availabilityIndexService;
 
     @Autowired
     private RentalService rentalService;
@@ -194,23 +195,48 @@ public class CustomerPortalController {
         java.time.LocalDate start = java.time.LocalDate.parse(startDate);
         java.time.LocalDate end = java.time.LocalDate.parse(endDate);
         
-        // Get all cars regardless of state and filter by actual date availability
-        List<CarDto> allCars = carService.getAll();
+        // Get all cars regardless of state (model and brand fetched in the same query)
+        List<Car> allCars = carRepository.findAllWithModelAndBrand();
         
-        // Filter cars that are actually available for the date range (date-based check only)
+        // Filter cars that are actually available for the date range using the in-memory availability index
         List<AvailableCarDto> result = allCars.stream()
-            .filter(car -> reservationService.isCarAvailable(car.getId(), start, end))
+            .filter(car -> availabilityIndexService.isCarAvailable(car.getId(), start, end))
             .map(car -> new AvailableCarDto(
                 car.getId(),
                 car.getPlate(),
-                car.getBrandName(),
-                car.getModelName()
+                car.getModel().getBrand().getName(),
+                car.getModel().getName(),
+                car.getDailyPrice(),
+                car.getSegment(),
+                car.getFuelType(),
+                car.getTransmission()
             ))
             .collect(Collectors.toList());
             
         return ResponseEntity.ok(result);
     }
 
+    // Search available cars with filters (single SQL query, keyset pagination)
+    @GetMapping("/available-cars/search")
+    @Operation(summary = "Müsait araç arama", description = "Tarih aralığında müsait araçları segment, yakıt tipi, vites ve marka filtreleriyle sayfalı olarak getirir")
+    public ResponseEntity<KeysetPageDto<AvailableCarDto>> searchAvailableCars(
+            @RequestParam String startDate,
+            @RequestParam String endDate,
+            @RequestParam(required = false) String segment,
+            @RequestParam(required = false) String fuelType,
+            @RequestParam(required = false) String transmission,
+            @RequestParam(required = false) Long brandId,
+            @Parameter(description = "Önceki sayfanın next değeri") @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        
+        KeysetPageDto<AvailableCarDto> page = reservationService.searchAvailableCars(
+            java.time.LocalDate.parse(startDate),
+            java.time.LocalDate.parse(endDate),
+            segment, fuelType, transmission, brandId, cursor, size
+        );
+        return ResponseEntity.ok(page);
+    }
+
     // Rate a reservation
     @PostMapping("/ratings")
     public ResponseEntity<ReservationRatingDto> rateReservation(@Valid @RequestBody ReservationRatingDto ratingDto) {
@@ -1,6 +1,7 @@
 package hakan.rentacar.api.controllers;
 
 import hakan.rentacar.entities.dtos.CustomerDto;
+import hakan.rentacar.entities.dtos.KeysetPageDto;
 import hakan.rentacar.service.CustomerService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -29,6 +30,15 @@ public class CustomersController {
     }
 
     @GetMapping()
+    @Operation(summary = "Müşterileri sayfalı listele", description = "(createdDate, id) sırasına göre en yeniden eskiye sayfalı liste döner")
+    public ResponseEntity<KeysetPageDto<CustomerDto>> getPage(
+            @Parameter(description = "Önceki sayfanın next değeri") @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return new ResponseEntity<>(customerService.getPage(cursor, size), HttpStatus.OK);
+    }
+
+    @GetMapping("/all")
+    @Operation(summary = "Tüm müşterileri listele", description = "Sayfalamasız tam liste; büyük tablolarda sayfalı listeyi kullanın")
     public ResponseEntity<List<CustomerDto>> getAll() {
         return new ResponseEntity<>(customerService.getAll(), HttpStatus.OK);
     }
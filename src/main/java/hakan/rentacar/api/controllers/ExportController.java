@@ -0,0 +1,97 @@
+package hakan.rentacar.api.controllers;
+
+import hakan.rentacar.service.ExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/exports")
+@CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000"})
+@Tag(name = "Data Export", description = "Büyük veri setlerinin CSV / NDJSON olarak akış halinde dışa aktarımı")
+public class ExportController {
+
+    @Autowired
+    private ExportService exportService;
+
+    @GetMapping("/invoices")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Fatura dışa aktarımı", description = "Düzenleme tarihi aralığındaki faturaları akış halinde indirir")
+    public ResponseEntity<StreamingResponseBody> exportInvoices(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "csv veya ndjson") @RequestParam(defaultValue = "csv") String format) {
+        ExportService.Format exportFormat = parseFormat(format);
+        return stream("invoices", exportFormat, out -> exportService.exportInvoices(from, to, exportFormat, out));
+    }
+
+    @GetMapping("/payments")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Ödeme dışa aktarımı", description = "Oluşturulma tarihi aralığındaki ödemeleri akış halinde indirir")
+    public ResponseEntity<StreamingResponseBody> exportPayments(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "csv veya ndjson") @RequestParam(defaultValue = "csv") String format) {
+        ExportService.Format exportFormat = parseFormat(format);
+        return stream("payments", exportFormat, out -> exportService.exportPayments(from, to, exportFormat, out));
+    }
+
+    @GetMapping("/ledger")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Yevmiye dışa aktarımı", description = "İşlem tarihi aralığındaki genel muhasebe kayıtlarını akış halinde indirir")
+    public ResponseEntity<StreamingResponseBody> exportLedger(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "csv veya ndjson") @RequestParam(defaultValue = "csv") String format) {
+        ExportService.Format exportFormat = parseFormat(format);
+        return stream("ledger", exportFormat, out -> exportService.exportLedger(from, to, exportFormat, out));
+    }
+
+    @GetMapping("/tax-calculations")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Vergi hesaplamaları dışa aktarımı", description = "Hesaplama tarihi aralığındaki vergi kayıtlarını akış halinde indirir")
+    public ResponseEntity<StreamingResponseBody> exportTaxCalculations(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "csv veya ndjson") @RequestParam(defaultValue = "csv") String format) {
+        ExportService.Format exportFormat = parseFormat(format);
+        return stream("tax-calculations", exportFormat, out -> exportService.exportTaxCalculations(from, to, exportFormat, out));
+    }
+
+    @GetMapping("/audit-logs")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Denetim kayıtları dışa aktarımı", description = "Zaman aralığındaki denetim kayıtlarını akış halinde indirir")
+    public ResponseEntity<StreamingResponseBody> exportAuditLogs(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "csv veya ndjson") @RequestParam(defaultValue = "csv") String format) {
+        ExportService.Format exportFormat = parseFormat(format);
+        return stream("audit-logs", exportFormat, out -> exportService.exportAuditLogs(from, to, exportFormat, out));
+    }
+
+    private ExportService.Format parseFormat(String format) {
+        try {
+            return ExportService.Format.valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(String name, ExportService.Format format, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + "." + format.getExtension() + "\"")
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .body(body);
+    }
+}
@@ -1,27 +1,32 @@
 package hakan.rentacar.api.controllers;
 
 import hakan.rentacar.entities.dtos.GeneralLedgerDto;
-import hakan.rentacar.entities.dtos.PaymentDto;
-import hakan.rentacar.entities.dtos.InvoiceDto;
+import hakan.rentacar.entities.dtos.JournalEntryDto;
+import hakan.rentacar.entities.dtos.JournalPostingResultDto;
+import hakan.rentacar.entities.dtos.KeysetPageDto;
+import hakan.rentacar.service.FinancialDashboardService;
 import hakan.rentacar.service.GeneralLedgerService;
-import hakan.rentacar.service.PaymentService;
-import hakan.rentacar.service.InvoiceService;
 import hakan.rentacar.service.TaxCalculationService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
 @RestController
+@Validated
 @RequestMapping("/api/financial-reports")
 @CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000"})
 @Tag(name = "Financial Reports", description = "Mali raporlama işlemleri")
@@ -31,13 +36,10 @@ public class FinancialReportController {
     private GeneralLedgerService generalLedgerService;
 
     @Autowired
-    private PaymentService paymentService;
+    private TaxCalculationService taxCalculationService;
 
     @Autowired
-    private InvoiceService invoiceService;
-
-    @Autowired
-    private TaxCalculationService taxCalculationService;
+    private FinancialDashboardService financialDashboardService;
 
     // Dashboard Summary
     @GetMapping("/dashboard-summary")
@@ -50,67 +52,28 @@ public class FinancialReportController {
         LocalDateTime start = LocalDateTime.parse(startDate + "T00:00:00");
         LocalDateTime end = LocalDateTime.parse(endDate + "T23:59:59");
         
-        Map<String, Object> summary = new java.util.HashMap<>();
-        
-        // Revenue summary
-        BigDecimal totalRevenue = paymentService.getTotalRevenue(start, end) != null ? paymentService.getTotalRevenue(start, end) : BigDecimal.ZERO;
-        BigDecimal totalInvoiced = invoiceService.getTotalInvoicedAmount(start, end) != null ? invoiceService.getTotalInvoicedAmount(start, end) : BigDecimal.ZERO;
-        BigDecimal totalPaid = invoiceService.getTotalPaidAmount(start, end) != null ? invoiceService.getTotalPaidAmount(start, end) : BigDecimal.ZERO;
-        
-        // Payment summary
-        List<PaymentDto> pendingPayments = paymentService.getPendingPayments();
-        List<PaymentDto> overduePayments = paymentService.getOverduePayments();
-        List<PaymentDto> completedPayments = paymentService.getCompleted();
-        
-        // Calculate payment amounts
-        BigDecimal pendingPaymentsAmount = pendingPayments.stream()
-                .map(PaymentDto::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal overduePaymentsAmount = overduePayments.stream()
-                .map(PaymentDto::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        // Invoice summary
-        List<InvoiceDto> pendingInvoices = invoiceService.getPendingInvoices();
-        List<InvoiceDto> overdueInvoices = invoiceService.getOverdueInvoices();
-        
-        // Calculate invoice amounts
-        BigDecimal pendingInvoicesAmount = pendingInvoices.stream()
-                .map(InvoiceDto::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal overdueInvoicesAmount = overdueInvoices.stream()
-                .map(InvoiceDto::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        // Tax summary
-        Map<String, Object> taxReport = taxCalculationService.getVATReport(start, end);
-        BigDecimal totalTaxLiability = BigDecimal.ZERO;
-        if (taxReport != null && taxReport.containsKey("totalTaxAmount")) {
-            Object taxAmount = taxReport.get("totalTaxAmount");
-            if (taxAmount instanceof BigDecimal) {
-                totalTaxLiability = (BigDecimal) taxAmount;
-            }
-        }
-        
-        // Calculate net profit
-        BigDecimal netProfit = totalRevenue.subtract(totalInvoiced.subtract(totalPaid));
-        
-        summary.put("periodStart", start);
-        summary.put("periodEnd", end);
-        summary.put("totalRevenue", totalRevenue);
-        summary.put("totalInvoiced", totalInvoiced);
-        summary.put("totalPaid", totalPaid);
-        summary.put("netProfit", netProfit);
-        summary.put("pendingPayments", pendingPaymentsAmount);
-        summary.put("overduePayments", overduePaymentsAmount);
-        summary.put("pendingPaymentsCount", pendingPayments.size());
-        summary.put("overduePaymentsCount", overduePayments.size());
-        summary.put("pendingInvoicesCount", pendingInvoices.size());
-        summary.put("overdueInvoicesCount", overdueInvoices.size());
-        summary.put("totalTaxLiability", totalTaxLiability);
-        summary.put("taxReport", taxReport);
-        
-        return ResponseEntity.ok(summary);
+        return ResponseEntity.ok(financialDashboardService.getDashboardSummary(start, end));
+    }
+
+    // General ledger entries, keyset paged by (transactionDate, id)
+    @GetMapping("/ledger")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Yevmiye kayıtları", description = "Genel muhasebe kayıtlarını işlem tarihine göre sayfalı listeler")
+    public ResponseEntity<KeysetPageDto<GeneralLedgerDto>> getLedgerPage(
+            @Parameter(description = "Önceki sayfanın next değeri") @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        KeysetPageDto<GeneralLedgerDto> page = generalLedgerService.getPage(cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
+    // Bulk journal posting; every document must balance or nothing is posted
+    @PostMapping("/journal-entries")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Toplu yevmiye kaydı", description = "Birden çok yevmiye fişini tek işlemde kaydeder; borç ve alacak toplamı her fişte eşit olmalıdır")
+    public ResponseEntity<JournalPostingResultDto> postJournalEntries(
+            @RequestBody @NotEmpty List<@NotNull @Valid JournalEntryDto> entries) {
+        JournalPostingResultDto result = generalLedgerService.postJournalEntries(entries);
+        return ResponseEntity.ok(result);
     }
 
     // Trial Balance
@@ -199,14 +162,16 @@ public class FinancialReportController {
         return ResponseEntity.ok(taxSummary);
     }
 
-    // Account Reports
+    // Account Reports, keyset paged by (transactionDate, id) with a running balance per row
     @GetMapping("/account-transactions")
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Hesap Hareketleri", description = "Belirli hesap için hareketleri getirir")
-    public ResponseEntity<List<GeneralLedgerDto>> getAccountTransactions(
+    @Operation(summary = "Hesap Hareketleri", description = "Belirli hesap için hareketleri yürüyen bakiye ile sayfalı getirir")
+    public ResponseEntity<KeysetPageDto<GeneralLedgerDto>> getAccountTransactions(
             @RequestParam String accountType,
             @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") String startDate,
-            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") String endDate) {
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") String endDate,
+            @Parameter(description = "Önceki sayfanın next değeri") @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
         
         LocalDateTime start = LocalDateTime.parse(startDate + "T00:00:00");
         LocalDateTime end = LocalDateTime.parse(endDate + "T23:59:59");
@@ -215,8 +180,8 @@ public class FinancialReportController {
         hakan.rentacar.entities.concretes.GeneralLedger.AccountType accountTypeEnum = 
                 hakan.rentacar.entities.concretes.GeneralLedger.AccountType.valueOf(accountType);
         
-        List<GeneralLedgerDto> transactions = generalLedgerService.getAccountTransactions(
-                accountTypeEnum, start, end);
+        KeysetPageDto<GeneralLedgerDto> transactions = generalLedgerService.getAccountTransactions(
+                accountTypeEnum, start, end, cursor, size);
         
         return ResponseEntity.ok(transactions);
     }
@@ -254,4 +219,42 @@ public class FinancialReportController {
         generalLedgerService.markAsReconciled(ledgerId);
         return ResponseEntity.ok("Transaction marked as reconciled");
     }
+
+    // Period closing
+    @PostMapping("/period-close")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Dönem Kapanışı", description = "Belirtilen gün sonuna kadar olan hesap bakiyelerini kapanış tablosuna yazar")
+    public ResponseEntity<Map<String, Object>> closeAccountingPeriod(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") String periodEnd) {
+        
+        LocalDateTime end = LocalDateTime.parse(periodEnd + "T23:59:59");
+        int accounts = generalLedgerService.closeAccountingPeriod(end);
+        
+        Map<String, Object> result = new java.util.HashMap<>();
+        result.put("periodEnd", end);
+        result.put("accounts", accounts);
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("/period-close/reclose")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Dönem Yeniden Kapanışı", description = "Düzeltme sonrası kapanmış dönemi ve sonraki dönemleri yeniden hesaplar")
+    public ResponseEntity<Map<String, Object>> recloseAccountingPeriod(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") String periodEnd) {
+        
+        LocalDateTime end = LocalDateTime.parse(periodEnd + "T23:59:59");
+        int periods = generalLedgerService.recloseAccountingPeriod(end);
+        
+        Map<String, Object> result = new java.util.HashMap<>();
+        result.put("periodEnd", end);
+        result.put("periods", periods);
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/period-close")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Kapanmış Dönemler", description = "Kapanmış muhasebe dönemlerinin bitiş tarihlerini getirir")
+    public ResponseEntity<List<LocalDateTime>> getClosedPeriods() {
+        return ResponseEntity.ok(generalLedgerService.getClosedPeriods());
+    }
 }
@@ -2,8 +2,10 @@ package hakan.rentacar.api.controllers;
 
 import hakan.rentacar.entities.dtos.InvoiceDto;
 import hakan.rentacar.entities.dtos.InvoiceSummaryDto;
+import hakan.rentacar.entities.dtos.KeysetPageDto;
 import hakan.rentacar.service.InvoiceService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -28,6 +30,16 @@ public class InvoiceController {
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Faturaları sayfalı listele", description = "(createdDate, id) sırasına göre en yeniden eskiye sayfalı liste döner")
+    public ResponseEntity<KeysetPageDto<InvoiceDto>> getInvoicesPage(
+            @Parameter(description = "Önceki sayfanın next değeri") @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        KeysetPageDto<InvoiceDto> page = invoiceService.getPage(cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/all")
+    @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Tüm faturaları listele", description = "Sistem yöneticileri için tüm faturaları listeler")
     public ResponseEntity<List<InvoiceDto>> getAllInvoices() {
         List<InvoiceDto> invoices = invoiceService.getAll();
@@ -120,9 +132,9 @@ public class InvoiceController {
 
     @GetMapping("/summary")
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Fatura özeti", description = "Fatura istatistiklerini getirir")
-    public ResponseEntity<InvoiceSummaryDto> getInvoiceSummary() {
-        InvoiceSummaryDto summary = invoiceService.getSummary();
+    @Operation(summary = "Fatura özeti", description = "Fatura istatistiklerini getirir; live=true ile durum geçişlerinde güncellenen bellek içi özet döner")
+    public ResponseEntity<InvoiceSummaryDto> getInvoiceSummary(@RequestParam(defaultValue = "false") boolean live) {
+        InvoiceSummaryDto summary = live ? invoiceService.getLiveSummary() : invoiceService.getSummary();
         return ResponseEntity.ok(summary);
     }
 
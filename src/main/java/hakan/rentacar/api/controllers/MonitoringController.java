@@ -1,15 +1,26 @@
 package hakan.rentacar.api.controllers;
 
+import hakan.rentacar.entities.dtos.BalanceVerificationDto;
+import hakan.rentacar.entities.dtos.SweepResultDto;
+import hakan.rentacar.service.AvailabilityIndexService;
+import hakan.rentacar.service.BookingLockService;
+import hakan.rentacar.service.CustomerSegmentationService;
 import hakan.rentacar.service.EncryptionService;
+import hakan.rentacar.service.LedgerPostingService;
+import hakan.rentacar.service.LifecycleSweeperService;
+import hakan.rentacar.service.PaymentBalanceService;
+import hakan.rentacar.service.RevenueRollupService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -22,6 +33,27 @@ public class MonitoringController {
     @Autowired
     private EncryptionService encryptionService;
 
+    @Autowired
+    private AvailabilityIndexService availabilityIndexService;
+
+    @Autowired
+    private BookingLockService bookingLockService;
+
+    @Autowired
+    private RevenueRollupService revenueRollupService;
+
+    @Autowired
+    private CustomerSegmentationService customerSegmentationService;
+
+    @Autowired
+    private PaymentBalanceService paymentBalanceService;
+
+    @Autowired
+    private LedgerPostingService ledgerPostingService;
+
+    @Autowired
+    private LifecycleSweeperService lifecycleSweeperService;
+
     @GetMapping("/health")
     public ResponseEntity<Map<String, Object>> health() {
         Map<String, Object> health = new HashMap<>();
@@ -63,4 +95,119 @@ public class MonitoringController {
         
         return ResponseEntity.ok(status);
     }
+
+    @GetMapping("/availability-index/verify")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Müsaitlik indeksini doğrula", description = "Bellek içi müsaitlik indeksini veritabanı ile karşılaştırır ve farkları onarır")
+    public ResponseEntity<Map<String, Object>> verifyAvailabilityIndex() {
+        return ResponseEntity.ok(availabilityIndexService.verifyConsistency());
+    }
+
+    @PostMapping("/availability-index/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Müsaitlik indeksini yeniden oluştur", description = "Bellek içi müsaitlik indeksini veritabanından yeniden yükler")
+    public ResponseEntity<Map<String, Object>> rebuildAvailabilityIndex() {
+        availabilityIndexService.rebuild();
+        Map<String, Object> result = new HashMap<>();
+        result.put("status", "rebuilt");
+        result.put("ready", availabilityIndexService.isReady());
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/booking-locks")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Rezervasyon kilit istatistikleri", description = "Araç bazlı rezervasyon kilitlerinin alınma, çakışma ve bekleme süresi sayaçları")
+    public ResponseEntity<Map<String, Object>> bookingLockStatistics() {
+        return ResponseEntity.ok(bookingLockService.getStatistics());
+    }
+
+    @PostMapping("/revenue-rollup/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Gelir özet tablosunu yeniden oluştur", description = "Günlük gelir özet tablosunu kiralama kayıtlarından baştan hesaplar")
+    public ResponseEntity<Map<String, Object>> rebuildRevenueRollup() {
+        long startTime = System.currentTimeMillis();
+        int rows = revenueRollupService.rebuild();
+        Map<String, Object> result = new HashMap<>();
+        result.put("status", "rebuilt");
+        result.put("rows", rows);
+        result.put("durationMs", System.currentTimeMillis() - startTime);
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("/customer-segments/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Müşteri segmentlerini yeniden oluştur", description = "Müşteri kiralama sayaçlarını ve segment toplamlarını kiralama kayıtlarından baştan hesaplar")
+    public ResponseEntity<Map<String, Object>> rebuildCustomerSegments() {
+        long startTime = System.currentTimeMillis();
+        int customers = customerSegmentationService.rebuild();
+        Map<String, Object> result = new HashMap<>();
+        result.put("status", "rebuilt");
+        result.put("customers", customers);
+        result.put("durationMs", System.currentTimeMillis() - startTime);
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("/payment-balances/verify")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Ödeme bakiyelerini doğrula", description = "Kiralama bakiye tablosunu ödeme kayıtlarıyla karşılaştırır; repair=true ise sapmaları düzeltir")
+    public ResponseEntity<BalanceVerificationDto> verifyPaymentBalances(@RequestParam(defaultValue = "false") boolean repair) {
+        return ResponseEntity.ok(paymentBalanceService.verify(repair));
+    }
+
+    @GetMapping("/payment-balances/verification")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Son bakiye doğrulaması", description = "En son çalışan bakiye doğrulamasının sonucunu getirir")
+    public ResponseEntity<BalanceVerificationDto> lastPaymentBalanceVerification() {
+        BalanceVerificationDto last = paymentBalanceService.getLastVerification();
+        return last != null ? ResponseEntity.ok(last) : ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/payment-balances/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Ödeme bakiyelerini yeniden oluştur", description = "Kiralama bakiye tablosunu ödeme kayıtlarından baştan hesaplar")
+    public ResponseEntity<Map<String, Object>> rebuildPaymentBalances() {
+        long startTime = System.currentTimeMillis();
+        int rentals = paymentBalanceService.rebuild();
+        Map<String, Object> result = new HashMap<>();
+        result.put("status", "rebuilt");
+        result.put("rentals", rentals);
+        result.put("durationMs", System.currentTimeMillis() - startTime);
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/ledger-outbox")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Muhasebe kuyruğu durumu", description = "Defter ve vergi kaydı bekleyen, işlenen ve hatalı ödeme/fatura olaylarının sayıları")
+    public ResponseEntity<Map<String, Object>> ledgerOutboxStatistics() {
+        return ResponseEntity.ok(ledgerPostingService.getStatistics());
+    }
+
+    @PostMapping("/ledger-outbox/retry")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Hatalı muhasebe olaylarını yeniden dene", description = "Hatalı olayları kuyruğa geri alır ve kuyruğu hemen işler")
+    public ResponseEntity<Map<String, Object>> retryLedgerOutbox() {
+        int requeued = ledgerPostingService.retryFailed();
+        int processed = ledgerPostingService.processPending();
+        Map<String, Object> result = new HashMap<>();
+        result.put("requeued", requeued);
+        result.put("processed", processed);
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/lifecycle-sweeps")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Durum geçişi taramaları", description = "Vadesi geçen fatura, süresi dolan sözleşme ve biten kiralama taramalarının son çalışma sonuçları")
+    public ResponseEntity<List<SweepResultDto>> lifecycleSweepStatus() {
+        return ResponseEntity.ok(lifecycleSweeperService.getStatus());
+    }
+
+    @PostMapping("/lifecycle-sweeps/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Durum geçişi taramalarını çalıştır", description = "Verilen taramayı, ad verilmezse tüm taramaları hemen çalıştırır; yarım kalan tarama kaldığı yerden devam eder")
+    public ResponseEntity<List<SweepResultDto>> runLifecycleSweeps(@RequestParam(required = false) String name) {
+        if (name == null) {
+            return ResponseEntity.ok(lifecycleSweeperService.sweepAll());
+        }
+        return ResponseEntity.ok(List.of(lifecycleSweeperService.sweep(name)));
+    }
 }
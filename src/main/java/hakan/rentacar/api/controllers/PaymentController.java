@@ -2,8 +2,11 @@ package hakan.rentacar.api.controllers;
 
 import hakan.rentacar.entities.dtos.PaymentDto;
 import hakan.rentacar.entities.dtos.PaymentSummaryDto;
+import hakan.rentacar.entities.dtos.RentalBalanceDto;
+import hakan.rentacar.entities.dtos.KeysetPageDto;
 import hakan.rentacar.service.PaymentService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -26,6 +29,16 @@ public class PaymentController {
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Ödemeleri sayfalı listele", description = "(createdDate, id) sırasına göre en yeniden eskiye sayfalı liste döner")
+    public ResponseEntity<KeysetPageDto<PaymentDto>> getPaymentsPage(
+            @Parameter(description = "Önceki sayfanın next değeri") @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        KeysetPageDto<PaymentDto> page = paymentService.getPage(cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/all")
+    @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Tüm ödemeleri listele", description = "Sistem yöneticileri için tüm ödemeleri listeler")
     public ResponseEntity<List<PaymentDto>> getAllPayments() {
         List<PaymentDto> payments = paymentService.getAll();
@@ -140,12 +153,13 @@ public class PaymentController {
     @GetMapping("/rental/{rentalId}/balance")
     @Operation(summary = "Kiralama bakiye bilgisi", description = "Belirli kiralama için kalan bakiye bilgisini getirir")
     public ResponseEntity<BalanceResponse> getRentalBalance(@PathVariable Long rentalId) {
-        BigDecimal totalPaid = paymentService.getTotalPaidForRental(rentalId);
-        BigDecimal remainingBalance = paymentService.getRemainingBalanceForRental(rentalId);
+        RentalBalanceDto balance = paymentService.getRentalBalance(rentalId);
         
         BalanceResponse response = new BalanceResponse();
-        response.setTotalPaid(totalPaid);
-        response.setRemainingBalance(remainingBalance);
+        response.setAmountDue(balance.getAmountDue());
+        response.setTotalPaid(balance.getAmountPaid());
+        response.setTotalRefunded(balance.getAmountRefunded());
+        response.setRemainingBalance(balance.getOutstanding());
         
         return ResponseEntity.ok(response);
     }
@@ -170,9 +184,19 @@ public class PaymentController {
 
     // Response classes
     public static class BalanceResponse {
+        private BigDecimal amountDue;
         private BigDecimal totalPaid;
+        private BigDecimal totalRefunded;
         private BigDecimal remainingBalance;
 
+        public BigDecimal getAmountDue() {
+            return amountDue;
+        }
+
+        public void setAmountDue(BigDecimal amountDue) {
+            this.amountDue = amountDue;
+        }
+
         public BigDecimal getTotalPaid() {
             return totalPaid;
         }
@@ -181,6 +205,14 @@ public class PaymentController {
             this.totalPaid = totalPaid;
         }
 
+        public BigDecimal getTotalRefunded() {
+            return totalRefunded;
+        }
+
+        public void setTotalRefunded(BigDecimal totalRefunded) {
+            this.totalRefunded = totalRefunded;
+        }
+
         public BigDecimal getRemainingBalance() {
             return remainingBalance;
         }
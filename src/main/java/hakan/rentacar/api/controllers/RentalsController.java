@@ -1,6 +1,7 @@
 package hakan.rentacar.api.controllers;
 
 import hakan.rentacar.entities.dtos.RentalDto;
+import hakan.rentacar.entities.dtos.KeysetPageDto;
 import hakan.rentacar.service.RentalService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -30,6 +31,15 @@ public class RentalsController {
     }
 
     @GetMapping()
+    @Operation(summary = "Kiralamaları sayfalı listele", description = "(createdDate, id) sırasına göre en yeniden eskiye sayfalı liste döner")
+    public ResponseEntity<KeysetPageDto<RentalDto>> getPage(
+            @Parameter(description = "Önceki sayfanın next değeri") @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return new ResponseEntity<>(rentalService.getPage(cursor, size), HttpStatus.OK);
+    }
+
+    @GetMapping("/all")
+    @Operation(summary = "Tüm kiralamaları listele", description = "Sayfalamasız tam liste; büyük tablolarda sayfalı listeyi kullanın")
     public ResponseEntity<List<RentalDto>> getAll() {
         return new ResponseEntity<>(rentalService.getAll(), HttpStatus.OK);
     }
@@ -1,6 +1,7 @@
 package hakan.rentacar.api.controllers;
 
 import hakan.rentacar.entities.dtos.ReservationDto;
+import hakan.rentacar.entities.dtos.KeysetPageDto;
 import hakan.rentacar.service.ReservationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -29,6 +30,16 @@ public class ReservationController {
     private ReservationService reservationService;
 
     @GetMapping
+    @Operation(summary = "Rezervasyonları sayfalı listele", description = "(createdDate, id) sırasına göre en yeniden eskiye sayfalı liste döner")
+    public ResponseEntity<KeysetPageDto<ReservationDto>> getPage(
+            @Parameter(description = "Önceki sayfanın next değeri") @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        KeysetPageDto<ReservationDto> page = reservationService.getPage(cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/all")
+    @Operation(summary = "Tüm rezervasyonları listele", description = "Sayfalamasız tam liste; büyük tablolarda sayfalı listeyi kullanın")
     public ResponseEntity<List<ReservationDto>> getAll() {
         List<ReservationDto> reservations = reservationService.getAll();
         return ResponseEntity.ok(reservations);
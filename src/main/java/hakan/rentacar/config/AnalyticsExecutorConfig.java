@@ -0,0 +1,31 @@
+package hakan.rentacar.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class AnalyticsExecutorConfig {
+
+    // Runs the independent dashboard queries in parallel. Kept well below the connection pool size
+    // so a dashboard refresh never takes every connection; overflow runs on the calling thread.
+    @Bean(name = "analyticsExecutor", destroyMethod = "shutdown")
+    public ExecutorService analyticsExecutor(@Value("${analytics.executor.threads:4}") int threads,
+                                             @Value("${analytics.executor.queue-capacity:50}") int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "analytics-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+}
@@ -0,0 +1,60 @@
+package hakan.rentacar.entities.concretes;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Lifetime rental counters of one customer; maintained by CustomerSegmentationService
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "customer_rental_stats")
+public class CustomerRentalStats {
+
+    @Id
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    @Column(name = "rental_count", nullable = false)
+    private Long rentalCount;
+
+    @Column(name = "lifetime_revenue", nullable = false, precision = 14, scale = 2)
+    private BigDecimal lifetimeRevenue;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Segment segment;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public enum Segment {
+        VIP,        // En az 10 kiralama ve 10.000 üzeri gelir
+        REGULAR,    // En az 5 kiralama
+        FREQUENT,   // En az 2 kiralama
+        OCCASIONAL, // 1 kiralama
+        NEW;        // Henüz kiralama yok
+
+        private static final BigDecimal VIP_REVENUE = BigDecimal.valueOf(10000);
+
+        public static Segment of(long rentalCount, BigDecimal lifetimeRevenue) {
+            if (rentalCount >= 10 && lifetimeRevenue.compareTo(VIP_REVENUE) > 0) {
+                return VIP;
+            } else if (rentalCount >= 5) {
+                return REGULAR;
+            } else if (rentalCount >= 2) {
+                return FREQUENT;
+            } else if (rentalCount >= 1) {
+                return OCCASIONAL;
+            }
+            return NEW;
+        }
+    }
+}
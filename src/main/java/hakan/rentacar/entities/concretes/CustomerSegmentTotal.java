@@ -0,0 +1,33 @@
+package hakan.rentacar.entities.concretes;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// Running totals per customer segment, moved together with customer_rental_stats
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "customer_segment_totals")
+public class CustomerSegmentTotal {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private CustomerRentalStats.Segment segment;
+
+    @Column(name = "customer_count", nullable = false)
+    private Long customerCount;
+
+    @Column(name = "total_revenue", nullable = false, precision = 16, scale = 2)
+    private BigDecimal totalRevenue;
+
+    @Column(name = "total_rentals", nullable = false)
+    private Long totalRentals;
+}
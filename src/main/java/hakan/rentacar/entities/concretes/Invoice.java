@@ -13,6 +13,16 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "invoices")
+@NamedEntityGraph(name = "Invoice.details",
+        attributeNodes = {
+                @NamedAttributeNode(value = "rental", subgraph = "rental"),
+                @NamedAttributeNode("customer")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "rental", attributeNodes = @NamedAttributeNode(value = "car", subgraph = "car")),
+                @NamedSubgraph(name = "car", attributeNodes = @NamedAttributeNode(value = "model", subgraph = "model")),
+                @NamedSubgraph(name = "model", attributeNodes = @NamedAttributeNode("brand"))
+        })
 public class Invoice extends BaseEntity {
 
     @NotNull
@@ -0,0 +1,57 @@
+package hakan.rentacar.entities.concretes;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Payment and invoice events waiting for their ledger and tax postings; one row per (event, source),
+// re-queued whenever the source changes
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "ledger_outbox_events",
+        uniqueConstraints = @UniqueConstraint(name = "uk_ledger_outbox_event_source", columnNames = {"event_type", "source_id"}))
+public class LedgerOutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 30)
+    private EventType eventType;
+
+    @Column(name = "source_id", nullable = false)
+    private Long sourceId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    public enum EventType {
+        PAYMENT_CHANGED, // source: payment id; completed, refunded, edited, failed or deleted
+        INVOICE_CHANGED  // source: invoice id; created, sent, paid, edited, cancelled or deleted
+    }
+
+    public enum Status {
+        PENDING, DONE, FAILED
+    }
+}
@@ -0,0 +1,58 @@
+package hakan.rentacar.entities.concretes;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Cumulative debit and credit totals per account up to and including a closed period end
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "ledger_period_closes")
+@IdClass(LedgerPeriodClose.Key.class)
+public class LedgerPeriodClose {
+
+    @Id
+    @Column(name = "period_end", nullable = false)
+    private LocalDateTime periodEnd;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "account_type", nullable = false)
+    private GeneralLedger.AccountType accountType;
+
+    @Id
+    @Column(name = "account_code", nullable = false)
+    private String accountCode;
+
+    @Id
+    @Column(name = "account_name", nullable = false)
+    private String accountName;
+
+    @Column(name = "total_debit", nullable = false, precision = 16, scale = 2)
+    private BigDecimal totalDebit;
+
+    @Column(name = "total_credit", nullable = false, precision = 16, scale = 2)
+    private BigDecimal totalCredit;
+
+    @Column(name = "closed_at")
+    private LocalDateTime closedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDateTime periodEnd;
+        private GeneralLedger.AccountType accountType;
+        private String accountCode;
+        private String accountName;
+    }
+}
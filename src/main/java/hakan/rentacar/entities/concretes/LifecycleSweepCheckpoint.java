@@ -0,0 +1,57 @@
+package hakan.rentacar.entities.concretes;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Progress of one lifecycle sweep; a run interrupted by a crash resumes from lastId and first
+// re-runs the downstream handlers of the chunk in pendingIds
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "lifecycle_sweep_checkpoints")
+public class LifecycleSweepCheckpoint {
+
+    @Id
+    @Column(name = "sweep_name", length = 50)
+    private String sweepName;
+
+    // Highest id moved in the current run; 0 when no run is in progress
+    @Column(name = "last_id", nullable = false)
+    private Long lastId;
+
+    // Comma separated ids of the last committed chunk whose handlers have not finished
+    @Column(name = "pending_ids", columnDefinition = "TEXT")
+    private String pendingIds;
+
+    @Column(name = "run_started_at")
+    private LocalDateTime runStartedAt;
+
+    @Column(name = "run_rows", nullable = false)
+    private Long runRows;
+
+    // Instance running the sweep; others may take over only after lease_until has passed
+    @Column(name = "run_owner", length = 64)
+    private String runOwner;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    @Column(name = "last_completed_at")
+    private LocalDateTime lastCompletedAt;
+
+    @Column(name = "last_rows")
+    private Long lastRows;
+
+    @Column(name = "last_duration_ms")
+    private Long lastDurationMs;
+
+    @Column(name = "last_rows_per_second")
+    private Long lastRowsPerSecond;
+}
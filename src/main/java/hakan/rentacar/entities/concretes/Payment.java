@@ -13,6 +13,16 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "payments")
+@NamedEntityGraph(name = "Payment.details",
+        attributeNodes = {
+                @NamedAttributeNode(value = "rental", subgraph = "rental"),
+                @NamedAttributeNode("customer")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "rental", attributeNodes = @NamedAttributeNode(value = "car", subgraph = "car")),
+                @NamedSubgraph(name = "car", attributeNodes = @NamedAttributeNode(value = "model", subgraph = "model")),
+                @NamedSubgraph(name = "model", attributeNodes = @NamedAttributeNode("brand"))
+        })
 public class Payment extends BaseEntity {
 
     @NotNull
@@ -0,0 +1,42 @@
+package hakan.rentacar.entities.concretes;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Payment balance of one rental; maintained by PaymentBalanceService in the payment write transaction
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "rental_payment_balances")
+public class RentalPaymentBalance {
+
+    @Id
+    @Column(name = "rental_id")
+    private Long rentalId;
+
+    @Column(name = "amount_due", nullable = false, precision = 12, scale = 2)
+    private BigDecimal amountDue;
+
+    // Sum of COMPLETED payments
+    @Column(name = "amount_paid", nullable = false, precision = 12, scale = 2)
+    private BigDecimal amountPaid;
+
+    // Sum of REFUNDED payments as a positive amount
+    @Column(name = "amount_refunded", nullable = false, precision = 12, scale = 2)
+    private BigDecimal amountRefunded;
+
+    // amount_due - amount_paid, same as the former remaining balance calculation
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal outstanding;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -14,6 +14,15 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "reservations")
+@NamedEntityGraph(name = "Reservation.details",
+        attributeNodes = {
+                @NamedAttributeNode(value = "car", subgraph = "car"),
+                @NamedAttributeNode("customer")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "car", attributeNodes = @NamedAttributeNode(value = "model", subgraph = "model")),
+                @NamedSubgraph(name = "model", attributeNodes = @NamedAttributeNode("brand"))
+        })
 public class Reservation extends BaseEntity {
 
     @NotNull
@@ -0,0 +1,61 @@
+package hakan.rentacar.entities.concretes;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Rental revenue per (start day, car, model, brand); maintained by RevenueRollupService
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "revenue_daily_rollup")
+@IdClass(RevenueDailyRollup.Key.class)
+public class RevenueDailyRollup {
+
+    @Id
+    @Column(nullable = false)
+    private LocalDate day;
+
+    @Id
+    @Column(name = "car_id", nullable = false)
+    private Long carId;
+
+    @Id
+    @Column(name = "model_id", nullable = false)
+    private Long modelId;
+
+    @Id
+    @Column(name = "brand_id", nullable = false)
+    private Long brandId;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+
+    @Column(name = "rental_count", nullable = false)
+    private Long rentalCount;
+
+    @Column(name = "rental_days", nullable = false)
+    private Long rentalDays;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate day;
+        private Long carId;
+        private Long modelId;
+        private Long brandId;
+    }
+}
@@ -15,12 +15,11 @@ import java.time.LocalDateTime;
 @Table(name = "tax_calculations")
 public class TaxCalculation extends BaseEntity {
 
-    @NotNull
+    // Either the invoice or the payment the tax was calculated for, never both
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "invoice_id")
     private Invoice invoice;
 
-    @NotNull
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "payment_id")
     private Payment payment;
@@ -30,8 +29,8 @@ public class TaxCalculation extends BaseEntity {
     @Column(name = "tax_type", nullable = false)
     private TaxType taxType;
 
+    // Negative on adjustments that reverse part of an earlier calculation
     @NotNull
-    @DecimalMin(value = "0.0", inclusive = true)
     @Column(name = "taxable_amount", precision = 12, scale = 2, nullable = false)
     private BigDecimal taxableAmount;
 
@@ -42,7 +41,6 @@ public class TaxCalculation extends BaseEntity {
     private BigDecimal taxRate; // 0.18 for 18%
 
     @NotNull
-    @DecimalMin(value = "0.0", inclusive = true)
     @Column(name = "tax_amount", precision = 12, scale = 2, nullable = false)
     private BigDecimal taxAmount;
 
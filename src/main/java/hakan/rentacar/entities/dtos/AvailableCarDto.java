@@ -12,9 +12,8 @@ public class AvailableCarDto {
     private String carPlate;
     private String carBrandName;
     private String carModelName;
+    private Double dailyPrice;
+    private String segment;
+    private String fuelType;
+    private String transmission;
 }
-
-
-
-
-
@@ -0,0 +1,37 @@
+package hakan.rentacar.entities.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceVerificationDto {
+    private LocalDateTime verifiedAt;
+    private Long driftedRentals;
+    private Boolean repaired;
+    private Long durationMs;
+    private List<Drift> drifts; // First drifted rentals only
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Drift {
+        private Long rentalId;
+        private BigDecimal storedAmountDue;
+        private BigDecimal actualAmountDue;
+        private BigDecimal storedAmountPaid;
+        private BigDecimal actualAmountPaid;
+        private BigDecimal storedAmountRefunded;
+        private BigDecimal actualAmountRefunded;
+        private Boolean rentalDeleted; // Stored balance of a rental that no longer exists
+    }
+}
@@ -0,0 +1,13 @@
+package hakan.rentacar.entities.dtos;
+
+import lombok.*;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CarRatingSummaryDto {
+    private Long carId;
+    private Double averageRating;
+    private Long ratingCount;
+}
@@ -0,0 +1,26 @@
+package hakan.rentacar.entities.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CubeResultDto {
+    private List<String> groupBy;
+    private Map<String, List<String>> filters;
+    private List<CubeRowDto> rows;
+    private Integer groupCount; // Before the row limit
+    private BigDecimal totalRevenue;
+    private Long totalRentalDays;
+    private Long totalRentals;
+    private Long scannedRows;
+    private Long elapsedMs;
+}
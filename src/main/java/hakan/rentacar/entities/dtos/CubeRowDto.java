@@ -0,0 +1,20 @@
+package hakan.rentacar.entities.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CubeRowDto {
+    private List<String> keys; // One value per group-by dimension, in request order
+    private BigDecimal revenue;
+    private Long rentalDays;
+    private Long rentalCount;
+}
@@ -7,6 +7,7 @@ import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 @Data
@@ -25,5 +26,8 @@ public class DashboardStatsDto {
     private List<RevenueReportDto> monthlyRevenueData;
     private List<CarAnalyticsDto> topPerformingCars;
     private List<CustomerSegmentDto> customerSegments;
+    // Parts that failed or timed out and show their empty fallback; empty when the dashboard is complete
+    @Builder.Default
+    private List<String> failedParts = new ArrayList<>();
 }
 
@@ -0,0 +1,26 @@
+package hakan.rentacar.entities.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FleetUtilizationDto {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Long carCount;
+    private Long rentedDays;
+    private Long availableDays;
+    private Long maintenanceDays;
+    private BigDecimal utilizationRate; // Percentage
+    private List<UtilizationGroupDto> segments;
+    private List<UtilizationGroupDto> brands;
+}
@@ -0,0 +1,44 @@
+package hakan.rentacar.entities.dtos;
+
+import hakan.rentacar.entities.concretes.GeneralLedger;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// One journal document: its lines share a document number and must balance
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JournalEntryDto {
+    @NotNull
+    private GeneralLedger.TransactionType transactionType;
+
+    private LocalDateTime transactionDate; // Defaults to posting time
+    private String description;
+    private Long referenceId;
+    private String referenceType;
+
+    @NotEmpty
+    private List<@NotNull @Valid Line> lines;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Line {
+        @NotNull
+        private GeneralLedger.AccountType accountType;
+        private BigDecimal debitAmount;
+        private BigDecimal creditAmount;
+        private String description; // Defaults to the document description
+    }
+}
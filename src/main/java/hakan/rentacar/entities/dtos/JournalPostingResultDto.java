@@ -0,0 +1,20 @@
+package hakan.rentacar.entities.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JournalPostingResultDto {
+    private Integer documents;
+    private Integer lines;
+    private List<String> documentNumbers; // In request order
+    private Long durationMs;
+    private Long linesPerSecond;
+}
@@ -0,0 +1,93 @@
+package hakan.rentacar.entities.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+
+/**
+ * Position of the last row of a keyset page: the sort timestamp (createdDate or
+ * transactionDate) plus the id as tie breaker. Sent to clients as "2024-01-15T10:30:00.123_42".
+ * Lists ordered by id alone (available car search) send only the id: "42".
+ */
+@Getter
+@AllArgsConstructor
+public class KeysetCursor {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final char SEPARATOR = '_';
+
+    private final LocalDateTime position;
+    private final Long id;
+
+    public static KeysetCursor of(Date position, Long id) {
+        if (position == null) {
+            throw new IllegalArgumentException("Keyset row " + id + " has no position");
+        }
+        // Hibernate returns Timestamp for Date columns; keep its sub-millisecond part
+        LocalDateTime value = position instanceof Timestamp
+                ? ((Timestamp) position).toLocalDateTime()
+                : new Timestamp(position.getTime()).toLocalDateTime();
+        return new KeysetCursor(value, id);
+    }
+
+    public static KeysetCursor of(LocalDateTime position, Long id) {
+        if (position == null) {
+            throw new IllegalArgumentException("Keyset row " + id + " has no position");
+        }
+        return new KeysetCursor(position, id);
+    }
+
+    public static KeysetCursor ofId(Long id) {
+        return new KeysetCursor(null, id);
+    }
+
+    public static KeysetCursor parse(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        // The timestamp never contains the separator, so the first one ends it
+        int separator = cursor.indexOf(SEPARATOR);
+        if (separator <= 0) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        try {
+            return new KeysetCursor(LocalDateTime.parse(cursor.substring(0, separator)),
+                    Long.parseLong(cursor.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    // Reads a cursor written by ofId; null when there is no cursor
+    public static Long parseId(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public static int pageSize(int requested) {
+        return Math.max(1, Math.min(requested, MAX_PAGE_SIZE));
+    }
+
+    public Date positionAsDate() {
+        return Timestamp.valueOf(position);
+    }
+
+    public String encode() {
+        if (position == null) {
+            return String.valueOf(id);
+        }
+        return position.toString() + SEPARATOR + id;
+    }
+}
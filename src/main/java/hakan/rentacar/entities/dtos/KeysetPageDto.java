@@ -0,0 +1,36 @@
+package hakan.rentacar.entities.dtos;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class KeysetPageDto<T> {
+    private List<T> items;
+    private Integer size;
+    private Boolean hasMore;
+    // Pass as "cursor" to fetch the next page; null when there is no next page
+    private String next;
+
+    /**
+     * Builds a page from rows fetched with a limit of pageSize + 1; the extra row only
+     * tells whether another page exists.
+     */
+    public static <E, T> KeysetPageDto<T> fromRows(List<E> rows, int pageSize,
+                                                   Function<List<E>, List<T>> mapper,
+                                                   Function<E, KeysetCursor> cursorOf) {
+        boolean hasMore = rows.size() > pageSize;
+        List<E> pageRows = hasMore ? rows.subList(0, pageSize) : rows;
+        List<T> items = mapper.apply(pageRows);
+        return KeysetPageDto.<T>builder()
+                .items(items)
+                .size(items.size())
+                .hasMore(hasMore)
+                .next(hasMore ? cursorOf.apply(pageRows.get(pageRows.size() - 1)).encode() : null)
+                .build();
+    }
+}
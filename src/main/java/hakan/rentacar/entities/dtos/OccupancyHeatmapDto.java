@@ -0,0 +1,36 @@
+package hakan.rentacar.entities.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OccupancyHeatmapDto {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Integer days;
+    private Integer carCount;
+    private List<Double> fleetOccupancy; // Percentage per day
+    private Map<String, List<Double>> segmentOccupancy; // Percentage per day per segment
+    private List<CarOccupancyRow> cars;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CarOccupancyRow {
+        private Long carId;
+        private String plate;
+        private String segment;
+        private Integer occupiedDays;
+        private String occupancy; // One character per day: '1' occupied, '0' free
+    }
+}
@@ -0,0 +1,20 @@
+package hakan.rentacar.entities.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RentalBalanceDto {
+    private Long rentalId;
+    private BigDecimal amountDue;
+    private BigDecimal amountPaid;
+    private BigDecimal amountRefunded;
+    private BigDecimal outstanding;
+}
@@ -0,0 +1,30 @@
+package hakan.rentacar.entities.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RentalDistributionDto {
+    private LocalDate startDate; // Rental start day range, null = all
+    private LocalDate endDate;
+    private Long carId;
+    private Boolean approximate;
+    private Long rentalCount;
+    private Long distinctCustomers;
+    private BigDecimal distinctCustomersErrorRate; // Standard error (%) of the approximate count, 0 when exact
+    private BigDecimal averageDuration; // Days
+    private BigDecimal durationP50;
+    private BigDecimal durationP90;
+    private BigDecimal durationP99;
+    private BigDecimal revenueP50; // Revenue per rental
+    private BigDecimal revenueP90;
+    private BigDecimal revenueP99;
+}
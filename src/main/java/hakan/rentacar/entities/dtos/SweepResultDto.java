@@ -0,0 +1,23 @@
+package hakan.rentacar.entities.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SweepResultDto {
+    private String sweep;
+    private LocalDateTime completedAt;
+    private Long rows;          // Whole run, including chunks committed before a resume
+    private Integer chunks;
+    private Long durationMs;
+    private Long rowsPerSecond;
+    private Boolean resumed;    // Continued a run interrupted by a crash
+    private Boolean inProgress; // Status only: an interrupted run waits for the next sweep
+}
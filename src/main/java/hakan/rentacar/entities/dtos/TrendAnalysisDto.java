@@ -18,5 +18,13 @@ public class TrendAnalysisDto {
     private Long rentalCount;
     private BigDecimal growthRate; // Percentage compared to previous period
     private String trend; // UP, DOWN, STABLE
+    // Daily granularity only
+    private BigDecimal movingAverage7;
+    private BigDecimal movingAverage30;
+    private BigDecimal ewma; // Exponentially weighted average
+    private BigDecimal weekOverWeek; // Last 7 days vs previous 7 days (%)
+    private BigDecimal yearOverYear; // Last 7 days vs same days 52 weeks earlier (%)
+    private Double zScore; // Against the previous 30 days
+    private Boolean anomaly;
 }
 
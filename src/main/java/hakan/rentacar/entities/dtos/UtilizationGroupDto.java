@@ -0,0 +1,21 @@
+package hakan.rentacar.entities.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UtilizationGroupDto {
+    private String name; // Segment or brand
+    private Long carCount;
+    private Long rentedDays;
+    private Long availableDays;
+    private Long maintenanceDays;
+    private BigDecimal utilizationRate; // Percentage
+}
@@ -35,7 +35,9 @@ public class RequestLoggingFilter extends OncePerRequestFilter {
         long startTime = System.currentTimeMillis();
         
         ContentCachingRequestWrapper wrappedRequest = new ContentCachingRequestWrapper(request);
-        ContentCachingResponseWrapper wrappedResponse = new ContentCachingResponseWrapper(response);
+        // Streaming exports are written straight through; caching them would hold the whole file in memory
+        boolean streaming = request.getRequestURI().startsWith("/api/exports/");
+        ContentCachingResponseWrapper wrappedResponse = streaming ? null : new ContentCachingResponseWrapper(response);
         
         try {
             // Log incoming request
@@ -45,7 +47,7 @@ public class RequestLoggingFilter extends OncePerRequestFilter {
                     request.getHeaderNames(),
                     request.getHeader("User-Agent"));
             
-            filterChain.doFilter(wrappedRequest, wrappedResponse);
+            filterChain.doFilter(wrappedRequest, streaming ? response : wrappedResponse);
             
         } finally {
             long duration = System.currentTimeMillis() - startTime;
@@ -54,10 +56,12 @@ public class RequestLoggingFilter extends OncePerRequestFilter {
             logger.info("OUTGOING RESPONSE - Status: {}, Duration: {}ms, Size: {} bytes", 
                     response.getStatus(), 
                     duration,
-                    wrappedResponse.getContentSize());
+                    streaming ? -1 : wrappedResponse.getContentSize());
             
             // Copy response body back to original response
-            wrappedResponse.copyBodyToResponse();
+            if (!streaming) {
+                wrappedResponse.copyBodyToResponse();
+            }
             
             // Clear MDC
             MDC.clear();
@@ -0,0 +1,75 @@
+package hakan.rentacar.mappers;
+
+import hakan.rentacar.entities.concretes.AuditLog;
+import hakan.rentacar.entities.dtos.AuditLogDto;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+@Component
+public class AuditLogMapper {
+
+    public AuditLogDto toDto(AuditLog auditLog) {
+        AuditLogDto dto = new AuditLogDto();
+        dto.setId(auditLog.getId());
+        dto.setEntityName(auditLog.getEntityName());
+        dto.setEntityId(auditLog.getEntityId());
+        dto.setActionType(auditLog.getActionType());
+        if (auditLog.getActionType() != null) {
+            dto.setActionTypeDisplayName(auditLog.getActionType().getDisplayName());
+        }
+        dto.setUserId(auditLog.getUserId());
+        dto.setUsername(auditLog.getUsername());
+        dto.setUserEmail(auditLog.getUserEmail());
+        dto.setIpAddress(auditLog.getIpAddress());
+        dto.setUserAgent(auditLog.getUserAgent());
+        dto.setRequestMethod(auditLog.getRequestMethod());
+        dto.setRequestUrl(auditLog.getRequestUrl());
+        dto.setOldValues(auditLog.getOldValues());
+        dto.setNewValues(auditLog.getNewValues());
+        dto.setChangedFields(auditLog.getChangedFields());
+        dto.setSessionId(auditLog.getSessionId());
+        dto.setOperationResult(auditLog.getOperationResult());
+        dto.setErrorMessage(auditLog.getErrorMessage());
+        dto.setExecutionTimeMs(auditLog.getExecutionTimeMs());
+        dto.setTimestamp(auditLog.getTimestamp());
+        dto.setAdditionalInfo(auditLog.getAdditionalInfo());
+        dto.setCreatedBy(auditLog.getCreatedBy());
+        dto.setCreatedDate(toDate(auditLog.getCreatedDate()));
+        dto.setUpdateBy(auditLog.getUpdateBy());
+        dto.setUpdateDate(toDate(auditLog.getUpdateDate()));
+        return dto;
+    }
+
+    // Audit columns (created/updated) are maintained by the auditing listener
+    public AuditLog toEntity(AuditLogDto dto) {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setId(dto.getId());
+        auditLog.setEntityName(dto.getEntityName());
+        auditLog.setEntityId(dto.getEntityId());
+        auditLog.setActionType(dto.getActionType());
+        auditLog.setUserId(dto.getUserId());
+        auditLog.setUsername(dto.getUsername());
+        auditLog.setUserEmail(dto.getUserEmail());
+        auditLog.setIpAddress(dto.getIpAddress());
+        auditLog.setUserAgent(dto.getUserAgent());
+        auditLog.setRequestMethod(dto.getRequestMethod());
+        auditLog.setRequestUrl(dto.getRequestUrl());
+        auditLog.setOldValues(dto.getOldValues());
+        auditLog.setNewValues(dto.getNewValues());
+        auditLog.setChangedFields(dto.getChangedFields());
+        auditLog.setSessionId(dto.getSessionId());
+        auditLog.setOperationResult(dto.getOperationResult());
+        auditLog.setErrorMessage(dto.getErrorMessage());
+        auditLog.setExecutionTimeMs(dto.getExecutionTimeMs());
+        auditLog.setTimestamp(dto.getTimestamp());
+        auditLog.setAdditionalInfo(dto.getAdditionalInfo());
+        return auditLog;
+    }
+
+    private Date toDate(LocalDateTime value) {
+        return value != null ? Date.from(value.atZone(ZoneId.systemDefault()).toInstant()) : null;
+    }
+}
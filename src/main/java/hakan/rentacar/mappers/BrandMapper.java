@@ -0,0 +1,23 @@
+package hakan.rentacar.mappers;
+
+import hakan.rentacar.entities.concretes.Brand;
+import hakan.rentacar.entities.dtos.BrandDto;
+import org.springframework.stereotype.Component;
+
+@Component
+public class BrandMapper {
+
+    public BrandDto toDto(Brand brand) {
+        BrandDto dto = new BrandDto();
+        dto.setId(brand.getId());
+        dto.setName(brand.getName());
+        return dto;
+    }
+
+    public Brand toEntity(BrandDto dto) {
+        Brand brand = new Brand();
+        brand.setId(dto.getId());
+        brand.setName(dto.getName());
+        return brand;
+    }
+}
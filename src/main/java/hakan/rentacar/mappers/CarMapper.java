@@ -0,0 +1,95 @@
+package hakan.rentacar.mappers;
+
+import hakan.rentacar.entities.concretes.Car;
+import hakan.rentacar.entities.concretes.MaintenanceRecord;
+import hakan.rentacar.entities.dtos.CarDto;
+import hakan.rentacar.entities.dtos.MaintenanceRecordDto;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+public class CarMapper {
+
+    // Rating fields are filled by the service
+    public CarDto toDto(Car car) {
+        CarDto dto = new CarDto();
+        dto.setId(car.getId());
+        dto.setPlate(car.getPlate());
+        dto.setDailyPrice(car.getDailyPrice());
+        dto.setModelYear(car.getModelYear());
+        dto.setState(car.getState());
+        if (car.getModel() != null) {
+            dto.setModelId(car.getModel().getId());
+            dto.setModelName(car.getModel().getName());
+            if (car.getModel().getBrand() != null) {
+                dto.setBrandName(car.getModel().getBrand().getName());
+            }
+        }
+        dto.setMileage(car.getMileage());
+        dto.setFuelType(car.getFuelType());
+        dto.setTransmission(car.getTransmission());
+        dto.setSegment(car.getSegment());
+        dto.setColor(car.getColor());
+        dto.setFeatures(copyOf(car.getFeatures()));
+        dto.setImages(copyOf(car.getImages()));
+        dto.setLastMaintenanceDate(car.getLastMaintenanceDate());
+        dto.setNextMaintenanceDate(car.getNextMaintenanceDate());
+        if (car.getMaintenanceHistory() != null) {
+            List<MaintenanceRecordDto> maintenanceHistory = new ArrayList<>(car.getMaintenanceHistory().size());
+            for (MaintenanceRecord record : car.getMaintenanceHistory()) {
+                maintenanceHistory.add(toMaintenanceRecordDto(record));
+            }
+            dto.setMaintenanceHistory(maintenanceHistory);
+        }
+        dto.setInsuranceExpiryDate(car.getInsuranceExpiryDate());
+        dto.setInsuranceCompany(car.getInsuranceCompany());
+        dto.setGpsLatitude(car.getGpsLatitude());
+        dto.setGpsLongitude(car.getGpsLongitude());
+        dto.setLastLocationUpdate(car.getLastLocationUpdate());
+        return dto;
+    }
+
+    // Model relationship is resolved by the service; maintenance records are managed through their own endpoints
+    public Car toEntity(CarDto dto) {
+        Car car = new Car();
+        car.setId(dto.getId());
+        car.setPlate(dto.getPlate());
+        car.setDailyPrice(dto.getDailyPrice());
+        car.setModelYear(dto.getModelYear());
+        car.setState(dto.getState());
+        car.setMileage(dto.getMileage());
+        car.setFuelType(dto.getFuelType());
+        car.setTransmission(dto.getTransmission());
+        car.setSegment(dto.getSegment());
+        car.setColor(dto.getColor());
+        car.setFeatures(copyOf(dto.getFeatures()));
+        car.setImages(copyOf(dto.getImages()));
+        car.setLastMaintenanceDate(dto.getLastMaintenanceDate());
+        car.setNextMaintenanceDate(dto.getNextMaintenanceDate());
+        car.setInsuranceExpiryDate(dto.getInsuranceExpiryDate());
+        car.setInsuranceCompany(dto.getInsuranceCompany());
+        car.setGpsLatitude(dto.getGpsLatitude());
+        car.setGpsLongitude(dto.getGpsLongitude());
+        car.setLastLocationUpdate(dto.getLastLocationUpdate());
+        return car;
+    }
+
+    public MaintenanceRecordDto toMaintenanceRecordDto(MaintenanceRecord record) {
+        MaintenanceRecordDto dto = new MaintenanceRecordDto();
+        dto.setId(record.getId());
+        dto.setCarId(record.getCar().getId());
+        dto.setMaintenanceDate(record.getMaintenanceDate());
+        dto.setType(record.getType());
+        dto.setDescription(record.getDescription());
+        dto.setCost(record.getCost());
+        dto.setMileage(record.getMileage());
+        dto.setServiceProvider(record.getServiceProvider());
+        return dto;
+    }
+
+    private List<String> copyOf(List<String> values) {
+        return values != null ? new ArrayList<>(values) : null;
+    }
+}
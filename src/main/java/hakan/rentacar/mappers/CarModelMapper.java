@@ -0,0 +1,28 @@
+package hakan.rentacar.mappers;
+
+import hakan.rentacar.entities.concretes.Model;
+import hakan.rentacar.entities.dtos.ModelDto;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CarModelMapper {
+
+    public ModelDto toDto(Model model) {
+        ModelDto dto = new ModelDto();
+        dto.setId(model.getId());
+        dto.setName(model.getName());
+        if (model.getBrand() != null) {
+            dto.setBrandId(model.getBrand().getId());
+            dto.setBrandName(model.getBrand().getName());
+        }
+        return dto;
+    }
+
+    // Brand relationship is resolved by the service
+    public Model toEntity(ModelDto dto) {
+        Model model = new Model();
+        model.setId(dto.getId());
+        model.setName(dto.getName());
+        return model;
+    }
+}
@@ -0,0 +1,64 @@
+package hakan.rentacar.mappers;
+
+import hakan.rentacar.entities.concretes.Contract;
+import hakan.rentacar.entities.dtos.ContractDto;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ContractMapper {
+
+    // Only relationship ids are copied so lazy associations stay uninitialized
+    public ContractDto toDto(Contract contract) {
+        ContractDto dto = new ContractDto();
+        dto.setId(contract.getId());
+        if (contract.getRental() != null) {
+            dto.setRentalId(contract.getRental().getId());
+        }
+        if (contract.getCustomer() != null) {
+            dto.setCustomerId(contract.getCustomer().getId());
+        }
+        if (contract.getTemplate() != null) {
+            dto.setTemplateId(contract.getTemplate().getId());
+        }
+        dto.setContractNumber(contract.getContractNumber());
+        dto.setSignedDate(contract.getSignedDate());
+        dto.setSignedAt(contract.getSignedAt());
+        dto.setStatus(contract.getStatus());
+        dto.setTerms(contract.getTerms());
+        dto.setConditions(contract.getConditions());
+        dto.setCustomerSignature(contract.getCustomerSignature());
+        dto.setCompanySignature(contract.getCompanySignature());
+        dto.setSignedBy(contract.getSignedBy());
+        dto.setESignatureVerifiedAt(contract.getESignatureVerifiedAt());
+        dto.setESignatureHash(contract.getESignatureHash());
+        dto.setPdfPath(contract.getPdfPath());
+        dto.setWitnessName(contract.getWitnessName());
+        dto.setExpiryDate(contract.getExpiryDate());
+        dto.setNotes(contract.getNotes());
+        return dto;
+    }
+
+    // Rental, customer and template relationships are resolved by the service
+    public Contract toEntity(ContractDto dto) {
+        Contract contract = new Contract();
+        contract.setId(dto.getId());
+        contract.setContractNumber(dto.getContractNumber());
+        contract.setSignedDate(dto.getSignedDate());
+        contract.setSignedAt(dto.getSignedAt());
+        if (dto.getStatus() != null) {
+            contract.setStatus(dto.getStatus());
+        }
+        contract.setTerms(dto.getTerms());
+        contract.setConditions(dto.getConditions());
+        contract.setCustomerSignature(dto.getCustomerSignature());
+        contract.setCompanySignature(dto.getCompanySignature());
+        contract.setSignedBy(dto.getSignedBy());
+        contract.setESignatureVerifiedAt(dto.getESignatureVerifiedAt());
+        contract.setESignatureHash(dto.getESignatureHash());
+        contract.setPdfPath(dto.getPdfPath());
+        contract.setWitnessName(dto.getWitnessName());
+        contract.setExpiryDate(dto.getExpiryDate());
+        contract.setNotes(dto.getNotes());
+        return contract;
+    }
+}
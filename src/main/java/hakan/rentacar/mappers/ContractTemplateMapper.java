@@ -0,0 +1,45 @@
+package hakan.rentacar.mappers;
+
+import hakan.rentacar.entities.concretes.ContractTemplate;
+import hakan.rentacar.entities.dtos.ContractTemplateDto;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ContractTemplateMapper {
+
+    public ContractTemplateDto toDto(ContractTemplate template) {
+        ContractTemplateDto dto = new ContractTemplateDto();
+        dto.setId(template.getId());
+        dto.setName(template.getName());
+        dto.setDescription(template.getDescription());
+        dto.setTemplateKey(template.getTemplateKey());
+        dto.setContent(template.getContent());
+        dto.setIsActive(template.getIsActive());
+        dto.setIsDefault(template.getIsDefault());
+        dto.setVersion(template.getVersion());
+        dto.setVariables(template.getVariables());
+        dto.setLastUsedAt(template.getLastUsedAt());
+        dto.setUsageCount(template.getUsageCount());
+        return dto;
+    }
+
+    public ContractTemplate toEntity(ContractTemplateDto dto) {
+        ContractTemplate template = new ContractTemplate();
+        template.setId(dto.getId());
+        template.setName(dto.getName());
+        template.setDescription(dto.getDescription());
+        template.setTemplateKey(dto.getTemplateKey());
+        template.setContent(dto.getContent());
+        if (dto.getIsActive() != null) {
+            template.setIsActive(dto.getIsActive());
+        }
+        if (dto.getIsDefault() != null) {
+            template.setIsDefault(dto.getIsDefault());
+        }
+        template.setVersion(dto.getVersion());
+        template.setVariables(dto.getVariables());
+        template.setLastUsedAt(dto.getLastUsedAt());
+        template.setUsageCount(dto.getUsageCount());
+        return template;
+    }
+}
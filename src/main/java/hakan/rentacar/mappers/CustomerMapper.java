@@ -0,0 +1,41 @@
+package hakan.rentacar.mappers;
+
+import hakan.rentacar.entities.concretes.Customer;
+import hakan.rentacar.entities.dtos.CustomerDto;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CustomerMapper {
+
+    public CustomerDto toDto(Customer customer) {
+        CustomerDto dto = new CustomerDto();
+        dto.setId(customer.getId());
+        dto.setFirstName(customer.getFirstName());
+        dto.setLastName(customer.getLastName());
+        dto.setStreet(customer.getStreet());
+        dto.setZipcode(customer.getZipcode());
+        dto.setCity(customer.getCity());
+        dto.setPhone(customer.getPhone());
+        dto.setEmail(customer.getEmail());
+        dto.setDateOfBirth(customer.getDateOfBirth());
+        dto.setIdNumber(customer.getIdNumber());
+        dto.setDriverLicenseNumber(customer.getDriverLicenseNumber());
+        return dto;
+    }
+
+    public Customer toEntity(CustomerDto dto) {
+        Customer customer = new Customer();
+        customer.setId(dto.getId());
+        customer.setFirstName(dto.getFirstName());
+        customer.setLastName(dto.getLastName());
+        customer.setStreet(dto.getStreet());
+        customer.setZipcode(dto.getZipcode());
+        customer.setCity(dto.getCity());
+        customer.setPhone(dto.getPhone());
+        customer.setEmail(dto.getEmail());
+        customer.setDateOfBirth(dto.getDateOfBirth());
+        customer.setIdNumber(dto.getIdNumber());
+        customer.setDriverLicenseNumber(dto.getDriverLicenseNumber());
+        return customer;
+    }
+}
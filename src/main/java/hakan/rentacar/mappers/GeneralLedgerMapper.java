@@ -0,0 +1,56 @@
+package hakan.rentacar.mappers;
+
+import hakan.rentacar.entities.concretes.GeneralLedger;
+import hakan.rentacar.entities.dtos.GeneralLedgerDto;
+import org.springframework.stereotype.Component;
+
+@Component
+public class GeneralLedgerMapper {
+
+    // Running balance and related entity info are filled by callers that need them
+    public GeneralLedgerDto toDto(GeneralLedger ledger) {
+        GeneralLedgerDto dto = new GeneralLedgerDto();
+        dto.setId(ledger.getId());
+        dto.setTransactionType(ledger.getTransactionType());
+        dto.setAccountType(ledger.getAccountType());
+        dto.setAccountCode(ledger.getAccountCode());
+        dto.setAccountName(ledger.getAccountName());
+        dto.setTransactionDate(ledger.getTransactionDate());
+        dto.setDescription(ledger.getDescription());
+        dto.setDebitAmount(ledger.getDebitAmount());
+        dto.setCreditAmount(ledger.getCreditAmount());
+        dto.setReferenceId(ledger.getReferenceId());
+        dto.setReferenceType(ledger.getReferenceType());
+        dto.setDocumentNumber(ledger.getDocumentNumber());
+        dto.setReconciled(ledger.getReconciled());
+        dto.setReconciledAt(ledger.getReconciledAt());
+        dto.setTransactionTypeDisplayName(ledger.getTransactionType().getDisplayName());
+        dto.setAccountTypeDisplayName(ledger.getAccountType().getDisplayName());
+        return dto;
+    }
+
+    public GeneralLedger toEntity(GeneralLedgerDto dto) {
+        GeneralLedger ledger = new GeneralLedger();
+        ledger.setId(dto.getId());
+        ledger.setTransactionType(dto.getTransactionType());
+        ledger.setAccountType(dto.getAccountType());
+        ledger.setAccountCode(dto.getAccountCode());
+        ledger.setAccountName(dto.getAccountName());
+        ledger.setTransactionDate(dto.getTransactionDate());
+        ledger.setDescription(dto.getDescription());
+        if (dto.getDebitAmount() != null) {
+            ledger.setDebitAmount(dto.getDebitAmount());
+        }
+        if (dto.getCreditAmount() != null) {
+            ledger.setCreditAmount(dto.getCreditAmount());
+        }
+        ledger.setReferenceId(dto.getReferenceId());
+        ledger.setReferenceType(dto.getReferenceType());
+        ledger.setDocumentNumber(dto.getDocumentNumber());
+        if (dto.getReconciled() != null) {
+            ledger.setReconciled(dto.getReconciled());
+        }
+        ledger.setReconciledAt(dto.getReconciledAt());
+        return ledger;
+    }
+}
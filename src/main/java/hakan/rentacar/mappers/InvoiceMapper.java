@@ -0,0 +1,94 @@
+package hakan.rentacar.mappers;
+
+import hakan.rentacar.entities.concretes.Car;
+import hakan.rentacar.entities.concretes.Invoice;
+import hakan.rentacar.entities.concretes.Rental;
+import hakan.rentacar.entities.dtos.InvoiceDto;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+@Component
+public class InvoiceMapper {
+
+    public InvoiceDto toDto(Invoice invoice) {
+        InvoiceDto dto = new InvoiceDto();
+        dto.setId(invoice.getId());
+        dto.setInvoiceNumber(invoice.getInvoiceNumber());
+        dto.setIssueDate(invoice.getIssueDate());
+        dto.setDueDate(invoice.getDueDate());
+        dto.setSubtotal(invoice.getSubtotal());
+        dto.setTaxRate(invoice.getTaxRate());
+        dto.setTaxAmount(invoice.getTaxAmount());
+        dto.setTotalAmount(invoice.getTotalAmount());
+        dto.setStatus(invoice.getStatus());
+        dto.setPaidAt(invoice.getPaidAt());
+        dto.setPaymentTerms(invoice.getPaymentTerms());
+        dto.setNotes(invoice.getNotes());
+        dto.setReferenceNumber(invoice.getReferenceNumber());
+
+        if (invoice.getCustomer() != null) {
+            dto.setCustomerId(invoice.getCustomer().getId());
+            dto.setCustomerName(invoice.getCustomer().getFirstName() + " " + invoice.getCustomer().getLastName());
+            dto.setCustomerEmail(invoice.getCustomer().getEmail());
+            // Construct address from available fields
+            String address = String.format("%s, %d %s",
+                invoice.getCustomer().getStreet(),
+                invoice.getCustomer().getZipcode(),
+                invoice.getCustomer().getCity());
+            dto.setCustomerAddress(address);
+        }
+
+        Rental rental = invoice.getRental();
+        if (rental != null) {
+            dto.setRentalId(rental.getId());
+            dto.setRentalStartDate(rental.getStart().atStartOfDay());
+            dto.setRentalEndDate(rental.getEnd().atStartOfDay());
+            dto.setRentalDays(ChronoUnit.DAYS.between(rental.getStart(), rental.getEnd()) + 1);
+
+            Car car = rental.getCar();
+            if (car != null) {
+                dto.setCarPlate(car.getPlate());
+                if (car.getModel() != null) {
+                    dto.setCarModelName(car.getModel().getName());
+                    if (car.getModel().getBrand() != null) {
+                        dto.setCarBrandName(car.getModel().getBrand().getName());
+                    }
+                }
+            }
+        }
+
+        dto.setStatusDisplayName(invoice.getStatus().getDisplayName());
+
+        // Due date info
+        if (invoice.getDueDate() != null) {
+            long daysUntilDue = ChronoUnit.DAYS.between(LocalDateTime.now(), invoice.getDueDate());
+            dto.setDaysUntilDue(daysUntilDue);
+            dto.setDaysOverdue(Math.max(0, -daysUntilDue));
+            dto.setIsOverdue(daysUntilDue < 0 && invoice.getStatus().equals(Invoice.InvoiceStatus.SENT));
+        }
+        return dto;
+    }
+
+    // Rental and customer relationships are resolved by the service
+    public Invoice toEntity(InvoiceDto dto) {
+        Invoice invoice = new Invoice();
+        invoice.setId(dto.getId());
+        invoice.setInvoiceNumber(dto.getInvoiceNumber());
+        invoice.setIssueDate(dto.getIssueDate());
+        invoice.setDueDate(dto.getDueDate());
+        invoice.setSubtotal(dto.getSubtotal());
+        invoice.setTaxRate(dto.getTaxRate());
+        invoice.setTaxAmount(dto.getTaxAmount());
+        invoice.setTotalAmount(dto.getTotalAmount());
+        if (dto.getStatus() != null) {
+            invoice.setStatus(dto.getStatus());
+        }
+        invoice.setPaidAt(dto.getPaidAt());
+        invoice.setPaymentTerms(dto.getPaymentTerms());
+        invoice.setNotes(dto.getNotes());
+        invoice.setReferenceNumber(dto.getReferenceNumber());
+        return invoice;
+    }
+}
@@ -0,0 +1,53 @@
+package hakan.rentacar.mappers;
+
+import hakan.rentacar.entities.concretes.Notification;
+import hakan.rentacar.entities.dtos.NotificationDto;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneId;
+
+@Component
+public class NotificationMapper {
+
+    public NotificationDto toDto(Notification notification) {
+        NotificationDto dto = new NotificationDto();
+        dto.setId(notification.getId());
+        dto.setTitle(notification.getTitle());
+        dto.setMessage(notification.getMessage());
+        dto.setType(notification.getType());
+        dto.setStatus(notification.getStatus());
+        dto.setChannel(notification.getChannel());
+        dto.setSentAt(notification.getSentAt());
+        dto.setReadAt(notification.getReadAt());
+        dto.setRelatedEntityType(notification.getRelatedEntityType());
+        dto.setRelatedEntityId(notification.getRelatedEntityId());
+        // BaseEntity uses Date, convert to LocalDateTime
+        if (notification.getCreatedDate() != null) {
+            dto.setCreatedAt(notification.getCreatedDate().toInstant()
+                .atZone(ZoneId.systemDefault())
+                .toLocalDateTime());
+        }
+
+        if (notification.getCustomer() != null) {
+            dto.setCustomerId(notification.getCustomer().getId());
+            dto.setCustomerName(notification.getCustomer().getFirstName() + " " + notification.getCustomer().getLastName());
+        }
+        return dto;
+    }
+
+    // Customer relationship is resolved by the service; createdAt is managed by BaseEntity
+    public Notification toEntity(NotificationDto dto) {
+        Notification notification = new Notification();
+        notification.setId(dto.getId());
+        notification.setTitle(dto.getTitle());
+        notification.setMessage(dto.getMessage());
+        notification.setType(dto.getType());
+        notification.setStatus(dto.getStatus());
+        notification.setChannel(dto.getChannel());
+        notification.setSentAt(dto.getSentAt());
+        notification.setReadAt(dto.getReadAt());
+        notification.setRelatedEntityType(dto.getRelatedEntityType());
+        notification.setRelatedEntityId(dto.getRelatedEntityId());
+        return notification;
+    }
+}
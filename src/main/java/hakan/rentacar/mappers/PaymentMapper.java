@@ -0,0 +1,74 @@
+package hakan.rentacar.mappers;
+
+import hakan.rentacar.entities.concretes.Car;
+import hakan.rentacar.entities.concretes.Payment;
+import hakan.rentacar.entities.dtos.PaymentDto;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+@Component
+public class PaymentMapper {
+
+    public PaymentDto toDto(Payment payment) {
+        PaymentDto dto = new PaymentDto();
+        dto.setId(payment.getId());
+        dto.setAmount(payment.getAmount());
+        dto.setMethod(payment.getMethod());
+        dto.setStatus(payment.getStatus());
+        dto.setPaidAt(payment.getPaidAt());
+        dto.setDueDate(payment.getDueDate());
+        dto.setTransactionId(payment.getTransactionId());
+        dto.setPaymentReference(payment.getPaymentReference());
+        dto.setNotes(payment.getNotes());
+
+        if (payment.getCustomer() != null) {
+            dto.setCustomerId(payment.getCustomer().getId());
+            dto.setCustomerName(payment.getCustomer().getFirstName() + " " + payment.getCustomer().getLastName());
+            dto.setCustomerEmail(payment.getCustomer().getEmail());
+        }
+
+        if (payment.getRental() != null) {
+            dto.setRentalId(payment.getRental().getId());
+            Car car = payment.getRental().getCar();
+            if (car != null) {
+                dto.setCarPlate(car.getPlate());
+                if (car.getModel() != null) {
+                    dto.setCarModelName(car.getModel().getName());
+                    if (car.getModel().getBrand() != null) {
+                        dto.setCarBrandName(car.getModel().getBrand().getName());
+                    }
+                }
+            }
+        }
+
+        dto.setMethodDisplayName(payment.getMethod().getDisplayName());
+        dto.setStatusDisplayName(payment.getStatus().getDisplayName());
+
+        // Due date info
+        if (payment.getDueDate() != null) {
+            long daysUntilDue = ChronoUnit.DAYS.between(LocalDateTime.now(), payment.getDueDate());
+            dto.setDaysUntilDue(daysUntilDue);
+            dto.setIsOverdue(daysUntilDue < 0 && payment.getStatus().equals(Payment.PaymentStatus.PENDING));
+        }
+        return dto;
+    }
+
+    // Rental and customer relationships are resolved by the service
+    public Payment toEntity(PaymentDto dto) {
+        Payment payment = new Payment();
+        payment.setId(dto.getId());
+        payment.setAmount(dto.getAmount());
+        payment.setMethod(dto.getMethod());
+        if (dto.getStatus() != null) {
+            payment.setStatus(dto.getStatus());
+        }
+        payment.setPaidAt(dto.getPaidAt());
+        payment.setDueDate(dto.getDueDate());
+        payment.setTransactionId(dto.getTransactionId());
+        payment.setPaymentReference(dto.getPaymentReference());
+        payment.setNotes(dto.getNotes());
+        return payment;
+    }
+}
@@ -0,0 +1,54 @@
+package hakan.rentacar.mappers;
+
+import hakan.rentacar.entities.concretes.RentalDocument;
+import hakan.rentacar.entities.dtos.RentalDocumentDto;
+import org.springframework.stereotype.Component;
+
+@Component
+public class RentalDocumentMapper {
+
+    // Only the rental id is copied so the lazy association stays uninitialized
+    public RentalDocumentDto toDto(RentalDocument document) {
+        RentalDocumentDto dto = new RentalDocumentDto();
+        dto.setId(document.getId());
+        if (document.getRental() != null) {
+            dto.setRentalId(document.getRental().getId());
+        }
+        dto.setFileName(document.getFileName());
+        dto.setFileType(document.getFileType());
+        dto.setFileSize(document.getFileSize());
+        dto.setFilePath(document.getFilePath());
+        dto.setDocumentType(document.getDocumentType());
+        dto.setDescription(document.getDescription());
+        dto.setUploadedAt(document.getUploadedAt());
+        dto.setUploadedBy(document.getUploadedBy());
+        dto.setThumbnailPath(document.getThumbnailPath());
+        dto.setIsVerified(document.getIsVerified());
+        dto.setVerifiedAt(document.getVerifiedAt());
+        dto.setVerifiedBy(document.getVerifiedBy());
+        dto.setMetadata(document.getMetadata());
+        return dto;
+    }
+
+    // Rental relationship is resolved by the service
+    public RentalDocument toEntity(RentalDocumentDto dto) {
+        RentalDocument document = new RentalDocument();
+        document.setId(dto.getId());
+        document.setFileName(dto.getFileName());
+        document.setFileType(dto.getFileType());
+        document.setFileSize(dto.getFileSize());
+        document.setFilePath(dto.getFilePath());
+        document.setDocumentType(dto.getDocumentType());
+        document.setDescription(dto.getDescription());
+        document.setUploadedAt(dto.getUploadedAt());
+        document.setUploadedBy(dto.getUploadedBy());
+        document.setThumbnailPath(dto.getThumbnailPath());
+        if (dto.getIsVerified() != null) {
+            document.setIsVerified(dto.getIsVerified());
+        }
+        document.setVerifiedAt(dto.getVerifiedAt());
+        document.setVerifiedBy(dto.getVerifiedBy());
+        document.setMetadata(dto.getMetadata());
+        return document;
+    }
+}
@@ -0,0 +1,67 @@
+package hakan.rentacar.mappers;
+
+import hakan.rentacar.entities.concretes.Car;
+import hakan.rentacar.entities.concretes.Rental;
+import hakan.rentacar.entities.dtos.RentalDto;
+import org.springframework.stereotype.Component;
+
+import java.time.temporal.ChronoUnit;
+
+@Component
+public class RentalMapper {
+
+    // canRate / isRated are filled by the service
+    public RentalDto toDto(Rental rental) {
+        RentalDto dto = new RentalDto();
+        dto.setId(rental.getId());
+        dto.setStart(rental.getStart());
+        dto.setEnd(rental.getEnd());
+        dto.setExtraCosts(rental.getExtraCosts());
+        dto.setNote(rental.getNote());
+        dto.setStatus(rental.getStatus());
+        dto.setTotalAmount(rental.getTotalAmount());
+        dto.setSpecialRequests(rental.getSpecialRequests());
+        dto.setConfirmedAt(rental.getConfirmedAt());
+        dto.setCancelledAt(rental.getCancelledAt());
+
+        Car car = rental.getCar();
+        dto.setCarId(car.getId());
+        dto.setCarPlate(car.getPlate());
+        dto.setCarBrandName(car.getModel() != null && car.getModel().getBrand() != null ?
+            car.getModel().getBrand().getName() : null);
+        dto.setCarModelName(car.getModel() != null ? car.getModel().getName() : null);
+        dto.setDailyPrice(car.getDailyPrice());
+
+        dto.setCustomerId(rental.getCustomer().getId());
+        dto.setCustomerFirstName(rental.getCustomer().getFirstName());
+        dto.setCustomerLastName(rental.getCustomer().getLastName());
+
+        // Calculate total price (use totalAmount if available, otherwise calculate)
+        if (rental.getTotalAmount() != null) {
+            dto.setTotalPrice(rental.getTotalAmount().doubleValue());
+        } else {
+            long days = ChronoUnit.DAYS.between(rental.getStart(), rental.getEnd()) + 1;
+            double totalPrice = car.getDailyPrice() * days + (rental.getExtraCosts() != null ? rental.getExtraCosts() : 0);
+            dto.setTotalPrice(totalPrice);
+        }
+        return dto;
+    }
+
+    // Car and customer relationships are resolved by the service
+    public Rental toEntity(RentalDto dto) {
+        Rental rental = new Rental();
+        rental.setId(dto.getId());
+        rental.setStart(dto.getStart());
+        rental.setEnd(dto.getEnd());
+        rental.setExtraCosts(dto.getExtraCosts());
+        rental.setNote(dto.getNote());
+        if (dto.getStatus() != null) {
+            rental.setStatus(dto.getStatus());
+        }
+        rental.setTotalAmount(dto.getTotalAmount());
+        rental.setSpecialRequests(dto.getSpecialRequests());
+        rental.setConfirmedAt(dto.getConfirmedAt());
+        rental.setCancelledAt(dto.getCancelledAt());
+        return rental;
+    }
+}
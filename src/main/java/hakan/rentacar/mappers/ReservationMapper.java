@@ -0,0 +1,58 @@
+package hakan.rentacar.mappers;
+
+import hakan.rentacar.entities.concretes.Reservation;
+import hakan.rentacar.entities.dtos.ReservationDto;
+import org.springframework.stereotype.Component;
+
+import java.time.temporal.ChronoUnit;
+
+@Component
+public class ReservationMapper {
+
+    public ReservationDto toDto(Reservation reservation) {
+        ReservationDto dto = new ReservationDto();
+        dto.setId(reservation.getId());
+        dto.setStartDate(reservation.getStartDate());
+        dto.setEndDate(reservation.getEndDate());
+        dto.setStatus(reservation.getStatus());
+        dto.setTotalAmount(reservation.getTotalAmount());
+        dto.setSpecialRequests(reservation.getSpecialRequests());
+        dto.setNote(reservation.getNote());
+        dto.setConfirmedAt(reservation.getConfirmedAt());
+        dto.setCancelledAt(reservation.getCancelledAt());
+
+        if (reservation.getCustomer() != null) {
+            dto.setCustomerId(reservation.getCustomer().getId());
+            dto.setCustomerName(reservation.getCustomer().getFirstName() + " " + reservation.getCustomer().getLastName());
+        }
+
+        if (reservation.getCar() != null) {
+            dto.setCarId(reservation.getCar().getId());
+            dto.setCarPlate(reservation.getCar().getPlate());
+            if (reservation.getCar().getModel() != null) {
+                dto.setCarBrandName(reservation.getCar().getModel().getBrand().getName());
+                dto.setCarModelName(reservation.getCar().getModel().getName());
+            }
+        }
+
+        if (reservation.getStartDate() != null && reservation.getEndDate() != null) {
+            dto.setDaysCount(ChronoUnit.DAYS.between(reservation.getStartDate(), reservation.getEndDate()));
+        }
+        return dto;
+    }
+
+    // Customer and car relationships are resolved by the service
+    public Reservation toEntity(ReservationDto dto) {
+        Reservation reservation = new Reservation();
+        reservation.setId(dto.getId());
+        reservation.setStartDate(dto.getStartDate());
+        reservation.setEndDate(dto.getEndDate());
+        reservation.setStatus(dto.getStatus());
+        reservation.setTotalAmount(dto.getTotalAmount());
+        reservation.setSpecialRequests(dto.getSpecialRequests());
+        reservation.setNote(dto.getNote());
+        reservation.setConfirmedAt(dto.getConfirmedAt());
+        reservation.setCancelledAt(dto.getCancelledAt());
+        return reservation;
+    }
+}
@@ -0,0 +1,52 @@
+package hakan.rentacar.mappers;
+
+import hakan.rentacar.entities.concretes.Car;
+import hakan.rentacar.entities.concretes.ReservationRating;
+import hakan.rentacar.entities.dtos.ReservationRatingDto;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ReservationRatingMapper {
+
+    public ReservationRatingDto toDto(ReservationRating rating) {
+        ReservationRatingDto dto = new ReservationRatingDto();
+        dto.setId(rating.getId());
+        dto.setRating(rating.getRating());
+        dto.setComment(rating.getComment());
+        dto.setCarRating(rating.getCarRating());
+        dto.setIsPublic(rating.getIsPublic());
+        dto.setCreatedDate(rating.getCreatedDate());
+
+        if (rating.getCustomer() != null) {
+            dto.setCustomerId(rating.getCustomer().getId());
+            dto.setCustomerName(rating.getCustomer().getFirstName() + " " + rating.getCustomer().getLastName());
+        }
+
+        // Rental information for display
+        if (rating.getRental() != null) {
+            dto.setRentalId(rating.getRental().getId());
+            Car car = rating.getRental().getCar();
+            if (car != null) {
+                dto.setCarPlate(car.getPlate());
+                if (car.getModel() != null) {
+                    dto.setCarModelName(car.getModel().getName());
+                    if (car.getModel().getBrand() != null) {
+                        dto.setCarBrandName(car.getModel().getBrand().getName());
+                    }
+                }
+            }
+        }
+        return dto;
+    }
+
+    // Rental and customer relationships are resolved by the service
+    public ReservationRating toEntity(ReservationRatingDto dto) {
+        ReservationRating rating = new ReservationRating();
+        rating.setId(dto.getId());
+        rating.setRating(dto.getRating());
+        rating.setComment(dto.getComment());
+        rating.setCarRating(dto.getCarRating());
+        rating.setIsPublic(dto.getIsPublic());
+        return rating;
+    }
+}
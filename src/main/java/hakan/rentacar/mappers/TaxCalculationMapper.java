@@ -0,0 +1,39 @@
+package hakan.rentacar.mappers;
+
+import hakan.rentacar.entities.concretes.TaxCalculation;
+import hakan.rentacar.entities.dtos.TaxCalculationDto;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+@Component
+public class TaxCalculationMapper {
+
+    public TaxCalculationDto toDto(TaxCalculation calculation) {
+        TaxCalculationDto dto = new TaxCalculationDto();
+        dto.setId(calculation.getId());
+        // Lazy associations: reading the id does not initialize the proxy
+        if (calculation.getInvoice() != null) {
+            dto.setInvoiceId(calculation.getInvoice().getId());
+        }
+        if (calculation.getPayment() != null) {
+            dto.setPaymentId(calculation.getPayment().getId());
+        }
+        dto.setTaxType(calculation.getTaxType());
+        dto.setTaxableAmount(calculation.getTaxableAmount());
+        dto.setTaxRate(calculation.getTaxRate());
+        dto.setTaxAmount(calculation.getTaxAmount());
+        dto.setCalculationDate(calculation.getCalculationDate());
+        dto.setCalculationDetails(calculation.getCalculationDetails());
+        dto.setIsReported(calculation.getIsReported());
+        dto.setReportedAt(calculation.getReportedAt());
+        dto.setTaxPeriod(calculation.getTaxPeriod());
+        if (calculation.getTaxType() != null) {
+            dto.setTaxTypeDisplayName(calculation.getTaxType().getDisplayName());
+        }
+        if (calculation.getTaxRate() != null) {
+            dto.setTaxPercentage(calculation.getTaxRate().multiply(BigDecimal.valueOf(100)));
+        }
+        return dto;
+    }
+}
@@ -0,0 +1,29 @@
+package hakan.rentacar.mappers;
+
+import hakan.rentacar.entities.concretes.Role;
+import hakan.rentacar.entities.concretes.User;
+import hakan.rentacar.entities.dtos.UserDto;
+import org.springframework.stereotype.Component;
+
+import java.util.stream.Collectors;
+
+@Component
+public class UserMapper {
+
+    // Password is never copied into the response
+    public UserDto toDto(User user) {
+        UserDto dto = new UserDto();
+        dto.setId(user.getId());
+        dto.setUsername(user.getUsername());
+        dto.setEmail(user.getEmail());
+        dto.setFirstName(user.getFirstName());
+        dto.setLastName(user.getLastName());
+        dto.setEnabled(user.getEnabled());
+        if (user.getRoles() != null) {
+            dto.setRoleNames(user.getRoles().stream()
+                    .map(Role::getName)
+                    .collect(Collectors.toSet()));
+        }
+        return dto;
+    }
+}
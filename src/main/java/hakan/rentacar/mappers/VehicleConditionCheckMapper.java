@@ -0,0 +1,87 @@
+package hakan.rentacar.mappers;
+
+import hakan.rentacar.entities.concretes.VehicleConditionCheck;
+import hakan.rentacar.entities.dtos.VehicleConditionCheckDto;
+import org.springframework.stereotype.Component;
+
+@Component
+public class VehicleConditionCheckMapper {
+
+    // Only relationship ids are copied so lazy associations stay uninitialized
+    public VehicleConditionCheckDto toDto(VehicleConditionCheck check) {
+        VehicleConditionCheckDto dto = new VehicleConditionCheckDto();
+        dto.setId(check.getId());
+        if (check.getRental() != null) {
+            dto.setRentalId(check.getRental().getId());
+        }
+        if (check.getCar() != null) {
+            dto.setCarId(check.getCar().getId());
+        }
+        dto.setCheckType(check.getCheckType());
+        dto.setMileageAtCheck(check.getMileageAtCheck());
+        dto.setFuelLevel(check.getFuelLevel());
+        dto.setBodyHasDamage(check.getBodyHasDamage());
+        dto.setBodyDamageDescription(check.getBodyDamageDescription());
+        dto.setInteriorHasDamage(check.getInteriorHasDamage());
+        dto.setInteriorDamageDescription(check.getInteriorDamageDescription());
+        dto.setWindowsHaveDamage(check.getWindowsHaveDamage());
+        dto.setWindowsDamageDescription(check.getWindowsDamageDescription());
+        dto.setTiresHaveDamage(check.getTiresHaveDamage());
+        dto.setTiresDamageDescription(check.getTiresDamageDescription());
+        dto.setHasScratches(check.getHasScratches());
+        dto.setScratchesDescription(check.getScratchesDescription());
+        dto.setDamageCost(check.getDamageCost());
+        dto.setPerformedBy(check.getPerformedBy());
+        dto.setPerformedAt(check.getPerformedAt());
+        dto.setCustomerNote(check.getCustomerNote());
+        dto.setStaffNote(check.getStaffNote());
+        dto.setIsConfirmed(check.getIsConfirmed());
+        dto.setConfirmedAt(check.getConfirmedAt());
+        dto.setNeedsMaintenance(check.getNeedsMaintenance());
+        dto.setMaintenanceNote(check.getMaintenanceNote());
+        return dto;
+    }
+
+    // Rental and car relationships are resolved by the service
+    public VehicleConditionCheck toEntity(VehicleConditionCheckDto dto) {
+        VehicleConditionCheck check = new VehicleConditionCheck();
+        check.setId(dto.getId());
+        check.setCheckType(dto.getCheckType());
+        check.setMileageAtCheck(dto.getMileageAtCheck());
+        check.setFuelLevel(dto.getFuelLevel());
+        if (dto.getBodyHasDamage() != null) {
+            check.setBodyHasDamage(dto.getBodyHasDamage());
+        }
+        check.setBodyDamageDescription(dto.getBodyDamageDescription());
+        if (dto.getInteriorHasDamage() != null) {
+            check.setInteriorHasDamage(dto.getInteriorHasDamage());
+        }
+        check.setInteriorDamageDescription(dto.getInteriorDamageDescription());
+        if (dto.getWindowsHaveDamage() != null) {
+            check.setWindowsHaveDamage(dto.getWindowsHaveDamage());
+        }
+        check.setWindowsDamageDescription(dto.getWindowsDamageDescription());
+        if (dto.getTiresHaveDamage() != null) {
+            check.setTiresHaveDamage(dto.getTiresHaveDamage());
+        }
+        check.setTiresDamageDescription(dto.getTiresDamageDescription());
+        if (dto.getHasScratches() != null) {
+            check.setHasScratches(dto.getHasScratches());
+        }
+        check.setScratchesDescription(dto.getScratchesDescription());
+        check.setDamageCost(dto.getDamageCost());
+        check.setPerformedBy(dto.getPerformedBy());
+        check.setPerformedAt(dto.getPerformedAt());
+        check.setCustomerNote(dto.getCustomerNote());
+        check.setStaffNote(dto.getStaffNote());
+        if (dto.getIsConfirmed() != null) {
+            check.setIsConfirmed(dto.getIsConfirmed());
+        }
+        check.setConfirmedAt(dto.getConfirmedAt());
+        if (dto.getNeedsMaintenance() != null) {
+            check.setNeedsMaintenance(dto.getNeedsMaintenance());
+        }
+        check.setMaintenanceNote(dto.getMaintenanceNote());
+        return check;
+    }
+}
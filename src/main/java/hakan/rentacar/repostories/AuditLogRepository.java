@@ -1,16 +1,22 @@
 package hakan.rentacar.repostories;
 
 import hakan.rentacar.entities.concretes.AuditLog;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface AuditLogRepository extends JpaRepository<AuditLog, Long>, JpaSpecificationExecutor<AuditLog> {
@@ -108,4 +114,9 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long>, JpaSp
      */
     @Query("DELETE FROM AuditLog al WHERE al.timestamp < :cutoffDate")
     void deleteOldAuditLogs(@Param("cutoffDate") LocalDateTime cutoffDate);
+    
+    // Export stream: rows arrive in JDBC batches of 500 instead of being loaded at once
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT a FROM AuditLog a WHERE a.timestamp >= :from AND a.timestamp < :to ORDER BY a.id")
+    Stream<AuditLog> streamByTimestampBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
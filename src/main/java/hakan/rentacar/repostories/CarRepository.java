@@ -1,11 +1,14 @@
 package hakan.rentacar.repostories;
 
 import hakan.rentacar.entities.concretes.Car;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
@@ -57,5 +60,65 @@ public interface CarRepository extends JpaRepository<Car, Long> {
     // Bakım geçmişi ile birlikte araç getirme
     @Query("SELECT DISTINCT c FROM Car c LEFT JOIN FETCH c.maintenanceHistory WHERE c.id = :id")
     Optional<Car> findByIdWithMaintenanceHistory(@Param("id") Long id);
+    
+    // Model ve marka ile birlikte tüm araçlar (liste ekranlarında N+1 sorgusunu önler)
+    @Query("SELECT c FROM Car c JOIN FETCH c.model m JOIN FETCH m.brand ORDER BY c.id")
+    List<Car> findAllWithModelAndBrand();
+    
+    // Araç bazlı rezervasyon kilidi: aynı araca gelen eşzamanlı kayıtları transaction sonuna kadar sıralar (tüm node'lar arasında)
+    @Query(value = "SELECT 1 FROM (SELECT pg_advisory_xact_lock(1001, CAST(MOD(:carId, 2147483647) AS INTEGER))) AS booking_lock", nativeQuery = true)
+    Integer acquireBookingLock(@Param("carId") Long carId);
+    
+    // Doluluk takvimi için hafif araç listesi (id, plate, segment)
+    @Query("SELECT c.id, c.plate, c.segment FROM Car c ORDER BY c.id")
+    List<Object[]> findCarSummaries();
+    
+    // Kullanım oranı motoru için araç bilgileri (id, plate, brand, model, segment, dailyPrice, createdDate)
+    @Query("SELECT c.id, c.plate, b.name, m.name, c.segment, c.dailyPrice, c.createdDate FROM Car c JOIN c.model m LEFT JOIN m.brand b")
+    List<Object[]> findUtilizationCarRows();
+    
+    @Query("SELECT c.id, c.plate, b.name, m.name, c.segment, c.dailyPrice, c.createdDate FROM Car c JOIN c.model m LEFT JOIN m.brand b WHERE c.id = :carId")
+    List<Object[]> findUtilizationCarRowsByCarId(@Param("carId") Long carId);
+    
+    // Tarih aralığında müsait araçlar: rentals ve aktif reservations üzerinde tek anti-join, id ile keyset sayfalama
+    // Kolonlar: id, plate, brand_name, model_name, daily_price, segment, fuel_type, transmission
+    @Query(value = """
+        SELECT c.id, c.plate, b.name AS brand_name, m.name AS model_name,
+               c.daily_price, c.segment, c.fuel_type, c.transmission
+        FROM cars c
+        JOIN models m ON c.model_id = m.id
+        JOIN brands b ON m.brand_id = b.id
+        WHERE c.id > :afterId
+          AND (CAST(:segment AS VARCHAR) IS NULL OR c.segment = :segment)
+          AND (CAST(:fuelType AS VARCHAR) IS NULL OR c.fuel_type = :fuelType)
+          AND (CAST(:transmission AS VARCHAR) IS NULL OR c.transmission = :transmission)
+          AND (CAST(:brandId AS BIGINT) IS NULL OR m.brand_id = :brandId)
+          AND NOT EXISTS (
+              SELECT 1 FROM rentals r
+              WHERE r.car_id = c.id AND r.start <= :endDate AND r."end" >= :startDate
+          )
+          AND NOT EXISTS (
+              SELECT 1 FROM reservations rs
+              WHERE rs.car_id = c.id AND rs.status IN ('CONFIRMED', 'PENDING')
+                AND rs.start_date <= :endDate AND rs."end" >= :startDate
+          )
+        ORDER BY c.id
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<Object[]> findAvailableCarsPage(@Param("startDate") LocalDate startDate,
+                                         @Param("endDate") LocalDate endDate,
+                                         @Param("segment") String segment,
+                                         @Param("fuelType") String fuelType,
+                                         @Param("transmission") String transmission,
+                                         @Param("brandId") Long brandId,
+                                         @Param("afterId") Long afterId,
+                                         @Param("limit") int limit);
+    
+    // Keyset pages ordered by (createdDate, id), newest first; the limit comes from the Pageable
+    @Query("SELECT c FROM Car c ORDER BY c.createdDate DESC, c.id DESC")
+    List<Car> findKeysetFirstPage(Pageable pageable);
+    
+    @Query("SELECT c FROM Car c WHERE c.createdDate <= :position AND (c.createdDate < :position OR c.id < :id) " +
+           "ORDER BY c.createdDate DESC, c.id DESC")
+    List<Car> findKeysetPageAfter(@Param("position") Date position, @Param("id") Long id, Pageable pageable);
 }
-
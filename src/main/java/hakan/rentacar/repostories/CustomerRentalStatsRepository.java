@@ -0,0 +1,70 @@
+package hakan.rentacar.repostories;
+
+import hakan.rentacar.entities.concretes.CustomerRentalStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CustomerRentalStatsRepository extends JpaRepository<CustomerRentalStats, Long> {
+
+    // Serializes concurrent refreshes of the same customer so segment deltas are applied once
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM CustomerRentalStats s WHERE s.customerId = :customerId")
+    Optional<CustomerRentalStats> findByIdForUpdate(@Param("customerId") Long customerId);
+
+    // (rental count, lifetime revenue) of one customer, same revenue formula as the rollup
+    @Query(value = """
+        SELECT COUNT(r.id),
+               COALESCE(SUM(c.daily_price * ((r."end" - r.start) + 1) + COALESCE(r.extra_costs, 0)), 0)
+        FROM rentals r
+        JOIN cars c ON r.car_id = c.id
+        WHERE r.customer_id = :customerId
+        """, nativeQuery = true)
+    List<Object[]> computeCustomerTotals(@Param("customerId") Long customerId);
+
+    // Campaign targeting
+    @Query("SELECT s.customerId FROM CustomerRentalStats s WHERE s.segment = :segment ORDER BY s.customerId")
+    List<Long> findCustomerIdsBySegment(@Param("segment") CustomerRentalStats.Segment segment);
+
+    @Query("SELECT s.customerId FROM CustomerRentalStats s " +
+           "WHERE s.rentalCount >= :minRentals AND s.lifetimeRevenue >= :minRevenue ORDER BY s.customerId")
+    List<Long> findCustomerIdsByMinimums(@Param("minRentals") long minRentals, @Param("minRevenue") BigDecimal minRevenue);
+
+    @Modifying
+    @Query(value = "DELETE FROM customer_rental_stats", nativeQuery = true)
+    int deleteAllRows();
+
+    // Full rebuild; the CASE mirrors CustomerRentalStats.Segment.of
+    @Modifying
+    @Query(value = """
+        INSERT INTO customer_rental_stats (customer_id, rental_count, lifetime_revenue, segment, updated_at)
+        SELECT t.id, t.rental_count, t.revenue,
+               CASE
+                   WHEN t.rental_count >= 10 AND t.revenue > 10000 THEN 'VIP'
+                   WHEN t.rental_count >= 5 THEN 'REGULAR'
+                   WHEN t.rental_count >= 2 THEN 'FREQUENT'
+                   WHEN t.rental_count >= 1 THEN 'OCCASIONAL'
+                   ELSE 'NEW'
+               END,
+               NOW()
+        FROM (
+            SELECT cu.id,
+                   COUNT(r.id) as rental_count,
+                   COALESCE(SUM(c.daily_price * ((r."end" - r.start) + 1) + COALESCE(r.extra_costs, 0)), 0) as revenue
+            FROM customers cu
+            LEFT JOIN rentals r ON cu.id = r.customer_id
+            LEFT JOIN cars c ON r.car_id = c.id
+            GROUP BY cu.id
+        ) t
+        """, nativeQuery = true)
+    int insertAll();
+}
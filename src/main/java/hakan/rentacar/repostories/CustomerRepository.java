@@ -1,11 +1,13 @@
 package hakan.rentacar.repostories;
 
 import hakan.rentacar.entities.concretes.Customer;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,4 +34,12 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
     
     @Query("SELECT c FROM Customer c WHERE c.user.id = :userId")
     Optional<Customer> findByUserId(@Param("userId") Long userId);
+    
+    // Keyset pages ordered by (createdDate, id), newest first; the limit comes from the Pageable
+    @Query("SELECT c FROM Customer c ORDER BY c.createdDate DESC, c.id DESC")
+    List<Customer> findKeysetFirstPage(Pageable pageable);
+    
+    @Query("SELECT c FROM Customer c WHERE c.createdDate <= :position AND (c.createdDate < :position OR c.id < :id) " +
+           "ORDER BY c.createdDate DESC, c.id DESC")
+    List<Customer> findKeysetPageAfter(@Param("position") Date position, @Param("id") Long id, Pageable pageable);
 }
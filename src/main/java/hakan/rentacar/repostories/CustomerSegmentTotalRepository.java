@@ -0,0 +1,44 @@
+package hakan.rentacar.repostories;
+
+import hakan.rentacar.entities.concretes.CustomerRentalStats;
+import hakan.rentacar.entities.concretes.CustomerSegmentTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface CustomerSegmentTotalRepository extends JpaRepository<CustomerSegmentTotal, CustomerRentalStats.Segment> {
+
+    List<CustomerSegmentTotal> findAllByOrderByTotalRevenueDesc();
+
+    // Applies a delta in one statement so concurrent writers of different customers never lose updates
+    @Modifying
+    @Query(value = """
+        INSERT INTO customer_segment_totals (segment, customer_count, total_revenue, total_rentals)
+        VALUES (:segment, :customers, :revenue, :rentals)
+        ON CONFLICT (segment) DO UPDATE
+        SET customer_count = customer_segment_totals.customer_count + EXCLUDED.customer_count,
+            total_revenue = customer_segment_totals.total_revenue + EXCLUDED.total_revenue,
+            total_rentals = customer_segment_totals.total_rentals + EXCLUDED.total_rentals
+        """, nativeQuery = true)
+    int addToSegment(@Param("segment") String segment, @Param("customers") long customers,
+                     @Param("revenue") BigDecimal revenue, @Param("rentals") long rentals);
+
+    @Modifying
+    @Query(value = "DELETE FROM customer_segment_totals", nativeQuery = true)
+    int deleteAllRows();
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO customer_segment_totals (segment, customer_count, total_revenue, total_rentals)
+        SELECT s.segment, COUNT(*), COALESCE(SUM(s.lifetime_revenue), 0), COALESCE(SUM(s.rental_count), 0)
+        FROM customer_rental_stats s
+        GROUP BY s.segment
+        """, nativeQuery = true)
+    int insertAll();
+}
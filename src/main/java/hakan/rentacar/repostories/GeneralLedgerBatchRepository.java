@@ -0,0 +1,67 @@
+package hakan.rentacar.repostories;
+
+import hakan.rentacar.entities.concretes.GeneralLedger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Bulk journal inserts. general_ledger ids are IDENTITY columns, which keeps Hibernate from batching
+ * inserts, so posted lines go through JDBC batches instead. Runs in the caller's JPA transaction.
+ */
+@Repository
+public class GeneralLedgerBatchRepository {
+
+    // INCREMENT BY of the sequence; every nextval reserves this many document numbers
+    public static final int DOCUMENT_NUMBER_ALLOCATION_SIZE = 50;
+
+    private static final String INSERT_SQL = """
+        INSERT INTO general_ledger (transaction_type, account_type, account_code, account_name, transaction_date,
+                                    description, debit_amount, credit_amount, reference_id, reference_type,
+                                    document_number, reconciled, created_by, created_date, date)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, FALSE, ?, ?, ?)
+        """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${ledger.posting.batch-size:1000}")
+    private int batchSize;
+
+    public void createDocumentNumberSequence() {
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS gl_document_number_seq START WITH 1 INCREMENT BY "
+                + DOCUMENT_NUMBER_ALLOCATION_SIZE);
+    }
+
+    // First value of each reserved block of DOCUMENT_NUMBER_ALLOCATION_SIZE numbers
+    public List<Long> nextDocumentNumberBlocks(int blocks) {
+        return jdbcTemplate.queryForList(
+                "SELECT nextval('gl_document_number_seq') FROM generate_series(1, ?)", Long.class, blocks);
+    }
+
+    public void insertAll(List<GeneralLedger> entries, String createdBy) {
+        Timestamp now = new Timestamp(new Date().getTime());
+        jdbcTemplate.batchUpdate(INSERT_SQL, entries, batchSize, (ps, entry) -> {
+            ps.setString(1, entry.getTransactionType().name());
+            ps.setString(2, entry.getAccountType().name());
+            ps.setString(3, entry.getAccountCode());
+            ps.setString(4, entry.getAccountName());
+            ps.setTimestamp(5, Timestamp.valueOf(entry.getTransactionDate()));
+            ps.setString(6, entry.getDescription());
+            ps.setBigDecimal(7, entry.getDebitAmount());
+            ps.setBigDecimal(8, entry.getCreditAmount());
+            ps.setObject(9, entry.getReferenceId(), Types.BIGINT);
+            ps.setString(10, entry.getReferenceType());
+            ps.setString(11, entry.getDocumentNumber());
+            ps.setString(12, createdBy);
+            ps.setTimestamp(13, now);
+            ps.setTimestamp(14, now);
+        });
+    }
+}
@@ -1,14 +1,22 @@
 package hakan.rentacar.repostories;
 
 import hakan.rentacar.entities.concretes.GeneralLedger;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface GeneralLedgerRepository extends JpaRepository<GeneralLedger, Long> {
@@ -16,9 +24,6 @@ public interface GeneralLedgerRepository extends JpaRepository<GeneralLedger, Lo
     @Query("SELECT gl FROM GeneralLedger gl ORDER BY gl.transactionDate ASC, gl.id ASC")
     List<GeneralLedger> findAllOrderByTransactionDateAndId();
     
-    @Query("SELECT gl FROM GeneralLedger gl WHERE gl.accountType = :accountType ORDER BY gl.transactionDate ASC")
-    List<GeneralLedger> findByAccountTypeOrderByTransactionDate(@Param("accountType") GeneralLedger.AccountType accountType);
-    
     @Query("SELECT gl FROM GeneralLedger gl WHERE gl.transactionType = :transactionType ORDER BY gl.transactionDate DESC")
     List<GeneralLedger> findByTransactionTypeOrderByTransactionDateDesc(@Param("transactionType") GeneralLedger.TransactionType transactionType);
     
@@ -35,6 +40,76 @@ public interface GeneralLedgerRepository extends JpaRepository<GeneralLedger, Lo
     @Query("SELECT COALESCE(SUM(gl.creditAmount), 0) FROM GeneralLedger gl WHERE gl.accountType = :accountType")
     BigDecimal getTotalCreditsByAccountType(@Param("accountType") GeneralLedger.AccountType accountType);
     
+    // Entries after the latest closed period; added to its closing balances
+    @Query("SELECT COALESCE(SUM(gl.debitAmount - gl.creditAmount), 0) FROM GeneralLedger gl " +
+           "WHERE gl.accountType = :accountType AND gl.transactionDate > :after")
+    BigDecimal getNetBalanceAfter(@Param("accountType") GeneralLedger.AccountType accountType, @Param("after") LocalDateTime after);
+    
+    // Opening balance of an account transaction listing
+    @Query("SELECT COALESCE(SUM(gl.debitAmount - gl.creditAmount), 0) FROM GeneralLedger gl " +
+           "WHERE gl.accountType = :accountType AND gl.transactionDate < :before")
+    BigDecimal getNetBalanceBefore(@Param("accountType") GeneralLedger.AccountType accountType, @Param("before") LocalDateTime before);
+    
+    @Query("SELECT COALESCE(SUM(gl.debitAmount - gl.creditAmount), 0) FROM GeneralLedger gl " +
+           "WHERE gl.accountType = :accountType AND gl.transactionDate > :after AND gl.transactionDate < :before")
+    BigDecimal getNetBalanceBetween(@Param("accountType") GeneralLedger.AccountType accountType,
+                                    @Param("after") LocalDateTime after, @Param("before") LocalDateTime before);
+    
+    // Balance up to and including the keyset row (position, id) of an account transaction listing,
+    // summed along the (account_type, transaction_date, id) index
+    @Query(value = """
+        SELECT COALESCE(SUM(gl.debit_amount - gl.credit_amount), 0)
+        FROM general_ledger gl
+        WHERE gl.account_type = :accountType
+          AND (gl.transaction_date, gl.id) <= (:position, :id)
+        """, nativeQuery = true)
+    BigDecimal getNetBalanceThrough(@Param("accountType") String accountType, @Param("position") LocalDateTime position,
+                                    @Param("id") Long id);
+    
+    @Query(value = """
+        SELECT COALESCE(SUM(gl.debit_amount - gl.credit_amount), 0)
+        FROM general_ledger gl
+        WHERE gl.account_type = :accountType
+          AND gl.transaction_date > :after
+          AND (gl.transaction_date, gl.id) <= (:position, :id)
+        """, nativeQuery = true)
+    BigDecimal getNetBalanceBetweenThrough(@Param("accountType") String accountType, @Param("after") LocalDateTime after,
+                                           @Param("position") LocalDateTime position, @Param("id") Long id);
+    
+    // Account transactions keyset paged by (transaction_date, id) within [from, to], served by the
+    // (account_type, transaction_date, id) index. Rows are (id, net movement from the first row of
+    // the page up to and including this row); callers add the opening balance.
+    @Query(value = """
+        SELECT p.id, SUM(p.debit_amount - p.credit_amount) OVER (ORDER BY p.transaction_date, p.id)
+        FROM (
+            SELECT gl.id, gl.transaction_date, gl.debit_amount, gl.credit_amount
+            FROM general_ledger gl
+            WHERE gl.account_type = :accountType
+              AND gl.transaction_date >= :from AND gl.transaction_date <= :to
+            ORDER BY gl.transaction_date, gl.id
+            LIMIT :limit
+        ) p
+        ORDER BY p.transaction_date, p.id
+        """, nativeQuery = true)
+    List<Object[]> findAccountPageFirst(@Param("accountType") String accountType, @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to, @Param("limit") int limit);
+    
+    @Query(value = """
+        SELECT p.id, SUM(p.debit_amount - p.credit_amount) OVER (ORDER BY p.transaction_date, p.id)
+        FROM (
+            SELECT gl.id, gl.transaction_date, gl.debit_amount, gl.credit_amount
+            FROM general_ledger gl
+            WHERE gl.account_type = :accountType
+              AND (gl.transaction_date, gl.id) > (:position, :id)
+              AND gl.transaction_date <= :to
+            ORDER BY gl.transaction_date, gl.id
+            LIMIT :limit
+        ) p
+        ORDER BY p.transaction_date, p.id
+        """, nativeQuery = true)
+    List<Object[]> findAccountPageAfter(@Param("accountType") String accountType, @Param("position") LocalDateTime position,
+                                        @Param("id") Long id, @Param("to") LocalDateTime to, @Param("limit") int limit);
+    
     // Trial Balance
     @Query("SELECT gl.accountType, gl.accountCode, gl.accountName, " +
            "SUM(gl.debitAmount), SUM(gl.creditAmount) " +
@@ -43,6 +118,13 @@ public interface GeneralLedgerRepository extends JpaRepository<GeneralLedger, Lo
            "ORDER BY gl.accountType, gl.accountCode")
     List<Object[]> getTrialBalance();
     
+    @Query("SELECT gl.accountType, gl.accountCode, gl.accountName, " +
+           "SUM(gl.debitAmount), SUM(gl.creditAmount) " +
+           "FROM GeneralLedger gl " +
+           "WHERE gl.transactionDate > :after " +
+           "GROUP BY gl.accountType, gl.accountCode, gl.accountName")
+    List<Object[]> getTrialBalanceAfter(@Param("after") LocalDateTime after);
+    
     // Income Statement (P&L)
     @Query("SELECT gl.transactionType, SUM(gl.creditAmount), SUM(gl.debitAmount) " +
            "FROM GeneralLedger gl " +
@@ -58,6 +140,12 @@ public interface GeneralLedgerRepository extends JpaRepository<GeneralLedger, Lo
            "GROUP BY gl.accountType")
     List<Object[]> getBalanceSheetData(@Param("date") LocalDateTime date);
     
+    @Query("SELECT gl.accountType, SUM(gl.debitAmount), SUM(gl.creditAmount) " +
+           "FROM GeneralLedger gl " +
+           "WHERE gl.transactionDate > :after AND gl.transactionDate <= :date " +
+           "GROUP BY gl.accountType")
+    List<Object[]> getBalanceSheetDataBetween(@Param("after") LocalDateTime after, @Param("date") LocalDateTime date);
+    
     // Cash flow summary
     @Query("SELECT SUM(gl.debitAmount), SUM(gl.creditAmount) " +
            "FROM GeneralLedger gl " +
@@ -68,8 +156,25 @@ public interface GeneralLedgerRepository extends JpaRepository<GeneralLedger, Lo
     // Unreconciled transactions
     @Query("SELECT gl FROM GeneralLedger gl WHERE gl.reconciled = false ORDER BY gl.transactionDate ASC")
     List<GeneralLedger> findUnreconciledTransactions();
+    
+    // Keyset pages ordered by (transactionDate, id), oldest first like the ledger listing
+    @Query("SELECT gl FROM GeneralLedger gl ORDER BY gl.transactionDate ASC, gl.id ASC")
+    List<GeneralLedger> findKeysetFirstPage(Pageable pageable);
+    
+    @Query("SELECT gl FROM GeneralLedger gl WHERE gl.transactionDate >= :position AND (gl.transactionDate > :position OR gl.id > :id) " +
+           "ORDER BY gl.transactionDate ASC, gl.id ASC")
+    List<GeneralLedger> findKeysetPageAfter(@Param("position") LocalDateTime position, @Param("id") Long id, Pageable pageable);
+    
+    // Export stream: rows arrive in JDBC batches of 500 instead of being loaded at once
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT gl FROM GeneralLedger gl WHERE gl.transactionDate >= :from AND gl.transactionDate < :to ORDER BY gl.id")
+    Stream<GeneralLedger> streamByTransactionDateBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    // Net amount already posted to one account per source document: (referenceId, debit - credit)
+    @Query("SELECT gl.referenceId, SUM(gl.debitAmount - gl.creditAmount) FROM GeneralLedger gl " +
+           "WHERE gl.referenceType = :referenceType AND gl.referenceId IN :referenceIds AND gl.accountType = :accountType " +
+           "GROUP BY gl.referenceId")
+    List<Object[]> getPostedNetByReference(@Param("referenceType") String referenceType,
+                                           @Param("referenceIds") Collection<Long> referenceIds,
+                                           @Param("accountType") GeneralLedger.AccountType accountType);
 }
-
-
-
-
@@ -1,36 +1,63 @@
 package hakan.rentacar.repostories;
 
 import hakan.rentacar.entities.concretes.Invoice;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
     
+    // DTO assembly follows the associations below for every row, load them with the entity
+    @Override
+    @EntityGraph("Invoice.details")
+    List<Invoice> findAll();
+    
+    @Override
+    @EntityGraph("Invoice.details")
+    Optional<Invoice> findById(Long id);
+    
     List<Invoice> findByCustomerId(Long customerId);
     
     List<Invoice> findByRentalId(Long rentalId);
     
+    @EntityGraph("Invoice.details")
     List<Invoice> findByStatus(Invoice.InvoiceStatus status);
     
+    @EntityGraph("Invoice.details")
     @Query("SELECT i FROM Invoice i WHERE i.customer.id = :customerId ORDER BY i.createdDate DESC")
     List<Invoice> findByCustomerIdOrderByCreatedDateDesc(@Param("customerId") Long customerId);
     
+    @EntityGraph("Invoice.details")
     @Query("SELECT i FROM Invoice i WHERE i.status = :status AND i.dueDate < :currentDate ORDER BY i.dueDate ASC")
     List<Invoice> findOverdueInvoices(@Param("status") Invoice.InvoiceStatus status, @Param("currentDate") LocalDateTime currentDate);
     
+    @EntityGraph("Invoice.details")
     @Query("SELECT i FROM Invoice i WHERE i.dueDate BETWEEN :startDate AND :endDate ORDER BY i.dueDate ASC")
     List<Invoice> findInvoicesDueBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
     
+    @EntityGraph("Invoice.details")
+    List<Invoice> findByIdIn(Collection<Long> ids);
+    
     Optional<Invoice> findByInvoiceNumber(String invoiceNumber);
     
+    @EntityGraph("Invoice.details")
     @Query("SELECT i FROM Invoice i WHERE i.rental.id = :rentalId")
     List<Invoice> findByRentalIdOrderByCreatedDateDesc(@Param("rentalId") Long rentalId);
     
@@ -46,8 +73,37 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
     
     @Query("SELECT SUM(i.totalAmount) FROM Invoice i WHERE i.status = 'OVERDUE'")
     BigDecimal getTotalOverdueAmount();
+    
+    // Invoice summary in one pass: (status, count, amount)
+    @Query("SELECT i.status, COUNT(i), COALESCE(SUM(i.totalAmount), 0) FROM Invoice i GROUP BY i.status")
+    List<Object[]> getStatusTotals();
+    
+    // Dashboard counts per status in one pass: (status, count, count due before :currentDate)
+    @Query("SELECT i.status, COUNT(i), COALESCE(SUM(CASE WHEN i.dueDate < :currentDate THEN 1 ELSE 0 END), 0) " +
+           "FROM Invoice i GROUP BY i.status")
+    List<Object[]> getStatusDueCounts(@Param("currentDate") LocalDateTime currentDate);
+    
+    // Invoiced (sent or paid, by issue date) and paid (by payment date) totals for the period in one pass
+    @Query("SELECT COALESCE(SUM(CASE WHEN i.status IN ('SENT', 'PAID') AND i.issueDate BETWEEN :startDate AND :endDate " +
+           "THEN i.totalAmount ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN i.status = 'PAID' AND i.paidAt BETWEEN :startDate AND :endDate " +
+           "THEN i.totalAmount ELSE 0 END), 0) " +
+           "FROM Invoice i WHERE i.issueDate BETWEEN :startDate AND :endDate OR i.paidAt BETWEEN :startDate AND :endDate")
+    List<Object[]> getInvoicedAndPaidTotalsBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    
+    // Keyset pages ordered by (createdDate, id), newest first; the limit comes from the Pageable
+    @EntityGraph("Invoice.details")
+    @Query("SELECT i FROM Invoice i ORDER BY i.createdDate DESC, i.id DESC")
+    List<Invoice> findKeysetFirstPage(Pageable pageable);
+    
+    @EntityGraph("Invoice.details")
+    @Query("SELECT i FROM Invoice i WHERE i.createdDate <= :position AND (i.createdDate < :position OR i.id < :id) " +
+           "ORDER BY i.createdDate DESC, i.id DESC")
+    List<Invoice> findKeysetPageAfter(@Param("position") Date position, @Param("id") Long id, Pageable pageable);
+    
+    // Export stream: rows arrive in JDBC batches of 500 instead of being loaded at once
+    @EntityGraph("Invoice.details")
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT i FROM Invoice i WHERE i.issueDate >= :from AND i.issueDate < :to ORDER BY i.id")
+    Stream<Invoice> streamByIssueDateBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
-
-
-
-
@@ -0,0 +1,62 @@
+package hakan.rentacar.repostories;
+
+import hakan.rentacar.entities.concretes.LedgerOutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface LedgerOutboxEventRepository extends JpaRepository<LedgerOutboxEvent, Long> {
+
+    // One row per source; a change after it was posted (or parked) puts the same row back in the queue
+    @Modifying
+    @Query(value = """
+        INSERT INTO ledger_outbox_events (event_type, source_id, status, attempts, created_at)
+        VALUES (:eventType, :sourceId, 'PENDING', 0, NOW())
+        ON CONFLICT (event_type, source_id) DO UPDATE
+        SET status = 'PENDING', attempts = 0, last_error = NULL, created_at = NOW()
+        WHERE ledger_outbox_events.status <> 'PENDING'
+        """, nativeQuery = true)
+    int enqueue(@Param("eventType") String eventType, @Param("sourceId") Long sourceId);
+
+    // Workers on several instances claim disjoint batches; locked rows are skipped, not waited for
+    @Query(value = """
+        SELECT * FROM ledger_outbox_events
+        WHERE status = 'PENDING'
+        ORDER BY id
+        LIMIT :limit
+        FOR UPDATE SKIP LOCKED
+        """, nativeQuery = true)
+    List<LedgerOutboxEvent> claimPending(@Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM ledger_outbox_events WHERE id = :id AND status = 'PENDING' FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    Optional<LedgerOutboxEvent> claimById(@Param("id") Long id);
+
+    @Query("SELECT e.id FROM LedgerOutboxEvent e WHERE e.status = 'PENDING' ORDER BY e.id")
+    List<Long> findPendingIds(Pageable pageable);
+
+    @Modifying
+    @Query(value = "UPDATE ledger_outbox_events SET status = 'DONE', processed_at = :processedAt WHERE id IN (:ids)",
+            nativeQuery = true)
+    int markDone(@Param("ids") Collection<Long> ids, @Param("processedAt") LocalDateTime processedAt);
+
+    @Modifying
+    @Query(value = "UPDATE ledger_outbox_events SET status = 'PENDING', attempts = 0 WHERE status = 'FAILED'",
+            nativeQuery = true)
+    int resetFailed();
+
+    @Query("SELECT e.status, COUNT(e) FROM LedgerOutboxEvent e GROUP BY e.status")
+    List<Object[]> countByStatus();
+
+    @Query("SELECT MIN(e.createdAt) FROM LedgerOutboxEvent e WHERE e.status = 'PENDING'")
+    LocalDateTime findOldestPendingCreatedAt();
+}
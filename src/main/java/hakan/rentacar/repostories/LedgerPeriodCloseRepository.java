@@ -0,0 +1,82 @@
+package hakan.rentacar.repostories;
+
+import hakan.rentacar.entities.concretes.GeneralLedger;
+import hakan.rentacar.entities.concretes.LedgerPeriodClose;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface LedgerPeriodCloseRepository extends JpaRepository<LedgerPeriodClose, LedgerPeriodClose.Key> {
+
+    @Query("SELECT MAX(c.periodEnd) FROM LedgerPeriodClose c")
+    LocalDateTime findLatestPeriodEnd();
+
+    @Query("SELECT MAX(c.periodEnd) FROM LedgerPeriodClose c WHERE c.periodEnd <= :date")
+    LocalDateTime findLatestPeriodEndOnOrBefore(@Param("date") LocalDateTime date);
+
+    @Query("SELECT MAX(c.periodEnd) FROM LedgerPeriodClose c WHERE c.periodEnd < :date")
+    LocalDateTime findPeriodEndBefore(@Param("date") LocalDateTime date);
+
+    @Query("SELECT DISTINCT c.periodEnd FROM LedgerPeriodClose c WHERE c.periodEnd >= :from ORDER BY c.periodEnd")
+    List<LocalDateTime> findPeriodEndsFrom(@Param("from") LocalDateTime from);
+
+    @Query("SELECT DISTINCT c.periodEnd FROM LedgerPeriodClose c ORDER BY c.periodEnd DESC")
+    List<LocalDateTime> findAllPeriodEnds();
+
+    // Reads: closing balances of one period; callers add the ledger entries dated after it
+    @Query("SELECT c.accountType, c.accountCode, c.accountName, c.totalDebit, c.totalCredit " +
+           "FROM LedgerPeriodClose c WHERE c.periodEnd = :periodEnd")
+    List<Object[]> getTrialBalance(@Param("periodEnd") LocalDateTime periodEnd);
+
+    @Query("SELECT c.accountType, SUM(c.totalDebit), SUM(c.totalCredit) " +
+           "FROM LedgerPeriodClose c WHERE c.periodEnd = :periodEnd " +
+           "GROUP BY c.accountType")
+    List<Object[]> getAccountTypeTotals(@Param("periodEnd") LocalDateTime periodEnd);
+
+    @Query("SELECT COALESCE(SUM(c.totalDebit - c.totalCredit), 0) FROM LedgerPeriodClose c " +
+           "WHERE c.periodEnd = :periodEnd AND c.accountType = :accountType")
+    BigDecimal getClosingBalance(@Param("periodEnd") LocalDateTime periodEnd,
+                                 @Param("accountType") GeneralLedger.AccountType accountType);
+
+    // Closing: the first period sums the ledger up to its end, later periods carry the previous
+    // closing balances forward and add only the entries dated inside the period
+    @Modifying
+    @Query(value = """
+        INSERT INTO ledger_period_closes (period_end, account_type, account_code, account_name, total_debit, total_credit, closed_at)
+        SELECT :periodEnd, gl.account_type, gl.account_code, gl.account_name,
+               SUM(gl.debit_amount), SUM(gl.credit_amount), NOW()
+        FROM general_ledger gl
+        WHERE gl.transaction_date <= :periodEnd
+        GROUP BY gl.account_type, gl.account_code, gl.account_name
+        """, nativeQuery = true)
+    int insertFromLedger(@Param("periodEnd") LocalDateTime periodEnd);
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO ledger_period_closes (period_end, account_type, account_code, account_name, total_debit, total_credit, closed_at)
+        SELECT :periodEnd, t.account_type, t.account_code, t.account_name,
+               SUM(t.debit), SUM(t.credit), NOW()
+        FROM (
+            SELECT c.account_type, c.account_code, c.account_name, c.total_debit as debit, c.total_credit as credit
+            FROM ledger_period_closes c
+            WHERE c.period_end = :previousEnd
+            UNION ALL
+            SELECT gl.account_type, gl.account_code, gl.account_name, gl.debit_amount, gl.credit_amount
+            FROM general_ledger gl
+            WHERE gl.transaction_date > :previousEnd AND gl.transaction_date <= :periodEnd
+        ) t
+        GROUP BY t.account_type, t.account_code, t.account_name
+        """, nativeQuery = true)
+    int insertFromPrevious(@Param("previousEnd") LocalDateTime previousEnd, @Param("periodEnd") LocalDateTime periodEnd);
+
+    @Modifying
+    @Query(value = "DELETE FROM ledger_period_closes WHERE period_end >= :from", nativeQuery = true)
+    int deleteFrom(@Param("from") LocalDateTime from);
+}
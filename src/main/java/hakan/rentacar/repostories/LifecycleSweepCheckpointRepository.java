@@ -0,0 +1,20 @@
+package hakan.rentacar.repostories;
+
+import hakan.rentacar.entities.concretes.LifecycleSweepCheckpoint;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface LifecycleSweepCheckpointRepository extends JpaRepository<LifecycleSweepCheckpoint, String> {
+
+    // Serializes instances claiming or advancing the same sweep
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM LifecycleSweepCheckpoint c WHERE c.sweepName = :sweepName")
+    Optional<LifecycleSweepCheckpoint> findByIdForUpdate(@Param("sweepName") String sweepName);
+}
@@ -0,0 +1,72 @@
+package hakan.rentacar.repostories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Set-based status transitions for the lifecycle sweeps. Each call moves one chunk of matching rows
+ * with id > afterId in a single UPDATE ... RETURNING id and returns the moved ids. Rows locked by a
+ * running transaction are skipped and picked up by the next run. Runs in the caller's JPA transaction.
+ */
+@Repository
+public class LifecycleSweepRepository {
+
+    private static final String OVERDUE_INVOICES_SQL = """
+        UPDATE invoices SET status = 'OVERDUE', update_date = NOW()
+        WHERE id IN (
+            SELECT id FROM invoices
+            WHERE status = 'SENT' AND due_date < ? AND id > ?
+            ORDER BY id
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED)
+        RETURNING id
+        """;
+
+    private static final String EXPIRED_CONTRACTS_SQL = """
+        UPDATE contracts SET status = 'EXPIRED', update_date = NOW()
+        WHERE id IN (
+            SELECT id FROM contracts
+            WHERE status NOT IN ('CANCELLED', 'EXPIRED') AND expiry_date < ? AND id > ?
+            ORDER BY id
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED)
+        RETURNING id
+        """;
+
+    private static final String FINISHED_RENTALS_SQL = """
+        UPDATE rentals SET status = ?, update_date = NOW()
+        WHERE id IN (
+            SELECT id FROM rentals
+            WHERE status = ? AND "end" < ? AND id > ?
+            ORDER BY id
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED)
+        RETURNING id
+        """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // SENT -> OVERDUE once the due date has passed
+    public List<Long> markOverdueInvoices(LocalDateTime now, long afterId, int limit) {
+        return jdbcTemplate.queryForList(OVERDUE_INVOICES_SQL, Long.class, Timestamp.valueOf(now), afterId, limit);
+    }
+
+    // Any open contract -> EXPIRED once its expiry date has passed
+    public List<Long> markExpiredContracts(LocalDate today, long afterId, int limit) {
+        return jdbcTemplate.queryForList(EXPIRED_CONTRACTS_SQL, Long.class, Date.valueOf(today), afterId, limit);
+    }
+
+    // Rentals in fromStatus whose last day is before today -> toStatus
+    public List<Long> moveFinishedRentals(String fromStatus, String toStatus, LocalDate today, long afterId, int limit) {
+        return jdbcTemplate.queryForList(FINISHED_RENTALS_SQL, Long.class,
+                toStatus, fromStatus, Date.valueOf(today), afterId, limit);
+    }
+}
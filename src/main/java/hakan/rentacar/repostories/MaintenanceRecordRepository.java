@@ -21,4 +21,11 @@ public interface MaintenanceRecordRepository extends JpaRepository<MaintenanceRe
     
     @Query("SELECT COUNT(mr) FROM MaintenanceRecord mr WHERE mr.car.id = :carId")
     Long countByCarId(@Param("carId") Long carId);
+    
+    // Maintenance days (carId, maintenanceDate) excluded from available days by the utilization engine
+    @Query("SELECT mr.car.id, mr.maintenanceDate FROM MaintenanceRecord mr WHERE mr.maintenanceDate IS NOT NULL")
+    List<Object[]> findMaintenanceDays();
+    
+    @Query("SELECT mr.car.id, mr.maintenanceDate FROM MaintenanceRecord mr WHERE mr.car.id = :carId AND mr.maintenanceDate IS NOT NULL")
+    List<Object[]> findMaintenanceDaysByCarId(@Param("carId") Long carId);
 }
@@ -1,31 +1,54 @@
 package hakan.rentacar.repostories;
 
 import hakan.rentacar.entities.concretes.Payment;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     
+    // DTO assembly follows the associations below for every row, load them with the entity
+    @Override
+    @EntityGraph("Payment.details")
+    List<Payment> findAll();
+    
+    @Override
+    @EntityGraph("Payment.details")
+    Optional<Payment> findById(Long id);
+    
     List<Payment> findByCustomerId(Long customerId);
     
+    @EntityGraph("Payment.details")
     List<Payment> findByRentalId(Long rentalId);
     
+    @EntityGraph("Payment.details")
     List<Payment> findByStatus(Payment.PaymentStatus status);
     
+    @EntityGraph("Payment.details")
     @Query("SELECT p FROM Payment p WHERE p.customer.id = :customerId ORDER BY p.createdDate DESC")
     List<Payment> findByCustomerIdOrderByCreatedDateDesc(@Param("customerId") Long customerId);
     
+    @EntityGraph("Payment.details")
     @Query("SELECT p FROM Payment p WHERE p.status = :status AND p.dueDate < :currentDate ORDER BY p.dueDate ASC")
     List<Payment> findOverduePayments(@Param("status") Payment.PaymentStatus status, @Param("currentDate") LocalDateTime currentDate);
     
+    @EntityGraph("Payment.details")
     @Query("SELECT p FROM Payment p WHERE p.dueDate BETWEEN :startDate AND :endDate ORDER BY p.dueDate ASC")
     List<Payment> findPaymentsDueBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
     
@@ -46,8 +69,34 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     
     @Query("SELECT p.method, SUM(p.amount) FROM Payment p WHERE p.status = 'COMPLETED' AND p.paidAt BETWEEN :startDate AND :endDate GROUP BY p.method")
     List<Object[]> getRevenueByMethodBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    
+    // Payment summary in one pass: (status, method, count, amount)
+    @Query("SELECT p.status, p.method, COUNT(p), COALESCE(SUM(p.amount), 0) FROM Payment p GROUP BY p.status, p.method")
+    List<Object[]> getStatusMethodTotals();
+    
+    @Query("SELECT COALESCE(SUM(p.amount), 0) FROM Payment p WHERE p.status = :status AND p.dueDate < :currentDate")
+    BigDecimal getOverdueAmount(@Param("status") Payment.PaymentStatus status, @Param("currentDate") LocalDateTime currentDate);
+    
+    // Dashboard totals for one status in one pass: (count, amount, overdue count, overdue amount)
+    @Query("SELECT COUNT(p), COALESCE(SUM(p.amount), 0), " +
+           "COALESCE(SUM(CASE WHEN p.dueDate < :currentDate THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN p.dueDate < :currentDate THEN p.amount ELSE 0 END), 0) " +
+           "FROM Payment p WHERE p.status = :status")
+    List<Object[]> getStatusDueTotals(@Param("status") Payment.PaymentStatus status, @Param("currentDate") LocalDateTime currentDate);
+    
+    // Keyset pages ordered by (createdDate, id), newest first; the limit comes from the Pageable
+    @EntityGraph("Payment.details")
+    @Query("SELECT p FROM Payment p ORDER BY p.createdDate DESC, p.id DESC")
+    List<Payment> findKeysetFirstPage(Pageable pageable);
+    
+    @EntityGraph("Payment.details")
+    @Query("SELECT p FROM Payment p WHERE p.createdDate <= :position AND (p.createdDate < :position OR p.id < :id) " +
+           "ORDER BY p.createdDate DESC, p.id DESC")
+    List<Payment> findKeysetPageAfter(@Param("position") Date position, @Param("id") Long id, Pageable pageable);
+    
+    // Export stream: rows arrive in JDBC batches of 500 instead of being loaded at once
+    @EntityGraph("Payment.details")
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT p FROM Payment p WHERE p.createdDate >= :from AND p.createdDate < :to ORDER BY p.id")
+    Stream<Payment> streamByCreatedDateBetween(@Param("from") Date from, @Param("to") Date to);
 }
-
-
-
-
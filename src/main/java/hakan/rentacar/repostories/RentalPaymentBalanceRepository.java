@@ -0,0 +1,121 @@
+package hakan.rentacar.repostories;
+
+import hakan.rentacar.entities.concretes.RentalPaymentBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface RentalPaymentBalanceRepository extends JpaRepository<RentalPaymentBalance, Long> {
+
+    // Adds a payment delta in one statement; concurrent payments of the same rental queue on the row lock
+    // instead of overwriting each other. The amount due is re-read from the rental every time.
+    @Modifying
+    @Query(value = """
+        INSERT INTO rental_payment_balances (rental_id, amount_due, amount_paid, amount_refunded, outstanding, updated_at)
+        SELECT r.id, COALESCE(r.total_amount, 0), :paid, :refunded, COALESCE(r.total_amount, 0) - :paid, NOW()
+        FROM rentals r
+        WHERE r.id = :rentalId
+        ON CONFLICT (rental_id) DO UPDATE
+        SET amount_due = EXCLUDED.amount_due,
+            amount_paid = rental_payment_balances.amount_paid + EXCLUDED.amount_paid,
+            amount_refunded = rental_payment_balances.amount_refunded + EXCLUDED.amount_refunded,
+            outstanding = EXCLUDED.amount_due - (rental_payment_balances.amount_paid + EXCLUDED.amount_paid),
+            updated_at = EXCLUDED.updated_at
+        """, nativeQuery = true)
+    int addDelta(@Param("rentalId") Long rentalId, @Param("paid") BigDecimal paid, @Param("refunded") BigDecimal refunded);
+
+    @Modifying
+    @Query(value = """
+        UPDATE rental_payment_balances b
+        SET amount_due = COALESCE(r.total_amount, 0),
+            outstanding = COALESCE(r.total_amount, 0) - b.amount_paid,
+            updated_at = NOW()
+        FROM rentals r
+        WHERE r.id = b.rental_id AND b.rental_id = :rentalId
+        """, nativeQuery = true)
+    int refreshAmountDue(@Param("rentalId") Long rentalId);
+
+    // Recomputes one rental from its payments (verifier repair)
+    @Modifying
+    @Query(value = """
+        INSERT INTO rental_payment_balances (rental_id, amount_due, amount_paid, amount_refunded, outstanding, updated_at)
+        SELECT r.id, COALESCE(r.total_amount, 0), t.paid, t.refunded, COALESCE(r.total_amount, 0) - t.paid, NOW()
+        FROM rentals r
+        CROSS JOIN (
+            SELECT COALESCE(SUM(p.amount) FILTER (WHERE p.status = 'COMPLETED'), 0) as paid,
+                   COALESCE(-SUM(p.amount) FILTER (WHERE p.status = 'REFUNDED'), 0) as refunded
+            FROM payments p
+            WHERE p.rental_id = :rentalId
+        ) t
+        WHERE r.id = :rentalId
+        ON CONFLICT (rental_id) DO UPDATE
+        SET amount_due = EXCLUDED.amount_due,
+            amount_paid = EXCLUDED.amount_paid,
+            amount_refunded = EXCLUDED.amount_refunded,
+            outstanding = EXCLUDED.outstanding,
+            updated_at = EXCLUDED.updated_at
+        """, nativeQuery = true)
+    int recompute(@Param("rentalId") Long rentalId);
+
+    // Removes the balance row of a deleted rental; a no-op while the rental exists
+    @Modifying
+    @Query(value = """
+        DELETE FROM rental_payment_balances b
+        WHERE b.rental_id = :rentalId
+          AND NOT EXISTS (SELECT 1 FROM rentals r WHERE r.id = b.rental_id)
+        """, nativeQuery = true)
+    int deleteOrphan(@Param("rentalId") Long rentalId);
+
+    @Modifying
+    @Query(value = "DELETE FROM rental_payment_balances", nativeQuery = true)
+    int deleteAllRows();
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO rental_payment_balances (rental_id, amount_due, amount_paid, amount_refunded, outstanding, updated_at)
+        SELECT r.id, COALESCE(r.total_amount, 0), t.paid, t.refunded, COALESCE(r.total_amount, 0) - t.paid, NOW()
+        FROM (
+            SELECT p.rental_id,
+                   COALESCE(SUM(p.amount) FILTER (WHERE p.status = 'COMPLETED'), 0) as paid,
+                   COALESCE(-SUM(p.amount) FILTER (WHERE p.status = 'REFUNDED'), 0) as refunded
+            FROM payments p
+            GROUP BY p.rental_id
+        ) t
+        JOIN rentals r ON r.id = t.rental_id
+        """, nativeQuery = true)
+    int insertAll();
+
+    // Verifier: (rentalId, stored due, actual due, stored paid, actual paid, stored refunded, actual refunded,
+    // rental deleted) for every rental whose stored balance is missing or differs from its payments, and
+    // for every stored balance whose rental no longer exists
+    @Query(value = """
+        SELECT COALESCE(s.rental_id, b.rental_id),
+               b.amount_due, COALESCE(r.total_amount, 0),
+               b.amount_paid, COALESCE(s.paid, 0),
+               b.amount_refunded, COALESCE(s.refunded, 0),
+               r.id IS NULL
+        FROM (
+            SELECT p.rental_id,
+                   COALESCE(SUM(p.amount) FILTER (WHERE p.status = 'COMPLETED'), 0) as paid,
+                   COALESCE(-SUM(p.amount) FILTER (WHERE p.status = 'REFUNDED'), 0) as refunded
+            FROM payments p
+            GROUP BY p.rental_id
+        ) s
+        FULL OUTER JOIN rental_payment_balances b ON b.rental_id = s.rental_id
+        LEFT JOIN rentals r ON r.id = COALESCE(s.rental_id, b.rental_id)
+        WHERE (r.id IS NULL AND b.rental_id IS NOT NULL)
+           OR (r.id IS NOT NULL
+               AND (b.rental_id IS NULL
+                    OR b.amount_paid <> COALESCE(s.paid, 0)
+                    OR b.amount_refunded <> COALESCE(s.refunded, 0)
+                    OR b.amount_due <> COALESCE(r.total_amount, 0)))
+        ORDER BY 1
+        """, nativeQuery = true)
+    List<Object[]> findDrift();
+}
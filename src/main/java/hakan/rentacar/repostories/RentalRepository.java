@@ -1,6 +1,7 @@
 package hakan.rentacar.repostories;
 
 import hakan.rentacar.entities.concretes.Rental;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -8,6 +9,8 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 
 @Repository
@@ -27,6 +30,13 @@ public interface RentalRepository extends JpaRepository<Rental, Long> {
                                        @Param("start") LocalDate start, 
                                        @Param("end") LocalDate end);
     
+    // Booked ranges (carId, start, end) used to build the availability index
+    @Query("SELECT r.car.id, r.start, r.end FROM Rental r")
+    List<Object[]> findBookedRanges();
+    
+    @Query("SELECT r.car.id, r.start, r.end FROM Rental r WHERE r.car.id = :carId")
+    List<Object[]> findBookedRangesByCarId(@Param("carId") Long carId);
+    
     @Query("SELECT r FROM Rental r WHERE r.start = :date OR r.end = :date")
     List<Rental> findByDate(@Param("date") LocalDate date);
     
@@ -36,179 +46,27 @@ public interface RentalRepository extends JpaRepository<Rental, Long> {
     @Query("SELECT r FROM Rental r WHERE r.start BETWEEN :startDate AND :endDate OR r.end BETWEEN :startDate AND :endDate")
     List<Rental> findRentalsBetweenDates(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
     
-    // Analytics Queries
-    @Query(value = """
-        SELECT 
-            CAST(DATE_TRUNC('month', r.start) AS DATE) as date,
-            'MONTHLY' as period,
-            SUM(c.daily_price * ((r."end" - r.start) + 1)) + COALESCE(SUM(r.extra_costs), 0) as totalRevenue,
-            COUNT(r.id) as totalRentals,
-            b.name as carBrand,
-            m.name as carModel
-        FROM rentals r 
-        JOIN cars c ON r.car_id = c.id
-        JOIN models m ON c.model_id = m.id
-        JOIN brands b ON m.brand_id = b.id
-        WHERE EXTRACT(year FROM r.start) = :year
-        GROUP BY DATE_TRUNC('month', r.start), b.name, m.name
-        ORDER BY date
-        """, nativeQuery = true)
-    List<Object[]> getMonthlyRevenueReport(@Param("year") int year);
+    // Rental lists with car, model, brand and customer loaded in the same query
+    @Query("SELECT r FROM Rental r JOIN FETCH r.car c JOIN FETCH c.model m LEFT JOIN FETCH m.brand JOIN FETCH r.customer ORDER BY r.id")
+    List<Rental> findAllWithDetails();
     
-    @Query(value = """
-        SELECT 
-            CAST(DATE_TRUNC('year', r.start) AS DATE) as date,
-            'YEARLY' as period,
-            SUM(c.daily_price * ((r."end" - r.start) + 1)) + COALESCE(SUM(r.extra_costs), 0) as totalRevenue,
-            COUNT(r.id) as totalRentals,
-            b.name as carBrand,
-            m.name as carModel
-        FROM rentals r 
-        JOIN cars c ON r.car_id = c.id
-        JOIN models m ON c.model_id = m.id
-        JOIN brands b ON m.brand_id = b.id
-        WHERE EXTRACT(year FROM r.start) BETWEEN :startYear AND :endYear
-        GROUP BY DATE_TRUNC('year', r.start), b.name, m.name
-        ORDER BY date
-        """, nativeQuery = true)
-    List<Object[]> getYearlyRevenueReport(@Param("startYear") int startYear, @Param("endYear") int endYear);
+    @Query("SELECT r FROM Rental r JOIN FETCH r.car c JOIN FETCH c.model m LEFT JOIN FETCH m.brand JOIN FETCH r.customer WHERE c.id = :carId")
+    List<Rental> findByCarIdWithDetails(@Param("carId") Long carId);
     
-    @Query(value = """
-        SELECT 
-            r.start as date,
-            'DAILY' as period,
-            SUM(c.daily_price * ((r."end" - r.start) + 1)) + COALESCE(SUM(r.extra_costs), 0) as totalRevenue,
-            COUNT(r.id) as totalRentals,
-            b.name as carBrand,
-            m.name as carModel
-        FROM rentals r 
-        JOIN cars c ON r.car_id = c.id
-        JOIN models m ON c.model_id = m.id
-        JOIN brands b ON m.brand_id = b.id
-        WHERE r.start BETWEEN :startDate AND :endDate
-        GROUP BY r.start, b.name, m.name
-        ORDER BY date
-        """, nativeQuery = true)
-    List<Object[]> getDailyRevenueReport(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    @Query("SELECT r FROM Rental r JOIN FETCH r.car c JOIN FETCH c.model m LEFT JOIN FETCH m.brand JOIN FETCH r.customer WHERE r.customer.id = :customerId ORDER BY r.start DESC")
+    List<Rental> findByCustomerIdWithDetails(@Param("customerId") Long customerId);
     
-    @Query(value = """
-        SELECT 
-            r.car_id as carId,
-            c.plate as plate,
-            b.name as brandName,
-            m.name as modelName,
-            COUNT(r.id) as totalRentals,
-            SUM(c.daily_price * ((r."end" - r.start) + 1)) + COALESCE(SUM(r.extra_costs), 0) as totalRevenue,
-            SUM((r."end" - r.start) + 1) as totalRentalDays,
-            0 as utilizationRate,
-            AVG(c.daily_price) as averageDailyRevenue
-        FROM rentals r 
-        JOIN cars c ON r.car_id = c.id
-        JOIN models m ON c.model_id = m.id
-        JOIN brands b ON m.brand_id = b.id
-        GROUP BY r.car_id, c.plate, b.name, m.name
-        ORDER BY COUNT(r.id) DESC
-        LIMIT :limit
-        """, nativeQuery = true)
-    List<Object[]> getMostRentedCars(@Param("limit") int limit);
+    @Query("SELECT r FROM Rental r JOIN FETCH r.car c JOIN FETCH c.model m LEFT JOIN FETCH m.brand JOIN FETCH r.customer WHERE r.start = :date OR r.end = :date")
+    List<Rental> findByDateWithDetails(@Param("date") LocalDate date);
     
-    @Query(value = """
-        SELECT 
-            r.car_id as carId,
-            c.plate as plate,
-            b.name as brandName,
-            m.name as modelName,
-            COUNT(r.id) as totalRentals,
-            SUM(c.daily_price * ((r."end" - r.start) + 1)) + COALESCE(SUM(r.extra_costs), 0) as totalRevenue,
-            SUM((r."end" - r.start) + 1) as totalRentalDays,
-            0 as utilizationRate,
-            AVG(c.daily_price) as averageDailyRevenue
-        FROM rentals r 
-        JOIN cars c ON r.car_id = c.id
-        JOIN models m ON c.model_id = m.id
-        JOIN brands b ON m.brand_id = b.id
-        GROUP BY r.car_id, c.plate, b.name, m.name
-        ORDER BY totalRevenue DESC
-        LIMIT :limit
-        """, nativeQuery = true)
-    List<Object[]> getTopRevenueCars(@Param("limit") int limit);
+    @Query("SELECT r FROM Rental r JOIN FETCH r.car c JOIN FETCH c.model m LEFT JOIN FETCH m.brand JOIN FETCH r.customer WHERE r.start <= :date AND r.end >= :date")
+    List<Rental> findActiveRentalsWithDetails(@Param("date") LocalDate date);
     
-    @Query(value = """
-        SELECT 
-            r.car_id as carId,
-            c.plate as plate,
-            b.name as brandName,
-            m.name as modelName,
-            COUNT(r.id) as totalRentals,
-            SUM(c.daily_price * ((r."end" - r.start) + 1)) + COALESCE(SUM(r.extra_costs), 0) as totalRevenue,
-            SUM((r."end" - r.start) + 1) as totalRentalDays,
-            CASE 
-                WHEN COUNT(r.id) > 10 THEN 85.0
-                WHEN COUNT(r.id) > 5 THEN 65.0
-                WHEN COUNT(r.id) > 2 THEN 45.0
-                ELSE 25.0
-            END as utilizationRate,
-            AVG(c.daily_price) as averageDailyRevenue
-        FROM rentals r 
-        JOIN cars c ON r.car_id = c.id
-        JOIN models m ON c.model_id = m.id
-        JOIN brands b ON m.brand_id = b.id
-        GROUP BY r.car_id, c.plate, b.name, m.name
-        ORDER BY utilizationRate DESC
-        """, nativeQuery = true)
-    List<Object[]> getCarUtilizationStats();
-    
-    @Query(value = """
-        WITH customer_segments AS (
-            SELECT 
-                cu.id,
-                cu.first_name,
-                cu.last_name,
-                COUNT(r.id) as rental_count,
-                SUM(c.daily_price * ((r."end" - r.start) + 1)) + COALESCE(SUM(r.extra_costs), 0) as total_revenue,
-                CASE 
-                    WHEN COUNT(r.id) >= 10 AND COALESCE(SUM(c.daily_price * ((r."end" - r.start) + 1)) + SUM(COALESCE(r.extra_costs, 0)), 0) > 10000 THEN 'VIP'
-                    WHEN COUNT(r.id) >= 5 THEN 'REGULAR'
-                    WHEN COUNT(r.id) >= 2 THEN 'FREQUENT'
-                    WHEN COUNT(r.id) >= 1 THEN 'OCCASIONAL'
-                    ELSE 'NEW'
-                END as segment
-            FROM customers cu
-            LEFT JOIN rentals r ON cu.id = r.customer_id
-            LEFT JOIN cars c ON r.car_id = c.id
-            GROUP BY cu.id, cu.first_name, cu.last_name
-        )
-        SELECT 
-            segment as segmentName,
-            COUNT(id) as customerCount,
-            COALESCE(SUM(total_revenue), 0) as totalRevenue,
-            CASE 
-                WHEN COUNT(id) > 0 THEN COALESCE(SUM(total_revenue), 0) / COUNT(id)
-                ELSE 0
-            END as averageRevenuePerCustomer,
-            SUM(rental_count) as totalRentals
-        FROM customer_segments
-        GROUP BY segment
-        ORDER BY totalRevenue DESC
-        """, nativeQuery = true)
-    List<Object[]> getCustomerSegmentation();
-    
-    @Query(value = """
-        SELECT COALESCE(SUM(c.daily_price * ((r."end" - r.start) + 1)) + SUM(COALESCE(r.extra_costs, 0)), 0)
-        FROM rentals r 
-        JOIN cars c ON r.car_id = c.id
-        """, nativeQuery = true)
-    BigDecimal getTotalRevenue();
-    
-    @Query(value = """
-        SELECT COALESCE(SUM(c.daily_price * ((r."end" - r.start) + 1)) + SUM(COALESCE(r.extra_costs, 0)), 0) 
-        FROM rentals r 
-        JOIN cars c ON r.car_id = c.id
-        WHERE EXTRACT(year FROM r.start) = EXTRACT(year FROM CURRENT_DATE) 
-        AND EXTRACT(month FROM r.start) = EXTRACT(month FROM CURRENT_DATE)
-        """, nativeQuery = true)
-    BigDecimal getMonthlyRevenue();
+    @Query("SELECT r FROM Rental r JOIN FETCH r.car c JOIN FETCH c.model m LEFT JOIN FETCH m.brand JOIN FETCH r.customer " +
+           "WHERE r.start BETWEEN :startDate AND :endDate OR r.end BETWEEN :startDate AND :endDate")
+    List<Rental> findRentalsBetweenDatesWithDetails(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
     
+    // Analytics Queries
     @Query(value = """
         SELECT COUNT(*) 
         FROM rentals r 
@@ -230,19 +88,6 @@ public interface RentalRepository extends JpaRepository<Rental, Long> {
         """, nativeQuery = true)
     BigDecimal getRevenueByDate(@Param("date") LocalDate date);
     
-    @Query(value = """
-        SELECT 
-            CAST(DATE_TRUNC('month', r.start) AS DATE) as date,
-            SUM(c.daily_price * ((r."end" - r.start) + 1)) + COALESCE(SUM(r.extra_costs), 0) as revenue,
-            COUNT(r.id) as rentalCount
-        FROM rentals r
-        JOIN cars c ON r.car_id = c.id
-        WHERE r.start >= :startDate
-        GROUP BY DATE_TRUNC('month', r.start)
-        ORDER BY date
-        """, nativeQuery = true)
-    List<Object[]> getRevenueTrend(@Param("startDate") LocalDate startDate);
-    
     // Find active rentals ending tomorrow (for pickup reminders)
     @Query("SELECT r FROM Rental r WHERE r.end = :tomorrow")
     List<Rental> findRentalsEndingTomorrow(@Param("tomorrow") LocalDate tomorrow);
@@ -254,4 +99,51 @@ public interface RentalRepository extends JpaRepository<Rental, Long> {
     // Find rentals that ended yesterday (for rating requests)
     @Query("SELECT r FROM Rental r WHERE r.end = :yesterday")
     List<Rental> findRentalsEndedYesterday(@Param("yesterday") LocalDate yesterday);
-}
\ No newline at end of file
+    
+    // Revenue cube rows: (id, carId, customerId, start, end, extraCosts, dailyPrice, brand, model, segment, city, plate)
+    @Query("SELECT r.id, c.id, cu.id, r.start, r.end, r.extraCosts, c.dailyPrice, b.name, m.name, c.segment, cu.city, c.plate " +
+           "FROM Rental r JOIN r.car c JOIN c.model m LEFT JOIN m.brand b JOIN r.customer cu")
+    List<Object[]> findCubeRows();
+    
+    @Query("SELECT r.id, c.id, cu.id, r.start, r.end, r.extraCosts, c.dailyPrice, b.name, m.name, c.segment, cu.city, c.plate " +
+           "FROM Rental r JOIN r.car c JOIN c.model m LEFT JOIN m.brand b JOIN r.customer cu WHERE c.id = :carId")
+    List<Object[]> findCubeRowsByCarId(@Param("carId") Long carId);
+    
+    // Sketch rows: (id, carId, customerId, start, end, extraCosts, dailyPrice)
+    @Query("SELECT r.id, c.id, r.customer.id, r.start, r.end, r.extraCosts, c.dailyPrice FROM Rental r JOIN r.car c")
+    List<Object[]> findSketchRows();
+    
+    @Query("SELECT r.id, c.id, r.customer.id, r.start, r.end, r.extraCosts, c.dailyPrice FROM Rental r JOIN r.car c WHERE c.id = :carId")
+    List<Object[]> findSketchRowsByCarId(@Param("carId") Long carId);
+    
+    @Query("SELECT r.id, c.id, r.customer.id, r.start, r.end, r.extraCosts, c.dailyPrice FROM Rental r JOIN r.car c WHERE r.start IN :days")
+    List<Object[]> findSketchRowsByStartIn(@Param("days") Collection<LocalDate> days);
+    
+    // Exact counterpart of the sketches: (rentals, distinct customers, avg duration, duration p50/p90/p99, revenue p50/p90/p99)
+    @Query(value = """
+        SELECT COUNT(r.id),
+               COUNT(DISTINCT r.customer_id),
+               AVG((r."end" - r.start) + 1),
+               percentile_cont(0.5) WITHIN GROUP (ORDER BY (r."end" - r.start) + 1),
+               percentile_cont(0.9) WITHIN GROUP (ORDER BY (r."end" - r.start) + 1),
+               percentile_cont(0.99) WITHIN GROUP (ORDER BY (r."end" - r.start) + 1),
+               percentile_cont(0.5) WITHIN GROUP (ORDER BY c.daily_price * ((r."end" - r.start) + 1) + COALESCE(r.extra_costs, 0)),
+               percentile_cont(0.9) WITHIN GROUP (ORDER BY c.daily_price * ((r."end" - r.start) + 1) + COALESCE(r.extra_costs, 0)),
+               percentile_cont(0.99) WITHIN GROUP (ORDER BY c.daily_price * ((r."end" - r.start) + 1) + COALESCE(r.extra_costs, 0))
+        FROM rentals r
+        JOIN cars c ON r.car_id = c.id
+        WHERE r.start >= :from AND r.start < :to
+          AND (CAST(:carId AS BIGINT) IS NULL OR r.car_id = :carId)
+        """, nativeQuery = true)
+    List<Object[]> getRentalDistribution(@Param("from") LocalDate from, @Param("to") LocalDate to, @Param("carId") Long carId);
+    
+    // Keyset pages ordered by (createdDate, id), newest first; the limit comes from the Pageable
+    @Query("SELECT r FROM Rental r JOIN FETCH r.car c JOIN FETCH c.model m LEFT JOIN FETCH m.brand JOIN FETCH r.customer " +
+           "ORDER BY r.createdDate DESC, r.id DESC")
+    List<Rental> findKeysetFirstPage(Pageable pageable);
+    
+    @Query("SELECT r FROM Rental r JOIN FETCH r.car c JOIN FETCH c.model m LEFT JOIN FETCH m.brand JOIN FETCH r.customer " +
+           "WHERE r.createdDate <= :position AND (r.createdDate < :position OR r.id < :id) " +
+           "ORDER BY r.createdDate DESC, r.id DESC")
+    List<Rental> findKeysetPageAfter(@Param("position") Date position, @Param("id") Long id, Pageable pageable);
+}
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,10 +29,24 @@ public interface ReservationRatingRepository extends JpaRepository<ReservationRa
     @Query("SELECT COUNT(r) FROM ReservationRating r WHERE r.rental.car.id = :carId AND r.carRating = true")
     Long getCarRatingCount(@Param("carId") Long carId);
     
+    // Rating totals per car in one grouped query: (carId, ratingSum, ratingCount)
+    @Query("SELECT r.rental.car.id, SUM(r.rating), COUNT(r) FROM ReservationRating r WHERE r.carRating = true AND r.rental.car.id IN :carIds GROUP BY r.rental.car.id")
+    List<Object[]> getCarRatingTotals(@Param("carIds") Collection<Long> carIds);
+    
+    @Query("SELECT r.rental.car.id, SUM(r.rating), COUNT(r) FROM ReservationRating r WHERE r.carRating = true GROUP BY r.rental.car.id")
+    List<Object[]> getAllCarRatingTotals();
+    
+    @Query("SELECT r.rental.car.id FROM ReservationRating r WHERE r.id = :ratingId")
+    Optional<Long> findCarIdByRatingId(@Param("ratingId") Long ratingId);
+    
     // Check if customer has rated a rental
     @Query("SELECT COUNT(r) > 0 FROM ReservationRating r WHERE r.customer.id = :customerId AND r.rental.car.id = :carId")
     Boolean hasCustomerRatedRental(@Param("customerId") Long customerId, @Param("carId") Long carId);
     
+    // (customerId, carId) pairs already rated by the given customers, for bulk rated checks
+    @Query("SELECT DISTINCT r.customer.id, r.rental.car.id FROM ReservationRating r WHERE r.customer.id IN :customerIds")
+    List<Object[]> findRatedCarIdsByCustomerIds(@Param("customerIds") Collection<Long> customerIds);
+    
     // Find rating by customer and car for completed rental
     @Query("SELECT r FROM ReservationRating r WHERE r.customer.id = :customerId AND r.rental.car.id = :carId")
     Optional<ReservationRating> findByCustomerIdAndCarIdForCompletedRental(@Param("customerId") Long customerId, @Param("carId") Long carId);
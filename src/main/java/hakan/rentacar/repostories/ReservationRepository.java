@@ -1,20 +1,34 @@
 package hakan.rentacar.repostories;
 
 import hakan.rentacar.entities.concretes.Reservation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
     
+    // DTO assembly follows the associations below for every row, load them with the entity
+    @Override
+    @EntityGraph("Reservation.details")
+    List<Reservation> findAll();
+    
+    @Override
+    @EntityGraph("Reservation.details")
+    Optional<Reservation> findById(Long id);
+    
+    @EntityGraph("Reservation.details")
     List<Reservation> findByCustomerIdOrderByCreatedDateDesc(Long customerId);
     
+    @EntityGraph("Reservation.details")
     List<Reservation> findByCarIdOrderByCreatedDateDesc(Long carId);
     
     @Query("SELECT r FROM Reservation r WHERE r.customer.id = :customerId AND r.status = :status")
@@ -30,6 +44,13 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
                                              @Param("startDate") LocalDate startDate, 
                                              @Param("endDate") LocalDate endDate);
     
+    // Booked ranges (carId, startDate, endDate) used to build the availability index
+    @Query("SELECT r.car.id, r.startDate, r.endDate FROM Reservation r WHERE r.status IN ('CONFIRMED', 'PENDING')")
+    List<Object[]> findBookedRanges();
+    
+    @Query("SELECT r.car.id, r.startDate, r.endDate FROM Reservation r WHERE r.car.id = :carId AND r.status IN ('CONFIRMED', 'PENDING')")
+    List<Object[]> findBookedRangesByCarId(@Param("carId") Long carId);
+    
     @Query("SELECT r FROM Reservation r WHERE r.status = :status AND r.startDate <= :date")
     List<Reservation> findByStatusAndStartDateBefore(@Param("status") Reservation.ReservationStatus status, 
                                                     @Param("date") LocalDate date);
@@ -39,6 +60,7 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
                                                         @Param("startDate") LocalDate startDate,
                                                         @Param("endDate") LocalDate endDate);
     
+    @EntityGraph("Reservation.details")
     List<Reservation> findByStatusOrderByCreatedDateDesc(Reservation.ReservationStatus status);
     
     // Find reservations starting tomorrow (for reminder notifications)
@@ -62,4 +84,14 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
                                                               @Param("carId") Long carId,
                                                               @Param("startDate") LocalDate startDate, 
                                                               @Param("endDate") LocalDate endDate);
+    
+    // Keyset pages ordered by (createdDate, id), newest first; the limit comes from the Pageable
+    @EntityGraph("Reservation.details")
+    @Query("SELECT r FROM Reservation r ORDER BY r.createdDate DESC, r.id DESC")
+    List<Reservation> findKeysetFirstPage(Pageable pageable);
+    
+    @EntityGraph("Reservation.details")
+    @Query("SELECT r FROM Reservation r WHERE r.createdDate <= :position AND (r.createdDate < :position OR r.id < :id) " +
+           "ORDER BY r.createdDate DESC, r.id DESC")
+    List<Reservation> findKeysetPageAfter(@Param("position") Date position, @Param("id") Long id, Pageable pageable);
 }
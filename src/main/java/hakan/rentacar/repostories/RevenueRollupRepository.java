@@ -0,0 +1,237 @@
+package hakan.rentacar.repostories;
+
+import hakan.rentacar.entities.concretes.RevenueDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface RevenueRollupRepository extends JpaRepository<RevenueDailyRollup, RevenueDailyRollup.Key> {
+
+    // Maintenance: rows are recomputed from rentals for the affected (car, day) keys.
+    // Revenue per rental is daily_price * (("end" - start) + 1) + extra_costs, attributed to the start day.
+    @Modifying
+    @Query(value = "DELETE FROM revenue_daily_rollup WHERE car_id = :carId AND day = :day", nativeQuery = true)
+    int deleteCarDay(@Param("carId") Long carId, @Param("day") LocalDate day);
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO revenue_daily_rollup (day, car_id, model_id, brand_id, revenue, rental_count, rental_days, updated_at)
+        SELECT r.start, c.id, m.id, m.brand_id,
+               SUM(c.daily_price * ((r."end" - r.start) + 1) + COALESCE(r.extra_costs, 0)),
+               COUNT(r.id),
+               SUM((r."end" - r.start) + 1),
+               NOW()
+        FROM rentals r
+        JOIN cars c ON r.car_id = c.id
+        JOIN models m ON c.model_id = m.id
+        WHERE r.car_id = :carId AND r.start = :day AND m.brand_id IS NOT NULL
+        GROUP BY r.start, c.id, m.id, m.brand_id
+        ON CONFLICT (day, car_id, model_id, brand_id) DO UPDATE
+        SET revenue = EXCLUDED.revenue,
+            rental_count = EXCLUDED.rental_count,
+            rental_days = EXCLUDED.rental_days,
+            updated_at = EXCLUDED.updated_at
+        """, nativeQuery = true)
+    int insertCarDay(@Param("carId") Long carId, @Param("day") LocalDate day);
+
+    @Modifying
+    @Query(value = "DELETE FROM revenue_daily_rollup WHERE car_id = :carId", nativeQuery = true)
+    int deleteCar(@Param("carId") Long carId);
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO revenue_daily_rollup (day, car_id, model_id, brand_id, revenue, rental_count, rental_days, updated_at)
+        SELECT r.start, c.id, m.id, m.brand_id,
+               SUM(c.daily_price * ((r."end" - r.start) + 1) + COALESCE(r.extra_costs, 0)),
+               COUNT(r.id),
+               SUM((r."end" - r.start) + 1),
+               NOW()
+        FROM rentals r
+        JOIN cars c ON r.car_id = c.id
+        JOIN models m ON c.model_id = m.id
+        WHERE r.car_id = :carId AND m.brand_id IS NOT NULL
+        GROUP BY r.start, c.id, m.id, m.brand_id
+        ON CONFLICT (day, car_id, model_id, brand_id) DO UPDATE
+        SET revenue = EXCLUDED.revenue,
+            rental_count = EXCLUDED.rental_count,
+            rental_days = EXCLUDED.rental_days,
+            updated_at = EXCLUDED.updated_at
+        """, nativeQuery = true)
+    int insertCar(@Param("carId") Long carId);
+
+    @Modifying
+    @Query(value = "DELETE FROM revenue_daily_rollup", nativeQuery = true)
+    int deleteAllRows();
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO revenue_daily_rollup (day, car_id, model_id, brand_id, revenue, rental_count, rental_days, updated_at)
+        SELECT r.start, c.id, m.id, m.brand_id,
+               SUM(c.daily_price * ((r."end" - r.start) + 1) + COALESCE(r.extra_costs, 0)),
+               COUNT(r.id),
+               SUM((r."end" - r.start) + 1),
+               NOW()
+        FROM rentals r
+        JOIN cars c ON r.car_id = c.id
+        JOIN models m ON c.model_id = m.id
+        WHERE m.brand_id IS NOT NULL
+        GROUP BY r.start, c.id, m.id, m.brand_id
+        """, nativeQuery = true)
+    int insertAll();
+
+    // Reports: day ranges are half-open [from, to) so the primary key (day, ...) serves them as range scans
+    @Query(value = """
+        SELECT
+            CAST(DATE_TRUNC('month', x.day) AS DATE) as date,
+            'MONTHLY' as period,
+            SUM(x.revenue) as totalRevenue,
+            SUM(x.rental_count) as totalRentals,
+            b.name as carBrand,
+            m.name as carModel
+        FROM revenue_daily_rollup x
+        JOIN models m ON x.model_id = m.id
+        JOIN brands b ON x.brand_id = b.id
+        WHERE x.day >= :from AND x.day < :to
+        GROUP BY DATE_TRUNC('month', x.day), b.name, m.name
+        ORDER BY date
+        """, nativeQuery = true)
+    List<Object[]> getMonthlyRevenueReport(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query(value = """
+        SELECT
+            CAST(DATE_TRUNC('year', x.day) AS DATE) as date,
+            'YEARLY' as period,
+            SUM(x.revenue) as totalRevenue,
+            SUM(x.rental_count) as totalRentals,
+            b.name as carBrand,
+            m.name as carModel
+        FROM revenue_daily_rollup x
+        JOIN models m ON x.model_id = m.id
+        JOIN brands b ON x.brand_id = b.id
+        WHERE x.day >= :from AND x.day < :to
+        GROUP BY DATE_TRUNC('year', x.day), b.name, m.name
+        ORDER BY date
+        """, nativeQuery = true)
+    List<Object[]> getYearlyRevenueReport(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query(value = """
+        SELECT
+            x.day as date,
+            'DAILY' as period,
+            SUM(x.revenue) as totalRevenue,
+            SUM(x.rental_count) as totalRentals,
+            b.name as carBrand,
+            m.name as carModel
+        FROM revenue_daily_rollup x
+        JOIN models m ON x.model_id = m.id
+        JOIN brands b ON x.brand_id = b.id
+        WHERE x.day >= :from AND x.day < :to
+        GROUP BY x.day, b.name, m.name
+        ORDER BY date
+        """, nativeQuery = true)
+    List<Object[]> getDailyRevenueReport(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query(value = """
+        SELECT
+            t.car_id as carId,
+            c.plate as plate,
+            b.name as brandName,
+            m.name as modelName,
+            t.totalRentals,
+            t.totalRevenue,
+            t.totalRentalDays,
+            0 as utilizationRate,
+            c.daily_price as averageDailyRevenue
+        FROM (
+            SELECT x.car_id, x.model_id, x.brand_id,
+                   SUM(x.rental_count) as totalRentals,
+                   SUM(x.revenue) as totalRevenue,
+                   SUM(x.rental_days) as totalRentalDays
+            FROM revenue_daily_rollup x
+            GROUP BY x.car_id, x.model_id, x.brand_id
+            ORDER BY SUM(x.rental_count) DESC
+            LIMIT :limit
+        ) t
+        JOIN cars c ON t.car_id = c.id
+        JOIN models m ON t.model_id = m.id
+        JOIN brands b ON t.brand_id = b.id
+        ORDER BY t.totalRentals DESC
+        """, nativeQuery = true)
+    List<Object[]> getMostRentedCars(@Param("limit") int limit);
+
+    @Query(value = """
+        SELECT
+            t.car_id as carId,
+            c.plate as plate,
+            b.name as brandName,
+            m.name as modelName,
+            t.totalRentals,
+            t.totalRevenue,
+            t.totalRentalDays,
+            0 as utilizationRate,
+            c.daily_price as averageDailyRevenue
+        FROM (
+            SELECT x.car_id, x.model_id, x.brand_id,
+                   SUM(x.rental_count) as totalRentals,
+                   SUM(x.revenue) as totalRevenue,
+                   SUM(x.rental_days) as totalRentalDays
+            FROM revenue_daily_rollup x
+            GROUP BY x.car_id, x.model_id, x.brand_id
+            ORDER BY SUM(x.revenue) DESC
+            LIMIT :limit
+        ) t
+        JOIN cars c ON t.car_id = c.id
+        JOIN models m ON t.model_id = m.id
+        JOIN brands b ON t.brand_id = b.id
+        ORDER BY t.totalRevenue DESC
+        """, nativeQuery = true)
+    List<Object[]> getTopRevenueCars(@Param("limit") int limit);
+
+    // Revenue per car (carId, revenue) for rentals starting in [from, to)
+    @Query(value = """
+        SELECT x.car_id, SUM(x.revenue)
+        FROM revenue_daily_rollup x
+        WHERE x.day >= :from AND x.day < :to
+        GROUP BY x.car_id
+        """, nativeQuery = true)
+    List<Object[]> getCarRevenueBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query(value = "SELECT COALESCE(SUM(x.revenue), 0) FROM revenue_daily_rollup x", nativeQuery = true)
+    BigDecimal getTotalRevenue();
+
+    @Query(value = """
+        SELECT COALESCE(SUM(x.revenue), 0)
+        FROM revenue_daily_rollup x
+        WHERE x.day >= :from AND x.day < :to
+        """, nativeQuery = true)
+    BigDecimal getRevenueBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query(value = """
+        SELECT
+            CAST(DATE_TRUNC('month', x.day) AS DATE) as date,
+            SUM(x.revenue) as revenue,
+            SUM(x.rental_count) as rentalCount
+        FROM revenue_daily_rollup x
+        WHERE x.day >= :startDate
+        GROUP BY DATE_TRUNC('month', x.day)
+        ORDER BY date
+        """, nativeQuery = true)
+    List<Object[]> getRevenueTrend(@Param("startDate") LocalDate startDate);
+
+    // Daily series (day, revenue, rental count) for the trend window; days without rentals are absent
+    @Query(value = """
+        SELECT x.day, SUM(x.revenue), SUM(x.rental_count)
+        FROM revenue_daily_rollup x
+        WHERE x.day >= :from AND x.day < :to
+        GROUP BY x.day
+        ORDER BY x.day
+        """, nativeQuery = true)
+    List<Object[]> getDailyRevenueSeries(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
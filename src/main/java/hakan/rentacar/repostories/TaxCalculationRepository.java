@@ -1,14 +1,22 @@
 package hakan.rentacar.repostories;
 
 import hakan.rentacar.entities.concretes.TaxCalculation;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface TaxCalculationRepository extends JpaRepository<TaxCalculation, Long> {
@@ -35,11 +43,39 @@ public interface TaxCalculationRepository extends JpaRepository<TaxCalculation,
     @Query("SELECT tc.taxType, SUM(tc.taxAmount), COUNT(tc) FROM TaxCalculation tc WHERE tc.taxPeriod = :taxPeriod GROUP BY tc.taxType")
     List<Object[]> getTaxSummaryByPeriod(@Param("taxPeriod") String taxPeriod);
     
+    // Tax report totals in one pass: (count, total, collected on invoices, paid on payments)
+    @Query("SELECT COUNT(tc), COALESCE(SUM(tc.taxAmount), 0), " +
+           "COALESCE(SUM(CASE WHEN tc.invoice IS NOT NULL THEN tc.taxAmount ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN tc.invoice IS NULL AND tc.payment IS NOT NULL THEN tc.taxAmount ELSE 0 END), 0) " +
+           "FROM TaxCalculation tc WHERE tc.taxType = :taxType AND tc.calculationDate BETWEEN :startDate AND :endDate")
+    List<Object[]> getTaxTotalsBetween(@Param("taxType") TaxCalculation.TaxType taxType,
+                                       @Param("startDate") LocalDateTime startDate,
+                                       @Param("endDate") LocalDateTime endDate);
+    
     List<TaxCalculation> findByInvoiceId(Long invoiceId);
     
     List<TaxCalculation> findByPaymentId(Long paymentId);
+    
+    // Export stream: rows arrive in JDBC batches of 500 instead of being loaded at once
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT tc FROM TaxCalculation tc WHERE tc.calculationDate >= :from AND tc.calculationDate < :to ORDER BY tc.id")
+    Stream<TaxCalculation> streamByCalculationDateBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    // Tax recorded so far per source and type: (sourceId, taxType, taxableAmount, taxAmount)
+    @Query("SELECT tc.invoice.id, tc.taxType, SUM(tc.taxableAmount), SUM(tc.taxAmount) FROM TaxCalculation tc " +
+           "WHERE tc.invoice.id IN :invoiceIds GROUP BY tc.invoice.id, tc.taxType")
+    List<Object[]> getRecordedTaxByInvoice(@Param("invoiceIds") Collection<Long> invoiceIds);
+    
+    @Query("SELECT tc.payment.id, tc.taxType, SUM(tc.taxableAmount), SUM(tc.taxAmount) FROM TaxCalculation tc " +
+           "WHERE tc.payment.id IN :paymentIds GROUP BY tc.payment.id, tc.taxType")
+    List<Object[]> getRecordedTaxByPayment(@Param("paymentIds") Collection<Long> paymentIds);
+    
+    // A deleted source's calculations stay in the books without the link
+    @Modifying
+    @Query("UPDATE TaxCalculation tc SET tc.invoice = NULL WHERE tc.invoice.id = :invoiceId")
+    int detachInvoice(@Param("invoiceId") Long invoiceId);
+    
+    @Modifying
+    @Query("UPDATE TaxCalculation tc SET tc.payment = NULL WHERE tc.payment.id = :paymentId")
+    int detachPayment(@Param("paymentId") Long paymentId);
 }
-
-
-
-
@@ -23,10 +23,13 @@ public interface AnalyticsService {
     
     // Dashboard Statistics
     DashboardStatsDto getDashboardStats();
+    void markDashboardStale();
     List<TrendAnalysisDto> getRevenueTrend(int months);
+    List<TrendAnalysisDto> getDailyRevenueTrend(LocalDate startDate, LocalDate endDate, double alpha, double anomalyThreshold);
     
     // Real-time Statistics
     BigDecimal getTodayRevenue();
     Long getActiveRentalsCount();
     BigDecimal getAverageRentalDuration();
+    RentalDistributionDto getRentalDistribution(LocalDate startDate, LocalDate endDate, Long carId, boolean approximate);
 }
@@ -0,0 +1,21 @@
+package hakan.rentacar.service;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface AvailabilityIndexService {
+
+    // Availability lookups answered from the in-memory index
+    boolean isCarAvailable(Long carId, LocalDate startDate, LocalDate endDate);
+    List<Long> getAvailableCarIds(Collection<Long> carIds, LocalDate startDate, LocalDate endDate);
+
+    // Index maintenance
+    void rebuild();
+    void refreshCar(Long carId);
+    boolean isReady();
+
+    // Consistency check against the database
+    Map<String, Object> verifyConsistency();
+}
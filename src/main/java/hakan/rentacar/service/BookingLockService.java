@@ -0,0 +1,14 @@
+package hakan.rentacar.service;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface BookingLockService {
+
+    // Serializes bookings of the given cars until the current transaction completes
+    void lockCarForBooking(Long carId);
+    void lockCarsForBooking(Collection<Long> carIds);
+
+    // Lock counters for monitoring
+    Map<String, Object> getStatistics();
+}
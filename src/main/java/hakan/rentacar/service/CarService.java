@@ -4,6 +4,7 @@ import hakan.rentacar.entities.concretes.Car;
 import hakan.rentacar.entities.concretes.MaintenanceRecord;
 import hakan.rentacar.entities.dtos.CarDto;
 import hakan.rentacar.entities.dtos.MaintenanceRecordDto;
+import hakan.rentacar.entities.dtos.KeysetPageDto;
 
 import java.util.List;
 
@@ -11,6 +12,8 @@ public interface CarService {
 
     List<CarDto> getAll();
 
+    KeysetPageDto<CarDto> getPage(String cursor, int size);
+
     CarDto getById(Long id);
     
     CarDto add(CarDto carDto);
@@ -48,6 +51,7 @@ public interface CarService {
 
     // Model mapper
     CarDto EntityToDto(Car car);
+    List<CarDto> EntityToDtos(List<Car> cars);
     Car DtoToEntity(CarDto carDto);
 }
 
@@ -0,0 +1,28 @@
+package hakan.rentacar.service;
+
+import hakan.rentacar.entities.concretes.CustomerRentalStats;
+import hakan.rentacar.entities.concretes.CustomerSegmentTotal;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+public interface CustomerSegmentationService {
+
+    // Incremental maintenance, joins the caller's transaction
+    void registerCustomer(Long customerId);
+    void refreshCustomer(Long customerId);
+    void removeCustomer(Long customerId);
+
+    // Reads: O(segments) totals and per-customer counters
+    List<CustomerSegmentTotal> getSegmentTotals();
+    Optional<CustomerRentalStats> getCustomerStats(Long customerId);
+
+    // Campaign targeting
+    List<Long> getCustomerIds(CustomerRentalStats.Segment segment);
+    List<Long> getCustomerIds(long minRentals, BigDecimal minRevenue);
+
+    // Backfill / full rebuild from customers and rentals, returns the number of customers
+    int rebuild();
+    boolean isEmpty();
+}
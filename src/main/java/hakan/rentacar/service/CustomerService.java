@@ -2,6 +2,7 @@ package hakan.rentacar.service;
 
 import hakan.rentacar.entities.concretes.Customer;
 import hakan.rentacar.entities.dtos.CustomerDto;
+import hakan.rentacar.entities.dtos.KeysetPageDto;
 
 import java.util.List;
 
@@ -9,6 +10,8 @@ public interface CustomerService {
 
     List<CustomerDto> getAll();
 
+    KeysetPageDto<CustomerDto> getPage(String cursor, int size);
+
     CustomerDto getById(Long id);
     
     CustomerDto add(CustomerDto customerDto);
@@ -0,0 +1,36 @@
+package hakan.rentacar.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+public interface ExportService {
+
+    // Rows are written to the stream as they are read; nothing is collected in memory
+    void exportInvoices(LocalDateTime from, LocalDateTime to, Format format, OutputStream out) throws IOException;
+    void exportPayments(LocalDateTime from, LocalDateTime to, Format format, OutputStream out) throws IOException;
+    void exportLedger(LocalDateTime from, LocalDateTime to, Format format, OutputStream out) throws IOException;
+    void exportTaxCalculations(LocalDateTime from, LocalDateTime to, Format format, OutputStream out) throws IOException;
+    void exportAuditLogs(LocalDateTime from, LocalDateTime to, Format format, OutputStream out) throws IOException;
+
+    enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+}
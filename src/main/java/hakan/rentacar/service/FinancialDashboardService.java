@@ -0,0 +1,13 @@
+package hakan.rentacar.service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public interface FinancialDashboardService {
+
+    // Revenue, invoice, open payment and tax figures for the period, served from a short-lived cache
+    Map<String, Object> getDashboardSummary(LocalDateTime startDate, LocalDateTime endDate);
+
+    // Payment, invoice and tax writes drop the cached summaries once they commit
+    void markStale();
+}
@@ -1,6 +1,9 @@
 package hakan.rentacar.service;
 
 import hakan.rentacar.entities.dtos.GeneralLedgerDto;
+import hakan.rentacar.entities.dtos.JournalEntryDto;
+import hakan.rentacar.entities.dtos.JournalPostingResultDto;
+import hakan.rentacar.entities.dtos.KeysetPageDto;
 import hakan.rentacar.entities.concretes.GeneralLedger;
 import hakan.rentacar.entities.concretes.Payment;
 import hakan.rentacar.entities.concretes.Invoice;
@@ -9,12 +12,14 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public interface GeneralLedgerService {
     
     // Basic CRUD operations
     GeneralLedgerDto create(GeneralLedgerDto ledgerDto);
     List<GeneralLedgerDto> getAll();
+    KeysetPageDto<GeneralLedgerDto> getPage(String cursor, int size);
     GeneralLedgerDto getById(Long id);
     void delete(Long id);
     
@@ -26,10 +31,13 @@ public interface GeneralLedgerService {
                            String description,
                            Long referenceId,
                            String referenceType);
+    JournalPostingResultDto postJournalEntries(List<JournalEntryDto> entries);
     
     // Automatic journal entries for business transactions
     void recordPaymentReceived(Payment payment);
     void recordInvoiceIssued(Invoice invoice);
+    int recordBusinessEvents(List<Payment> payments, List<Invoice> invoices);
+    int reverseDeletedSources(Set<Long> paymentIds, Set<Long> invoiceIds);
     void recordExpense(BigDecimal amount, String description, GeneralLedger.AccountType expenseType);
     void recordRevenue(BigDecimal amount, String description, GeneralLedger.AccountType revenueType);
     
@@ -41,15 +49,18 @@ public interface GeneralLedgerService {
     
     // Account balances
     BigDecimal getAccountBalance(GeneralLedger.AccountType accountType);
-    List<GeneralLedgerDto> getAccountTransactions(GeneralLedger.AccountType accountType, 
-                                                 LocalDateTime startDate, LocalDateTime endDate);
+    KeysetPageDto<GeneralLedgerDto> getAccountTransactions(GeneralLedger.AccountType accountType,
+                                                         LocalDateTime startDate, LocalDateTime endDate,
+                                                         String cursor, int size);
     
     // Reconciliation
     List<GeneralLedgerDto> getUnreconciledTransactions();
     void markAsReconciled(Long ledgerId);
     
     // Period closing
-    void closeAccountingPeriod(LocalDateTime periodEnd);
+    int closeAccountingPeriod(LocalDateTime periodEnd);
+    int recloseAccountingPeriod(LocalDateTime periodEnd);
+    List<LocalDateTime> getClosedPeriods();
 }
 
 
@@ -2,6 +2,7 @@ package hakan.rentacar.service;
 
 import hakan.rentacar.entities.dtos.InvoiceDto;
 import hakan.rentacar.entities.dtos.InvoiceSummaryDto;
+import hakan.rentacar.entities.dtos.KeysetPageDto;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -14,6 +15,7 @@ public interface InvoiceService {
     InvoiceDto update(InvoiceDto invoiceDto);
     InvoiceDto getById(Long id);
     List<InvoiceDto> getAll();
+    KeysetPageDto<InvoiceDto> getPage(String cursor, int size);
     void delete(Long id);
     
     // Invoice-specific operations
@@ -38,6 +40,9 @@ public interface InvoiceService {
     // Due date management
     List<InvoiceDto> getInvoicesDueBetween(LocalDateTime startDate, LocalDateTime endDate);
     void updateOverdueInvoices();
+    // Downstream work for invoices moved to OVERDUE by the lifecycle sweep, run after it commits;
+    // replay is set when a resumed sweep hands over ids it may already have handled
+    void handleOverdueInvoices(List<Long> invoiceIds, boolean replay);
     
     // Tax calculations
     BigDecimal calculateTaxAmount(BigDecimal subtotal, BigDecimal taxRate);
@@ -45,4 +50,5 @@ public interface InvoiceService {
     
     // Summary operations
     InvoiceSummaryDto getSummary();
+    InvoiceSummaryDto getLiveSummary();
 }
@@ -0,0 +1,17 @@
+package hakan.rentacar.service;
+
+import hakan.rentacar.entities.concretes.LedgerOutboxEvent;
+
+import java.util.Map;
+
+public interface LedgerPostingService {
+
+    // Called inside the business transaction; the posting itself happens after commit
+    void enqueue(LedgerOutboxEvent.EventType eventType, Long sourceId);
+
+    int processPending();
+
+    Map<String, Object> getStatistics();
+
+    int retryFailed();
+}
@@ -0,0 +1,19 @@
+package hakan.rentacar.service;
+
+import java.util.List;
+
+// One status transition run by the lifecycle sweeper; implementations are picked up as beans
+public interface LifecycleSweep {
+
+    // Checkpoint key, also used to run the sweep on its own
+    String getName();
+
+    // Moves up to limit rows with id > afterId in one statement; runs in the sweeper's chunk transaction
+    List<Long> transition(long afterId, int limit);
+
+    // Downstream work (notifications, caches) for the moved ids, run after the chunk commits.
+    // A run resuming after a crash passes the last chunk's ids again with replay set; their
+    // effects may already have been applied
+    default void afterTransition(List<Long> ids, boolean replay) {
+    }
+}
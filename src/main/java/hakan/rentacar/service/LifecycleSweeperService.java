@@ -0,0 +1,15 @@
+package hakan.rentacar.service;
+
+import hakan.rentacar.entities.dtos.SweepResultDto;
+
+import java.util.List;
+
+public interface LifecycleSweeperService {
+
+    List<SweepResultDto> sweepAll();
+
+    SweepResultDto sweep(String name);
+
+    // Last completed run of every sweep, and progress of any interrupted run
+    List<SweepResultDto> getStatus();
+}
@@ -16,6 +16,7 @@ public interface NotificationService {
     void sendCarPickupNotification(Long rentalId);
     void sendPaymentReminder(Long rentalId);
     void sendRatingRequest(Long rentalId);
+    void sendRentalExpiredNotification(Long rentalId);
     void processPendingNotifications();
 }
 
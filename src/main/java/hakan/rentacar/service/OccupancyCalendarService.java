@@ -0,0 +1,18 @@
+package hakan.rentacar.service;
+
+import hakan.rentacar.entities.dtos.OccupancyHeatmapDto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+public interface OccupancyCalendarService {
+
+    // Fleet-wide occupancy queries answered from per-day bitsets
+    OccupancyHeatmapDto getHeatmap(LocalDate startDate, int days);
+    List<Long> getCarsFreeForEveryDay(LocalDate startDate, LocalDate endDate);
+    Map<String, List<Double>> getSegmentOccupancy(LocalDate startDate, LocalDate endDate);
+
+    // Calendar maintenance
+    void rebuild();
+}
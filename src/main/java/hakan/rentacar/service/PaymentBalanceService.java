@@ -0,0 +1,27 @@
+package hakan.rentacar.service;
+
+import hakan.rentacar.entities.concretes.Payment;
+import hakan.rentacar.entities.concretes.RentalPaymentBalance;
+import hakan.rentacar.entities.dtos.BalanceVerificationDto;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+public interface PaymentBalanceService {
+
+    // Incremental maintenance, joins the caller's transaction.
+    // A payment moving from (oldStatus, oldAmount) to (newStatus, newAmount); null status = not present
+    void recordChange(Long rentalId, Payment.PaymentStatus oldStatus, BigDecimal oldAmount,
+                      Payment.PaymentStatus newStatus, BigDecimal newAmount);
+    void refreshAmountDue(Long rentalId);
+
+    // Single-row primary key read
+    Optional<RentalPaymentBalance> getBalance(Long rentalId);
+
+    // Recomputes balances from payments and reports (and optionally repairs) drifted rentals
+    BalanceVerificationDto verify(boolean repair);
+    BalanceVerificationDto getLastVerification();
+
+    int rebuild();
+    boolean isEmpty();
+}
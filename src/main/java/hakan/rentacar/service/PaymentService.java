@@ -2,6 +2,8 @@ package hakan.rentacar.service;
 
 import hakan.rentacar.entities.dtos.PaymentDto;
 import hakan.rentacar.entities.dtos.PaymentSummaryDto;
+import hakan.rentacar.entities.dtos.RentalBalanceDto;
+import hakan.rentacar.entities.dtos.KeysetPageDto;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -14,6 +16,7 @@ public interface PaymentService {
     PaymentDto update(PaymentDto paymentDto);
     PaymentDto getById(Long id);
     List<PaymentDto> getAll();
+    KeysetPageDto<PaymentDto> getPage(String cursor, int size);
     void delete(Long id);
     
     // Payment-specific operations
@@ -32,6 +35,7 @@ public interface PaymentService {
     // Financial calculations
     BigDecimal getTotalPaidForRental(Long rentalId);
     BigDecimal getRemainingBalanceForRental(Long rentalId);
+    RentalBalanceDto getRentalBalance(Long rentalId);
     BigDecimal getTotalRevenue(LocalDateTime startDate, LocalDateTime endDate);
     
     // Due date management
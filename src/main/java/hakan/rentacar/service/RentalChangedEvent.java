@@ -0,0 +1,22 @@
+package hakan.rentacar.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Published when a rental is created, changed or deleted. Read models (rollups, segments, the
+ * in-memory indexes and the dashboard) listen for it after commit instead of being called by every
+ * writer. An update that moves a rental publishes one event for its old and one for its new state.
+ */
+@Data
+@AllArgsConstructor
+public class RentalChangedEvent {
+
+    private Long rentalId;
+    private Long carId;
+    private Long customerId;
+    // Start day of the rental, the day its revenue is booked on
+    private LocalDate day;
+}
@@ -2,6 +2,7 @@ package hakan.rentacar.service;
 
 import hakan.rentacar.entities.concretes.Rental;
 import hakan.rentacar.entities.dtos.RentalDto;
+import hakan.rentacar.entities.dtos.KeysetPageDto;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -10,6 +11,8 @@ public interface RentalService {
 
     List<RentalDto> getAll();
 
+    KeysetPageDto<RentalDto> getPage(String cursor, int size);
+
     RentalDto getById(Long id);
     
     RentalDto add(RentalDto rentalDto);
@@ -32,6 +35,7 @@ public interface RentalService {
 
     // Model mapper
     RentalDto EntityToDto(Rental rental);
+    List<RentalDto> EntityToDtos(List<Rental> rentals);
     Rental DtoToEntity(RentalDto rentalDto);
 }
 
@@ -0,0 +1,15 @@
+package hakan.rentacar.service;
+
+import hakan.rentacar.entities.dtos.RentalDistributionDto;
+
+import java.time.LocalDate;
+
+public interface RentalSketchService {
+
+    // Distinct customers and duration / revenue percentiles merged from per-day sketches,
+    // or from the car's lifetime sketch when carId is given (the date range is then ignored)
+    RentalDistributionDto getDistribution(LocalDate startDate, LocalDate endDate, Long carId);
+
+    void rebuild();
+    void refreshCar(Long carId);
+}
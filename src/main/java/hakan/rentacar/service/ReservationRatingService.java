@@ -1,8 +1,11 @@
 package hakan.rentacar.service;
 
+import hakan.rentacar.entities.dtos.CarRatingSummaryDto;
 import hakan.rentacar.entities.dtos.ReservationRatingDto;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface ReservationRatingService {
     List<ReservationRatingDto> getByCustomerId(Long customerId);
@@ -13,6 +16,7 @@ public interface ReservationRatingService {
     void delete(Long ratingId);
     Double getAverageCarRating(Long carId);
     Long getCarRatingCount(Long carId);
+    Map<Long, CarRatingSummaryDto> getCarRatingSummaries(Collection<Long> carIds);
     boolean hasCustomerRatedReservation(Long customerId, Long rentalId);
 }
 
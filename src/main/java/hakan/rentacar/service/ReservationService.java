@@ -1,5 +1,7 @@
 package hakan.rentacar.service;
 
+import hakan.rentacar.entities.dtos.AvailableCarDto;
+import hakan.rentacar.entities.dtos.KeysetPageDto;
 import hakan.rentacar.entities.dtos.ReservationDto;
 
 import java.time.LocalDate;
@@ -7,6 +9,7 @@ import java.util.List;
 
 public interface ReservationService {
     List<ReservationDto> getAll();
+    KeysetPageDto<ReservationDto> getPage(String cursor, int size);
     ReservationDto getById(Long id);
     List<ReservationDto> getByCustomerId(Long customerId);
     List<ReservationDto> getByCarId(Long carId);
@@ -18,4 +21,7 @@ public interface ReservationService {
     List<ReservationDto> getPendingReservations();
     List<ReservationDto> getAvailableCars(LocalDate startDate, LocalDate endDate);
     boolean isCarAvailable(Long carId, LocalDate startDate, LocalDate endDate);
+    KeysetPageDto<AvailableCarDto> searchAvailableCars(LocalDate startDate, LocalDate endDate, String segment,
+                                                       String fuelType, String transmission, Long brandId,
+                                                       String cursor, int size);
 }
@@ -0,0 +1,17 @@
+package hakan.rentacar.service;
+
+import hakan.rentacar.entities.dtos.CubeResultDto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface RevenueCubeService {
+
+    // Ad-hoc revenue slices: group by up to three dimensions, filters are "dimension:value1|value2"
+    CubeResultDto query(List<String> groupBy, List<String> filters, LocalDate startDate, LocalDate endDate, Integer limit);
+    List<String> getDimensions();
+
+    // Cube maintenance
+    void rebuild();
+    void refreshCar(Long carId);
+}
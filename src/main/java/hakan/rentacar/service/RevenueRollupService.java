@@ -0,0 +1,14 @@
+package hakan.rentacar.service;
+
+import java.time.LocalDate;
+
+public interface RevenueRollupService {
+
+    // Incremental maintenance, joins the caller's transaction
+    void refreshCarDay(Long carId, LocalDate day);
+    void refreshCar(Long carId);
+
+    // Backfill / full rebuild from the rentals table, returns the number of rollup rows
+    int rebuild();
+    boolean isEmpty();
+}
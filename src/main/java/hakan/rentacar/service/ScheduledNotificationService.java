@@ -9,5 +9,4 @@ public interface ScheduledNotificationService {
     void processCarPickupReminders();
     void processRatingRequests();
     void processAllNotifications();
-    void processContractExpirations();
 }
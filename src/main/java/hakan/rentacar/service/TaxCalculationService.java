@@ -19,6 +19,10 @@ public interface TaxCalculationService {
     // Automatic tax calculations for business transactions
     void calculateTaxForInvoice(Invoice invoice);
     void calculateTaxForPayment(Payment payment);
+    void calculateTaxForInvoices(List<Invoice> invoices);
+    void calculateTaxForPayments(List<Payment> payments);
+    void reverseTaxForDeletedInvoice(Invoice invoice);
+    void reverseTaxForDeletedPayment(Payment payment);
     
     // Tax reporting
     Map<String, Object> getTaxReportForPeriod(String taxPeriod);
@@ -0,0 +1,21 @@
+package hakan.rentacar.service;
+
+import hakan.rentacar.entities.dtos.CarAnalyticsDto;
+import hakan.rentacar.entities.dtos.FleetUtilizationDto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+public interface UtilizationService {
+
+    // Rented days / available days (maintenance days excluded) over an inclusive date window
+    List<CarAnalyticsDto> getCarUtilization(LocalDate startDate, LocalDate endDate);
+    FleetUtilizationDto getFleetUtilization(LocalDate startDate, LocalDate endDate);
+    Map<Long, BigDecimal> getUtilizationRates(LocalDate startDate, LocalDate endDate);
+
+    // Engine maintenance
+    void rebuild();
+    void refreshCar(Long carId);
+}
@@ -1,12 +1,28 @@
 package hakan.rentacar.service.impl;
 
+import hakan.rentacar.entities.concretes.CustomerSegmentTotal;
 import hakan.rentacar.entities.dtos.*;
+import hakan.rentacar.exceptions.BusinessException;
 import hakan.rentacar.repostories.CarRepository;
 import hakan.rentacar.repostories.CustomerRepository;
 import hakan.rentacar.repostories.RentalRepository;
+import hakan.rentacar.repostories.RevenueRollupRepository;
 import hakan.rentacar.service.AnalyticsService;
+import hakan.rentacar.service.RentalChangedEvent;
+import hakan.rentacar.service.CustomerSegmentationService;
+import hakan.rentacar.service.RentalSketchService;
+import hakan.rentacar.service.UtilizationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -15,14 +31,30 @@ import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 public class AnalyticsServiceImpl implements AnalyticsService {
 
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsServiceImpl.class);
+
+    // Car lists report utilization over the trailing year
+    private static final int UTILIZATION_WINDOW_DAYS = 365;
+    // Longest revenue trend range; one result row per day is built in memory
+    private static final int MAX_TREND_YEARS = 5;
+
     @Autowired
     private RentalRepository rentalRepository;
 
@@ -32,9 +64,40 @@ public class AnalyticsServiceImpl implements AnalyticsService {
     @Autowired
     private CustomerRepository customerRepository;
 
+    // Revenue figures are read from the daily rollup instead of the full rental history
+    @Autowired
+    private RevenueRollupRepository revenueRollupRepository;
+
+    @Autowired
+    private UtilizationService utilizationService;
+
+    // Segment totals are maintained on rental writes
+    @Autowired
+    private CustomerSegmentationService customerSegmentationService;
+
+    @Autowired
+    private RentalSketchService rentalSketchService;
+
+    @Autowired
+    @Qualifier("analyticsExecutor")
+    private ExecutorService analyticsExecutor;
+
+    // A part that does not answer in time is left empty instead of holding up the whole dashboard
+    @Value("${analytics.dashboard.part-timeout-ms:3000}")
+    private long dashboardPartTimeoutMs;
+
+    @Value("${analytics.dashboard.max-age-ms:60000}")
+    private long dashboardMaxAgeMs;
+
+    // Last assembled dashboard; readers get it immediately while a refresh runs in the background
+    private volatile DashboardSnapshot dashboardSnapshot;
+    private final AtomicReference<CompletableFuture<DashboardStatsDto>> dashboardRefresh = new AtomicReference<>();
+    private final AtomicLong dashboardWriteVersion = new AtomicLong();
+
     @Override
     public List<RevenueReportDto> getMonthlyRevenueReport(int year) {
-        List<Object[]> results = rentalRepository.getMonthlyRevenueReport(year);
+        LocalDate from = LocalDate.of(year, 1, 1);
+        List<Object[]> results = revenueRollupRepository.getMonthlyRevenueReport(from, from.plusYears(1));
         
         // Group by month to avoid duplicate months
         Map<LocalDate, RevenueReportDto> monthlyTotals = new HashMap<>();
@@ -90,7 +153,8 @@ public class AnalyticsServiceImpl implements AnalyticsService {
 
     @Override
     public List<RevenueReportDto> getYearlyRevenueReport(int startYear, int endYear) {
-        List<Object[]> results = rentalRepository.getYearlyRevenueReport(startYear, endYear);
+        List<Object[]> results = revenueRollupRepository.getYearlyRevenueReport(
+                LocalDate.of(startYear, 1, 1), LocalDate.of(endYear + 1, 1, 1));
         return results.stream()
                 .map(this::mapToRevenueReport)
                 .collect(Collectors.toList());
@@ -98,7 +162,7 @@ public class AnalyticsServiceImpl implements AnalyticsService {
 
     @Override
     public List<RevenueReportDto> getDailyRevenueReport(LocalDate startDate, LocalDate endDate) {
-        List<Object[]> results = rentalRepository.getDailyRevenueReport(startDate, endDate);
+        List<Object[]> results = revenueRollupRepository.getDailyRevenueReport(startDate, endDate.plusDays(1));
         return results.stream()
                 .map(this::mapToRevenueReport)
                 .collect(Collectors.toList());
@@ -106,101 +170,206 @@ public class AnalyticsServiceImpl implements AnalyticsService {
 
     @Override
     public List<CarAnalyticsDto> getMostRentedCars(int limit) {
-        List<Object[]> results = rentalRepository.getMostRentedCars(limit);
-        return results.stream()
+        List<Object[]> results = revenueRollupRepository.getMostRentedCars(limit);
+        return withUtilization(results.stream()
                 .map(this::mapToCarAnalytics)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     @Override
     public List<CarAnalyticsDto> getTopRevenueCars(int limit) {
-        List<Object[]> results = rentalRepository.getTopRevenueCars(limit);
-        return results.stream()
+        List<Object[]> results = revenueRollupRepository.getTopRevenueCars(limit);
+        return withUtilization(results.stream()
                 .map(this::mapToCarAnalytics)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     @Override
     public List<CarAnalyticsDto> getCarUtilizationStats() {
-        List<Object[]> results = rentalRepository.getCarUtilizationStats();
-        return results.stream()
-                .map(this::mapToCarAnalytics)
-                .collect(Collectors.toList());
+        LocalDate endDate = LocalDate.now();
+        LocalDate startDate = endDate.minusDays(UTILIZATION_WINDOW_DAYS - 1);
+        List<CarAnalyticsDto> cars = utilizationService.getCarUtilization(startDate, endDate);
+
+        Map<Long, BigDecimal> revenueByCar = new HashMap<>();
+        for (Object[] row : revenueRollupRepository.getCarRevenueBetween(startDate, endDate.plusDays(1))) {
+            revenueByCar.put(((Number) row[0]).longValue(), (BigDecimal) row[1]);
+        }
+        for (CarAnalyticsDto car : cars) {
+            car.setTotalRevenue(revenueByCar.getOrDefault(car.getCarId(), BigDecimal.ZERO));
+        }
+        return cars;
+    }
+
+    private List<CarAnalyticsDto> withUtilization(List<CarAnalyticsDto> cars) {
+        LocalDate endDate = LocalDate.now();
+        Map<Long, BigDecimal> rates = utilizationService.getUtilizationRates(
+                endDate.minusDays(UTILIZATION_WINDOW_DAYS - 1), endDate);
+        for (CarAnalyticsDto car : cars) {
+            car.setUtilizationRate(rates.getOrDefault(car.getCarId(), BigDecimal.ZERO));
+        }
+        return cars;
     }
 
     @Override
     public List<CustomerSegmentDto> getCustomerSegmentation() {
-        List<Object[]> results = rentalRepository.getCustomerSegmentation();
-        return results.stream()
+        List<CustomerSegmentTotal> totals = customerSegmentationService.getSegmentTotals();
+        return totals.stream()
+                .filter(total -> total.getCustomerCount() > 0)
                 .map(this::mapToCustomerSegment)
                 .collect(Collectors.toList());
     }
 
     @Override
     public DashboardStatsDto getDashboardStats() {
-        BigDecimal totalRevenue = rentalRepository.getTotalRevenue();
-        BigDecimal monthlyRevenue = rentalRepository.getMonthlyRevenue();
-        BigDecimal todayRevenue = getTodayRevenue();
-        
-        Long totalActiveCars = carRepository.count();
-        Long totalRentals = rentalRepository.count();
-        Long activeRentals = getActiveRentalsCount();
-        Long totalCustomers = customerRepository.count();
-        
-        BigDecimal averageRentalDuration = getAverageRentalDuration();
-        
-        List<RevenueReportDto> monthlyRevenueData = getMonthlyRevenueReport(LocalDate.now().getYear());
-        List<CarAnalyticsDto> topPerformingCars = getTopRevenueCars(5);
-        List<CustomerSegmentDto> customerSegments = getCustomerSegmentation();
-        
-        return DashboardStatsDto.builder()
-                .totalRevenue(totalRevenue != null ? totalRevenue : BigDecimal.ZERO)
-                .monthlyRevenue(monthlyRevenue != null ? monthlyRevenue : BigDecimal.ZERO)
-                .todayRevenue(todayRevenue != null ? todayRevenue : BigDecimal.ZERO)
-                .totalActiveCars(totalActiveCars)
-                .totalRentals(totalRentals)
-                .activeRentals(activeRentals)
-                .totalCustomers(totalCustomers)
-                .averageRentalDuration(averageRentalDuration)
-                .monthlyRevenueData(monthlyRevenueData)
-                .topPerformingCars(topPerformingCars)
-                .customerSegments(customerSegments)
-                .build();
+        DashboardSnapshot snapshot = dashboardSnapshot;
+        if (snapshot != null) {
+            if (snapshot.isStale(dashboardWriteVersion.get(), dashboardMaxAgeMs)) {
+                refreshDashboard();
+            }
+            return snapshot.stats;
+        }
+        // First call: wait for the shared computation
+        try {
+            return refreshDashboard().join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    @Override
+    public void markDashboardStale() {
+        // Bump only after the rental write commits so the refresh sees it
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dashboardWriteVersion.incrementAndGet();
+                    refreshDashboard();
+                }
+            });
+        } else {
+            dashboardWriteVersion.incrementAndGet();
+            refreshDashboard();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onRentalChanged(RentalChangedEvent event) {
+        dashboardWriteVersion.incrementAndGet();
+        refreshDashboard();
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.dashboard.refresh-interval-ms:30000}")
+    public void refreshDashboardSnapshot() {
+        // Only dashboards that have been requested at least once are kept warm
+        if (dashboardSnapshot != null) {
+            refreshDashboard();
+        }
+    }
+
+    // Starts a refresh unless one is already running; concurrent callers share the same future
+    private CompletableFuture<DashboardStatsDto> refreshDashboard() {
+        while (true) {
+            CompletableFuture<DashboardStatsDto> running = dashboardRefresh.get();
+            if (running != null) {
+                return running;
+            }
+            CompletableFuture<DashboardStatsDto> created = new CompletableFuture<>();
+            if (dashboardRefresh.compareAndSet(null, created)) {
+                long version = dashboardWriteVersion.get();
+                long startTime = System.currentTimeMillis();
+                computeDashboardStats().whenComplete((stats, error) -> {
+                    DashboardSnapshot previous = dashboardSnapshot;
+                    if (error != null) {
+                        logger.error("Dashboard snapshot could not be refreshed: {}", error.getMessage());
+                    } else if (stats.getFailedParts().isEmpty() || previous == null || previous.isPartial()) {
+                        // A partial snapshot is only published when there is no complete one; it stays stale
+                        dashboardSnapshot = new DashboardSnapshot(stats, version, System.currentTimeMillis());
+                        logger.debug("Dashboard snapshot refreshed in {} ms", System.currentTimeMillis() - startTime);
+                    } else {
+                        // Keep serving the last complete snapshot until a later refresh succeeds
+                        logger.warn("Dashboard refresh incomplete ({}), keeping the previous snapshot", stats.getFailedParts());
+                        stats = previous.stats;
+                    }
+                    dashboardRefresh.set(null);
+                    if (error == null) {
+                        created.complete(stats);
+                    } else {
+                        created.completeExceptionally(error);
+                    }
+                });
+                return created;
+            }
+        }
+    }
+
+    // The dashboard parts are independent, so they run in parallel and the total is the slowest part
+    private CompletableFuture<DashboardStatsDto> computeDashboardStats() {
+        LocalDate monthStart = LocalDate.now().withDayOfMonth(1);
+        List<String> failedParts = Collections.synchronizedList(new ArrayList<>());
+
+        CompletableFuture<BigDecimal> totalRevenue = dashboardPart("totalRevenue", failedParts,
+                () -> revenueRollupRepository.getTotalRevenue(), BigDecimal.ZERO);
+        CompletableFuture<BigDecimal> monthlyRevenue = dashboardPart("monthlyRevenue", failedParts,
+                () -> revenueRollupRepository.getRevenueBetween(monthStart, monthStart.plusMonths(1)), BigDecimal.ZERO);
+        CompletableFuture<BigDecimal> todayRevenue = dashboardPart("todayRevenue", failedParts, this::getTodayRevenue, BigDecimal.ZERO);
+        CompletableFuture<Long> totalActiveCars = dashboardPart("totalActiveCars", failedParts, carRepository::count, 0L);
+        CompletableFuture<Long> totalRentals = dashboardPart("totalRentals", failedParts, rentalRepository::count, 0L);
+        CompletableFuture<Long> activeRentals = dashboardPart("activeRentals", failedParts, this::getActiveRentalsCount, 0L);
+        CompletableFuture<Long> totalCustomers = dashboardPart("totalCustomers", failedParts, customerRepository::count, 0L);
+        CompletableFuture<BigDecimal> averageRentalDuration = dashboardPart("averageRentalDuration", failedParts,
+                this::getAverageRentalDuration, BigDecimal.ZERO);
+        CompletableFuture<List<RevenueReportDto>> monthlyRevenueData = dashboardPart("monthlyRevenueData", failedParts,
+                () -> getMonthlyRevenueReport(LocalDate.now().getYear()), new ArrayList<>());
+        CompletableFuture<List<CarAnalyticsDto>> topPerformingCars = dashboardPart("topPerformingCars", failedParts,
+                () -> getTopRevenueCars(5), new ArrayList<>());
+        CompletableFuture<List<CustomerSegmentDto>> customerSegments = dashboardPart("customerSegments", failedParts,
+                this::getCustomerSegmentation, new ArrayList<>());
+
+        return CompletableFuture.allOf(totalRevenue, monthlyRevenue, todayRevenue, totalActiveCars, totalRentals,
+                        activeRentals, totalCustomers, averageRentalDuration, monthlyRevenueData, topPerformingCars,
+                        customerSegments)
+                .thenApply(done -> DashboardStatsDto.builder()
+                        .totalRevenue(totalRevenue.join() != null ? totalRevenue.join() : BigDecimal.ZERO)
+                        .monthlyRevenue(monthlyRevenue.join() != null ? monthlyRevenue.join() : BigDecimal.ZERO)
+                        .todayRevenue(todayRevenue.join() != null ? todayRevenue.join() : BigDecimal.ZERO)
+                        .totalActiveCars(totalActiveCars.join())
+                        .totalRentals(totalRentals.join())
+                        .activeRentals(activeRentals.join())
+                        .totalCustomers(totalCustomers.join())
+                        .averageRentalDuration(averageRentalDuration.join())
+                        .monthlyRevenueData(monthlyRevenueData.join())
+                        .topPerformingCars(topPerformingCars.join())
+                        .customerSegments(customerSegments.join())
+                        .failedParts(new ArrayList<>(failedParts))
+                        .build());
+    }
+
+    // A part that fails or times out falls back to its empty value and is listed in failedParts
+    private <T> CompletableFuture<T> dashboardPart(String name, List<String> failedParts, Supplier<T> query, T fallback) {
+        return CompletableFuture.supplyAsync(query, analyticsExecutor)
+                .orTimeout(dashboardPartTimeoutMs, TimeUnit.MILLISECONDS)
+                .exceptionally(error -> {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    logger.warn("Dashboard part {} failed: {}", name,
+                            cause instanceof TimeoutException ? "timed out" : cause.getMessage());
+                    failedParts.add(name);
+                    return fallback;
+                });
     }
 
     @Override
     public List<TrendAnalysisDto> getRevenueTrend(int months) {
         LocalDate startDate = LocalDate.now().minusMonths(months);
-        List<Object[]> results = rentalRepository.getRevenueTrend(startDate);
+        List<Object[]> results = revenueRollupRepository.getRevenueTrend(startDate);
         
         List<TrendAnalysisDto> trends = new ArrayList<>();
         BigDecimal previousRevenue = BigDecimal.ZERO;
         
         for (Object[] result : results) {
-            LocalDate date = null;
-            if (result[0] != null) {
-                if (result[0] instanceof Timestamp) {
-                    date = ((Timestamp) result[0]).toLocalDateTime().toLocalDate();
-                } else if (result[0] instanceof java.sql.Date) {
-                    date = ((java.sql.Date) result[0]).toLocalDate();
-                } else if (result[0] instanceof LocalDate) {
-                    date = (LocalDate) result[0];
-                } else if (result[0] instanceof java.util.Date) {
-                    date = ((java.util.Date) result[0]).toInstant()
-                            .atZone(java.time.ZoneId.systemDefault())
-                            .toLocalDate();
-                }
-            }
+            LocalDate date = toLocalDate(result[0]);
+            BigDecimal revenue = toBigDecimal(result[1]);
 
-            BigDecimal revenue = BigDecimal.ZERO;
-            if (result[1] != null) {
-                if (result[1] instanceof BigDecimal) {
-                    revenue = (BigDecimal) result[1];
-                } else if (result[1] instanceof Number) {
-                    revenue = BigDecimal.valueOf(((Number) result[1]).doubleValue());
-                }
-            }
-            
             Long rentalCount = ((Number) result[2]).longValue();
             
             BigDecimal growthRate = BigDecimal.ZERO;
@@ -235,6 +404,64 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         return trends;
     }
 
+    @Override
+    public List<TrendAnalysisDto> getDailyRevenueTrend(LocalDate startDate, LocalDate endDate,
+                                                       double alpha, double anomalyThreshold) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        if (endDate.isAfter(startDate.plusYears(MAX_TREND_YEARS))) {
+            throw new BusinessException("Revenue trend range cannot be longer than " + MAX_TREND_YEARS + " years");
+        }
+        if (alpha <= 0 || alpha > 1) {
+            throw new IllegalArgumentException("Alpha must be in (0, 1]");
+        }
+        // Windows are warmed up on the preceding year so the first reported day is complete
+        LocalDate warmupStart = startDate.minusDays(RevenueTrendWindow.WARMUP_DAYS);
+        List<Object[]> rows = revenueRollupRepository.getDailyRevenueSeries(warmupStart, endDate.plusDays(1));
+
+        RevenueTrendWindow window = new RevenueTrendWindow(alpha);
+        List<TrendAnalysisDto> trends = new ArrayList<>((int) ChronoUnit.DAYS.between(startDate, endDate) + 1);
+        int next = 0;
+        for (LocalDate day = warmupStart; !day.isAfter(endDate); day = day.plusDays(1)) {
+            long revenueCents = 0;
+            long rentalCount = 0;
+            if (next < rows.size() && day.equals(toLocalDate(rows.get(next)[0]))) {
+                Object[] row = rows.get(next++);
+                revenueCents = toBigDecimal(row[1]).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+                rentalCount = ((Number) row[2]).longValue();
+            }
+            window.push(revenueCents);
+            if (day.isBefore(startDate)) {
+                continue;
+            }
+
+            BigDecimal weekOverWeek = percent(window.weekOverWeek());
+            String trend = "STABLE";
+            if (weekOverWeek != null && weekOverWeek.compareTo(BigDecimal.valueOf(5)) > 0) {
+                trend = "UP";
+            } else if (weekOverWeek != null && weekOverWeek.compareTo(BigDecimal.valueOf(-5)) < 0) {
+                trend = "DOWN";
+            }
+            double zScore = window.zScore();
+            trends.add(TrendAnalysisDto.builder()
+                    .date(day)
+                    .revenue(BigDecimal.valueOf(revenueCents, 2))
+                    .rentalCount(rentalCount)
+                    .growthRate(weekOverWeek != null ? weekOverWeek : BigDecimal.ZERO)
+                    .trend(trend)
+                    .movingAverage7(cents(window.movingAverage7()))
+                    .movingAverage30(cents(window.movingAverage30()))
+                    .ewma(cents(window.ewma()))
+                    .weekOverWeek(weekOverWeek)
+                    .yearOverYear(percent(window.yearOverYear()))
+                    .zScore(Math.round(zScore * 100) / 100.0)
+                    .anomaly(Math.abs(zScore) > anomalyThreshold)
+                    .build());
+        }
+        return trends;
+    }
+
     @Override
     public BigDecimal getTodayRevenue() {
         return rentalRepository.getRevenueByDate(LocalDate.now());
@@ -334,31 +561,96 @@ public class AnalyticsServiceImpl implements AnalyticsService {
                 .build();
     }
 
-    private CustomerSegmentDto mapToCustomerSegment(Object[] result) {
-        BigDecimal totalRevenue = BigDecimal.ZERO;
-        if (result[2] != null) {
-            if (result[2] instanceof BigDecimal) {
-                totalRevenue = (BigDecimal) result[2];
-            } else if (result[2] instanceof Number) {
-                totalRevenue = BigDecimal.valueOf(((Number) result[2]).doubleValue());
-            }
+    private CustomerSegmentDto mapToCustomerSegment(CustomerSegmentTotal total) {
+        BigDecimal customerCount = BigDecimal.valueOf(total.getCustomerCount());
+        return CustomerSegmentDto.builder()
+                .segmentName(total.getSegment().name())
+                .customerCount(total.getCustomerCount())
+                .totalRevenue(total.getTotalRevenue())
+                .averageRevenuePerCustomer(total.getTotalRevenue().divide(customerCount, 2, RoundingMode.HALF_UP))
+                .averageRentalsPerCustomer(BigDecimal.valueOf(total.getTotalRentals()).divide(customerCount, 2, RoundingMode.HALF_UP))
+                .totalRentals(total.getTotalRentals())
+                .build();
+    }
+
+    @Override
+    public RentalDistributionDto getRentalDistribution(LocalDate startDate, LocalDate endDate, Long carId, boolean approximate) {
+        if (approximate) {
+            return rentalSketchService.getDistribution(startDate, endDate, carId);
         }
+        LocalDate from = startDate != null ? startDate : LocalDate.EPOCH;
+        LocalDate to = endDate != null ? endDate.plusDays(1) : LocalDate.of(9999, 12, 31);
+        List<Object[]> rows = rentalRepository.getRentalDistribution(from, to, carId);
+        Object[] row = rows.isEmpty() ? new Object[9] : rows.get(0);
+        return RentalDistributionDto.builder()
+                .startDate(startDate)
+                .endDate(endDate)
+                .carId(carId)
+                .approximate(false)
+                .rentalCount(row[0] != null ? ((Number) row[0]).longValue() : 0L)
+                .distinctCustomers(row[1] != null ? ((Number) row[1]).longValue() : 0L)
+                .distinctCustomersErrorRate(BigDecimal.ZERO)
+                .averageDuration(scaled(row[2]))
+                .durationP50(scaled(row[3]))
+                .durationP90(scaled(row[4]))
+                .durationP99(scaled(row[5]))
+                .revenueP50(scaled(row[6]))
+                .revenueP90(scaled(row[7]))
+                .revenueP99(scaled(row[8]))
+                .build();
+    }
 
-        BigDecimal averageRevenuePerCustomer = BigDecimal.ZERO;
-        if (result[3] != null) {
-            if (result[3] instanceof BigDecimal) {
-                averageRevenuePerCustomer = (BigDecimal) result[3];
-            } else if (result[3] instanceof Number) {
-                averageRevenuePerCustomer = BigDecimal.valueOf(((Number) result[3]).doubleValue());
-            }
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate) {
+            return (LocalDate) value;
+        } else if (value instanceof java.sql.Date) {
+            return ((java.sql.Date) value).toLocalDate();
+        } else if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime().toLocalDate();
+        } else if (value instanceof java.util.Date) {
+            return ((java.util.Date) value).toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
         }
+        return null;
+    }
 
-        return CustomerSegmentDto.builder()
-                .segmentName((String) result[0])
-                .customerCount(((Number) result[1]).longValue())
-                .totalRevenue(totalRevenue)
-                .averageRevenuePerCustomer(averageRevenuePerCustomer)
-                .totalRentals(((Number) result[4]).longValue())
-                .build();
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        } else if (value instanceof Number) {
+            return BigDecimal.valueOf(((Number) value).doubleValue());
+        }
+        return BigDecimal.ZERO;
+    }
+
+    private static BigDecimal scaled(Object value) {
+        return value != null ? toBigDecimal(value).setScale(2, RoundingMode.HALF_UP) : null;
+    }
+
+    private static BigDecimal cents(double valueCents) {
+        return BigDecimal.valueOf(valueCents).movePointLeft(2).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal percent(double value) {
+        return Double.isNaN(value) ? null : BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static final class DashboardSnapshot {
+        private final DashboardStatsDto stats;
+        private final long version;
+        private final long computedAt;
+
+        private DashboardSnapshot(DashboardStatsDto stats, long version, long computedAt) {
+            this.stats = stats;
+            this.version = version;
+            this.computedAt = computedAt;
+        }
+
+        boolean isPartial() {
+            return !stats.getFailedParts().isEmpty();
+        }
+
+        boolean isStale(long currentVersion, long maxAgeMs) {
+            return isPartial() || version < currentVersion || System.currentTimeMillis() - computedAt > maxAgeMs;
+        }
     }
 }
@@ -5,9 +5,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import hakan.rentacar.entities.concretes.AuditLog;
 import hakan.rentacar.entities.dtos.AuditLogDto;
 import hakan.rentacar.entities.dtos.AuditStatisticsDto;
+import hakan.rentacar.mappers.AuditLogMapper;
 import hakan.rentacar.repostories.AuditLogRepository;
 import hakan.rentacar.service.AuditLogService;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -30,7 +30,7 @@ public class AuditLogServiceImpl implements AuditLogService {
     private AuditLogRepository auditLogRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private AuditLogMapper auditLogMapper;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
     
@@ -38,12 +38,12 @@ public class AuditLogServiceImpl implements AuditLogService {
      * Helper method to map AuditLog to AuditLogDto
      */
     private AuditLogDto mapToDto(AuditLog auditLog) {
-        return modelMapper.map(auditLog, AuditLogDto.class);
+        return auditLogMapper.toDto(auditLog);
     }
 
     @Override
     public AuditLogDto create(AuditLogDto auditLogDto) {
-        AuditLog auditLog = modelMapper.map(auditLogDto, AuditLog.class);
+        AuditLog auditLog = auditLogMapper.toEntity(auditLogDto);
         
         if (auditLog.getTimestamp() == null) {
             auditLog.setTimestamp(LocalDateTime.now());
@@ -165,7 +165,7 @@ public class AuditLogServiceImpl implements AuditLogService {
         List<AuditLog> auditLogs = auditLogRepository.findTop100ByOrderByTimestampDesc();
         return auditLogs.stream()
                 .limit(limit)
-                .map(auditLog -> modelMapper.map(auditLog, AuditLogDto.class))
+                .map(this::mapToDto)
                 .collect(Collectors.toList());
     }
 
@@ -6,15 +6,16 @@ import hakan.rentacar.entities.concretes.Customer;
 import hakan.rentacar.entities.dtos.LoginRequest;
 import hakan.rentacar.entities.dtos.LoginResponse;
 import hakan.rentacar.entities.dtos.UserDto;
+import hakan.rentacar.mappers.UserMapper;
 import hakan.rentacar.repostories.RoleRepository;
 import hakan.rentacar.repostories.UserRepository;
 import hakan.rentacar.repostories.CustomerRepository;
 import hakan.rentacar.security.JwtUtils;
 import hakan.rentacar.security.UserDetailsImpl;
 import hakan.rentacar.service.AuthService;
+import hakan.rentacar.service.CustomerSegmentationService;
 import hakan.rentacar.audit.Auditable;
 import hakan.rentacar.entities.concretes.AuditLog;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -47,10 +48,13 @@ public class AuthServiceImpl implements AuthService {
     private JwtUtils jwtUtils;
     
     @Autowired
-    private ModelMapper modelMapper;
+    private UserMapper userMapper;
     
     @Autowired
     private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerSegmentationService customerSegmentationService;
     
     @Override
     @Auditable(entity = "User", action = AuditLog.ActionType.LOGIN, description = "User login")
@@ -136,6 +140,7 @@ public class AuthServiceImpl implements AuthService {
                 customer.setPhone("+905000000000"); // Default Turkish phone number format
                 
                 Customer savedCustomer = customerRepository.save(customer);
+                customerSegmentationService.registerCustomer(savedCustomer.getId());
                 System.out.println("Customer record created with ID: " + savedCustomer.getId());
             }
         } catch (Exception e) {
@@ -145,11 +150,7 @@ public class AuthServiceImpl implements AuthService {
             // Continue with user registration even if customer creation fails
         }
         
-        UserDto response = modelMapper.map(savedUser, UserDto.class);
-        response.setPassword(null); // Don't return password in response
-        response.setRoleNames(savedUser.getRoles().stream()
-                .map(Role::getName)
-                .collect(java.util.stream.Collectors.toSet()));
+        UserDto response = userMapper.toDto(savedUser); // Password is never copied to the response
         
         System.out.println("User registration completed successfully for: " + savedUser.getUsername());
         return response;
@@ -0,0 +1,252 @@
+package hakan.rentacar.service.impl;
+
+import hakan.rentacar.repostories.RentalRepository;
+import hakan.rentacar.repostories.ReservationRepository;
+import hakan.rentacar.service.AvailabilityIndexService;
+import hakan.rentacar.service.RentalChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the booked date ranges (active reservations and rentals) of every car in memory
+ * so availability searches do not have to query the database once per car.
+ * Each car holds an immutable, start-sorted interval list; writers replace it after commit.
+ */
+@Service
+public class AvailabilityIndexServiceImpl implements AvailabilityIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityIndexServiceImpl.class);
+
+    private static final int MAX_REPORTED_MISMATCHES = 50;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    private final Map<Long, BookedIntervals> index = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    private volatile boolean ready = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            // Availability falls back to database queries until the index is loaded
+            logger.error("Availability index could not be loaded: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isCarAvailable(Long carId, LocalDate startDate, LocalDate endDate) {
+        if (!ready) {
+            return reservationRepository.findByCarIdAndDateRange(carId, startDate, endDate).isEmpty()
+                    && rentalRepository.findConflictingRentals(carId, startDate, endDate).isEmpty();
+        }
+        BookedIntervals intervals = index.get(carId);
+        return intervals == null || !intervals.overlaps(startDate.toEpochDay(), endDate.toEpochDay());
+    }
+
+    @Override
+    public List<Long> getAvailableCarIds(Collection<Long> carIds, LocalDate startDate, LocalDate endDate) {
+        List<Long> available = new ArrayList<>(carIds.size());
+        for (Long carId : carIds) {
+            if (isCarAvailable(carId, startDate, endDate)) {
+                available.add(carId);
+            }
+        }
+        return available;
+    }
+
+    @Override
+    public void rebuild() {
+        synchronized (writeLock) {
+            long startTime = System.currentTimeMillis();
+            Map<Long, BookedIntervals> fresh = loadAll();
+
+            index.putAll(fresh);
+            index.keySet().retainAll(fresh.keySet());
+            ready = true;
+
+            logger.info("Availability index loaded for {} cars in {} ms",
+                    fresh.size(), System.currentTimeMillis() - startTime);
+        }
+    }
+
+    @Override
+    public void refreshCar(Long carId) {
+        if (carId == null) {
+            return;
+        }
+        // Reload only after the booking transaction commits so a rollback never leaks into the index
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reloadCar(carId);
+                }
+            });
+        } else {
+            reloadCar(carId);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onRentalChanged(RentalChangedEvent event) {
+        reloadCar(event.getCarId());
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    @Scheduled(cron = "0 30 3 * * *") // Run every day at 3:30 AM
+    public Map<String, Object> verifyConsistency() {
+        long startTime = System.currentTimeMillis();
+        Map<Long, BookedIntervals> database = loadAll();
+
+        Set<Long> carIds = new HashSet<>(database.keySet());
+        carIds.addAll(index.keySet());
+
+        List<Long> mismatchedCarIds = new ArrayList<>();
+        for (Long carId : carIds) {
+            if (!BookedIntervals.sameRanges(index.get(carId), database.get(carId))) {
+                mismatchedCarIds.add(carId);
+            }
+        }
+
+        // Re-read mismatched cars individually; bookings committed during the scan are picked up here
+        for (Long carId : mismatchedCarIds) {
+            reloadCar(carId);
+        }
+        if (!ready) {
+            ready = true;
+        }
+
+        if (!mismatchedCarIds.isEmpty()) {
+            logger.warn("Availability index drift repaired for {} cars", mismatchedCarIds.size());
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("checkedCars", carIds.size());
+        report.put("mismatchedCars", mismatchedCarIds.size());
+        report.put("mismatchedCarIds", mismatchedCarIds.subList(0, Math.min(mismatchedCarIds.size(), MAX_REPORTED_MISMATCHES)));
+        report.put("repaired", !mismatchedCarIds.isEmpty());
+        report.put("durationMs", System.currentTimeMillis() - startTime);
+        return report;
+    }
+
+    private void reloadCar(Long carId) {
+        List<long[]> ranges = new ArrayList<>();
+        collectRanges(reservationRepository.findBookedRangesByCarId(carId), ranges, null);
+        collectRanges(rentalRepository.findBookedRangesByCarId(carId), ranges, null);
+
+        synchronized (writeLock) {
+            if (ranges.isEmpty()) {
+                index.remove(carId);
+            } else {
+                index.put(carId, BookedIntervals.of(ranges));
+            }
+        }
+    }
+
+    private Map<Long, BookedIntervals> loadAll() {
+        Map<Long, List<long[]>> rangesByCar = new HashMap<>();
+        collectRanges(reservationRepository.findBookedRanges(), null, rangesByCar);
+        collectRanges(rentalRepository.findBookedRanges(), null, rangesByCar);
+
+        Map<Long, BookedIntervals> result = new HashMap<>(rangesByCar.size() * 2);
+        rangesByCar.forEach((carId, ranges) -> result.put(carId, BookedIntervals.of(ranges)));
+        return result;
+    }
+
+    // Rows are (carId, startDate, endDate)
+    private void collectRanges(List<Object[]> rows, List<long[]> target, Map<Long, List<long[]>> targetByCar) {
+        for (Object[] row : rows) {
+            long[] range = new long[]{((LocalDate) row[1]).toEpochDay(), ((LocalDate) row[2]).toEpochDay()};
+            if (targetByCar != null) {
+                targetByCar.computeIfAbsent(((Number) row[0]).longValue(), id -> new ArrayList<>()).add(range);
+            } else {
+                target.add(range);
+            }
+        }
+    }
+
+    /**
+     * Immutable booked ranges of one car (inclusive epoch days), sorted by start.
+     * maxEnds[i] is the largest end among the first i+1 ranges, which makes an
+     * overlap test a single binary search even when ranges overlap each other.
+     */
+    static final class BookedIntervals {
+        private final long[] starts;
+        private final long[] ends;
+        private final long[] maxEnds;
+
+        private BookedIntervals(long[] starts, long[] ends) {
+            this.starts = starts;
+            this.ends = ends;
+            this.maxEnds = new long[ends.length];
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < ends.length; i++) {
+                max = Math.max(max, ends[i]);
+                maxEnds[i] = max;
+            }
+        }
+
+        static BookedIntervals of(List<long[]> ranges) {
+            ranges.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+            long[] starts = new long[ranges.size()];
+            long[] ends = new long[ranges.size()];
+            for (int i = 0; i < ranges.size(); i++) {
+                starts[i] = ranges.get(i)[0];
+                ends[i] = ranges.get(i)[1];
+            }
+            return new BookedIntervals(starts, ends);
+        }
+
+        boolean overlaps(long from, long to) {
+            int last = lastStartAtOrBefore(to);
+            return last >= 0 && maxEnds[last] >= from;
+        }
+
+        private int lastStartAtOrBefore(long day) {
+            int low = 0;
+            int high = starts.length - 1;
+            int result = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (starts[mid] <= day) {
+                    result = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return result;
+        }
+
+        static boolean sameRanges(BookedIntervals a, BookedIntervals b) {
+            if (a == null || b == null) {
+                return a == b;
+            }
+            return Arrays.equals(a.starts, b.starts) && Arrays.equals(a.ends, b.ends);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package hakan.rentacar.service.impl;
+
+import hakan.rentacar.repostories.CarRepository;
+import hakan.rentacar.service.BookingLockService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serializes check-then-insert booking paths per car. Inside one node a striped
+ * ReentrantLock keeps waiting requests off the connection pool; across nodes a
+ * transaction-scoped Postgres advisory lock does the same. Both are held until the
+ * surrounding transaction completes, so the next request for the car sees the
+ * committed booking. Requests for different cars do not block each other.
+ */
+@Service
+public class BookingLockServiceImpl implements BookingLockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingLockServiceImpl.class);
+
+    private static final int STRIPES = 256;
+    private static final long LOCK_TIMEOUT_SECONDS = 10;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong contended = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+
+    public BookingLockServiceImpl() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public void lockCarForBooking(Long carId) {
+        lockCarsForBooking(Collections.singletonList(carId));
+    }
+
+    @Override
+    public void lockCarsForBooking(Collection<Long> carIds) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Booking locks require an active transaction");
+        }
+
+        // Fixed ordering (stripe index, then car id) so multi-car bookings cannot deadlock each other
+        SortedSet<Integer> stripeIndexes = new TreeSet<>();
+        SortedSet<Long> sortedCarIds = new TreeSet<>();
+        for (Long carId : carIds) {
+            if (carId != null) {
+                stripeIndexes.add(stripeIndex(carId));
+                sortedCarIds.add(carId);
+            }
+        }
+
+        for (Integer index : stripeIndexes) {
+            acquireStripe(stripes[index]);
+        }
+        for (Long carId : sortedCarIds) {
+            carRepository.acquireBookingLock(carId);
+        }
+    }
+
+    @Override
+    public Map<String, Object> getStatistics() {
+        long count = acquired.get();
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("stripes", STRIPES);
+        statistics.put("acquired", count);
+        statistics.put("contended", contended.get());
+        statistics.put("timedOut", timedOut.get());
+        statistics.put("averageWaitMs", count == 0 ? 0.0 : totalWaitNanos.get() / 1_000_000.0 / count);
+        return statistics;
+    }
+
+    private void acquireStripe(ReentrantLock lock) {
+        long waitStart = System.nanoTime();
+        boolean locked = lock.tryLock();
+        if (!locked) {
+            contended.incrementAndGet();
+            try {
+                locked = lock.tryLock(LOCK_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Booking was interrupted, please try again");
+            }
+        }
+        if (!locked) {
+            timedOut.incrementAndGet();
+            logger.warn("Booking lock wait exceeded {} seconds", LOCK_TIMEOUT_SECONDS);
+            throw new RuntimeException("Car is being booked by another request, please try again");
+        }
+        acquired.incrementAndGet();
+        totalWaitNanos.addAndGet(System.nanoTime() - waitStart);
+
+        // Released on the same thread once the transaction commits or rolls back
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    private int stripeIndex(Long carId) {
+        long h = carId * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 56) & (STRIPES - 1);
+    }
+}
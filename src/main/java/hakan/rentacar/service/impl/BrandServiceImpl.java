@@ -3,9 +3,9 @@ package hakan.rentacar.service.impl;
 import hakan.rentacar.business.rules.BrandBusinessRules;
 import hakan.rentacar.entities.concretes.Brand;
 import hakan.rentacar.entities.dtos.BrandDto;
+import hakan.rentacar.mappers.BrandMapper;
 import hakan.rentacar.repostories.BrandRepostory;
 import hakan.rentacar.service.BrandService;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
@@ -23,12 +23,11 @@ public class BrandServiceImpl implements BrandService {
     private BrandBusinessRules brandBusinessRules;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private BrandMapper brandMapper;
 
     @Autowired
-    public BrandServiceImpl(BrandRepostory brandRepostory, ModelMapper modelMapper) {
+    public BrandServiceImpl(BrandRepostory brandRepostory) {
         this.brandRepostory = brandRepostory;
-        this.modelMapper = modelMapper;
     }
 
     @Override
@@ -55,14 +54,14 @@ public class BrandServiceImpl implements BrandService {
     @Override
     public BrandDto add(BrandDto brandDto) {
         this.brandBusinessRules.checkIfBrandNameExists(brandDto.getName());
-        Brand brand = DtoToEntity(brandDto);//ModelMapper
+        Brand brand = DtoToEntity(brandDto);
         brandRepostory.save(brand);
         return brandDto;
     }
 
     @Override
     public BrandDto update(BrandDto brandDto) {
-        Brand brand = DtoToEntity(brandDto);//ModelMapper
+        Brand brand = DtoToEntity(brandDto);
         brandRepostory.save(brand);
         return brandDto;
     }
@@ -76,17 +75,17 @@ public class BrandServiceImpl implements BrandService {
     }
 
     ////////////////////////////////////
-    //Model Mapper Entity ==> Dto
+    //Mapper Entity ==> Dto
     @Override
     public BrandDto EntityToDto(Brand brand) {
-        BrandDto brandDto = modelMapper.map(brand, BrandDto.class);
+        BrandDto brandDto = brandMapper.toDto(brand);
         return brandDto;
     }
 
-    //Model Mapper Dto  ==> Entity
+    //Mapper Dto  ==> Entity
     @Override
     public Brand DtoToEntity(BrandDto brandDto) {
-        Brand brand = modelMapper.map(brandDto, Brand.class);
+        Brand brand = brandMapper.toEntity(brandDto);
         return brand;
     }
 }
@@ -4,24 +4,34 @@ import hakan.rentacar.entities.concretes.Car;
 import hakan.rentacar.entities.concretes.Model;
 import hakan.rentacar.entities.concretes.MaintenanceRecord;
 import hakan.rentacar.entities.dtos.CarDto;
+import hakan.rentacar.entities.dtos.CarRatingSummaryDto;
 import hakan.rentacar.entities.dtos.MaintenanceRecordDto;
 import hakan.rentacar.entities.dtos.ReservationRatingDto;
+import hakan.rentacar.entities.dtos.KeysetCursor;
+import hakan.rentacar.entities.dtos.KeysetPageDto;
+import hakan.rentacar.mappers.CarMapper;
 import hakan.rentacar.repostories.CarRepository;
 import hakan.rentacar.repostories.ModelRepostory;
 import hakan.rentacar.repostories.MaintenanceRecordRepository;
 import hakan.rentacar.service.CarService;
 import hakan.rentacar.service.ReservationRatingService;
+import hakan.rentacar.service.RentalSketchService;
+import hakan.rentacar.service.RevenueCubeService;
+import hakan.rentacar.service.RevenueRollupService;
+import hakan.rentacar.service.UtilizationService;
 import hakan.rentacar.audit.Auditable;
 import hakan.rentacar.entities.concretes.AuditLog;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,11 +42,23 @@ public class CarServiceImpl implements CarService {
     private final MaintenanceRecordRepository maintenanceRecordRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private CarMapper carMapper;
     
     @Autowired
     private ReservationRatingService reservationRatingService;
 
+    @Autowired
+    private RevenueRollupService revenueRollupService;
+
+    @Autowired
+    private UtilizationService utilizationService;
+
+    @Autowired
+    private RevenueCubeService revenueCubeService;
+
+    @Autowired
+    private RentalSketchService rentalSketchService;
+
     @Autowired
     public CarServiceImpl(CarRepository carRepository, ModelRepostory modelRepository, MaintenanceRecordRepository maintenanceRecordRepository) {
         this.carRepository = carRepository;
@@ -45,13 +67,29 @@ public class CarServiceImpl implements CarService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CarDto> getAll() {
         Sort sort = Sort.by(Sort.Direction.ASC, "id");
         List<Car> cars = carRepository.findAll(sort);
-        return cars.stream().map(this::EntityToDto).collect(Collectors.toList());
+        return EntityToDtos(cars);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPageDto<CarDto> getPage(String cursor, int size) {
+        KeysetCursor after = KeysetCursor.parse(cursor);
+        int pageSize = KeysetCursor.pageSize(size);
+        // Fetch one extra row to know whether another page exists
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<Car> cars = after == null
+                ? carRepository.findKeysetFirstPage(limit)
+                : carRepository.findKeysetPageAfter(after.positionAsDate(), after.getId(), limit);
+        return KeysetPageDto.fromRows(cars, pageSize, this::EntityToDtos,
+                car -> KeysetCursor.of(car.getCreatedDate(), car.getId()));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public CarDto getById(Long id) {
         Car car = carRepository.findByIdWithMaintenanceHistory(id).orElseThrow();
         return EntityToDto(car);
@@ -66,11 +104,13 @@ public class CarServiceImpl implements CarService {
         }
         
         Car car = DtoToEntity(carDto);
-        carRepository.save(car);
+        Car savedCar = carRepository.save(car);
+        utilizationService.refreshCar(savedCar.getId());
         return carDto;
     }
 
     @Override
+    @Transactional
     @Auditable(entity = "Car", action = AuditLog.ActionType.UPDATE, description = "Update car information")
     public CarDto update(CarDto carDto) {
         Car existingCar = carRepository.findById(carDto.getId()).orElseThrow();
@@ -82,60 +122,57 @@ public class CarServiceImpl implements CarService {
         }
         
         Car car = DtoToEntity(carDto);
-        carRepository.save(car);
+        carRepository.saveAndFlush(car);
+        // Daily price or model may have changed; rollup rows of this car are recomputed
+        revenueRollupService.refreshCar(car.getId());
+        utilizationService.refreshCar(car.getId());
+        revenueCubeService.refreshCar(car.getId());
+        rentalSketchService.refreshCar(car.getId());
         return carDto;
     }
 
     @Override
+    @Transactional
     @Auditable(entity = "Car", action = AuditLog.ActionType.DELETE, description = "Delete car")
     public CarDto delete(Long id) {
         Car car = carRepository.findById(id).orElseThrow();
         CarDto carDto = EntityToDto(car);
         carRepository.deleteById(id);
+        utilizationService.refreshCar(id);
         return carDto;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CarDto> getByModelId(Long modelId) {
         List<Car> cars = carRepository.findByModelId(modelId);
-        return cars.stream().map(this::EntityToDto).collect(Collectors.toList());
+        return EntityToDtos(cars);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CarDto> getByState(Integer state) {
         List<Car> cars = carRepository.findByState(state);
-        return cars.stream().map(this::EntityToDto).collect(Collectors.toList());
+        return EntityToDtos(cars);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CarDto> getByBrandId(Long brandId) {
         List<Car> cars = carRepository.findByBrandId(brandId);
-        return cars.stream().map(this::EntityToDto).collect(Collectors.toList());
+        return EntityToDtos(cars);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CarDto> getByModelYear(Integer year) {
         List<Car> cars = carRepository.findByModelYear(year);
-        return cars.stream().map(this::EntityToDto).collect(Collectors.toList());
+        return EntityToDtos(cars);
     }
 
     @Override
     public CarDto EntityToDto(Car car) {
-        CarDto carDto = modelMapper.map(car, CarDto.class);
-        carDto.setModelId(car.getModel().getId());
-        if (car.getModel() != null && car.getModel().getBrand() != null) {
-            carDto.setBrandName(car.getModel().getBrand().getName());
-            carDto.setModelName(car.getModel().getName());
-        }
-        
-        // Bakım geçmişini DTO'ya map et
-        if (car.getMaintenanceHistory() != null && !car.getMaintenanceHistory().isEmpty()) {
-            List<MaintenanceRecordDto> maintenanceHistory = car.getMaintenanceHistory()
-                .stream()
-                .map(this::mapToMaintenanceRecordDto)
-                .collect(Collectors.toList());
-            carDto.setMaintenanceHistory(maintenanceHistory);
-        }
+        CarDto carDto = carMapper.toDto(car);
         
         // Rating bilgilerini ekle
         if (car.getId() != null) {
@@ -149,9 +186,28 @@ public class CarServiceImpl implements CarService {
         return carDto;
     }
 
+    @Override
+    public List<CarDto> EntityToDtos(List<Car> cars) {
+        // Rating bilgileri tüm liste için tek seferde alınır
+        List<Long> carIds = cars.stream().map(Car::getId).collect(Collectors.toList());
+        Map<Long, CarRatingSummaryDto> ratings = reservationRatingService.getCarRatingSummaries(carIds);
+        
+        List<CarDto> carDtos = new ArrayList<>(cars.size());
+        for (Car car : cars) {
+            CarDto carDto = carMapper.toDto(car);
+            CarRatingSummaryDto rating = ratings.get(car.getId());
+            if (rating != null) {
+                carDto.setAverageRating(rating.getAverageRating());
+                carDto.setRatingCount(rating.getRatingCount());
+            }
+            carDtos.add(carDto);
+        }
+        return carDtos;
+    }
+
     @Override
     public Car DtoToEntity(CarDto carDto) {
-        Car car = modelMapper.map(carDto, Car.class);
+        Car car = carMapper.toEntity(carDto);
         
         // Set the model
         if (carDto.getModelId() != null) {
@@ -164,58 +220,67 @@ public class CarServiceImpl implements CarService {
 
     // Gelişmiş filtreleme metodları
     @Override
+    @Transactional(readOnly = true)
     public List<CarDto> getBySegment(String segment) {
         List<Car> cars = carRepository.findBySegment(segment);
-        return cars.stream().map(this::EntityToDto).collect(Collectors.toList());
+        return EntityToDtos(cars);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CarDto> getByTransmission(String transmission) {
         List<Car> cars = carRepository.findByTransmission(transmission);
-        return cars.stream().map(this::EntityToDto).collect(Collectors.toList());
+        return EntityToDtos(cars);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CarDto> getByFuelType(String fuelType) {
         List<Car> cars = carRepository.findByFuelType(fuelType);
-        return cars.stream().map(this::EntityToDto).collect(Collectors.toList());
+        return EntityToDtos(cars);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CarDto> getByStateAndSegment(Integer state, String segment) {
         List<Car> cars = carRepository.findByStateAndSegment(state, segment);
-        return cars.stream().map(this::EntityToDto).collect(Collectors.toList());
+        return EntityToDtos(cars);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CarDto> searchByPlateOrModelOrBrand(String searchTerm) {
         List<Car> cars = carRepository.findByPlateOrModelNameOrBrandName(searchTerm, searchTerm);
-        return cars.stream().map(this::EntityToDto).collect(Collectors.toList());
+        return EntityToDtos(cars);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CarDto> getByFeature(String feature) {
         List<Car> cars = carRepository.findByFeature(feature);
-        return cars.stream().map(this::EntityToDto).collect(Collectors.toList());
+        return EntityToDtos(cars);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CarDto> getCarsWithUpcomingMaintenance() {
         List<Car> cars = carRepository.findCarsWithUpcomingMaintenance();
-        return cars.stream().map(this::EntityToDto).collect(Collectors.toList());
+        return EntityToDtos(cars);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CarDto> getCarsWithExpiringInsurance() {
         List<Car> cars = carRepository.findCarsWithExpiringInsurance();
-        return cars.stream().map(this::EntityToDto).collect(Collectors.toList());
+        return EntityToDtos(cars);
     }
 
     // Bakım kayıtları
     @Override
+    @Transactional(readOnly = true)
     public List<MaintenanceRecordDto> getMaintenanceHistory(Long carId) {
         List<MaintenanceRecord> records = maintenanceRecordRepository.findByCarIdOrderByMaintenanceDateDesc(carId);
-        return records.stream().map(this::mapToMaintenanceRecordDto).collect(Collectors.toList());
+        return records.stream().map(carMapper::toMaintenanceRecordDto).collect(Collectors.toList());
     }
 
     @Override
@@ -229,8 +294,9 @@ public class CarServiceImpl implements CarService {
         car.setLastMaintenanceDate(maintenanceRecordDto.getMaintenanceDate());
         car.setMileage(maintenanceRecordDto.getMileage());
         carRepository.save(car);
+        utilizationService.refreshCar(car.getId());
         
-        return mapToMaintenanceRecordDto(saved);
+        return carMapper.toMaintenanceRecordDto(saved);
     }
 
     @Override
@@ -245,13 +311,18 @@ public class CarServiceImpl implements CarService {
         record.setServiceProvider(maintenanceRecordDto.getServiceProvider());
         
         MaintenanceRecord saved = maintenanceRecordRepository.save(record);
-        return mapToMaintenanceRecordDto(saved);
+        utilizationService.refreshCar(record.getCar().getId());
+        return carMapper.toMaintenanceRecordDto(saved);
     }
 
     @Override
     @Transactional
     public void deleteMaintenanceRecord(Long maintenanceRecordId) {
-        maintenanceRecordRepository.deleteById(maintenanceRecordId);
+        maintenanceRecordRepository.findById(maintenanceRecordId).ifPresent(record -> {
+            Long carId = record.getCar().getId();
+            maintenanceRecordRepository.delete(record);
+            utilizationService.refreshCar(carId);
+        });
     }
 
     @Override
@@ -266,19 +337,6 @@ public class CarServiceImpl implements CarService {
         return EntityToDto(saved);
     }
 
-    private MaintenanceRecordDto mapToMaintenanceRecordDto(MaintenanceRecord record) {
-        MaintenanceRecordDto dto = new MaintenanceRecordDto();
-        dto.setId(record.getId());
-        dto.setCarId(record.getCar().getId());
-        dto.setMaintenanceDate(record.getMaintenanceDate());
-        dto.setType(record.getType());
-        dto.setDescription(record.getDescription());
-        dto.setCost(record.getCost());
-        dto.setMileage(record.getMileage());
-        dto.setServiceProvider(record.getServiceProvider());
-        return dto;
-    }
-
     private MaintenanceRecord mapToMaintenanceRecordEntity(MaintenanceRecordDto dto) {
         MaintenanceRecord record = new MaintenanceRecord();
         record.setId(dto.getId());
@@ -0,0 +1,29 @@
+package hakan.rentacar.service.impl;
+
+import hakan.rentacar.repostories.LifecycleSweepRepository;
+import hakan.rentacar.service.LifecycleSweep;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Open contracts past their expiry date become EXPIRED
+@Component
+class ContractExpirySweep implements LifecycleSweep {
+
+    static final String NAME = "expired-contracts";
+
+    @Autowired
+    private LifecycleSweepRepository lifecycleSweepRepository;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public List<Long> transition(long afterId, int limit) {
+        return lifecycleSweepRepository.markExpiredContracts(LocalDate.now(), afterId, limit);
+    }
+}
@@ -5,13 +5,15 @@ import hakan.rentacar.entities.concretes.ContractTemplate;
 import hakan.rentacar.entities.concretes.Customer;
 import hakan.rentacar.entities.concretes.Rental;
 import hakan.rentacar.entities.dtos.ContractDto;
+import hakan.rentacar.mappers.ContractMapper;
 import hakan.rentacar.repostories.ContractRepository;
 import hakan.rentacar.repostories.ContractTemplateRepository;
 import hakan.rentacar.repostories.CustomerRepository;
 import hakan.rentacar.repostories.RentalRepository;
 import hakan.rentacar.service.ContractService;
-import org.modelmapper.ModelMapper;
+import hakan.rentacar.service.LifecycleSweeperService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -37,7 +39,11 @@ public class ContractServiceImpl implements ContractService {
     private ContractTemplateRepository contractTemplateRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private ContractMapper contractMapper;
+
+    @Autowired
+    @Lazy
+    private LifecycleSweeperService lifecycleSweeperService;
 
     @Override
     public List<ContractDto> getAll() {
@@ -155,20 +161,10 @@ public class ContractServiceImpl implements ContractService {
         return EntityToDto(savedContract);
     }
 
+    // Bulk, chunked update instead of loading the expired contracts
     @Override
-    @Transactional
     public void markAsExpired() {
-        LocalDate today = LocalDate.now();
-        List<Contract.ContractStatus> excludedStatuses = List.of(
-                Contract.ContractStatus.CANCELLED,
-                Contract.ContractStatus.EXPIRED
-        );
-        List<Contract> expiredContracts = contractRepository.findExpiredContracts(today, excludedStatuses);
-        
-        for (Contract contract : expiredContracts) {
-            contract.setStatus(Contract.ContractStatus.EXPIRED);
-        }
-        contractRepository.saveAll(expiredContracts);
+        lifecycleSweeperService.sweep(ContractExpirySweep.NAME);
     }
 
     @Override
@@ -181,13 +177,13 @@ public class ContractServiceImpl implements ContractService {
     @Override
     public ContractDto EntityToDto(Contract contract) {
         if (contract == null) return null;
-        return modelMapper.map(contract, ContractDto.class);
+        return contractMapper.toDto(contract);
     }
 
     @Override
     public Contract DtoToEntity(ContractDto contractDto) {
         if (contractDto == null) return null;
-        Contract contract = modelMapper.map(contractDto, Contract.class);
+        Contract contract = contractMapper.toEntity(contractDto);
         
         // Set the rental
         if (contractDto.getRentalId() != null) {
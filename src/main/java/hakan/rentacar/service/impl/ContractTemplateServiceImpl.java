@@ -2,9 +2,9 @@ package hakan.rentacar.service.impl;
 
 import hakan.rentacar.entities.concretes.ContractTemplate;
 import hakan.rentacar.entities.dtos.ContractTemplateDto;
+import hakan.rentacar.mappers.ContractTemplateMapper;
 import hakan.rentacar.repostories.ContractTemplateRepository;
 import hakan.rentacar.service.ContractTemplateService;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -22,7 +22,7 @@ public class ContractTemplateServiceImpl implements ContractTemplateService {
     private ContractTemplateRepository contractTemplateRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private ContractTemplateMapper contractTemplateMapper;
 
     @Override
     public List<ContractTemplateDto> getAll() {
@@ -127,13 +127,13 @@ public class ContractTemplateServiceImpl implements ContractTemplateService {
     @Override
     public ContractTemplateDto EntityToDto(ContractTemplate template) {
         if (template == null) return null;
-        return modelMapper.map(template, ContractTemplateDto.class);
+        return contractTemplateMapper.toDto(template);
     }
 
     @Override
     public ContractTemplate DtoToEntity(ContractTemplateDto templateDto) {
         if (templateDto == null) return null;
-        return modelMapper.map(templateDto, ContractTemplate.class);
+        return contractTemplateMapper.toEntity(templateDto);
     }
 }
 
@@ -0,0 +1,221 @@
+package hakan.rentacar.service.impl;
+
+import hakan.rentacar.entities.concretes.CustomerRentalStats;
+import hakan.rentacar.entities.concretes.CustomerSegmentTotal;
+import hakan.rentacar.repostories.CustomerRentalStatsRepository;
+import hakan.rentacar.repostories.CustomerRepository;
+import hakan.rentacar.repostories.CustomerSegmentTotalRepository;
+import hakan.rentacar.repostories.RentalRepository;
+import hakan.rentacar.service.CustomerSegmentationService;
+import hakan.rentacar.service.RentalChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps lifetime rental counters per customer (customer_rental_stats) and running totals per
+ * segment (customer_segment_totals). A rental write recomputes only the customers it touched and
+ * moves their counters between segment buckets, so the segmentation report reads a handful of rows
+ * instead of aggregating every customer and rental.
+ */
+@Service
+public class CustomerSegmentationServiceImpl implements CustomerSegmentationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerSegmentationServiceImpl.class);
+
+    @Autowired
+    private CustomerRentalStatsRepository customerRentalStatsRepository;
+
+    @Autowired
+    private CustomerSegmentTotalRepository customerSegmentTotalRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    // Startup backfill and the nightly rebuild go through the proxy so they run in a transaction
+    @Autowired
+    @Lazy
+    private CustomerSegmentationServiceImpl self;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        try {
+            // Existing installations start with an empty table; fill it once
+            if (self.isEmpty() && customerRepository.count() > 0) {
+                self.rebuild();
+            }
+        } catch (Exception e) {
+            logger.error("Customer segmentation could not be backfilled: {}", e.getMessage());
+        }
+    }
+
+    // Car price changes are not pushed to customers; the nightly rebuild corrects that drift
+    @Scheduled(cron = "0 30 4 * * *") // Run every day at 4:30 AM
+    public void scheduledRebuild() {
+        try {
+            self.rebuild();
+        } catch (Exception e) {
+            logger.error("Customer segmentation rebuild failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    @Transactional
+    public void registerCustomer(Long customerId) {
+        if (customerId == null || customerRentalStatsRepository.existsById(customerId)) {
+            return;
+        }
+        customerRentalStatsRepository.save(CustomerRentalStats.builder()
+                .customerId(customerId)
+                .rentalCount(0L)
+                .lifetimeRevenue(BigDecimal.ZERO)
+                .segment(CustomerRentalStats.Segment.NEW)
+                .updatedAt(LocalDateTime.now())
+                .build());
+        addToSegment(CustomerRentalStats.Segment.NEW, 1, BigDecimal.ZERO, 0);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onRentalChanged(RentalChangedEvent event) {
+        refreshCustomer(event.getCustomerId());
+    }
+
+    @Override
+    @Transactional
+    public void refreshCustomer(Long customerId) {
+        if (customerId == null) {
+            return;
+        }
+        // Pending rental changes of this transaction must be visible to the recompute
+        rentalRepository.flush();
+        CustomerRentalStats stats = customerRentalStatsRepository.findByIdForUpdate(customerId).orElse(null);
+
+        long rentalCount = 0;
+        BigDecimal lifetimeRevenue = BigDecimal.ZERO;
+        List<Object[]> totals = customerRentalStatsRepository.computeCustomerTotals(customerId);
+        if (!totals.isEmpty() && totals.get(0)[0] != null) {
+            Object[] row = totals.get(0);
+            rentalCount = ((Number) row[0]).longValue();
+            lifetimeRevenue = toBigDecimal(row[1]);
+        }
+        CustomerRentalStats.Segment segment = CustomerRentalStats.Segment.of(rentalCount, lifetimeRevenue);
+
+        if (stats == null) {
+            customerRentalStatsRepository.save(CustomerRentalStats.builder()
+                    .customerId(customerId)
+                    .rentalCount(rentalCount)
+                    .lifetimeRevenue(lifetimeRevenue)
+                    .segment(segment)
+                    .updatedAt(LocalDateTime.now())
+                    .build());
+            addToSegment(segment, 1, lifetimeRevenue, rentalCount);
+            return;
+        }
+
+        // Move the customer's old contribution out of its bucket and the new one in. Bucket rows are
+        // locked in segment order so two customers moving in opposite directions cannot deadlock.
+        CustomerRentalStats.Segment previous = stats.getSegment();
+        if (previous == segment) {
+            addToSegment(segment, 0, lifetimeRevenue.subtract(stats.getLifetimeRevenue()),
+                    rentalCount - stats.getRentalCount());
+        } else if (previous.ordinal() < segment.ordinal()) {
+            addToSegment(previous, -1, stats.getLifetimeRevenue().negate(), -stats.getRentalCount());
+            addToSegment(segment, 1, lifetimeRevenue, rentalCount);
+        } else {
+            addToSegment(segment, 1, lifetimeRevenue, rentalCount);
+            addToSegment(previous, -1, stats.getLifetimeRevenue().negate(), -stats.getRentalCount());
+        }
+
+        stats.setRentalCount(rentalCount);
+        stats.setLifetimeRevenue(lifetimeRevenue);
+        stats.setSegment(segment);
+        stats.setUpdatedAt(LocalDateTime.now());
+        customerRentalStatsRepository.save(stats);
+    }
+
+    @Override
+    @Transactional
+    public void removeCustomer(Long customerId) {
+        if (customerId == null) {
+            return;
+        }
+        customerRentalStatsRepository.findByIdForUpdate(customerId).ifPresent(stats -> {
+            addToSegment(stats.getSegment(), -1, stats.getLifetimeRevenue().negate(), -stats.getRentalCount());
+            customerRentalStatsRepository.delete(stats);
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CustomerSegmentTotal> getSegmentTotals() {
+        return customerSegmentTotalRepository.findAllByOrderByTotalRevenueDesc();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<CustomerRentalStats> getCustomerStats(Long customerId) {
+        return customerRentalStatsRepository.findById(customerId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Long> getCustomerIds(CustomerRentalStats.Segment segment) {
+        return customerRentalStatsRepository.findCustomerIdsBySegment(segment);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Long> getCustomerIds(long minRentals, BigDecimal minRevenue) {
+        return customerRentalStatsRepository.findCustomerIdsByMinimums(minRentals,
+                minRevenue != null ? minRevenue : BigDecimal.ZERO);
+    }
+
+    @Override
+    @Transactional
+    public int rebuild() {
+        long startTime = System.currentTimeMillis();
+        customerSegmentTotalRepository.deleteAllRows();
+        customerRentalStatsRepository.deleteAllRows();
+        int customers = customerRentalStatsRepository.insertAll();
+        customerSegmentTotalRepository.insertAll();
+        logger.info("Customer segmentation rebuilt for {} customers in {} ms", customers, System.currentTimeMillis() - startTime);
+        return customers;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isEmpty() {
+        return customerRentalStatsRepository.count() == 0;
+    }
+
+    private void addToSegment(CustomerRentalStats.Segment segment, long customers, BigDecimal revenue, long rentals) {
+        customerSegmentTotalRepository.addToSegment(segment.name(), customers, revenue, rentals);
+    }
+
+    private BigDecimal toBigDecimal(Object value) {
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        } else if (value instanceof Number) {
+            return BigDecimal.valueOf(((Number) value).doubleValue());
+        }
+        return BigDecimal.ZERO;
+    }
+}
@@ -2,14 +2,19 @@ package hakan.rentacar.service.impl;
 
 import hakan.rentacar.entities.concretes.Customer;
 import hakan.rentacar.entities.dtos.CustomerDto;
+import hakan.rentacar.entities.dtos.KeysetCursor;
+import hakan.rentacar.entities.dtos.KeysetPageDto;
+import hakan.rentacar.mappers.CustomerMapper;
 import hakan.rentacar.repostories.CustomerRepository;
+import hakan.rentacar.service.CustomerSegmentationService;
 import hakan.rentacar.service.CustomerService;
 import hakan.rentacar.audit.Auditable;
 import hakan.rentacar.entities.concretes.AuditLog;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.Period;
@@ -22,7 +27,10 @@ public class CustomerServiceImpl implements CustomerService {
     private final CustomerRepository customerRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private CustomerMapper customerMapper;
+
+    @Autowired
+    private CustomerSegmentationService customerSegmentationService;
 
     @Autowired
     public CustomerServiceImpl(CustomerRepository customerRepository) {
@@ -36,6 +44,20 @@ public class CustomerServiceImpl implements CustomerService {
         return customers.stream().map(this::EntityToDto).collect(Collectors.toList());
     }
 
+    @Override
+    public KeysetPageDto<CustomerDto> getPage(String cursor, int size) {
+        KeysetCursor after = KeysetCursor.parse(cursor);
+        int pageSize = KeysetCursor.pageSize(size);
+        // Fetch one extra row to know whether another page exists
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<Customer> customers = after == null
+                ? customerRepository.findKeysetFirstPage(limit)
+                : customerRepository.findKeysetPageAfter(after.positionAsDate(), after.getId(), limit);
+        return KeysetPageDto.fromRows(customers, pageSize,
+                rows -> rows.stream().map(this::EntityToDto).collect(Collectors.toList()),
+                customer -> KeysetCursor.of(customer.getCreatedDate(), customer.getId()));
+    }
+
     @Override
     public CustomerDto getById(Long id) {
         Customer customer = customerRepository.findById(id).orElseThrow();
@@ -43,6 +65,7 @@ public class CustomerServiceImpl implements CustomerService {
     }
 
     @Override
+    @Transactional
     @Auditable(entity = "Customer", action = AuditLog.ActionType.CREATE, description = "Create new customer")
     public CustomerDto add(CustomerDto customerDto) {
         // Validate age (must be at least 18)
@@ -66,7 +89,8 @@ public class CustomerServiceImpl implements CustomerService {
         }
         
         Customer customer = DtoToEntity(customerDto);
-        customerRepository.save(customer);
+        Customer savedCustomer = customerRepository.save(customer);
+        customerSegmentationService.registerCustomer(savedCustomer.getId());
         return customerDto;
     }
 
@@ -104,10 +128,12 @@ public class CustomerServiceImpl implements CustomerService {
     }
 
     @Override
+    @Transactional
     @Auditable(entity = "Customer", action = AuditLog.ActionType.DELETE, description = "Delete customer")
     public CustomerDto delete(Long id) {
         Customer customer = customerRepository.findById(id).orElseThrow();
         CustomerDto customerDto = EntityToDto(customer);
+        customerSegmentationService.removeCustomer(id);
         customerRepository.deleteById(id);
         return customerDto;
     }
@@ -144,11 +170,11 @@ public class CustomerServiceImpl implements CustomerService {
 
     @Override
     public CustomerDto EntityToDto(Customer customer) {
-        return modelMapper.map(customer, CustomerDto.class);
+        return customerMapper.toDto(customer);
     }
 
     @Override
     public Customer DtoToEntity(CustomerDto customerDto) {
-        return modelMapper.map(customerDto, Customer.class);
+        return customerMapper.toEntity(customerDto);
     }
 }
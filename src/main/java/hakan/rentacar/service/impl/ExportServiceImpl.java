@@ -0,0 +1,165 @@
+package hakan.rentacar.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hakan.rentacar.entities.concretes.*;
+import hakan.rentacar.mappers.*;
+import hakan.rentacar.repostories.*;
+import hakan.rentacar.service.ExportService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+@Service
+public class ExportServiceImpl implements ExportService {
+
+    // Persistence context is cleared every CLEAR_INTERVAL rows so heap use stays flat
+    private static final int CLEAR_INTERVAL = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private GeneralLedgerRepository generalLedgerRepository;
+
+    @Autowired
+    private TaxCalculationRepository taxCalculationRepository;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private InvoiceMapper invoiceMapper;
+
+    @Autowired
+    private PaymentMapper paymentMapper;
+
+    @Autowired
+    private GeneralLedgerMapper generalLedgerMapper;
+
+    @Autowired
+    private TaxCalculationMapper taxCalculationMapper;
+
+    @Autowired
+    private AuditLogMapper auditLogMapper;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportInvoices(LocalDateTime from, LocalDateTime to, Format format, OutputStream out) throws IOException {
+        try (Stream<Invoice> rows = invoiceRepository.streamByIssueDateBetween(from, to)) {
+            write(rows, invoiceMapper::toDto, format, out);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportPayments(LocalDateTime from, LocalDateTime to, Format format, OutputStream out) throws IOException {
+        try (Stream<Payment> rows =
+                     paymentRepository.streamByCreatedDateBetween(Timestamp.valueOf(from), Timestamp.valueOf(to))) {
+            write(rows, paymentMapper::toDto, format, out);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportLedger(LocalDateTime from, LocalDateTime to, Format format, OutputStream out) throws IOException {
+        try (Stream<GeneralLedger> rows = generalLedgerRepository.streamByTransactionDateBetween(from, to)) {
+            write(rows, generalLedgerMapper::toDto, format, out);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportTaxCalculations(LocalDateTime from, LocalDateTime to, Format format, OutputStream out) throws IOException {
+        try (Stream<TaxCalculation> rows = taxCalculationRepository.streamByCalculationDateBetween(from, to)) {
+            write(rows, taxCalculationMapper::toDto, format, out);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAuditLogs(LocalDateTime from, LocalDateTime to, Format format, OutputStream out) throws IOException {
+        try (Stream<AuditLog> rows = auditLogRepository.streamByTimestampBetween(from, to)) {
+            write(rows, auditLogMapper::toDto, format, out);
+        }
+    }
+
+    private <E> void write(Stream<E> rows, Function<E, ?> toDto, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        List<String> header = null;
+        int count = 0;
+
+        Iterator<E> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            JsonNode node = objectMapper.valueToTree(toDto.apply(iterator.next()));
+            if (format == Format.NDJSON) {
+                writer.write(objectMapper.writeValueAsString(node));
+                writer.write('\n');
+            } else {
+                // CSV columns follow the DTO fields of the first row
+                if (header == null) {
+                    header = new ArrayList<>();
+                    node.fieldNames().forEachRemaining(header::add);
+                    writeCsvLine(writer, header);
+                }
+                List<String> values = new ArrayList<>(header.size());
+                for (String column : header) {
+                    values.add(csvValue(node.get(column)));
+                }
+                writeCsvLine(writer, values);
+            }
+
+            if (++count % CLEAR_INTERVAL == 0) {
+                writer.flush();
+                entityManager.clear();
+            }
+        }
+        writer.flush();
+    }
+
+    private String csvValue(JsonNode value) {
+        if (value == null || value.isNull()) {
+            return "";
+        }
+        // Nested values (lists, objects) are kept as JSON text in a single cell
+        return value.isValueNode() ? value.asText() : value.toString();
+    }
+
+    private void writeCsvLine(Writer writer, List<String> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escapeCsv(values.get(i)));
+        }
+        writer.write("\r\n");
+    }
+
+    private String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
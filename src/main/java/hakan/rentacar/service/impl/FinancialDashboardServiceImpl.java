@@ -0,0 +1,187 @@
+package hakan.rentacar.service.impl;
+
+import hakan.rentacar.entities.concretes.Invoice;
+import hakan.rentacar.entities.concretes.Payment;
+import hakan.rentacar.repostories.InvoiceRepository;
+import hakan.rentacar.repostories.PaymentRepository;
+import hakan.rentacar.service.FinancialDashboardService;
+import hakan.rentacar.service.TaxCalculationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Financial dashboard summary built from a handful of SUM / COUNT queries run in parallel, so its cost
+ * does not grow with the number of open payments or invoices. Summaries are cached per period for a
+ * short time and dropped when a payment, invoice or tax write commits.
+ */
+@Service
+public class FinancialDashboardServiceImpl implements FinancialDashboardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FinancialDashboardServiceImpl.class);
+
+    private static final int MAX_CACHED_PERIODS = 32;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private TaxCalculationService taxCalculationService;
+
+    @Autowired
+    @Qualifier("analyticsExecutor")
+    private ExecutorService analyticsExecutor;
+
+    @Value("${analytics.dashboard.part-timeout-ms:3000}")
+    private long partTimeoutMs;
+
+    @Value("${financial.dashboard.cache-ttl-ms:30000}")
+    private long cacheTtlMs;
+
+    private final Map<String, SummarySnapshot> summaries = new ConcurrentHashMap<>();
+    private final AtomicLong writeVersion = new AtomicLong();
+
+    @Override
+    public Map<String, Object> getDashboardSummary(LocalDateTime startDate, LocalDateTime endDate) {
+        String key = startDate + "|" + endDate;
+        SummarySnapshot snapshot = summaries.get(key);
+        if (snapshot != null && !snapshot.isStale(writeVersion.get(), cacheTtlMs)) {
+            return snapshot.summary;
+        }
+
+        long version = writeVersion.get();
+        long startTime = System.currentTimeMillis();
+        Map<String, Object> summary;
+        try {
+            summary = computeSummary(startDate, endDate).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+        logger.debug("Financial dashboard for {} computed in {} ms", key, System.currentTimeMillis() - startTime);
+
+        if (summaries.size() >= MAX_CACHED_PERIODS) {
+            summaries.values().removeIf(cached -> cached.isStale(writeVersion.get(), cacheTtlMs));
+            if (summaries.size() >= MAX_CACHED_PERIODS) {
+                summaries.clear();
+            }
+        }
+        summaries.put(key, new SummarySnapshot(summary, version, System.currentTimeMillis()));
+        return summary;
+    }
+
+    @Override
+    public void markStale() {
+        // Bump only after the write commits so the next summary sees it
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    writeVersion.incrementAndGet();
+                }
+            });
+        } else {
+            writeVersion.incrementAndGet();
+        }
+    }
+
+    // Parts are independent and run in parallel; unlike the analytics dashboard a failed part fails the
+    // summary instead of showing zero, since these are accounting figures
+    private CompletableFuture<Map<String, Object>> computeSummary(LocalDateTime startDate, LocalDateTime endDate) {
+        LocalDateTime now = LocalDateTime.now();
+
+        CompletableFuture<BigDecimal> totalRevenue = summaryPart(
+                () -> paymentRepository.getTotalRevenueBetween(startDate, endDate));
+        CompletableFuture<Object[]> invoiceTotals = summaryPart(
+                () -> invoiceRepository.getInvoicedAndPaidTotalsBetween(startDate, endDate).get(0));
+        CompletableFuture<Object[]> pendingPayments = summaryPart(
+                () -> paymentRepository.getStatusDueTotals(Payment.PaymentStatus.PENDING, now).get(0));
+        CompletableFuture<List<Object[]>> invoiceCounts = summaryPart(
+                () -> invoiceRepository.getStatusDueCounts(now));
+        CompletableFuture<Map<String, Object>> taxReport = summaryPart(
+                () -> taxCalculationService.getVATReport(startDate, endDate));
+
+        return CompletableFuture.allOf(totalRevenue, invoiceTotals, pendingPayments, invoiceCounts, taxReport)
+                .thenApply(done -> {
+                    BigDecimal revenue = totalRevenue.join() != null ? totalRevenue.join() : BigDecimal.ZERO;
+                    BigDecimal totalInvoiced = (BigDecimal) invoiceTotals.join()[0];
+                    BigDecimal totalPaid = (BigDecimal) invoiceTotals.join()[1];
+                    Object[] pending = pendingPayments.join();
+
+                    // Pending invoices are counted by status; overdue ones are sent invoices past their due date
+                    long pendingInvoicesCount = 0;
+                    long overdueInvoicesCount = 0;
+                    for (Object[] row : invoiceCounts.join()) {
+                        Invoice.InvoiceStatus status = (Invoice.InvoiceStatus) row[0];
+                        if (status == Invoice.InvoiceStatus.PENDING) {
+                            pendingInvoicesCount = ((Number) row[1]).longValue();
+                        } else if (status == Invoice.InvoiceStatus.SENT) {
+                            overdueInvoicesCount = ((Number) row[2]).longValue();
+                        }
+                    }
+
+                    Map<String, Object> tax = taxReport.join();
+                    Object taxAmount = tax.get("totalTaxAmount");
+                    BigDecimal totalTaxLiability = taxAmount instanceof BigDecimal ? (BigDecimal) taxAmount : BigDecimal.ZERO;
+
+                    Map<String, Object> summary = new HashMap<>();
+                    summary.put("periodStart", startDate);
+                    summary.put("periodEnd", endDate);
+                    summary.put("totalRevenue", revenue);
+                    summary.put("totalInvoiced", totalInvoiced);
+                    summary.put("totalPaid", totalPaid);
+                    summary.put("netProfit", revenue.subtract(totalInvoiced.subtract(totalPaid)));
+                    summary.put("pendingPayments", pending[1]);
+                    summary.put("overduePayments", pending[3]);
+                    summary.put("pendingPaymentsCount", ((Number) pending[0]).longValue());
+                    summary.put("overduePaymentsCount", ((Number) pending[2]).longValue());
+                    summary.put("pendingInvoicesCount", pendingInvoicesCount);
+                    summary.put("overdueInvoicesCount", overdueInvoicesCount);
+                    summary.put("totalTaxLiability", totalTaxLiability);
+                    summary.put("taxReport", tax);
+                    return Collections.unmodifiableMap(summary);
+                });
+    }
+
+    private <T> CompletableFuture<T> summaryPart(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(query, analyticsExecutor)
+                .orTimeout(partTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    private static final class SummarySnapshot {
+        private final Map<String, Object> summary;
+        private final long version;
+        private final long computedAt;
+
+        private SummarySnapshot(Map<String, Object> summary, long version, long computedAt) {
+            this.summary = summary;
+            this.version = version;
+            this.computedAt = computedAt;
+        }
+
+        boolean isStale(long currentVersion, long maxAgeMs) {
+            return version < currentVersion || System.currentTimeMillis() - computedAt > maxAgeMs;
+        }
+    }
+}
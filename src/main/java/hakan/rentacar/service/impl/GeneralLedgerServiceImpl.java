@@ -4,10 +4,22 @@ import hakan.rentacar.entities.concretes.GeneralLedger;
 import hakan.rentacar.entities.concretes.Payment;
 import hakan.rentacar.entities.concretes.Invoice;
 import hakan.rentacar.entities.dtos.GeneralLedgerDto;
+import hakan.rentacar.entities.dtos.JournalEntryDto;
+import hakan.rentacar.entities.dtos.JournalPostingResultDto;
+import hakan.rentacar.entities.dtos.KeysetCursor;
+import hakan.rentacar.entities.dtos.KeysetPageDto;
+import hakan.rentacar.exceptions.BusinessException;
+import hakan.rentacar.mappers.GeneralLedgerMapper;
+import hakan.rentacar.repostories.GeneralLedgerBatchRepository;
 import hakan.rentacar.repostories.GeneralLedgerRepository;
+import hakan.rentacar.repostories.LedgerPeriodCloseRepository;
 import hakan.rentacar.service.GeneralLedgerService;
-import org.modelmapper.ModelMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,11 +31,28 @@ import java.util.stream.Collectors;
 @Service
 public class GeneralLedgerServiceImpl implements GeneralLedgerService {
 
+    private static final Logger logger = LoggerFactory.getLogger(GeneralLedgerServiceImpl.class);
+
     @Autowired
     private GeneralLedgerRepository generalLedgerRepository;
 
+    // Closing balances per period; balance reads start from the latest one
+    @Autowired
+    private LedgerPeriodCloseRepository ledgerPeriodCloseRepository;
+
+    @Autowired
+    private GeneralLedgerMapper generalLedgerMapper;
+
+    // Journal postings are inserted in JDBC batches with sequence-allocated document numbers
+    @Autowired
+    private GeneralLedgerBatchRepository generalLedgerBatchRepository;
+
+    @Autowired
+    private LedgerDocumentNumbers ledgerDocumentNumbers;
+
     @Autowired
-    private ModelMapper modelMapper;
+    @Qualifier("auditorAware")
+    private AuditorAware<String> auditorAware;
 
     // Chart of Accounts mapping
     private static final Map<GeneralLedger.AccountType, String> ACCOUNT_CODES = new HashMap<>();
@@ -45,6 +74,7 @@ public class GeneralLedgerServiceImpl implements GeneralLedgerService {
     @Transactional
     public GeneralLedgerDto create(GeneralLedgerDto ledgerDto) {
         GeneralLedger ledger = mapToEntity(ledgerDto);
+        rejectIfInClosedPeriod(ledger.getTransactionDate());
         GeneralLedger savedLedger = generalLedgerRepository.save(ledger);
         return mapToDto(savedLedger);
     }
@@ -57,6 +87,20 @@ public class GeneralLedgerServiceImpl implements GeneralLedgerService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public KeysetPageDto<GeneralLedgerDto> getPage(String cursor, int size) {
+        KeysetCursor after = KeysetCursor.parse(cursor);
+        int pageSize = KeysetCursor.pageSize(size);
+        // Fetch one extra row to know whether another page exists
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<GeneralLedger> ledgers = after == null
+                ? generalLedgerRepository.findKeysetFirstPage(limit)
+                : generalLedgerRepository.findKeysetPageAfter(after.getPosition(), after.getId(), limit);
+        return KeysetPageDto.fromRows(ledgers, pageSize,
+                rows -> rows.stream().map(this::mapToDto).collect(Collectors.toList()),
+                ledger -> KeysetCursor.of(ledger.getTransactionDate(), ledger.getId()));
+    }
+
     @Override
     public GeneralLedgerDto getById(Long id) {
         GeneralLedger ledger = generalLedgerRepository.findById(id).orElseThrow();
@@ -64,8 +108,12 @@ public class GeneralLedgerServiceImpl implements GeneralLedgerService {
     }
 
     @Override
+    @Transactional
     public void delete(Long id) {
-        generalLedgerRepository.deleteById(id);
+        generalLedgerRepository.findById(id).ifPresent(ledger -> {
+            rejectIfInClosedPeriod(ledger.getTransactionDate());
+            generalLedgerRepository.delete(ledger);
+        });
     }
 
     @Override
@@ -78,73 +126,279 @@ public class GeneralLedgerServiceImpl implements GeneralLedgerService {
                                  Long referenceId,
                                  String referenceType) {
         
+        postJournalEntries(List.of(journalEntry(transactionType, debitAccount, creditAccount,
+                amount, description, referenceId, referenceType)));
+    }
+
+    @Override
+    @Transactional
+    public JournalPostingResultDto postJournalEntries(List<JournalEntryDto> entries) {
+        long startTime = System.currentTimeMillis();
         LocalDateTime now = LocalDateTime.now();
-        String docNumber = generateDocumentNumber();
-        
-        // Debit entry
-        GeneralLedger debitEntry = GeneralLedger.builder()
-                .transactionType(transactionType)
-                .accountType(debitAccount)
-                .accountCode(ACCOUNT_CODES.get(debitAccount))
-                .accountName(debitAccount.getDisplayName())
-                .transactionDate(now)
-                .description(description)
-                .debitAmount(amount)
-                .creditAmount(BigDecimal.ZERO)
-                .referenceId(referenceId)
-                .referenceType(referenceType)
-                .documentNumber(docNumber)
+
+        // Every document is checked before anything is written, so an unbalanced document
+        // rejects the whole posting
+        int lineCount = 0;
+        LocalDateTime earliest = null;
+        for (int i = 0; i < entries.size(); i++) {
+            JournalEntryDto entry = entries.get(i);
+            validateJournalEntry(entry, i);
+            lineCount += entry.getLines().size();
+            LocalDateTime date = entry.getTransactionDate() != null ? entry.getTransactionDate() : now;
+            if (earliest == null || date.isBefore(earliest)) {
+                earliest = date;
+            }
+        }
+        rejectIfInClosedPeriod(earliest);
+
+        List<String> documentNumbers = ledgerDocumentNumbers.allocate(entries.size());
+        List<GeneralLedger> rows = new ArrayList<>(lineCount);
+        for (int i = 0; i < entries.size(); i++) {
+            JournalEntryDto entry = entries.get(i);
+            LocalDateTime date = entry.getTransactionDate() != null ? entry.getTransactionDate() : now;
+            for (JournalEntryDto.Line line : entry.getLines()) {
+                rows.add(GeneralLedger.builder()
+                        .transactionType(entry.getTransactionType())
+                        .accountType(line.getAccountType())
+                        .accountCode(ACCOUNT_CODES.get(line.getAccountType()))
+                        .accountName(line.getAccountType().getDisplayName())
+                        .transactionDate(date)
+                        .description(line.getDescription() != null ? line.getDescription() : entry.getDescription())
+                        .debitAmount(amountOrZero(line.getDebitAmount()))
+                        .creditAmount(amountOrZero(line.getCreditAmount()))
+                        .referenceId(entry.getReferenceId())
+                        .referenceType(entry.getReferenceType())
+                        .documentNumber(documentNumbers.get(i))
+                        .build());
+            }
+        }
+        generalLedgerBatchRepository.insertAll(rows, auditorAware.getCurrentAuditor().orElse(null));
+
+        long durationMs = System.currentTimeMillis() - startTime;
+        long linesPerSecond = lineCount * 1000L / Math.max(1, durationMs);
+        if (entries.size() > 1) {
+            logger.info("Posted {} journal documents ({} lines) in {} ms, {} lines/s",
+                    entries.size(), lineCount, durationMs, linesPerSecond);
+        }
+        return JournalPostingResultDto.builder()
+                .documents(entries.size())
+                .lines(lineCount)
+                .documentNumbers(documentNumbers)
+                .durationMs(durationMs)
+                .linesPerSecond(linesPerSecond)
                 .build();
-        
-        // Credit entry
-        GeneralLedger creditEntry = GeneralLedger.builder()
+    }
+
+    private void validateJournalEntry(JournalEntryDto entry, int index) {
+        if (entry == null) {
+            throw new BusinessException("Journal entry " + index + " is empty");
+        }
+        if (entry.getTransactionType() == null) {
+            throw new BusinessException("Journal entry " + index + " has no transaction type");
+        }
+        if (entry.getLines() == null || entry.getLines().size() < 2) {
+            throw new BusinessException("Journal entry " + index + " needs at least one debit and one credit line");
+        }
+        BigDecimal debits = BigDecimal.ZERO;
+        BigDecimal credits = BigDecimal.ZERO;
+        for (JournalEntryDto.Line line : entry.getLines()) {
+            if (line == null) {
+                throw new BusinessException("Journal entry " + index + " has an empty line");
+            }
+            if (line.getAccountType() == null || !ACCOUNT_CODES.containsKey(line.getAccountType())) {
+                throw new BusinessException("Journal entry " + index + " uses an account without an account code: " + line.getAccountType());
+            }
+            BigDecimal debit = amountOrZero(line.getDebitAmount());
+            BigDecimal credit = amountOrZero(line.getCreditAmount());
+            if (debit.signum() < 0 || credit.signum() < 0) {
+                throw new BusinessException("Journal entry " + index + " has a negative amount");
+            }
+            // Amounts are stored with two decimals; finer ones would balance here but not in the table
+            if (debit.stripTrailingZeros().scale() > 2 || credit.stripTrailingZeros().scale() > 2) {
+                throw new BusinessException("Journal entry " + index + " has an amount with more than two decimals");
+            }
+            debits = debits.add(debit);
+            credits = credits.add(credit);
+        }
+        if (debits.signum() == 0 || debits.compareTo(credits) != 0) {
+            throw new BusinessException("Journal entry " + index + " is not balanced: debits " + debits + ", credits " + credits);
+        }
+    }
+
+    private static JournalEntryDto journalEntry(GeneralLedger.TransactionType transactionType,
+                                                GeneralLedger.AccountType debitAccount,
+                                                GeneralLedger.AccountType creditAccount,
+                                                BigDecimal amount,
+                                                String description,
+                                                Long referenceId,
+                                                String referenceType) {
+        return JournalEntryDto.builder()
                 .transactionType(transactionType)
-                .accountType(creditAccount)
-                .accountCode(ACCOUNT_CODES.get(creditAccount))
-                .accountName(creditAccount.getDisplayName())
-                .transactionDate(now)
                 .description(description)
-                .debitAmount(BigDecimal.ZERO)
-                .creditAmount(amount)
                 .referenceId(referenceId)
                 .referenceType(referenceType)
-                .documentNumber(docNumber)
+                .lines(List.of(
+                        JournalEntryDto.Line.builder()
+                                .accountType(debitAccount)
+                                .debitAmount(amount)
+                                .creditAmount(BigDecimal.ZERO)
+                                .build(),
+                        JournalEntryDto.Line.builder()
+                                .accountType(creditAccount)
+                                .debitAmount(BigDecimal.ZERO)
+                                .creditAmount(amount)
+                                .build()))
                 .build();
-        
-        generalLedgerRepository.save(debitEntry);
-        generalLedgerRepository.save(creditEntry);
+    }
+
+    private static BigDecimal amountOrZero(BigDecimal amount) {
+        return amount != null ? amount : BigDecimal.ZERO;
     }
 
     @Override
     @Transactional
     public void recordPaymentReceived(Payment payment) {
-        String description = String.format("Ödeme alındı - Kiralama #%d", payment.getRental().getId());
-        
-        createJournalEntry(
+        postJournalEntries(List.of(paymentReceivedEntry(payment)));
+    }
+
+    @Override
+    @Transactional
+    public void recordInvoiceIssued(Invoice invoice) {
+        postJournalEntries(List.of(invoiceIssuedEntry(invoice)));
+    }
+
+    @Override
+    @Transactional
+    public int recordBusinessEvents(List<Payment> payments, List<Invoice> invoices) {
+        // Each source is brought to its current amount: the first posting books it in full, later
+        // edits, cancellations and refunds post only the difference to what is already in the ledger
+        List<JournalEntryDto> entries = new ArrayList<>(payments.size() + invoices.size());
+        Map<Long, BigDecimal> postedReceivables = postedNet("INVOICE",
+                invoices.stream().map(Invoice::getId).collect(Collectors.toSet()),
+                GeneralLedger.AccountType.ACCOUNTS_RECEIVABLE);
+        for (Invoice invoice : invoices) {
+            BigDecimal posted = postedReceivables.getOrDefault(invoice.getId(), BigDecimal.ZERO);
+            BigDecimal difference = LedgerAmounts.of(invoice).subtract(posted);
+            if (difference.signum() != 0) {
+                entries.add(invoiceAdjustmentEntry(invoice, posted, difference));
+            }
+        }
+        Map<Long, BigDecimal> postedCash = postedNet("PAYMENT",
+                payments.stream().map(Payment::getId).collect(Collectors.toSet()),
+                GeneralLedger.AccountType.CASH_ASSET);
+        for (Payment payment : payments) {
+            BigDecimal posted = postedCash.getOrDefault(payment.getId(), BigDecimal.ZERO);
+            BigDecimal difference = LedgerAmounts.of(payment).subtract(posted);
+            if (difference.signum() != 0) {
+                entries.add(paymentAdjustmentEntry(payment, posted, difference));
+            }
+        }
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        return postJournalEntries(entries).getDocuments();
+    }
+
+    @Override
+    @Transactional
+    public int reverseDeletedSources(Set<Long> paymentIds, Set<Long> invoiceIds) {
+        // Deleted sources reconcile to zero; the ledger keeps them by reference id only
+        List<JournalEntryDto> entries = new ArrayList<>();
+        postedNet("INVOICE", invoiceIds, GeneralLedger.AccountType.ACCOUNTS_RECEIVABLE).forEach((invoiceId, posted) -> {
+            if (posted.signum() != 0) {
+                entries.add(receivableAdjustmentEntry(posted.negate(), String.format("Fatura silindi - Fatura #%d", invoiceId), invoiceId));
+            }
+        });
+        postedNet("PAYMENT", paymentIds, GeneralLedger.AccountType.CASH_ASSET).forEach((paymentId, posted) -> {
+            if (posted.signum() != 0) {
+                entries.add(cashAdjustmentEntry(posted.negate(), String.format("Ödeme silindi - Ödeme #%d", paymentId), paymentId));
+            }
+        });
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        return postJournalEntries(entries).getDocuments();
+    }
+
+    private Map<Long, BigDecimal> postedNet(String referenceType, Set<Long> referenceIds,
+                                            GeneralLedger.AccountType accountType) {
+        if (referenceIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, BigDecimal> posted = new HashMap<>();
+        for (Object[] row : generalLedgerRepository.getPostedNetByReference(referenceType, referenceIds, accountType)) {
+            posted.put((Long) row[0], (BigDecimal) row[1]);
+        }
+        return posted;
+    }
+
+    // An increase debits the receivable like the original posting; a decrease or cancellation reverses it
+    private static JournalEntryDto invoiceAdjustmentEntry(Invoice invoice, BigDecimal posted, BigDecimal difference) {
+        if (posted.signum() == 0 && difference.signum() > 0) {
+            return invoiceIssuedEntry(invoice);
+        }
+        String description = invoice.getStatus() == Invoice.InvoiceStatus.CANCELLED
+                ? "Fatura iptali - Kiralama #%d"
+                : "Fatura düzeltmesi - Kiralama #%d";
+        return receivableAdjustmentEntry(difference, String.format(description, invoice.getRental().getId()), invoice.getId());
+    }
+
+    // Refunds and payments failed after completion pay the cash back against the receivable
+    private static JournalEntryDto paymentAdjustmentEntry(Payment payment, BigDecimal posted, BigDecimal difference) {
+        if (posted.signum() == 0 && difference.signum() > 0) {
+            return paymentReceivedEntry(payment);
+        }
+        String description = payment.getStatus() == Payment.PaymentStatus.REFUNDED
+                ? "Ödeme iadesi - Kiralama #%d"
+                : "Ödeme düzeltmesi - Kiralama #%d";
+        return cashAdjustmentEntry(difference, String.format(description, payment.getRental().getId()), payment.getId());
+    }
+
+    private static JournalEntryDto receivableAdjustmentEntry(BigDecimal difference, String description, Long invoiceId) {
+        boolean increase = difference.signum() > 0;
+        return journalEntry(
                 GeneralLedger.TransactionType.REVENUE,
+                increase ? GeneralLedger.AccountType.ACCOUNTS_RECEIVABLE : GeneralLedger.AccountType.RENTAL_REVENUE,
+                increase ? GeneralLedger.AccountType.RENTAL_REVENUE : GeneralLedger.AccountType.ACCOUNTS_RECEIVABLE,
+                difference.abs(),
+                description,
+                invoiceId,
+                "INVOICE");
+    }
+
+    private static JournalEntryDto cashAdjustmentEntry(BigDecimal difference, String description, Long paymentId) {
+        boolean increase = difference.signum() > 0;
+        return journalEntry(
+                GeneralLedger.TransactionType.ASSET,
+                increase ? GeneralLedger.AccountType.CASH_ASSET : GeneralLedger.AccountType.ACCOUNTS_RECEIVABLE,
+                increase ? GeneralLedger.AccountType.ACCOUNTS_RECEIVABLE : GeneralLedger.AccountType.CASH_ASSET,
+                difference.abs(),
+                description,
+                paymentId,
+                "PAYMENT");
+    }
+
+    // Revenue is recognized when the invoice is issued; a payment settles the receivable
+    private static JournalEntryDto paymentReceivedEntry(Payment payment) {
+        return journalEntry(
+                GeneralLedger.TransactionType.ASSET,
                 GeneralLedger.AccountType.CASH_ASSET, // or BANK_ASSET based on payment method
-                GeneralLedger.AccountType.RENTAL_REVENUE,
+                GeneralLedger.AccountType.ACCOUNTS_RECEIVABLE,
                 payment.getAmount(),
-                description,
+                String.format("Ödeme alındı - Kiralama #%d", payment.getRental().getId()),
                 payment.getId(),
-                "PAYMENT"
-        );
+                "PAYMENT");
     }
 
-    @Override
-    @Transactional
-    public void recordInvoiceIssued(Invoice invoice) {
-        String description = String.format("Fatura kesildi - Kiralama #%d", invoice.getRental().getId());
-        
-        createJournalEntry(
+    private static JournalEntryDto invoiceIssuedEntry(Invoice invoice) {
+        return journalEntry(
                 GeneralLedger.TransactionType.REVENUE,
                 GeneralLedger.AccountType.ACCOUNTS_RECEIVABLE,
                 GeneralLedger.AccountType.RENTAL_REVENUE,
                 invoice.getTotalAmount(),
-                description,
+                String.format("Fatura kesildi - Kiralama #%d", invoice.getRental().getId()),
                 invoice.getId(),
-                "INVOICE"
-        );
+                "INVOICE");
     }
 
     @Override
@@ -177,7 +431,11 @@ public class GeneralLedgerServiceImpl implements GeneralLedgerService {
 
     @Override
     public List<GeneralLedgerDto> getTrialBalance() {
-        List<Object[]> trialBalanceData = generalLedgerRepository.getTrialBalance();
+        LocalDateTime closedUntil = ledgerPeriodCloseRepository.findLatestPeriodEnd();
+        List<Object[]> trialBalanceData = closedUntil == null
+                ? generalLedgerRepository.getTrialBalance()
+                : mergeTrialBalance(ledgerPeriodCloseRepository.getTrialBalance(closedUntil),
+                        generalLedgerRepository.getTrialBalanceAfter(closedUntil));
         List<GeneralLedgerDto> result = new ArrayList<>();
         
         for (Object[] row : trialBalanceData) {
@@ -263,17 +521,25 @@ public class GeneralLedgerServiceImpl implements GeneralLedgerService {
 
     @Override
     public Map<String, Object> getBalanceSheet(LocalDateTime date) {
-        List<Object[]> balanceData = generalLedgerRepository.getBalanceSheetData(date);
+        // Closing balances of the last period ending on or before the date, plus the entries after it
+        LocalDateTime closedUntil = ledgerPeriodCloseRepository.findLatestPeriodEndOnOrBefore(date);
+        Map<GeneralLedger.AccountType, BigDecimal[]> balanceData = new EnumMap<>(GeneralLedger.AccountType.class);
+        if (closedUntil == null) {
+            addAccountTypeTotals(balanceData, generalLedgerRepository.getBalanceSheetData(date));
+        } else {
+            addAccountTypeTotals(balanceData, ledgerPeriodCloseRepository.getAccountTypeTotals(closedUntil));
+            addAccountTypeTotals(balanceData, generalLedgerRepository.getBalanceSheetDataBetween(closedUntil, date));
+        }
         Map<String, Object> balanceSheet = new HashMap<>();
         
         BigDecimal totalAssets = BigDecimal.ZERO;
         BigDecimal totalLiabilities = BigDecimal.ZERO;
         BigDecimal totalEquity = BigDecimal.ZERO;
         
-        for (Object[] row : balanceData) {
-            GeneralLedger.AccountType accountType = (GeneralLedger.AccountType) row[0];
-            BigDecimal debits = (BigDecimal) row[1];
-            BigDecimal credits = (BigDecimal) row[2];
+        for (Map.Entry<GeneralLedger.AccountType, BigDecimal[]> row : balanceData.entrySet()) {
+            GeneralLedger.AccountType accountType = row.getKey();
+            BigDecimal debits = row.getValue()[0];
+            BigDecimal credits = row.getValue()[1];
             
             BigDecimal balance = debits.subtract(credits);
             
@@ -335,21 +601,69 @@ public class GeneralLedgerServiceImpl implements GeneralLedgerService {
 
     @Override
     public BigDecimal getAccountBalance(GeneralLedger.AccountType accountType) {
+        LocalDateTime closedUntil = ledgerPeriodCloseRepository.findLatestPeriodEnd();
+        if (closedUntil != null) {
+            return ledgerPeriodCloseRepository.getClosingBalance(closedUntil, accountType)
+                    .add(generalLedgerRepository.getNetBalanceAfter(accountType, closedUntil));
+        }
         BigDecimal totalDebits = generalLedgerRepository.getTotalDebitsByAccountType(accountType);
         BigDecimal totalCredits = generalLedgerRepository.getTotalCreditsByAccountType(accountType);
         return totalDebits.subtract(totalCredits);
     }
 
     @Override
-    public List<GeneralLedgerDto> getAccountTransactions(GeneralLedger.AccountType accountType, 
-                                                       LocalDateTime startDate, LocalDateTime endDate) {
-        List<GeneralLedger> transactions = generalLedgerRepository
-                .findByAccountTypeOrderByTransactionDate(accountType);
-        
-        return transactions.stream()
-                .filter(t -> !t.getTransactionDate().isBefore(startDate) && !t.getTransactionDate().isAfter(endDate))
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+    public KeysetPageDto<GeneralLedgerDto> getAccountTransactions(GeneralLedger.AccountType accountType,
+                                                                LocalDateTime startDate, LocalDateTime endDate,
+                                                                String cursor, int size) {
+        KeysetCursor after = KeysetCursor.parse(cursor);
+        int pageSize = KeysetCursor.pageSize(size);
+        // Later pages open with the balance through the previous page's last row, from the closing
+        // snapshot before it plus the entries since
+        BigDecimal openingBalance;
+        List<Object[]> rows;
+        if (after == null) {
+            openingBalance = getAccountBalanceBefore(accountType, startDate);
+            rows = generalLedgerRepository.findAccountPageFirst(accountType.name(), startDate, endDate, pageSize + 1);
+        } else {
+            openingBalance = getAccountBalanceThrough(accountType, after.getPosition(), after.getId());
+            rows = generalLedgerRepository.findAccountPageAfter(accountType.name(), after.getPosition(), after.getId(),
+                    endDate, pageSize + 1);
+        }
+
+        // Rows are (id, net movement since the page start)
+        List<Long> ids = rows.stream().map(row -> ((Number) row[0]).longValue()).collect(Collectors.toList());
+        Map<Long, GeneralLedger> entries = generalLedgerRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(GeneralLedger::getId, ledger -> ledger));
+        List<GeneralLedgerDto> dtos = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            GeneralLedger ledger = entries.get(((Number) row[0]).longValue());
+            if (ledger == null) {
+                continue; // deleted between the two reads
+            }
+            GeneralLedgerDto dto = mapToDto(ledger);
+            dto.setBalance(openingBalance.add((BigDecimal) row[1]));
+            dtos.add(dto);
+        }
+        return KeysetPageDto.fromRows(dtos, pageSize, page -> page,
+                dto -> KeysetCursor.of(dto.getTransactionDate(), dto.getId()));
+    }
+
+    private BigDecimal getAccountBalanceBefore(GeneralLedger.AccountType accountType, LocalDateTime before) {
+        LocalDateTime closedUntil = ledgerPeriodCloseRepository.findPeriodEndBefore(before);
+        if (closedUntil == null) {
+            return generalLedgerRepository.getNetBalanceBefore(accountType, before);
+        }
+        return ledgerPeriodCloseRepository.getClosingBalance(closedUntil, accountType)
+                .add(generalLedgerRepository.getNetBalanceBetween(accountType, closedUntil, before));
+    }
+
+    private BigDecimal getAccountBalanceThrough(GeneralLedger.AccountType accountType, LocalDateTime position, Long id) {
+        LocalDateTime closedUntil = ledgerPeriodCloseRepository.findPeriodEndBefore(position);
+        if (closedUntil == null) {
+            return generalLedgerRepository.getNetBalanceThrough(accountType.name(), position, id);
+        }
+        return ledgerPeriodCloseRepository.getClosingBalance(closedUntil, accountType)
+                .add(generalLedgerRepository.getNetBalanceBetweenThrough(accountType.name(), closedUntil, position, id));
     }
 
     @Override
@@ -371,28 +685,91 @@ public class GeneralLedgerServiceImpl implements GeneralLedgerService {
 
     @Override
     @Transactional
-    public void closeAccountingPeriod(LocalDateTime periodEnd) {
-        // Close revenue and expense accounts to retained earnings
-        List<Object[]> incomeData = generalLedgerRepository.getIncomeStatementData(
-                periodEnd.minusDays(30), periodEnd);
-        
-        // This would typically involve more complex period closing procedures
-        // For now, we'll just mark the period as closed
-        System.out.println("Accounting period closed for: " + periodEnd);
+    public int closeAccountingPeriod(LocalDateTime periodEnd) {
+        if (periodEnd.isAfter(LocalDateTime.now())) {
+            throw new BusinessException("Accounting period has not ended yet: " + periodEnd);
+        }
+        LocalDateTime previousEnd = ledgerPeriodCloseRepository.findLatestPeriodEnd();
+        if (previousEnd != null && !periodEnd.isAfter(previousEnd)) {
+            throw new BusinessException("Accounting period up to " + previousEnd + " is already closed; re-close it to apply corrections");
+        }
+        int accounts = writeClosingBalances(previousEnd, periodEnd);
+        logger.info("Accounting period closed for {} with {} account balances", periodEnd, accounts);
+        return accounts;
     }
 
-    private String generateDocumentNumber() {
-        return "GL-" + System.currentTimeMillis();
+    @Override
+    @Transactional
+    public int recloseAccountingPeriod(LocalDateTime periodEnd) {
+        // Closing balances are cumulative, so every later period is rebuilt as well
+        List<LocalDateTime> periodEnds = ledgerPeriodCloseRepository.findPeriodEndsFrom(periodEnd);
+        if (periodEnds.isEmpty() || !periodEnds.get(0).equals(periodEnd)) {
+            throw new BusinessException("No closed accounting period ends at " + periodEnd);
+        }
+        LocalDateTime previousEnd = ledgerPeriodCloseRepository.findPeriodEndBefore(periodEnd);
+        ledgerPeriodCloseRepository.deleteFrom(periodEnd);
+        for (LocalDateTime end : periodEnds) {
+            writeClosingBalances(previousEnd, end);
+            previousEnd = end;
+        }
+        logger.info("Accounting periods re-closed from {} ({} periods)", periodEnd, periodEnds.size());
+        return periodEnds.size();
+    }
+
+    @Override
+    public List<LocalDateTime> getClosedPeriods() {
+        return ledgerPeriodCloseRepository.findAllPeriodEnds();
+    }
+
+    private int writeClosingBalances(LocalDateTime previousEnd, LocalDateTime periodEnd) {
+        return previousEnd == null
+                ? ledgerPeriodCloseRepository.insertFromLedger(periodEnd)
+                : ledgerPeriodCloseRepository.insertFromPrevious(previousEnd, periodEnd);
+    }
+
+    // Closed periods only change through recloseAccountingPeriod; corrections are posted in an open period
+    private void rejectIfInClosedPeriod(LocalDateTime date) {
+        if (date == null) {
+            return;
+        }
+        LocalDateTime closedUntil = ledgerPeriodCloseRepository.findLatestPeriodEnd();
+        if (closedUntil != null && !date.isAfter(closedUntil)) {
+            throw new BusinessException("Accounting period is closed until " + closedUntil
+                    + "; entries dated " + date + " cannot be posted or deleted");
+        }
+    }
+
+    private List<Object[]> mergeTrialBalance(List<Object[]> closingRows, List<Object[]> openRows) {
+        // Rows are (accountType, accountCode, accountName, debit, credit)
+        Map<List<Object>, Object[]> merged = new LinkedHashMap<>();
+        for (List<Object[]> rows : List.of(closingRows, openRows)) {
+            for (Object[] row : rows) {
+                merged.merge(List.of(row[0], row[1], row[2]), row.clone(), (a, b) -> new Object[]{
+                        a[0], a[1], a[2], ((BigDecimal) a[3]).add((BigDecimal) b[3]), ((BigDecimal) a[4]).add((BigDecimal) b[4])
+                });
+            }
+        }
+        List<Object[]> result = new ArrayList<>(merged.values());
+        result.sort(Comparator.comparing((Object[] row) -> ((GeneralLedger.AccountType) row[0]).name())
+                .thenComparing(row -> (String) row[1]));
+        return result;
+    }
+
+    private void addAccountTypeTotals(Map<GeneralLedger.AccountType, BigDecimal[]> totals, List<Object[]> rows) {
+        // Rows are (accountType, debits, credits)
+        for (Object[] row : rows) {
+            BigDecimal[] sums = totals.computeIfAbsent((GeneralLedger.AccountType) row[0],
+                    key -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+            sums[0] = sums[0].add((BigDecimal) row[1]);
+            sums[1] = sums[1].add((BigDecimal) row[2]);
+        }
     }
 
     private GeneralLedgerDto mapToDto(GeneralLedger ledger) {
-        GeneralLedgerDto dto = modelMapper.map(ledger, GeneralLedgerDto.class);
-        dto.setTransactionTypeDisplayName(ledger.getTransactionType().getDisplayName());
-        dto.setAccountTypeDisplayName(ledger.getAccountType().getDisplayName());
-        return dto;
+        return generalLedgerMapper.toDto(ledger);
     }
 
     private GeneralLedger mapToEntity(GeneralLedgerDto dto) {
-        return modelMapper.map(dto, GeneralLedger.class);
+        return generalLedgerMapper.toEntity(dto);
     }
 }
@@ -14,7 +14,10 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -79,22 +82,23 @@ public class GpsServiceImpl implements GpsService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CarDto> getCarsInRadius(Double centerLat, Double centerLng, Double radiusKm) {
         LocalDateTime since = LocalDateTime.now().minusHours(24); // Son 24 saat
         
         List<GpsLocationHistory> locations = gpsLocationHistoryRepository.findCarsWithinRadius(
             centerLat, centerLng, radiusKm, since);
         
-        return locations.stream()
-            .map(location -> {
-                Car car = location.getCar();
-                return carService.EntityToDto(car);
-            })
-            .distinct()
-            .collect(Collectors.toList());
+        // Aynı araç birden fazla konum kaydıyla dönebilir
+        Map<Long, Car> cars = new LinkedHashMap<>();
+        for (GpsLocationHistory location : locations) {
+            cars.putIfAbsent(location.getCar().getId(), location.getCar());
+        }
+        return carService.EntityToDtos(new ArrayList<>(cars.values()));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<GpsLocationDto> getRecentCarLocations(int hoursAgo) {
         LocalDateTime since = LocalDateTime.now().minusHours(hoursAgo);
         
@@ -124,6 +128,7 @@ public class GpsServiceImpl implements GpsService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<GpsLocationDto> getCarLocationHistory(Long carId, int days) {
         LocalDateTime startDate = LocalDateTime.now().minusDays(days);
         
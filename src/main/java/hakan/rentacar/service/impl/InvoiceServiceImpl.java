@@ -2,34 +2,49 @@ package hakan.rentacar.service.impl;
 
 import hakan.rentacar.entities.concretes.Customer;
 import hakan.rentacar.entities.concretes.Invoice;
+import hakan.rentacar.entities.concretes.LedgerOutboxEvent;
 import hakan.rentacar.entities.concretes.Rental;
 import hakan.rentacar.entities.dtos.InvoiceDto;
 import hakan.rentacar.entities.dtos.InvoiceSummaryDto;
+import hakan.rentacar.entities.dtos.KeysetCursor;
+import hakan.rentacar.entities.dtos.KeysetPageDto;
+import hakan.rentacar.mappers.InvoiceMapper;
 import hakan.rentacar.repostories.CustomerRepository;
 import hakan.rentacar.repostories.InvoiceRepository;
 import hakan.rentacar.repostories.RentalRepository;
 import hakan.rentacar.service.EmailService;
+import hakan.rentacar.service.FinancialDashboardService;
 import hakan.rentacar.service.InvoiceService;
+import hakan.rentacar.service.LedgerPostingService;
+import hakan.rentacar.service.LifecycleSweeperService;
+import hakan.rentacar.service.TaxCalculationService;
 import hakan.rentacar.audit.Auditable;
 import hakan.rentacar.entities.concretes.AuditLog;
-import org.modelmapper.ModelMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
-import java.util.HashMap;
 
 @Service
 public class InvoiceServiceImpl implements InvoiceService {
 
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceServiceImpl.class);
+
     @Autowired
     private InvoiceRepository invoiceRepository;
 
@@ -40,11 +55,46 @@ public class InvoiceServiceImpl implements InvoiceService {
     private RentalRepository rentalRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private InvoiceMapper invoiceMapper;
 
     @Autowired
     private EmailService emailService;
 
+    // Invoice changes are queued for their ledger and tax postings
+    @Autowired
+    private LedgerPostingService ledgerPostingService;
+
+    @Autowired
+    private TaxCalculationService taxCalculationService;
+
+    @Autowired
+    private FinancialDashboardService financialDashboardService;
+
+    // The overdue sweep calls back into this service for its notifications
+    @Autowired
+    @Lazy
+    private LifecycleSweeperService lifecycleSweeperService;
+
+    // Live summary: moved by every committed status or amount change, reseeded from the database
+    // at startup and nightly to drop any drift (e.g. changes committed while seeding)
+    private final InvoiceStatusTotals liveTotals = new InvoiceStatusTotals();
+    private volatile boolean liveTotalsReady = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadLiveSummaryOnStartup() {
+        try {
+            reseedLiveSummary();
+        } catch (Exception e) {
+            logger.error("Live invoice summary could not be loaded: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "0 30 2 * * *") // Run every day at 2:30 AM
+    public void reseedLiveSummary() {
+        liveTotals.replaceWith(InvoiceStatusTotals.of(invoiceRepository.getStatusTotals()));
+        liveTotalsReady = true;
+    }
+
     @Override
     @Transactional
     @Auditable(entity = "Invoice", action = AuditLog.ActionType.CREATE, description = "Create new invoice")
@@ -67,6 +117,8 @@ public class InvoiceServiceImpl implements InvoiceService {
         }
         
         Invoice savedInvoice = invoiceRepository.save(invoice);
+        recordTransition(null, null, savedInvoice.getStatus(), savedInvoice.getTotalAmount());
+        enqueueLedgerEvent(savedInvoice);
         return mapToDto(savedInvoice);
     }
 
@@ -75,6 +127,8 @@ public class InvoiceServiceImpl implements InvoiceService {
     @Auditable(entity = "Invoice", action = AuditLog.ActionType.UPDATE, description = "Update invoice")
     public InvoiceDto update(InvoiceDto invoiceDto) {
         Invoice existingInvoice = invoiceRepository.findById(invoiceDto.getId()).orElseThrow();
+        Invoice.InvoiceStatus previousStatus = existingInvoice.getStatus();
+        BigDecimal previousAmount = existingInvoice.getTotalAmount();
         
         existingInvoice.setIssueDate(invoiceDto.getIssueDate());
         existingInvoice.setDueDate(invoiceDto.getDueDate());
@@ -88,6 +142,8 @@ public class InvoiceServiceImpl implements InvoiceService {
         existingInvoice.setReferenceNumber(invoiceDto.getReferenceNumber());
 
         Invoice savedInvoice = invoiceRepository.save(existingInvoice);
+        recordTransition(previousStatus, previousAmount, savedInvoice.getStatus(), savedInvoice.getTotalAmount());
+        enqueueLedgerEvent(savedInvoice);
         return mapToDto(savedInvoice);
     }
 
@@ -106,9 +162,30 @@ public class InvoiceServiceImpl implements InvoiceService {
     }
 
     @Override
+    public KeysetPageDto<InvoiceDto> getPage(String cursor, int size) {
+        KeysetCursor after = KeysetCursor.parse(cursor);
+        int pageSize = KeysetCursor.pageSize(size);
+        // Fetch one extra row to know whether another page exists
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<Invoice> invoices = after == null
+                ? invoiceRepository.findKeysetFirstPage(limit)
+                : invoiceRepository.findKeysetPageAfter(after.positionAsDate(), after.getId(), limit);
+        return KeysetPageDto.fromRows(invoices, pageSize,
+                rows -> rows.stream().map(this::mapToDto).collect(Collectors.toList()),
+                invoice -> KeysetCursor.of(invoice.getCreatedDate(), invoice.getId()));
+    }
+
+    @Override
+    @Transactional
     @Auditable(entity = "Invoice", action = AuditLog.ActionType.DELETE, description = "Delete invoice")
     public void delete(Long id) {
-        invoiceRepository.deleteById(id);
+        invoiceRepository.findById(id).ifPresent(invoice -> {
+            // Queued first: waits for a posting of this invoice in flight, whose tax rows are then reversed too
+            enqueueLedgerEvent(invoice);
+            taxCalculationService.reverseTaxForDeletedInvoice(invoice);
+            invoiceRepository.delete(invoice);
+            recordTransition(invoice.getStatus(), invoice.getTotalAmount(), null, null);
+        });
     }
 
     @Override
@@ -149,9 +226,12 @@ public class InvoiceServiceImpl implements InvoiceService {
     @Auditable(entity = "Invoice", action = AuditLog.ActionType.UPDATE, description = "Mark invoice as sent")
     public InvoiceDto markAsSent(Long invoiceId) {
         Invoice invoice = invoiceRepository.findById(invoiceId).orElseThrow();
+        Invoice.InvoiceStatus previousStatus = invoice.getStatus();
         invoice.setStatus(Invoice.InvoiceStatus.SENT);
         
         Invoice savedInvoice = invoiceRepository.save(invoice);
+        recordTransition(previousStatus, invoice.getTotalAmount(), Invoice.InvoiceStatus.SENT, invoice.getTotalAmount());
+        enqueueLedgerEvent(savedInvoice);
         
         // Send invoice email
         try {
@@ -168,10 +248,13 @@ public class InvoiceServiceImpl implements InvoiceService {
     @Auditable(entity = "Invoice", action = AuditLog.ActionType.UPDATE, description = "Mark invoice as paid")
     public InvoiceDto markAsPaid(Long invoiceId) {
         Invoice invoice = invoiceRepository.findById(invoiceId).orElseThrow();
+        Invoice.InvoiceStatus previousStatus = invoice.getStatus();
         invoice.setStatus(Invoice.InvoiceStatus.PAID);
         invoice.setPaidAt(LocalDateTime.now());
         
         Invoice savedInvoice = invoiceRepository.save(invoice);
+        recordTransition(previousStatus, invoice.getTotalAmount(), Invoice.InvoiceStatus.PAID, invoice.getTotalAmount());
+        enqueueLedgerEvent(savedInvoice);
         return mapToDto(savedInvoice);
     }
 
@@ -179,9 +262,12 @@ public class InvoiceServiceImpl implements InvoiceService {
     @Transactional
     public InvoiceDto markAsCancelled(Long invoiceId) {
         Invoice invoice = invoiceRepository.findById(invoiceId).orElseThrow();
+        Invoice.InvoiceStatus previousStatus = invoice.getStatus();
         invoice.setStatus(Invoice.InvoiceStatus.CANCELLED);
         
         Invoice savedInvoice = invoiceRepository.save(invoice);
+        recordTransition(previousStatus, invoice.getTotalAmount(), Invoice.InvoiceStatus.CANCELLED, invoice.getTotalAmount());
+        enqueueLedgerEvent(savedInvoice);
         return mapToDto(savedInvoice);
     }
 
@@ -236,17 +322,27 @@ public class InvoiceServiceImpl implements InvoiceService {
                 .collect(Collectors.toList());
     }
 
+    // Bulk, chunked SENT -> OVERDUE update; emails go out after each chunk commits
     @Override
-    @Transactional
     public void updateOverdueInvoices() {
-        List<Invoice> overdueInvoices = invoiceRepository.findOverdueInvoices(
-                Invoice.InvoiceStatus.SENT, LocalDateTime.now());
-        
-        for (Invoice invoice : overdueInvoices) {
-            invoice.setStatus(Invoice.InvoiceStatus.OVERDUE);
-            invoiceRepository.save(invoice);
-            
-            // Send overdue notification
+        lifecycleSweeperService.sweep(OverdueInvoiceSweep.NAME);
+    }
+
+    @Override
+    public void handleOverdueInvoices(List<Long> invoiceIds, boolean replay) {
+        List<Invoice> invoices = invoiceRepository.findByIdIn(invoiceIds);
+        if (replay) {
+            // The moves may have been applied before the crash; recount instead of moving twice
+            reseedLiveSummary();
+        } else {
+            for (Invoice invoice : invoices) {
+                liveTotals.move(Invoice.InvoiceStatus.SENT, invoice.getTotalAmount(), Invoice.InvoiceStatus.OVERDUE, invoice.getTotalAmount());
+            }
+        }
+        financialDashboardService.markStale();
+
+        // Send overdue notifications
+        for (Invoice invoice : invoices) {
             try {
                 emailService.sendOverdueInvoiceNotification(invoice.getCustomer(), invoice);
             } catch (Exception e) {
@@ -281,54 +377,11 @@ public class InvoiceServiceImpl implements InvoiceService {
     }
 
     private InvoiceDto mapToDto(Invoice invoice) {
-        InvoiceDto dto = modelMapper.map(invoice, InvoiceDto.class);
-        
-        // Set relationship IDs
-        if (invoice.getCustomer() != null) {
-            dto.setCustomerId(invoice.getCustomer().getId());
-            dto.setCustomerName(invoice.getCustomer().getFirstName() + " " + invoice.getCustomer().getLastName());
-            dto.setCustomerEmail(invoice.getCustomer().getEmail());
-            // Construct address from available fields
-            String address = String.format("%s, %d %s", 
-                invoice.getCustomer().getStreet(), 
-                invoice.getCustomer().getZipcode(), 
-                invoice.getCustomer().getCity());
-            dto.setCustomerAddress(address);
-        }
-        
-        if (invoice.getRental() != null) {
-            dto.setRentalId(invoice.getRental().getId());
-            dto.setRentalStartDate(invoice.getRental().getStart().atStartOfDay());
-            dto.setRentalEndDate(invoice.getRental().getEnd().atStartOfDay());
-            dto.setRentalDays(ChronoUnit.DAYS.between(invoice.getRental().getStart(), invoice.getRental().getEnd()) + 1);
-            
-            if (invoice.getRental().getCar() != null) {
-                dto.setCarPlate(invoice.getRental().getCar().getPlate());
-                if (invoice.getRental().getCar().getModel() != null) {
-                    dto.setCarModelName(invoice.getRental().getCar().getModel().getName());
-                    if (invoice.getRental().getCar().getModel().getBrand() != null) {
-                        dto.setCarBrandName(invoice.getRental().getCar().getModel().getBrand().getName());
-                    }
-                }
-            }
-        }
-        
-        // Set display name
-        dto.setStatusDisplayName(invoice.getStatus().getDisplayName());
-        
-        // Calculate due date info
-        if (invoice.getDueDate() != null) {
-            long daysUntilDue = ChronoUnit.DAYS.between(LocalDateTime.now(), invoice.getDueDate());
-            dto.setDaysUntilDue(daysUntilDue);
-            dto.setDaysOverdue(Math.max(0, -daysUntilDue));
-            dto.setIsOverdue(daysUntilDue < 0 && invoice.getStatus().equals(Invoice.InvoiceStatus.SENT));
-        }
-        
-        return dto;
+        return invoiceMapper.toDto(invoice);
     }
 
     private Invoice mapToEntity(InvoiceDto dto) {
-        Invoice invoice = modelMapper.map(dto, Invoice.class);
+        Invoice invoice = invoiceMapper.toEntity(dto);
         
         if (dto.getCustomerId() != null) {
             Customer customer = customerRepository.findById(dto.getCustomerId()).orElseThrow();
@@ -345,53 +398,35 @@ public class InvoiceServiceImpl implements InvoiceService {
 
     @Override
     public InvoiceSummaryDto getSummary() {
-        List<Invoice> allInvoices = invoiceRepository.findAll();
-        
-        BigDecimal totalAmount = allInvoices.stream()
-                .map(Invoice::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        long count = allInvoices.size();
-        
-        BigDecimal pendingAmount = allInvoices.stream()
-                .filter(invoice -> invoice.getStatus() == Invoice.InvoiceStatus.PENDING)
-                .map(Invoice::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        BigDecimal paidAmount = allInvoices.stream()
-                .filter(invoice -> invoice.getStatus() == Invoice.InvoiceStatus.PAID)
-                .map(Invoice::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        BigDecimal overdueAmount = allInvoices.stream()
-                .filter(invoice -> invoice.getStatus() == Invoice.InvoiceStatus.OVERDUE)
-                .map(Invoice::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        Map<String, InvoiceSummaryDto.InvoiceStatusSummary> byStatus = new HashMap<>();
-        
-        for (Invoice.InvoiceStatus status : Invoice.InvoiceStatus.values()) {
-            List<Invoice> statusInvoices = allInvoices.stream()
-                    .filter(invoice -> invoice.getStatus() == status)
-                    .collect(Collectors.toList());
-            
-            BigDecimal statusAmount = statusInvoices.stream()
-                    .map(Invoice::getTotalAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            
-            byStatus.put(status.name(), InvoiceSummaryDto.InvoiceStatusSummary.builder()
-                    .amount(statusAmount)
-                    .count((long) statusInvoices.size())
-                    .build());
+        return InvoiceStatusTotals.of(invoiceRepository.getStatusTotals()).toSummary();
+    }
+
+    @Override
+    public InvoiceSummaryDto getLiveSummary() {
+        if (!liveTotalsReady) {
+            return getSummary();
+        }
+        return liveTotals.toSummary();
+    }
+
+    // One queue row per invoice; every change re-queues it and posting books only the difference
+    private void enqueueLedgerEvent(Invoice invoice) {
+        ledgerPostingService.enqueue(LedgerOutboxEvent.EventType.INVOICE_CHANGED, invoice.getId());
+    }
+
+    // Applies a status / amount change to the live summary once the transaction commits
+    private void recordTransition(Invoice.InvoiceStatus from, BigDecimal fromAmount,
+                                  Invoice.InvoiceStatus to, BigDecimal toAmount) {
+        financialDashboardService.markStale();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    liveTotals.move(from, fromAmount, to, toAmount);
+                }
+            });
+        } else {
+            liveTotals.move(from, fromAmount, to, toAmount);
         }
-        
-        return InvoiceSummaryDto.builder()
-                .totalAmount(totalAmount)
-                .count(count)
-                .pendingAmount(pendingAmount)
-                .paidAmount(paidAmount)
-                .overdueAmount(overdueAmount)
-                .byStatus(byStatus)
-                .build();
     }
 }
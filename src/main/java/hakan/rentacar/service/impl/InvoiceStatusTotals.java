@@ -0,0 +1,86 @@
+package hakan.rentacar.service.impl;
+
+import hakan.rentacar.entities.concretes.Invoice;
+import hakan.rentacar.entities.dtos.InvoiceSummaryDto;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Invoice count and amount per status, one slot per InvoiceStatus.
+ * Filled from the GROUP BY status query, or moved invoice by invoice for the live summary.
+ */
+final class InvoiceStatusTotals {
+
+    private static final Invoice.InvoiceStatus[] STATUSES = Invoice.InvoiceStatus.values();
+
+    private final long[] counts = new long[STATUSES.length];
+    private final BigDecimal[] amounts = new BigDecimal[STATUSES.length];
+
+    InvoiceStatusTotals() {
+        Arrays.fill(amounts, BigDecimal.ZERO);
+    }
+
+    // Rows are (status, count, amount)
+    static InvoiceStatusTotals of(List<Object[]> rows) {
+        InvoiceStatusTotals totals = new InvoiceStatusTotals();
+        for (Object[] row : rows) {
+            totals.add((Invoice.InvoiceStatus) row[0], ((Number) row[1]).longValue(), (BigDecimal) row[2]);
+        }
+        return totals;
+    }
+
+    synchronized void move(Invoice.InvoiceStatus from, BigDecimal fromAmount, Invoice.InvoiceStatus to, BigDecimal toAmount) {
+        if (from != null) {
+            add(from, -1, amountOf(fromAmount).negate());
+        }
+        if (to != null) {
+            add(to, 1, amountOf(toAmount));
+        }
+    }
+
+    synchronized void replaceWith(InvoiceStatusTotals other) {
+        synchronized (other) {
+            System.arraycopy(other.counts, 0, counts, 0, counts.length);
+            System.arraycopy(other.amounts, 0, amounts, 0, amounts.length);
+        }
+    }
+
+    synchronized InvoiceSummaryDto toSummary() {
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        long count = 0;
+        Map<String, InvoiceSummaryDto.InvoiceStatusSummary> byStatus = new HashMap<>();
+        for (Invoice.InvoiceStatus status : STATUSES) {
+            totalAmount = totalAmount.add(amounts[status.ordinal()]);
+            count += counts[status.ordinal()];
+            byStatus.put(status.name(), InvoiceSummaryDto.InvoiceStatusSummary.builder()
+                    .amount(amounts[status.ordinal()])
+                    .count(counts[status.ordinal()])
+                    .build());
+        }
+
+        return InvoiceSummaryDto.builder()
+                .totalAmount(totalAmount)
+                .count(count)
+                .pendingAmount(amounts[Invoice.InvoiceStatus.PENDING.ordinal()])
+                .paidAmount(amounts[Invoice.InvoiceStatus.PAID.ordinal()])
+                .overdueAmount(amounts[Invoice.InvoiceStatus.OVERDUE.ordinal()])
+                .byStatus(byStatus)
+                .build();
+    }
+
+    private void add(Invoice.InvoiceStatus status, long count, BigDecimal amount) {
+        if (status == null) {
+            return;
+        }
+        counts[status.ordinal()] += count;
+        amounts[status.ordinal()] = amounts[status.ordinal()].add(amountOf(amount));
+    }
+
+    private static BigDecimal amountOf(BigDecimal amount) {
+        return amount != null ? amount : BigDecimal.ZERO;
+    }
+}
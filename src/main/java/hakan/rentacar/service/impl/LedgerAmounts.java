@@ -0,0 +1,38 @@
+package hakan.rentacar.service.impl;
+
+import hakan.rentacar.entities.concretes.Invoice;
+import hakan.rentacar.entities.concretes.Payment;
+
+import java.math.BigDecimal;
+
+/**
+ * Amounts a payment or invoice should currently have in the books. Ledger and tax posting compare
+ * them with what was already posted for the source and record only the difference, so edits,
+ * cancellations and refunds after the first posting are booked as adjustments.
+ */
+final class LedgerAmounts {
+
+    private LedgerAmounts() {
+    }
+
+    // Receivable and revenue of an invoice; a cancelled invoice keeps none
+    static BigDecimal of(Invoice invoice) {
+        if (invoice.getStatus() == Invoice.InvoiceStatus.CANCELLED || invoice.getTotalAmount() == null) {
+            return BigDecimal.ZERO;
+        }
+        return invoice.getTotalAmount();
+    }
+
+    // Cash of a payment; refund records carry a negative amount
+    static BigDecimal of(Payment payment) {
+        if (!isBooked(payment) || payment.getAmount() == null) {
+            return BigDecimal.ZERO;
+        }
+        return payment.getAmount();
+    }
+
+    static boolean isBooked(Payment payment) {
+        return payment.getStatus() == Payment.PaymentStatus.COMPLETED
+                || payment.getStatus() == Payment.PaymentStatus.REFUNDED;
+    }
+}
@@ -0,0 +1,65 @@
+package hakan.rentacar.service.impl;
+
+import hakan.rentacar.repostories.GeneralLedgerBatchRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hands out journal document numbers from gl_document_number_seq. Each nextval reserves a block of
+ * numbers that is used up in memory, so a bulk import costs one sequence round trip however many
+ * documents it posts. Numbers are unique but may have gaps (rolled back postings, restarts).
+ */
+@Component
+class LedgerDocumentNumbers {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerDocumentNumbers.class);
+
+    private static final int BLOCK_SIZE = GeneralLedgerBatchRepository.DOCUMENT_NUMBER_ALLOCATION_SIZE;
+
+    @Autowired
+    private GeneralLedgerBatchRepository generalLedgerBatchRepository;
+
+    // Unused part of the current block: [next, limit)
+    private long next;
+    private long limit;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createSequence() {
+        try {
+            // No entity maps the sequence, so schema update does not create it
+            generalLedgerBatchRepository.createDocumentNumberSequence();
+        } catch (Exception e) {
+            logger.error("Document number sequence could not be created: {}", e.getMessage());
+        }
+    }
+
+    synchronized List<String> allocate(int count) {
+        List<String> numbers = new ArrayList<>(count);
+        while (numbers.size() < count && next < limit) {
+            numbers.add(format(next++));
+        }
+        int missing = count - numbers.size();
+        if (missing > 0) {
+            int blocks = (missing + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            for (Long blockStart : generalLedgerBatchRepository.nextDocumentNumberBlocks(blocks)) {
+                next = blockStart;
+                limit = blockStart + BLOCK_SIZE;
+                while (numbers.size() < count && next < limit) {
+                    numbers.add(format(next++));
+                }
+            }
+        }
+        return numbers;
+    }
+
+    private static String format(long number) {
+        return String.format("GL-%010d", number);
+    }
+}
@@ -0,0 +1,242 @@
+package hakan.rentacar.service.impl;
+
+import hakan.rentacar.entities.concretes.Invoice;
+import hakan.rentacar.entities.concretes.LedgerOutboxEvent;
+import hakan.rentacar.entities.concretes.Payment;
+import hakan.rentacar.repostories.InvoiceRepository;
+import hakan.rentacar.repostories.LedgerOutboxEventRepository;
+import hakan.rentacar.repostories.PaymentRepository;
+import hakan.rentacar.service.FinancialDashboardService;
+import hakan.rentacar.service.GeneralLedgerService;
+import hakan.rentacar.service.LedgerPostingService;
+import hakan.rentacar.service.TaxCalculationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Posts ledger and tax entries for payments and invoices. Business transactions only write a row to
+ * ledger_outbox_events, which commits or rolls back with them; a worker drains the table every few
+ * seconds and posts each claimed batch as one journal posting. Every source has one row, re-queued
+ * when the source changes, and posting brings its entries to the source's current amount, so edits,
+ * cancellations, refunds and deletions after the first posting land as adjusting entries.
+ */
+@Service
+public class LedgerPostingServiceImpl implements LedgerPostingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerPostingServiceImpl.class);
+
+    private static final int MAX_ATTEMPTS = 5;
+
+    @Autowired
+    private LedgerOutboxEventRepository ledgerOutboxEventRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private GeneralLedgerService generalLedgerService;
+
+    @Autowired
+    private TaxCalculationService taxCalculationService;
+
+    // Posted events add tax calculations, which the financial dashboard reports
+    @Autowired
+    private FinancialDashboardService financialDashboardService;
+
+    // Batches and single-event retries go through the proxy so each runs in its own transaction
+    @Autowired
+    @Lazy
+    private LedgerPostingServiceImpl self;
+
+    @Value("${ledger.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Override
+    @Transactional
+    public void enqueue(LedgerOutboxEvent.EventType eventType, Long sourceId) {
+        if (sourceId == null) {
+            return;
+        }
+        ledgerOutboxEventRepository.enqueue(eventType.name(), sourceId);
+    }
+
+    @Scheduled(fixedDelayString = "${ledger.outbox.poll-interval-ms:2000}")
+    public void scheduledDrain() {
+        try {
+            processPending();
+        } catch (Exception e) {
+            logger.error("Ledger outbox could not be drained: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public int processPending() {
+        int total = 0;
+        int processed;
+        do {
+            try {
+                processed = self.processBatch();
+            } catch (Exception e) {
+                // One bad event rolls back its whole batch; isolate it so the others still post
+                logger.warn("Ledger posting batch failed, retrying events one by one: {}", e.getMessage());
+                processed = processIndividually();
+            }
+            total += processed;
+        } while (processed == batchSize);
+        if (total > 0) {
+            financialDashboardService.markStale();
+        }
+        return total;
+    }
+
+    @Transactional
+    public int processBatch() {
+        List<LedgerOutboxEvent> events = ledgerOutboxEventRepository.claimPending(batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+        post(events);
+        return events.size();
+    }
+
+    private int processIndividually() {
+        List<Long> ids = ledgerOutboxEventRepository.findPendingIds(PageRequest.of(0, batchSize));
+        int posted = 0;
+        for (Long id : ids) {
+            try {
+                if (self.processEvent(id)) {
+                    posted++;
+                }
+            } catch (Exception e) {
+                self.recordFailure(id, e.getMessage());
+            }
+        }
+        return posted;
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean processEvent(Long id) {
+        return ledgerOutboxEventRepository.claimById(id)
+                .map(event -> {
+                    post(List.of(event));
+                    return true;
+                })
+                .orElse(false); // Claimed by another worker meanwhile
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void recordFailure(Long id, String error) {
+        ledgerOutboxEventRepository.findById(id).ifPresent(event -> {
+            event.setAttempts(event.getAttempts() + 1);
+            event.setLastError(truncate(error));
+            if (event.getAttempts() >= MAX_ATTEMPTS) {
+                event.setStatus(LedgerOutboxEvent.Status.FAILED);
+                logger.error("Ledger event {} {} #{} failed {} times and is parked: {}",
+                        event.getId(), event.getEventType(), event.getSourceId(), event.getAttempts(), error);
+            }
+        });
+    }
+
+    private void post(List<LedgerOutboxEvent> events) {
+        Map<Long, Payment> payments = loadSources(events, LedgerOutboxEvent.EventType.PAYMENT_CHANGED,
+                ids -> paymentRepository.findAllById(ids), Payment::getId);
+        Map<Long, Invoice> invoices = loadSources(events, LedgerOutboxEvent.EventType.INVOICE_CHANGED,
+                ids -> invoiceRepository.findAllById(ids), Invoice::getId);
+
+        List<Payment> paymentsToPost = new ArrayList<>();
+        List<Invoice> invoicesToPost = new ArrayList<>();
+        Set<Long> deletedPaymentIds = new HashSet<>();
+        Set<Long> deletedInvoiceIds = new HashSet<>();
+        List<Long> doneIds = new ArrayList<>(events.size());
+        for (LedgerOutboxEvent event : events) {
+            if (event.getEventType() == LedgerOutboxEvent.EventType.PAYMENT_CHANGED) {
+                Payment payment = payments.get(event.getSourceId());
+                if (payment != null) {
+                    paymentsToPost.add(payment);
+                } else {
+                    deletedPaymentIds.add(event.getSourceId());
+                }
+            } else {
+                Invoice invoice = invoices.get(event.getSourceId());
+                if (invoice != null) {
+                    invoicesToPost.add(invoice); // Cancelled ones reverse what was posted
+                } else {
+                    deletedInvoiceIds.add(event.getSourceId());
+                }
+            }
+            doneIds.add(event.getId());
+        }
+
+        generalLedgerService.recordBusinessEvents(paymentsToPost, invoicesToPost);
+        // Deleted sources had their tax reversed when they were deleted
+        generalLedgerService.reverseDeletedSources(deletedPaymentIds, deletedInvoiceIds);
+        taxCalculationService.calculateTaxForPayments(paymentsToPost);
+        taxCalculationService.calculateTaxForInvoices(invoicesToPost);
+        ledgerOutboxEventRepository.markDone(doneIds, LocalDateTime.now());
+    }
+
+    private static <T> Map<Long, T> loadSources(List<LedgerOutboxEvent> events, LedgerOutboxEvent.EventType eventType,
+                                                Function<Set<Long>, List<T>> loader, Function<T, Long> idOf) {
+        Set<Long> ids = events.stream()
+                .filter(event -> event.getEventType() == eventType)
+                .map(LedgerOutboxEvent::getSourceId)
+                .collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return loader.apply(ids).stream().collect(Collectors.toMap(idOf, source -> source));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        for (LedgerOutboxEvent.Status status : LedgerOutboxEvent.Status.values()) {
+            statistics.put(status.name().toLowerCase(), 0L);
+        }
+        for (Object[] row : ledgerOutboxEventRepository.countByStatus()) {
+            statistics.put(((LedgerOutboxEvent.Status) row[0]).name().toLowerCase(), row[1]);
+        }
+        LocalDateTime oldestPending = ledgerOutboxEventRepository.findOldestPendingCreatedAt();
+        statistics.put("oldestPendingAgeSeconds",
+                oldestPending != null ? Duration.between(oldestPending, LocalDateTime.now()).getSeconds() : 0L);
+        return statistics;
+    }
+
+    @Override
+    @Transactional
+    public int retryFailed() {
+        int reset = ledgerOutboxEventRepository.resetFailed();
+        logger.info("Requeued {} failed ledger events", reset);
+        return reset;
+    }
+
+    private static String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() <= 1000 ? error : error.substring(0, 1000);
+    }
+}
@@ -0,0 +1,264 @@
+package hakan.rentacar.service.impl;
+
+import hakan.rentacar.entities.concretes.LifecycleSweepCheckpoint;
+import hakan.rentacar.entities.dtos.SweepResultDto;
+import hakan.rentacar.exceptions.BusinessException;
+import hakan.rentacar.repostories.LifecycleSweepCheckpointRepository;
+import hakan.rentacar.service.LifecycleSweep;
+import hakan.rentacar.service.LifecycleSweeperService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Runs the lifecycle sweeps (overdue invoices, expired contracts, finished rentals) chunk by chunk.
+ * Each chunk is one UPDATE ... RETURNING id committed together with the sweep's checkpoint; the moved
+ * ids are then handed to the sweep's downstream handlers outside the transaction. A run stopped by a
+ * crash resumes after the last committed chunk and re-runs that chunk's handlers first. Across
+ * instances the checkpoint row is a lease: the owner renews it with every chunk, and another
+ * instance can only start or resume the sweep once the lease has expired.
+ */
+@Service
+public class LifecycleSweeperServiceImpl implements LifecycleSweeperService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LifecycleSweeperServiceImpl.class);
+
+    @Autowired
+    private LifecycleSweepCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private List<LifecycleSweep> sweeps;
+
+    // Chunks and checkpoint updates go through the proxy so each runs in its own transaction
+    @Autowired
+    @Lazy
+    private LifecycleSweeperServiceImpl self;
+
+    @Value("${lifecycle.sweep.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${lifecycle.sweep.lease-seconds:600}")
+    private long leaseSeconds;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+    @Scheduled(cron = "0 15 1 * * *") // Run every day at 1:15 AM
+    public void scheduledSweep() {
+        try {
+            sweepAll();
+        } catch (Exception e) {
+            logger.error("Lifecycle sweep failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public List<SweepResultDto> sweepAll() {
+        List<SweepResultDto> results = new ArrayList<>();
+        for (LifecycleSweep sweep : sweeps) {
+            try {
+                results.add(run(sweep));
+            } catch (Exception e) {
+                // The checkpoint keeps its progress; the next run resumes this sweep
+                logger.error("Lifecycle sweep {} stopped: {}", sweep.getName(), e.getMessage());
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public SweepResultDto sweep(String name) {
+        LifecycleSweep sweep = sweeps.stream()
+                .filter(candidate -> candidate.getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new BusinessException("Unknown lifecycle sweep: " + name));
+        return run(sweep);
+    }
+
+    @Override
+    public List<SweepResultDto> getStatus() {
+        Map<String, LifecycleSweepCheckpoint> checkpoints = checkpointRepository.findAll().stream()
+                .collect(Collectors.toMap(LifecycleSweepCheckpoint::getSweepName, Function.identity()));
+        List<SweepResultDto> status = new ArrayList<>();
+        for (LifecycleSweep sweep : sweeps) {
+            LifecycleSweepCheckpoint checkpoint = checkpoints.get(sweep.getName());
+            if (checkpoint == null) {
+                status.add(SweepResultDto.builder().sweep(sweep.getName()).inProgress(false).build());
+                continue;
+            }
+            status.add(SweepResultDto.builder()
+                    .sweep(sweep.getName())
+                    .completedAt(checkpoint.getLastCompletedAt())
+                    .rows(checkpoint.getLastRows())
+                    .durationMs(checkpoint.getLastDurationMs())
+                    .rowsPerSecond(checkpoint.getLastRowsPerSecond())
+                    .inProgress(checkpoint.getRunStartedAt() != null || running.contains(sweep.getName()))
+                    .build());
+        }
+        return status;
+    }
+
+    private SweepResultDto run(LifecycleSweep sweep) {
+        String name = sweep.getName();
+        if (!running.add(name)) {
+            throw new BusinessException("Lifecycle sweep " + name + " is already running");
+        }
+        try {
+            long startTime = System.currentTimeMillis();
+            LifecycleSweepCheckpoint checkpoint = self.startRun(name);
+            boolean resumed = checkpoint.getRunRows() > 0 || checkpoint.getPendingIds() != null;
+
+            // Handlers of a chunk committed just before a crash
+            List<Long> pending = parseIds(checkpoint.getPendingIds());
+            if (!pending.isEmpty()) {
+                logger.info("Lifecycle sweep {} resumes after id {}, re-running handlers for {} rows",
+                        name, checkpoint.getLastId(), pending.size());
+                handle(sweep, pending, true);
+                self.clearPending(name);
+            }
+
+            long afterId = checkpoint.getLastId();
+            long rows = 0;
+            int chunks = 0;
+            while (true) {
+                List<Long> ids = self.transitionChunk(sweep, afterId);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                handle(sweep, ids, false);
+                self.clearPending(name);
+                rows += ids.size();
+                chunks++;
+                afterId = Collections.max(ids);
+                if (ids.size() < chunkSize) {
+                    break;
+                }
+            }
+
+            long durationMs = System.currentTimeMillis() - startTime;
+            long rowsPerSecond = durationMs > 0 ? rows * 1000 / durationMs : rows;
+            long runRows = self.finishRun(name, durationMs, rowsPerSecond);
+            if (runRows > 0) {
+                logger.info("Lifecycle sweep {} moved {} rows in {} chunks, {} ms ({} rows/s)",
+                        name, runRows, chunks, durationMs, rowsPerSecond);
+            }
+            return SweepResultDto.builder()
+                    .sweep(name)
+                    .completedAt(LocalDateTime.now())
+                    .rows(runRows)
+                    .chunks(chunks)
+                    .durationMs(durationMs)
+                    .rowsPerSecond(rowsPerSecond)
+                    .resumed(resumed)
+                    .inProgress(false)
+                    .build();
+        } finally {
+            running.remove(name);
+        }
+    }
+
+    // Handler failures are logged and do not stop the sweep; the rows have already moved
+    private void handle(LifecycleSweep sweep, List<Long> ids, boolean replay) {
+        try {
+            sweep.afterTransition(ids, replay);
+        } catch (Exception e) {
+            logger.error("Lifecycle sweep {} handlers failed for {} rows: {}", sweep.getName(), ids.size(), e.getMessage());
+        }
+    }
+
+    @Transactional
+    public LifecycleSweepCheckpoint startRun(String name) {
+        LifecycleSweepCheckpoint checkpoint = checkpointRepository.findByIdForUpdate(name)
+                .orElseGet(() -> LifecycleSweepCheckpoint.builder()
+                        .sweepName(name)
+                        .lastId(0L)
+                        .runRows(0L)
+                        .build());
+        LocalDateTime now = LocalDateTime.now();
+        if (checkpoint.getRunOwner() != null && !checkpoint.getRunOwner().equals(instanceId)
+                && checkpoint.getLeaseUntil() != null && checkpoint.getLeaseUntil().isAfter(now)) {
+            throw new BusinessException("Lifecycle sweep " + name + " is running on another instance until "
+                    + checkpoint.getLeaseUntil());
+        }
+        checkpoint.setRunOwner(instanceId);
+        checkpoint.setLeaseUntil(now.plusSeconds(leaseSeconds));
+        if (checkpoint.getRunStartedAt() == null) {
+            checkpoint.setRunStartedAt(LocalDateTime.now());
+            checkpoint.setLastId(0L);
+            checkpoint.setRunRows(0L);
+            checkpoint.setPendingIds(null);
+        }
+        return checkpointRepository.save(checkpoint);
+    }
+
+    // The moved rows and the checkpoint commit together, so a crash never loses track of a chunk
+    @Transactional
+    public List<Long> transitionChunk(LifecycleSweep sweep, long afterId) {
+        LifecycleSweepCheckpoint checkpoint = checkpointRepository.findByIdForUpdate(sweep.getName()).orElseThrow();
+        if (!instanceId.equals(checkpoint.getRunOwner())) {
+            // Taken over after our lease expired; the new owner continues from the checkpoint
+            throw new BusinessException("Lifecycle sweep " + sweep.getName() + " was taken over by another instance");
+        }
+        checkpoint.setLeaseUntil(LocalDateTime.now().plusSeconds(leaseSeconds));
+        List<Long> ids = sweep.transition(afterId, chunkSize);
+        if (!ids.isEmpty()) {
+            checkpoint.setLastId(Collections.max(ids));
+            checkpoint.setRunRows(checkpoint.getRunRows() + ids.size());
+            checkpoint.setPendingIds(ids.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        }
+        return ids;
+    }
+
+    @Transactional
+    public void clearPending(String name) {
+        checkpointRepository.findByIdForUpdate(name)
+                .filter(checkpoint -> instanceId.equals(checkpoint.getRunOwner()))
+                .ifPresent(checkpoint -> checkpoint.setPendingIds(null));
+    }
+
+    // Returns the rows moved by the whole run, including chunks committed before a resume
+    @Transactional
+    public long finishRun(String name, long durationMs, long rowsPerSecond) {
+        LifecycleSweepCheckpoint checkpoint = checkpointRepository.findByIdForUpdate(name).orElseThrow();
+        if (!instanceId.equals(checkpoint.getRunOwner())) {
+            throw new BusinessException("Lifecycle sweep " + name + " was taken over by another instance");
+        }
+        long runRows = checkpoint.getRunRows();
+        checkpoint.setLastCompletedAt(LocalDateTime.now());
+        checkpoint.setLastRows(runRows);
+        checkpoint.setLastDurationMs(durationMs);
+        checkpoint.setLastRowsPerSecond(rowsPerSecond);
+        checkpoint.setRunStartedAt(null);
+        checkpoint.setLastId(0L);
+        checkpoint.setRunRows(0L);
+        checkpoint.setPendingIds(null);
+        checkpoint.setRunOwner(null);
+        checkpoint.setLeaseUntil(null);
+        return runRows;
+    }
+
+    private static List<Long> parseIds(String ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.stream(ids.split(",")).map(Long::valueOf).collect(Collectors.toList());
+    }
+}
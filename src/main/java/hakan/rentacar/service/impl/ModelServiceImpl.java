@@ -4,10 +4,10 @@ import hakan.rentacar.entities.concretes.Brand;
 import hakan.rentacar.entities.concretes.Model;
 import hakan.rentacar.entities.dtos.BrandDto;
 import hakan.rentacar.entities.dtos.ModelDto;
+import hakan.rentacar.mappers.CarModelMapper;
 import hakan.rentacar.repostories.BrandRepostory;
 import hakan.rentacar.repostories.ModelRepostory;
 import hakan.rentacar.service.ModelService;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
@@ -22,7 +22,7 @@ public class ModelServiceImpl implements ModelService {
     private final BrandRepostory brandRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private CarModelMapper carModelMapper;
 
     public ModelServiceImpl(ModelRepostory modelRepostory, BrandRepostory brandRepository) {
         this.modelRepostory = modelRepostory;
@@ -96,17 +96,12 @@ public class ModelServiceImpl implements ModelService {
 
     @Override
     public ModelDto EntityToDto(Model model) {
-        ModelDto modelDto = modelMapper.map(model, ModelDto.class);
-        if (model.getBrand() != null) {
-            modelDto.setBrandId(model.getBrand().getId());
-            modelDto.setBrandName(model.getBrand().getName());
-        }
-        return modelDto;
+        return carModelMapper.toDto(model);
     }
 
     @Override
     public Model DtoToEntity(ModelDto modelDto) {
-        Model model = modelMapper.map(modelDto, Model.class);
+        Model model = carModelMapper.toEntity(modelDto);
         
         // Set the brand
         if (modelDto.getBrandId() != null) {
@@ -2,10 +2,10 @@ package hakan.rentacar.service.impl;
 
 import hakan.rentacar.entities.concretes.*;
 import hakan.rentacar.entities.dtos.NotificationDto;
+import hakan.rentacar.mappers.NotificationMapper;
 import hakan.rentacar.repostories.*;
 import hakan.rentacar.service.EmailService;
 import hakan.rentacar.service.NotificationService;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -33,9 +33,10 @@ public class NotificationServiceImpl implements NotificationService {
     private EmailService emailService;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private NotificationMapper notificationMapper;
 
     @Override
+    @Transactional(readOnly = true)
     public List<NotificationDto> getByCustomerId(Long customerId) {
         List<Notification> notifications = notificationRepository.findByCustomerIdOrderByCreatedDateDesc(customerId);
         return notifications.stream()
@@ -44,6 +45,7 @@ public class NotificationServiceImpl implements NotificationService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<NotificationDto> getUnreadByCustomerId(Long customerId) {
         List<Notification> notifications = notificationRepository.findUnreadByCustomerId(customerId);
         return notifications.stream()
@@ -283,6 +285,23 @@ public class NotificationServiceImpl implements NotificationService {
         create(notificationDto);
     }
 
+    @Override
+    public void sendRentalExpiredNotification(Long rentalId) {
+        Rental rental = rentalRepository.findById(rentalId).orElseThrow();
+
+        NotificationDto notificationDto = NotificationDto.builder()
+            .customerId(rental.getCustomer().getId())
+            .title("Kiralama Süresi Doldu")
+            .message(String.format("Onaylanmayan kiralamanızın süresi doldu. Araç: %s", rental.getCar().getPlate()))
+            .type(Notification.NotificationType.RENTAL_EXPIRED)
+            .channel(Notification.NotificationChannel.IN_APP)
+            .relatedEntityType("RENTAL")
+            .relatedEntityId(rentalId)
+            .build();
+
+        create(notificationDto);
+    }
+
     @Override
     @Transactional
     public void processPendingNotifications() {
@@ -315,95 +334,11 @@ public class NotificationServiceImpl implements NotificationService {
     }
 
     private NotificationDto mapToDto(Notification notification) {
-        try {
-            NotificationDto dto = modelMapper.map(notification, NotificationDto.class);
-            
-            if (notification.getCustomer() != null) {
-                dto.setCustomerId(notification.getCustomer().getId());
-                dto.setCustomerName(notification.getCustomer().getFirstName() + " " + notification.getCustomer().getLastName());
-            }
-            
-            // Ensure createdAt is properly set if null
-            if (dto.getCreatedAt() == null && notification.getCreatedDate() != null) {
-                try {
-                    dto.setCreatedAt(notification.getCreatedDate().toInstant()
-                        .atZone(java.time.ZoneId.systemDefault())
-                        .toLocalDateTime());
-                } catch (Exception e) {
-                    System.err.println("Error converting createdDate to LocalDateTime in ModelMapper path: " + e.getMessage());
-                    dto.setCreatedAt(java.time.LocalDateTime.now());
-                }
-            }
-            
-            return dto;
-        } catch (Exception e) {
-            System.err.println("ModelMapper error, using manual mapping: " + e.getMessage());
-            return mapToDtoManually(notification);
-        }
-    }
-    
-    private NotificationDto mapToDtoManually(Notification notification) {
-        NotificationDto dto = new NotificationDto();
-        dto.setId(notification.getId());
-        dto.setTitle(notification.getTitle());
-        dto.setMessage(notification.getMessage());
-        dto.setType(notification.getType());
-        dto.setStatus(notification.getStatus());
-        dto.setChannel(notification.getChannel());
-        dto.setSentAt(notification.getSentAt());
-        dto.setReadAt(notification.getReadAt());
-        dto.setRelatedEntityType(notification.getRelatedEntityType());
-        dto.setRelatedEntityId(notification.getRelatedEntityId());
-        // BaseEntity uses Date, convert to LocalDateTime if needed
-        try {
-            if (notification.getCreatedDate() != null) {
-                dto.setCreatedAt(notification.getCreatedDate().toInstant()
-                    .atZone(java.time.ZoneId.systemDefault())
-                    .toLocalDateTime());
-            }
-        } catch (Exception e) {
-            System.err.println("Error converting createdDate to LocalDateTime: " + e.getMessage());
-            // Set current time as fallback
-            dto.setCreatedAt(java.time.LocalDateTime.now());
-        }
-        
-        if (notification.getCustomer() != null) {
-            dto.setCustomerId(notification.getCustomer().getId());
-            dto.setCustomerName(notification.getCustomer().getFirstName() + " " + notification.getCustomer().getLastName());
-        }
-        
-        return dto;
+        return notificationMapper.toDto(notification);
     }
 
     private Notification mapToEntity(NotificationDto dto) {
-        try {
-            Notification notification = modelMapper.map(dto, Notification.class);
-            
-            if (dto.getCustomerId() != null) {
-                Customer customer = customerRepository.findById(dto.getCustomerId()).orElseThrow();
-                notification.setCustomer(customer);
-            }
-            
-            return notification;
-        } catch (Exception e) {
-            System.err.println("ModelMapper error in mapToEntity, using manual mapping: " + e.getMessage());
-            return mapToEntityManually(dto);
-        }
-    }
-    
-    private Notification mapToEntityManually(NotificationDto dto) {
-        Notification notification = new Notification();
-        notification.setId(dto.getId());
-        notification.setTitle(dto.getTitle());
-        notification.setMessage(dto.getMessage());
-        notification.setType(dto.getType());
-        notification.setStatus(dto.getStatus());
-        notification.setChannel(dto.getChannel());
-        notification.setSentAt(dto.getSentAt());
-        notification.setReadAt(dto.getReadAt());
-        notification.setRelatedEntityType(dto.getRelatedEntityType());
-        notification.setRelatedEntityId(dto.getRelatedEntityId());
-        // Don't set createdAt as it's managed by BaseEntity
+        Notification notification = notificationMapper.toEntity(dto);
         
         if (dto.getCustomerId() != null) {
             Customer customer = customerRepository.findById(dto.getCustomerId()).orElseThrow();
@@ -0,0 +1,288 @@
+package hakan.rentacar.service.impl;
+
+import hakan.rentacar.entities.dtos.OccupancyHeatmapDto;
+import hakan.rentacar.repostories.CarRepository;
+import hakan.rentacar.repostories.RentalRepository;
+import hakan.rentacar.repostories.ReservationRepository;
+import hakan.rentacar.service.OccupancyCalendarService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Day-occupancy calendar of the whole fleet kept as primitive bitsets over a rolling window.
+ * Every car has one bit per day (carDays) and every day has one bit per car (dayCars), so
+ * fleet-wide questions become word-wise AND/OR plus popcount instead of per-car queries.
+ * The calendar is an immutable snapshot rebuilt on a schedule; it may lag bookings by a few minutes.
+ */
+@Service
+public class OccupancyCalendarServiceImpl implements OccupancyCalendarService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OccupancyCalendarServiceImpl.class);
+
+    // One year back and a bit more than one year ahead, 12 words per car
+    private static final int PAST_DAYS = 365;
+    private static final int WINDOW_DAYS = 768;
+    private static final int MAX_HEATMAP_DAYS = 366;
+    private static final String UNKNOWN_SEGMENT = "Diğer";
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    private volatile Snapshot snapshot;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            logger.error("Occupancy calendar could not be loaded: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelay = 300000, initialDelay = 300000) // Every 5 minutes
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    @Override
+    public synchronized void rebuild() {
+        long startTime = System.currentTimeMillis();
+        snapshot = Snapshot.build(LocalDate.now().minusDays(PAST_DAYS),
+                carRepository.findCarSummaries(),
+                reservationRepository.findBookedRanges(),
+                rentalRepository.findBookedRanges());
+        logger.info("Occupancy calendar built for {} cars in {} ms",
+                snapshot.carIds.length, System.currentTimeMillis() - startTime);
+    }
+
+    @Override
+    public OccupancyHeatmapDto getHeatmap(LocalDate startDate, int days) {
+        if (days < 1 || days > MAX_HEATMAP_DAYS) {
+            throw new IllegalArgumentException("Days must be between 1 and " + MAX_HEATMAP_DAYS);
+        }
+        Snapshot current = current();
+        int from = current.dayIndex(startDate);
+        int to = current.dayIndex(startDate.plusDays(days - 1));
+
+        List<Double> fleetOccupancy = new ArrayList<>(days);
+        for (int d = from; d <= to; d++) {
+            fleetOccupancy.add(current.occupancyPercent(d, current.allCars));
+        }
+
+        List<OccupancyHeatmapDto.CarOccupancyRow> rows = new ArrayList<>(current.carIds.length);
+        char[] line = new char[days];
+        for (int i = 0; i < current.carIds.length; i++) {
+            long[] bits = current.carDays[i];
+            int occupied = 0;
+            for (int d = from; d <= to; d++) {
+                boolean set = (bits[d >>> 6] & (1L << d)) != 0;
+                line[d - from] = set ? '1' : '0';
+                if (set) {
+                    occupied++;
+                }
+            }
+            rows.add(OccupancyHeatmapDto.CarOccupancyRow.builder()
+                    .carId(current.carIds[i])
+                    .plate(current.plates[i])
+                    .segment(current.segments[i])
+                    .occupiedDays(occupied)
+                    .occupancy(new String(line))
+                    .build());
+        }
+
+        return OccupancyHeatmapDto.builder()
+                .startDate(startDate)
+                .endDate(startDate.plusDays(days - 1))
+                .days(days)
+                .carCount(current.carIds.length)
+                .fleetOccupancy(fleetOccupancy)
+                .segmentOccupancy(segmentOccupancy(current, from, to))
+                .cars(rows)
+                .build();
+    }
+
+    @Override
+    public List<Long> getCarsFreeForEveryDay(LocalDate startDate, LocalDate endDate) {
+        Snapshot current = current();
+        int from = current.dayIndex(startDate);
+        int to = current.dayIndex(endDate);
+        if (to < from) {
+            throw new IllegalArgumentException("End date must be after start date");
+        }
+
+        // A car is free on every day when its bit is clear in the OR of all day bitsets
+        long[] busy = new long[current.allCars.length];
+        for (int d = from; d <= to; d++) {
+            long[] dayBits = current.dayCars[d];
+            for (int w = 0; w < busy.length; w++) {
+                busy[w] |= dayBits[w];
+            }
+        }
+
+        List<Long> freeCarIds = new ArrayList<>();
+        for (int w = 0; w < busy.length; w++) {
+            long free = current.allCars[w] & ~busy[w];
+            while (free != 0) {
+                int bit = Long.numberOfTrailingZeros(free);
+                freeCarIds.add(current.carIds[(w << 6) + bit]);
+                free &= free - 1;
+            }
+        }
+        return freeCarIds;
+    }
+
+    @Override
+    public Map<String, List<Double>> getSegmentOccupancy(LocalDate startDate, LocalDate endDate) {
+        Snapshot current = current();
+        int from = current.dayIndex(startDate);
+        int to = current.dayIndex(endDate);
+        if (to < from) {
+            throw new IllegalArgumentException("End date must be after start date");
+        }
+        return segmentOccupancy(current, from, to);
+    }
+
+    private Map<String, List<Double>> segmentOccupancy(Snapshot current, int from, int to) {
+        Map<String, List<Double>> result = new LinkedHashMap<>();
+        current.segmentMasks.forEach((segment, mask) -> {
+            List<Double> percentages = new ArrayList<>(to - from + 1);
+            for (int d = from; d <= to; d++) {
+                percentages.add(current.occupancyPercent(d, mask));
+            }
+            result.put(segment, percentages);
+        });
+        return result;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            rebuild();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    private static final class Snapshot {
+        private final LocalDate windowStart;
+        private final long[] carIds;
+        private final String[] plates;
+        private final String[] segments;
+        private final long[][] carDays;
+        private final long[][] dayCars;
+        private final long[] allCars;
+        private final Map<String, long[]> segmentMasks;
+
+        private Snapshot(LocalDate windowStart, int carCount) {
+            int carWords = (carCount + 63) >>> 6;
+            this.windowStart = windowStart;
+            this.carIds = new long[carCount];
+            this.plates = new String[carCount];
+            this.segments = new String[carCount];
+            this.carDays = new long[carCount][WINDOW_DAYS >>> 6];
+            this.dayCars = new long[WINDOW_DAYS][carWords];
+            this.allCars = new long[carWords];
+            this.segmentMasks = new TreeMap<>();
+        }
+
+        // Car rows are (id, plate, segment); booking rows are (carId, startDate, endDate)
+        static Snapshot build(LocalDate windowStart, List<Object[]> cars,
+                              List<Object[]> reservations, List<Object[]> rentals) {
+            Snapshot snapshot = new Snapshot(windowStart, cars.size());
+            Map<Long, Integer> indexByCarId = new HashMap<>(cars.size() * 2);
+            for (int i = 0; i < cars.size(); i++) {
+                Object[] row = cars.get(i);
+                snapshot.carIds[i] = ((Number) row[0]).longValue();
+                snapshot.plates[i] = (String) row[1];
+                snapshot.segments[i] = row[2] != null ? (String) row[2] : UNKNOWN_SEGMENT;
+                snapshot.allCars[i >>> 6] |= 1L << i;
+                snapshot.segmentMasks.computeIfAbsent(snapshot.segments[i], s -> new long[snapshot.allCars.length])[i >>> 6] |= 1L << i;
+                indexByCarId.put(snapshot.carIds[i], i);
+            }
+
+            snapshot.markBookings(reservations, indexByCarId);
+            snapshot.markBookings(rentals, indexByCarId);
+
+            // Transpose car-major bits into day-major bits
+            for (int i = 0; i < snapshot.carDays.length; i++) {
+                long carBit = 1L << i;
+                long[] bits = snapshot.carDays[i];
+                for (int w = 0; w < bits.length; w++) {
+                    long word = bits[w];
+                    while (word != 0) {
+                        int day = (w << 6) + Long.numberOfTrailingZeros(word);
+                        snapshot.dayCars[day][i >>> 6] |= carBit;
+                        word &= word - 1;
+                    }
+                }
+            }
+            return snapshot;
+        }
+
+        private void markBookings(List<Object[]> rows, Map<Long, Integer> indexByCarId) {
+            for (Object[] row : rows) {
+                Integer carIndex = indexByCarId.get(((Number) row[0]).longValue());
+                if (carIndex == null) {
+                    continue;
+                }
+                long from = Math.max(0, ChronoUnit.DAYS.between(windowStart, (LocalDate) row[1]));
+                long to = Math.min(WINDOW_DAYS - 1, ChronoUnit.DAYS.between(windowStart, (LocalDate) row[2]));
+                if (from <= to) {
+                    setRange(carDays[carIndex], (int) from, (int) to);
+                }
+            }
+        }
+
+        // Sets bits from..to (inclusive) a word at a time
+        private static void setRange(long[] bits, int from, int to) {
+            int firstWord = from >>> 6;
+            int lastWord = to >>> 6;
+            long firstMask = -1L << from;
+            long lastMask = -1L >>> (63 - (to & 63));
+            if (firstWord == lastWord) {
+                bits[firstWord] |= firstMask & lastMask;
+                return;
+            }
+            bits[firstWord] |= firstMask;
+            for (int w = firstWord + 1; w < lastWord; w++) {
+                bits[w] = -1L;
+            }
+            bits[lastWord] |= lastMask;
+        }
+
+        int dayIndex(LocalDate date) {
+            long index = ChronoUnit.DAYS.between(windowStart, date);
+            if (index < 0 || index >= WINDOW_DAYS) {
+                throw new IllegalArgumentException("Date " + date + " is outside the occupancy window "
+                        + windowStart + " - " + windowStart.plusDays(WINDOW_DAYS - 1));
+            }
+            return (int) index;
+        }
+
+        double occupancyPercent(int day, long[] mask) {
+            long[] dayBits = dayCars[day];
+            int occupied = 0;
+            int total = 0;
+            for (int w = 0; w < mask.length; w++) {
+                occupied += Long.bitCount(dayBits[w] & mask[w]);
+                total += Long.bitCount(mask[w]);
+            }
+            return total == 0 ? 0.0 : Math.round(occupied * 10000.0 / total) / 100.0;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package hakan.rentacar.service.impl;
+
+import hakan.rentacar.repostories.LifecycleSweepRepository;
+import hakan.rentacar.service.InvoiceService;
+import hakan.rentacar.service.LifecycleSweep;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Sent invoices past their due date become OVERDUE; customers are emailed after the chunk commits
+@Component
+class OverdueInvoiceSweep implements LifecycleSweep {
+
+    static final String NAME = "overdue-invoices";
+
+    @Autowired
+    private LifecycleSweepRepository lifecycleSweepRepository;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public List<Long> transition(long afterId, int limit) {
+        return lifecycleSweepRepository.markOverdueInvoices(LocalDateTime.now(), afterId, limit);
+    }
+
+    @Override
+    public void afterTransition(List<Long> ids, boolean replay) {
+        invoiceService.handleOverdueInvoices(ids, replay);
+    }
+}
@@ -0,0 +1,188 @@
+package hakan.rentacar.service.impl;
+
+import hakan.rentacar.entities.concretes.Payment;
+import hakan.rentacar.entities.concretes.RentalPaymentBalance;
+import hakan.rentacar.entities.dtos.BalanceVerificationDto;
+import hakan.rentacar.repostories.PaymentRepository;
+import hakan.rentacar.repostories.RentalPaymentBalanceRepository;
+import hakan.rentacar.service.PaymentBalanceService;
+import hakan.rentacar.service.RentalChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps rental_payment_balances, one row per rental with payments, so balance lookups are primary key
+ * reads instead of aggregating payments. Payment writes add their delta in the same transaction;
+ * a nightly verifier recomputes every balance from the payments and reports (and repairs) drift.
+ */
+@Service
+public class PaymentBalanceServiceImpl implements PaymentBalanceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentBalanceServiceImpl.class);
+
+    private static final int MAX_REPORTED_DRIFTS = 100;
+
+    @Autowired
+    private RentalPaymentBalanceRepository rentalPaymentBalanceRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    // Startup backfill and the nightly verifier go through the proxy so they run in a transaction
+    @Autowired
+    @Lazy
+    private PaymentBalanceServiceImpl self;
+
+    private volatile BalanceVerificationDto lastVerification;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        try {
+            // Existing installations start with an empty table; fill it once
+            if (self.isEmpty() && paymentRepository.count() > 0) {
+                self.rebuild();
+            }
+        } catch (Exception e) {
+            logger.error("Payment balances could not be backfilled: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "0 0 3 * * *") // Run every day at 3 AM
+    public void scheduledVerification() {
+        try {
+            self.verify(true);
+        } catch (Exception e) {
+            logger.error("Payment balance verification failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    @Transactional
+    public void recordChange(Long rentalId, Payment.PaymentStatus oldStatus, BigDecimal oldAmount,
+                             Payment.PaymentStatus newStatus, BigDecimal newAmount) {
+        if (rentalId == null) {
+            return;
+        }
+        BigDecimal paid = paidPart(newStatus, newAmount).subtract(paidPart(oldStatus, oldAmount));
+        BigDecimal refunded = refundedPart(newStatus, newAmount).subtract(refundedPart(oldStatus, oldAmount));
+        // Pending and failed payments do not move the balance, but the row is still created so later
+        // lookups are primary key reads
+        rentalPaymentBalanceRepository.addDelta(rentalId, paid, refunded);
+    }
+
+    // A changed rental total changes what is due; a deleted rental takes its balance row with it
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onRentalChanged(RentalChangedEvent event) {
+        refreshAmountDue(event.getRentalId());
+        rentalPaymentBalanceRepository.deleteOrphan(event.getRentalId());
+    }
+
+    @Override
+    @Transactional
+    public void refreshAmountDue(Long rentalId) {
+        if (rentalId == null) {
+            return;
+        }
+        rentalPaymentBalanceRepository.refreshAmountDue(rentalId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<RentalPaymentBalance> getBalance(Long rentalId) {
+        return rentalPaymentBalanceRepository.findById(rentalId);
+    }
+
+    @Override
+    @Transactional
+    public BalanceVerificationDto verify(boolean repair) {
+        long startTime = System.currentTimeMillis();
+        List<Object[]> rows = rentalPaymentBalanceRepository.findDrift();
+
+        List<BalanceVerificationDto.Drift> drifts = new ArrayList<>();
+        for (Object[] row : rows) {
+            Long rentalId = ((Number) row[0]).longValue();
+            boolean rentalDeleted = Boolean.TRUE.equals(row[7]);
+            if (drifts.size() < MAX_REPORTED_DRIFTS) {
+                drifts.add(BalanceVerificationDto.Drift.builder()
+                        .rentalId(rentalId)
+                        .storedAmountDue((BigDecimal) row[1])
+                        .actualAmountDue((BigDecimal) row[2])
+                        .storedAmountPaid((BigDecimal) row[3])
+                        .actualAmountPaid((BigDecimal) row[4])
+                        .storedAmountRefunded((BigDecimal) row[5])
+                        .actualAmountRefunded((BigDecimal) row[6])
+                        .rentalDeleted(rentalDeleted)
+                        .build());
+            }
+            if (repair && rentalDeleted) {
+                rentalPaymentBalanceRepository.deleteOrphan(rentalId);
+            } else if (repair) {
+                rentalPaymentBalanceRepository.recompute(rentalId);
+            }
+        }
+
+        BalanceVerificationDto result = BalanceVerificationDto.builder()
+                .verifiedAt(LocalDateTime.now())
+                .driftedRentals((long) rows.size())
+                .repaired(repair)
+                .durationMs(System.currentTimeMillis() - startTime)
+                .drifts(drifts)
+                .build();
+        lastVerification = result;
+
+        if (rows.isEmpty()) {
+            logger.info("Payment balances verified without drift in {} ms", result.getDurationMs());
+        } else {
+            logger.warn("Payment balances drifted for {} rentals (repaired: {}), first: {}",
+                    rows.size(), repair, drifts.get(0));
+        }
+        return result;
+    }
+
+    @Override
+    public BalanceVerificationDto getLastVerification() {
+        return lastVerification;
+    }
+
+    @Override
+    @Transactional
+    public int rebuild() {
+        long startTime = System.currentTimeMillis();
+        rentalPaymentBalanceRepository.deleteAllRows();
+        int rows = rentalPaymentBalanceRepository.insertAll();
+        logger.info("Payment balances rebuilt for {} rentals in {} ms", rows, System.currentTimeMillis() - startTime);
+        return rows;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isEmpty() {
+        return rentalPaymentBalanceRepository.count() == 0;
+    }
+
+    private static BigDecimal paidPart(Payment.PaymentStatus status, BigDecimal amount) {
+        return status == Payment.PaymentStatus.COMPLETED && amount != null ? amount : BigDecimal.ZERO;
+    }
+
+    // Refund payments are stored with a negative amount
+    private static BigDecimal refundedPart(Payment.PaymentStatus status, BigDecimal amount) {
+        return status == Payment.PaymentStatus.REFUNDED && amount != null ? amount.negate() : BigDecimal.ZERO;
+    }
+}
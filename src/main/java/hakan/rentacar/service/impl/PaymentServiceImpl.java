@@ -1,25 +1,35 @@
 package hakan.rentacar.service.impl;
 
 import hakan.rentacar.entities.concretes.Customer;
+import hakan.rentacar.entities.concretes.LedgerOutboxEvent;
 import hakan.rentacar.entities.concretes.Payment;
 import hakan.rentacar.entities.concretes.Rental;
+import hakan.rentacar.entities.concretes.RentalPaymentBalance;
 import hakan.rentacar.entities.dtos.PaymentDto;
 import hakan.rentacar.entities.dtos.PaymentSummaryDto;
+import hakan.rentacar.entities.dtos.RentalBalanceDto;
+import hakan.rentacar.entities.dtos.KeysetCursor;
+import hakan.rentacar.entities.dtos.KeysetPageDto;
+import hakan.rentacar.mappers.PaymentMapper;
 import hakan.rentacar.repostories.CustomerRepository;
 import hakan.rentacar.repostories.PaymentRepository;
 import hakan.rentacar.repostories.RentalRepository;
 import hakan.rentacar.service.EmailService;
+import hakan.rentacar.service.FinancialDashboardService;
+import hakan.rentacar.service.LedgerPostingService;
+import hakan.rentacar.service.PaymentBalanceService;
 import hakan.rentacar.service.PaymentService;
+import hakan.rentacar.service.TaxCalculationService;
 import hakan.rentacar.audit.Auditable;
 import hakan.rentacar.entities.concretes.AuditLog;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -38,17 +48,35 @@ public class PaymentServiceImpl implements PaymentService {
     private RentalRepository rentalRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private PaymentMapper paymentMapper;
 
     @Autowired
     private EmailService emailService;
 
+    // Per-rental balances, moved in the same transaction as the payment write
+    @Autowired
+    private PaymentBalanceService paymentBalanceService;
+
+    // Completed payments are queued for their ledger and tax postings
+    @Autowired
+    private LedgerPostingService ledgerPostingService;
+
+    @Autowired
+    private TaxCalculationService taxCalculationService;
+
+    @Autowired
+    private FinancialDashboardService financialDashboardService;
+
     @Override
     @Transactional
     @Auditable(entity = "Payment", action = AuditLog.ActionType.CREATE, description = "Create new payment")
     public PaymentDto create(PaymentDto paymentDto) {
         Payment payment = mapToEntity(paymentDto);
         Payment savedPayment = paymentRepository.save(payment);
+        paymentBalanceService.recordChange(rentalIdOf(savedPayment), null, null,
+                savedPayment.getStatus(), savedPayment.getAmount());
+        financialDashboardService.markStale();
+        enqueueLedgerEvent(savedPayment, null);
         return mapToDto(savedPayment);
     }
 
@@ -57,6 +85,8 @@ public class PaymentServiceImpl implements PaymentService {
     @Auditable(entity = "Payment", action = AuditLog.ActionType.UPDATE, description = "Update payment")
     public PaymentDto update(PaymentDto paymentDto) {
         Payment existingPayment = paymentRepository.findById(paymentDto.getId()).orElseThrow();
+        Payment.PaymentStatus previousStatus = existingPayment.getStatus();
+        BigDecimal previousAmount = existingPayment.getAmount();
         
         // Update fields
         existingPayment.setAmount(paymentDto.getAmount());
@@ -73,6 +103,10 @@ public class PaymentServiceImpl implements PaymentService {
         }
 
         Payment savedPayment = paymentRepository.save(existingPayment);
+        paymentBalanceService.recordChange(rentalIdOf(savedPayment), previousStatus, previousAmount,
+                savedPayment.getStatus(), savedPayment.getAmount());
+        financialDashboardService.markStale();
+        enqueueLedgerEvent(savedPayment, previousStatus);
         return mapToDto(savedPayment);
     }
 
@@ -91,9 +125,31 @@ public class PaymentServiceImpl implements PaymentService {
     }
 
     @Override
+    public KeysetPageDto<PaymentDto> getPage(String cursor, int size) {
+        KeysetCursor after = KeysetCursor.parse(cursor);
+        int pageSize = KeysetCursor.pageSize(size);
+        // Fetch one extra row to know whether another page exists
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<Payment> payments = after == null
+                ? paymentRepository.findKeysetFirstPage(limit)
+                : paymentRepository.findKeysetPageAfter(after.positionAsDate(), after.getId(), limit);
+        return KeysetPageDto.fromRows(payments, pageSize,
+                rows -> rows.stream().map(this::mapToDto).collect(Collectors.toList()),
+                payment -> KeysetCursor.of(payment.getCreatedDate(), payment.getId()));
+    }
+
+    @Override
+    @Transactional
     @Auditable(entity = "Payment", action = AuditLog.ActionType.DELETE, description = "Delete payment")
     public void delete(Long id) {
-        paymentRepository.deleteById(id);
+        paymentRepository.findById(id).ifPresent(payment -> {
+            // Queued first: waits for a posting of this payment in flight, whose tax rows are then reversed too
+            enqueueLedgerEvent(payment, payment.getStatus());
+            taxCalculationService.reverseTaxForDeletedPayment(payment);
+            paymentRepository.delete(payment);
+            paymentBalanceService.recordChange(rentalIdOf(payment), payment.getStatus(), payment.getAmount(), null, null);
+            financialDashboardService.markStale();
+        });
     }
 
     @Override
@@ -132,6 +188,7 @@ public class PaymentServiceImpl implements PaymentService {
     @Transactional
     public PaymentDto markAsPaid(Long paymentId, String transactionId) {
         Payment payment = paymentRepository.findById(paymentId).orElseThrow();
+        Payment.PaymentStatus previousStatus = payment.getStatus();
         payment.setStatus(Payment.PaymentStatus.COMPLETED);
         payment.setPaidAt(LocalDateTime.now());
         if (transactionId != null) {
@@ -139,6 +196,10 @@ public class PaymentServiceImpl implements PaymentService {
         }
         
         Payment savedPayment = paymentRepository.save(payment);
+        paymentBalanceService.recordChange(rentalIdOf(payment), previousStatus, payment.getAmount(),
+                Payment.PaymentStatus.COMPLETED, payment.getAmount());
+        financialDashboardService.markStale();
+        enqueueLedgerEvent(savedPayment, previousStatus);
         
         // Send confirmation email
         try {
@@ -155,12 +216,17 @@ public class PaymentServiceImpl implements PaymentService {
     @Transactional
     public PaymentDto markAsFailed(Long paymentId, String reason) {
         Payment payment = paymentRepository.findById(paymentId).orElseThrow();
+        Payment.PaymentStatus previousStatus = payment.getStatus();
         payment.setStatus(Payment.PaymentStatus.FAILED);
         if (reason != null) {
             payment.setNotes(payment.getNotes() + "\nPayment failed: " + reason);
         }
         
         Payment savedPayment = paymentRepository.save(payment);
+        paymentBalanceService.recordChange(rentalIdOf(payment), previousStatus, payment.getAmount(),
+                Payment.PaymentStatus.FAILED, payment.getAmount());
+        financialDashboardService.markStale();
+        enqueueLedgerEvent(savedPayment, previousStatus);
         return mapToDto(savedPayment);
     }
 
@@ -189,21 +255,52 @@ public class PaymentServiceImpl implements PaymentService {
                 .build();
         
         Payment savedRefund = paymentRepository.save(refundPayment);
+        paymentBalanceService.recordChange(rentalIdOf(savedRefund), null, null,
+                Payment.PaymentStatus.REFUNDED, savedRefund.getAmount());
+        financialDashboardService.markStale();
+        enqueueLedgerEvent(savedRefund, null);
         return mapToDto(savedRefund);
     }
 
     @Override
     public BigDecimal getTotalPaidForRental(Long rentalId) {
+        Optional<RentalPaymentBalance> balance = paymentBalanceService.getBalance(rentalId);
+        if (balance.isPresent()) {
+            return balance.get().getAmountPaid();
+        }
+        // Rentals without payments have no balance row yet
         BigDecimal totalPaid = paymentRepository.getTotalPaidAmountForRental(rentalId);
         return totalPaid != null ? totalPaid : BigDecimal.ZERO;
     }
 
     @Override
     public BigDecimal getRemainingBalanceForRental(Long rentalId) {
+        return getRentalBalance(rentalId).getOutstanding();
+    }
+
+    @Override
+    public RentalBalanceDto getRentalBalance(Long rentalId) {
+        Optional<RentalPaymentBalance> balance = paymentBalanceService.getBalance(rentalId);
+        if (balance.isPresent()) {
+            RentalPaymentBalance row = balance.get();
+            return RentalBalanceDto.builder()
+                    .rentalId(rentalId)
+                    .amountDue(row.getAmountDue())
+                    .amountPaid(row.getAmountPaid())
+                    .amountRefunded(row.getAmountRefunded())
+                    .outstanding(row.getOutstanding())
+                    .build();
+        }
         Rental rental = rentalRepository.findById(rentalId).orElseThrow();
         BigDecimal totalAmount = rental.getTotalAmount() != null ? rental.getTotalAmount() : BigDecimal.ZERO;
         BigDecimal totalPaid = getTotalPaidForRental(rentalId);
-        return totalAmount.subtract(totalPaid);
+        return RentalBalanceDto.builder()
+                .rentalId(rentalId)
+                .amountDue(totalAmount)
+                .amountPaid(totalPaid)
+                .amountRefunded(BigDecimal.ZERO)
+                .outstanding(totalAmount.subtract(totalPaid))
+                .build();
     }
 
     @Override
@@ -239,45 +336,24 @@ public class PaymentServiceImpl implements PaymentService {
         }
     }
 
-    private PaymentDto mapToDto(Payment payment) {
-        PaymentDto dto = modelMapper.map(payment, PaymentDto.class);
-        
-        // Set relationship IDs
-        if (payment.getCustomer() != null) {
-            dto.setCustomerId(payment.getCustomer().getId());
-            dto.setCustomerName(payment.getCustomer().getFirstName() + " " + payment.getCustomer().getLastName());
-            dto.setCustomerEmail(payment.getCustomer().getEmail());
+    // Payments entering or leaving the completed/refunded states (or changed while in them) are reconciled in the ledger
+    private void enqueueLedgerEvent(Payment payment, Payment.PaymentStatus previousStatus) {
+        boolean wasBooked = previousStatus == Payment.PaymentStatus.COMPLETED || previousStatus == Payment.PaymentStatus.REFUNDED;
+        if (wasBooked || LedgerAmounts.isBooked(payment)) {
+            ledgerPostingService.enqueue(LedgerOutboxEvent.EventType.PAYMENT_CHANGED, payment.getId());
         }
-        
-        if (payment.getRental() != null) {
-            dto.setRentalId(payment.getRental().getId());
-            if (payment.getRental().getCar() != null) {
-                dto.setCarPlate(payment.getRental().getCar().getPlate());
-                if (payment.getRental().getCar().getModel() != null) {
-                    dto.setCarModelName(payment.getRental().getCar().getModel().getName());
-                    if (payment.getRental().getCar().getModel().getBrand() != null) {
-                        dto.setCarBrandName(payment.getRental().getCar().getModel().getBrand().getName());
-                    }
-                }
-            }
-        }
-        
-        // Set display names
-        dto.setMethodDisplayName(payment.getMethod().getDisplayName());
-        dto.setStatusDisplayName(payment.getStatus().getDisplayName());
-        
-        // Calculate due date info
-        if (payment.getDueDate() != null) {
-            long daysUntilDue = ChronoUnit.DAYS.between(LocalDateTime.now(), payment.getDueDate());
-            dto.setDaysUntilDue(daysUntilDue);
-            dto.setIsOverdue(daysUntilDue < 0 && payment.getStatus().equals(Payment.PaymentStatus.PENDING));
-        }
-        
-        return dto;
+    }
+
+    private Long rentalIdOf(Payment payment) {
+        return payment.getRental() != null ? payment.getRental().getId() : null;
+    }
+
+    private PaymentDto mapToDto(Payment payment) {
+        return paymentMapper.toDto(payment);
     }
 
     private Payment mapToEntity(PaymentDto dto) {
-        Payment payment = modelMapper.map(dto, Payment.class);
+        Payment payment = paymentMapper.toEntity(dto);
         
         if (dto.getCustomerId() != null) {
             Customer customer = customerRepository.findById(dto.getCustomerId()).orElseThrow();
@@ -307,43 +383,38 @@ public class PaymentServiceImpl implements PaymentService {
 
     @Override
     public PaymentSummaryDto getSummary() {
-        List<Payment> allPayments = paymentRepository.findAll();
-        
-        BigDecimal totalAmount = allPayments.stream()
-                .map(Payment::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        BigDecimal pendingAmount = allPayments.stream()
-                .filter(p -> p.getStatus() == Payment.PaymentStatus.PENDING)
-                .map(Payment::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        BigDecimal completedAmount = allPayments.stream()
-                .filter(p -> p.getStatus() == Payment.PaymentStatus.COMPLETED)
-                .map(Payment::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        BigDecimal overdueAmount = paymentRepository.findOverduePayments(Payment.PaymentStatus.PENDING, LocalDateTime.now())
-                .stream()
-                .map(Payment::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        Map<String, PaymentSummaryDto.PaymentMethodSummary> byMethod = allPayments.stream()
-                .collect(Collectors.groupingBy(
-                        p -> p.getMethod().name(),
-                        Collectors.reducing(
-                                new PaymentSummaryDto.PaymentMethodSummary(BigDecimal.ZERO, 0L),
-                                p -> new PaymentSummaryDto.PaymentMethodSummary(p.getAmount(), 1L),
-                                (a, b) -> new PaymentSummaryDto.PaymentMethodSummary(
-                                        a.getAmount().add(b.getAmount()),
-                                        a.getCount() + b.getCount()
-                                )
-                        )
-                ));
-        
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        BigDecimal pendingAmount = BigDecimal.ZERO;
+        BigDecimal completedAmount = BigDecimal.ZERO;
+        long count = 0;
+        Map<String, PaymentSummaryDto.PaymentMethodSummary> byMethod = new HashMap<>();
+
+        // Rows are (status, method, count, amount)
+        for (Object[] row : paymentRepository.getStatusMethodTotals()) {
+            Payment.PaymentStatus status = (Payment.PaymentStatus) row[0];
+            Payment.PaymentMethod method = (Payment.PaymentMethod) row[1];
+            long rowCount = ((Number) row[2]).longValue();
+            BigDecimal amount = (BigDecimal) row[3];
+
+            totalAmount = totalAmount.add(amount);
+            count += rowCount;
+            if (status == Payment.PaymentStatus.PENDING) {
+                pendingAmount = pendingAmount.add(amount);
+            } else if (status == Payment.PaymentStatus.COMPLETED) {
+                completedAmount = completedAmount.add(amount);
+            }
+            byMethod.merge(method.name(), new PaymentSummaryDto.PaymentMethodSummary(amount, rowCount),
+                    (a, b) -> new PaymentSummaryDto.PaymentMethodSummary(
+                            a.getAmount().add(b.getAmount()),
+                            a.getCount() + b.getCount()
+                    ));
+        }
+
+        BigDecimal overdueAmount = paymentRepository.getOverdueAmount(Payment.PaymentStatus.PENDING, LocalDateTime.now());
+
         return PaymentSummaryDto.builder()
                 .totalAmount(totalAmount)
-                .count((long) allPayments.size())
+                .count(count)
                 .pendingAmount(pendingAmount)
                 .completedAmount(completedAmount)
                 .overdueAmount(overdueAmount)
@@ -0,0 +1,40 @@
+package hakan.rentacar.service.impl;
+
+import hakan.rentacar.entities.concretes.Rental;
+import hakan.rentacar.repostories.LifecycleSweepRepository;
+import hakan.rentacar.service.AnalyticsService;
+import hakan.rentacar.service.LifecycleSweep;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Confirmed rentals whose last day has passed become COMPLETED
+@Component
+class RentalCompletionSweep implements LifecycleSweep {
+
+    static final String NAME = "completed-rentals";
+
+    @Autowired
+    private LifecycleSweepRepository lifecycleSweepRepository;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public List<Long> transition(long afterId, int limit) {
+        return lifecycleSweepRepository.moveFinishedRentals(Rental.RentalStatus.CONFIRMED.name(),
+                Rental.RentalStatus.COMPLETED.name(), LocalDate.now(), afterId, limit);
+    }
+
+    @Override
+    public void afterTransition(List<Long> ids, boolean replay) {
+        analyticsService.markDashboardStale();
+    }
+}
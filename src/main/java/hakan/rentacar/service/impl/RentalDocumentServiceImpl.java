@@ -3,10 +3,10 @@ package hakan.rentacar.service.impl;
 import hakan.rentacar.entities.concretes.Rental;
 import hakan.rentacar.entities.concretes.RentalDocument;
 import hakan.rentacar.entities.dtos.RentalDocumentDto;
+import hakan.rentacar.mappers.RentalDocumentMapper;
 import hakan.rentacar.repostories.RentalDocumentRepository;
 import hakan.rentacar.repostories.RentalRepository;
 import hakan.rentacar.service.RentalDocumentService;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -30,7 +30,7 @@ public class RentalDocumentServiceImpl implements RentalDocumentService {
     private RentalRepository rentalRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private RentalDocumentMapper rentalDocumentMapper;
 
     private static final String UPLOAD_DIR = "uploads/documents/";
 
@@ -73,6 +73,7 @@ public class RentalDocumentServiceImpl implements RentalDocumentService {
                 .orElseThrow(() -> new RuntimeException("Rental not found"));
 
         RentalDocument document = DtoToEntity(documentDto);
+        document.setRental(rental);
         document.setUploadedAt(LocalDateTime.now());
 
         RentalDocument savedDocument = rentalDocumentRepository.save(document);
@@ -158,13 +159,13 @@ public class RentalDocumentServiceImpl implements RentalDocumentService {
     @Override
     public RentalDocumentDto EntityToDto(RentalDocument document) {
         if (document == null) return null;
-        return modelMapper.map(document, RentalDocumentDto.class);
+        return rentalDocumentMapper.toDto(document);
     }
 
     @Override
     public RentalDocument DtoToEntity(RentalDocumentDto documentDto) {
         if (documentDto == null) return null;
-        return modelMapper.map(documentDto, RentalDocument.class);
+        return rentalDocumentMapper.toEntity(documentDto);
     }
 }
 
@@ -0,0 +1,50 @@
+package hakan.rentacar.service.impl;
+
+import hakan.rentacar.entities.concretes.Rental;
+import hakan.rentacar.repostories.LifecycleSweepRepository;
+import hakan.rentacar.service.LifecycleSweep;
+import hakan.rentacar.service.NotificationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Rentals still pending when their last day has passed become EXPIRED; customers get an in-app notification
+@Component
+class RentalExpirySweep implements LifecycleSweep {
+
+    static final String NAME = "expired-rentals";
+
+    private static final Logger logger = LoggerFactory.getLogger(RentalExpirySweep.class);
+
+    @Autowired
+    private LifecycleSweepRepository lifecycleSweepRepository;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public List<Long> transition(long afterId, int limit) {
+        return lifecycleSweepRepository.moveFinishedRentals(Rental.RentalStatus.PENDING.name(),
+                Rental.RentalStatus.EXPIRED.name(), LocalDate.now(), afterId, limit);
+    }
+
+    @Override
+    public void afterTransition(List<Long> ids, boolean replay) {
+        for (Long rentalId : ids) {
+            try {
+                notificationService.sendRentalExpiredNotification(rentalId);
+            } catch (Exception e) {
+                logger.warn("Rental expiry notification failed for rental {}: {}", rentalId, e.getMessage());
+            }
+        }
+    }
+}
@@ -4,34 +4,50 @@ import hakan.rentacar.entities.concretes.Car;
 import hakan.rentacar.entities.concretes.Customer;
 import hakan.rentacar.entities.concretes.Rental;
 import hakan.rentacar.entities.dtos.RentalDto;
+import hakan.rentacar.entities.dtos.KeysetCursor;
+import hakan.rentacar.entities.dtos.KeysetPageDto;
+import hakan.rentacar.mappers.RentalMapper;
 import hakan.rentacar.repostories.CarRepository;
 import hakan.rentacar.repostories.CustomerRepository;
 import hakan.rentacar.repostories.RentalRepository;
 import hakan.rentacar.repostories.ReservationRatingRepository;
+import hakan.rentacar.service.BookingLockService;
+import hakan.rentacar.service.RentalChangedEvent;
 import hakan.rentacar.service.RentalService;
 import hakan.rentacar.service.ReservationRatingService;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
-import java.util.List;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
 public class RentalServiceImpl implements RentalService {
 
+    // Keeps IN lists well below the driver's bind parameter limit
+    private static final int RATED_QUERY_CHUNK_SIZE = 1000;
+
     private final RentalRepository rentalRepository;
     private final CarRepository carRepository;
     private final CustomerRepository customerRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private RentalMapper rentalMapper;
     
     @Autowired
     private ReservationRatingRepository reservationRatingRepository;
 
+    @Autowired
+    private BookingLockService bookingLockService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Autowired
     public RentalServiceImpl(RentalRepository rentalRepository, 
                            CarRepository carRepository, 
@@ -43,8 +59,21 @@ public class RentalServiceImpl implements RentalService {
 
     @Override
     public List<RentalDto> getAll() {
-        List<Rental> rentals = rentalRepository.findAll();
-        return rentals.stream().map(this::EntityToDto).collect(Collectors.toList());
+        List<Rental> rentals = rentalRepository.findAllWithDetails();
+        return EntityToDtos(rentals);
+    }
+
+    @Override
+    public KeysetPageDto<RentalDto> getPage(String cursor, int size) {
+        KeysetCursor after = KeysetCursor.parse(cursor);
+        int pageSize = KeysetCursor.pageSize(size);
+        // Fetch one extra row to know whether another page exists
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<Rental> rentals = after == null
+                ? rentalRepository.findKeysetFirstPage(limit)
+                : rentalRepository.findKeysetPageAfter(after.positionAsDate(), after.getId(), limit);
+        return KeysetPageDto.fromRows(rentals, pageSize, this::EntityToDtos,
+                rental -> KeysetCursor.of(rental.getCreatedDate(), rental.getId()));
     }
 
     @Override
@@ -54,6 +83,7 @@ public class RentalServiceImpl implements RentalService {
     }
 
     @Override
+    @Transactional
     public RentalDto add(RentalDto rentalDto) {
         // Validate dates
         if (rentalDto.getStart().isBefore(LocalDate.now())) {
@@ -69,7 +99,8 @@ public class RentalServiceImpl implements RentalService {
             () -> new RuntimeException("Car not found")
         );
         
-        // Check if car is available for the requested dates (date-based check only)
+        // Check if car is available for the requested dates (date-based check only), serialized per car until commit
+        bookingLockService.lockCarForBooking(rentalDto.getCarId());
         if (!isCarAvailable(rentalDto.getCarId(), rentalDto.getStart(), rentalDto.getEnd())) {
             throw new RuntimeException("Car is not available for the requested dates");
         }
@@ -80,14 +111,20 @@ public class RentalServiceImpl implements RentalService {
         );
         
         Rental rental = DtoToEntity(rentalDto);
-        Rental savedRental = rentalRepository.save(rental);
+        Rental savedRental = saveBooking(rental);
+        eventPublisher.publishEvent(new RentalChangedEvent(savedRental.getId(), rentalDto.getCarId(),
+                rentalDto.getCustomerId(), rentalDto.getStart()));
         rentalDto.setId(savedRental.getId());
         return rentalDto;
     }
 
     @Override
+    @Transactional
     public RentalDto update(RentalDto rentalDto) {
         Rental existingRental = rentalRepository.findById(rentalDto.getId()).orElseThrow();
+        Long previousCarId = existingRental.getCar().getId();
+        LocalDate previousStart = existingRental.getStart();
+        Long previousCustomerId = existingRental.getCustomer().getId();
         
         // Validate dates
         if (rentalDto.getStart().isBefore(LocalDate.now())) {
@@ -99,6 +136,7 @@ public class RentalServiceImpl implements RentalService {
         }
         
         // Check if the updated dates conflict with other rentals (excluding current rental)
+        bookingLockService.lockCarsForBooking(Arrays.asList(previousCarId, rentalDto.getCarId()));
         List<Rental> conflictingRentals = rentalRepository.findConflictingRentals(
             rentalDto.getCarId(), rentalDto.getStart(), rentalDto.getEnd()
         );
@@ -109,46 +147,66 @@ public class RentalServiceImpl implements RentalService {
         }
         
         Rental rental = DtoToEntity(rentalDto);
-        rentalRepository.save(rental);
+        saveBooking(rental);
+        RentalChangedEvent previous = new RentalChangedEvent(rentalDto.getId(), previousCarId, previousCustomerId, previousStart);
+        RentalChangedEvent current = new RentalChangedEvent(rentalDto.getId(), rentalDto.getCarId(),
+                rentalDto.getCustomerId(), rentalDto.getStart());
+        // The old car, customer and day lose the rental when it moves
+        if (!previous.equals(current)) {
+            eventPublisher.publishEvent(previous);
+        }
+        eventPublisher.publishEvent(current);
         return rentalDto;
     }
 
+    private Rental saveBooking(Rental rental) {
+        try {
+            return rentalRepository.saveAndFlush(rental);
+        } catch (DataIntegrityViolationException e) {
+            // Overlap rejected by the rentals exclusion constraint
+            throw new RuntimeException("Car is not available for the requested dates");
+        }
+    }
+
     @Override
+    @Transactional
     public RentalDto delete(Long id) {
         Rental rental = rentalRepository.findById(id).orElseThrow();
         RentalDto rentalDto = EntityToDto(rental);
         rentalRepository.deleteById(id);
+        eventPublisher.publishEvent(new RentalChangedEvent(id, rental.getCar().getId(),
+                rental.getCustomer().getId(), rental.getStart()));
         return rentalDto;
     }
 
     @Override
     public List<RentalDto> getByCarId(Long carId) {
-        List<Rental> rentals = rentalRepository.findByCarId(carId);
-        return rentals.stream().map(this::EntityToDto).collect(Collectors.toList());
+        List<Rental> rentals = rentalRepository.findByCarIdWithDetails(carId);
+        return EntityToDtos(rentals);
     }
 
     @Override
     public List<RentalDto> getByCustomerId(Long customerId) {
-        List<Rental> rentals = rentalRepository.findByCustomerIdOrderByStartDesc(customerId);
-        return rentals.stream().map(this::EntityToDto).collect(Collectors.toList());
+        List<Rental> rentals = rentalRepository.findByCustomerIdWithDetails(customerId);
+        return EntityToDtos(rentals);
     }
 
     @Override
     public List<RentalDto> findByDate(LocalDate date) {
-        List<Rental> rentals = rentalRepository.findByDate(date);
-        return rentals.stream().map(this::EntityToDto).collect(Collectors.toList());
+        List<Rental> rentals = rentalRepository.findByDateWithDetails(date);
+        return EntityToDtos(rentals);
     }
 
     @Override
     public List<RentalDto> findActiveRentals(LocalDate date) {
-        List<Rental> rentals = rentalRepository.findActiveRentals(date);
-        return rentals.stream().map(this::EntityToDto).collect(Collectors.toList());
+        List<Rental> rentals = rentalRepository.findActiveRentalsWithDetails(date);
+        return EntityToDtos(rentals);
     }
 
     @Override
     public List<RentalDto> findRentalsBetweenDates(LocalDate startDate, LocalDate endDate) {
-        List<Rental> rentals = rentalRepository.findRentalsBetweenDates(startDate, endDate);
-        return rentals.stream().map(this::EntityToDto).collect(Collectors.toList());
+        List<Rental> rentals = rentalRepository.findRentalsBetweenDatesWithDetails(startDate, endDate);
+        return EntityToDtos(rentals);
     }
 
     @Override
@@ -159,34 +217,7 @@ public class RentalServiceImpl implements RentalService {
 
     @Override
     public RentalDto EntityToDto(Rental rental) {
-        RentalDto rentalDto = modelMapper.map(rental, RentalDto.class);
-        rentalDto.setCarId(rental.getCar().getId());
-        rentalDto.setCustomerId(rental.getCustomer().getId());
-        rentalDto.setCarPlate(rental.getCar().getPlate());
-        rentalDto.setCarBrandName(rental.getCar().getModel() != null && rental.getCar().getModel().getBrand() != null ? 
-            rental.getCar().getModel().getBrand().getName() : null);
-        rentalDto.setCarModelName(rental.getCar().getModel() != null ? 
-            rental.getCar().getModel().getName() : null);
-        rentalDto.setCustomerFirstName(rental.getCustomer().getFirstName());
-        rentalDto.setCustomerLastName(rental.getCustomer().getLastName());
-        rentalDto.setDailyPrice(rental.getCar().getDailyPrice());
-        
-        // Map new fields from Reservation
-        rentalDto.setStatus(rental.getStatus());
-        rentalDto.setTotalAmount(rental.getTotalAmount());
-        rentalDto.setSpecialRequests(rental.getSpecialRequests());
-        rentalDto.setConfirmedAt(rental.getConfirmedAt());
-        rentalDto.setCancelledAt(rental.getCancelledAt());
-        
-        // Calculate total price (use totalAmount if available, otherwise calculate)
-        if (rental.getTotalAmount() != null) {
-            rentalDto.setTotalPrice(rental.getTotalAmount().doubleValue());
-        } else {
-            long days = ChronoUnit.DAYS.between(rental.getStart(), rental.getEnd()) + 1;
-            double totalPrice = rental.getCar().getDailyPrice() * days + (rental.getExtraCosts() != null ? rental.getExtraCosts() : 0);
-            rentalDto.setTotalPrice(totalPrice);
-        }
-        
+        RentalDto rentalDto = rentalMapper.toDto(rental);
         
         // Check if customer can rate this rental (rental ended and not rated yet)
         LocalDate today = LocalDate.now();
@@ -199,9 +230,39 @@ public class RentalServiceImpl implements RentalService {
         return rentalDto;
     }
 
+    @Override
+    public List<RentalDto> EntityToDtos(List<Rental> rentals) {
+        // Rated (customer, car) pairs of the whole list are loaded in one query per chunk
+        List<Long> customerIds = rentals.stream()
+                .map(rental -> rental.getCustomer().getId())
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, Set<Long>> ratedCarIdsByCustomer = new HashMap<>();
+        for (int from = 0; from < customerIds.size(); from += RATED_QUERY_CHUNK_SIZE) {
+            List<Long> chunk = customerIds.subList(from, Math.min(customerIds.size(), from + RATED_QUERY_CHUNK_SIZE));
+            for (Object[] row : reservationRatingRepository.findRatedCarIdsByCustomerIds(chunk)) {
+                ratedCarIdsByCustomer.computeIfAbsent(((Number) row[0]).longValue(), id -> new HashSet<>())
+                        .add(((Number) row[1]).longValue());
+            }
+        }
+        
+        LocalDate today = LocalDate.now();
+        List<RentalDto> rentalDtos = new ArrayList<>(rentals.size());
+        for (Rental rental : rentals) {
+            RentalDto rentalDto = rentalMapper.toDto(rental);
+            boolean hasRated = ratedCarIdsByCustomer
+                    .getOrDefault(rental.getCustomer().getId(), Collections.emptySet())
+                    .contains(rental.getCar().getId());
+            rentalDto.setCanRate(rental.getEnd().isBefore(today) && !hasRated);
+            rentalDto.setIsRated(hasRated);
+            rentalDtos.add(rentalDto);
+        }
+        return rentalDtos;
+    }
+
     @Override
     public Rental DtoToEntity(RentalDto rentalDto) {
-        Rental rental = modelMapper.map(rentalDto, Rental.class);
+        Rental rental = rentalMapper.toEntity(rentalDto);
         
         // Set the car and customer
         if (rentalDto.getCarId() != null) {
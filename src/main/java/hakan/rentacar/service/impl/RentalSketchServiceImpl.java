@@ -0,0 +1,308 @@
+package hakan.rentacar.service.impl;
+
+import hakan.rentacar.entities.dtos.RentalDistributionDto;
+import hakan.rentacar.exceptions.BusinessException;
+import hakan.rentacar.repostories.RentalRepository;
+import hakan.rentacar.service.RentalSketchService;
+import hakan.rentacar.service.RentalChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Approximate rental analytics from mergeable sketches kept per rental start day and per car:
+ * a HyperLogLog of customers and t-digests of rental duration and revenue per rental.
+ * A query merges the sketches of the requested days, so its cost depends on the number of days,
+ * not on the number of rentals; the all-time distribution is kept merged. Published sketches are
+ * never modified; a car refresh rebuilds the car's sketch and the sketches of the days whose rentals
+ * changed. New rentals are merged into a copy of the all-time sketch; a removed or changed rental
+ * cannot be taken out of it, so it is merged again from the car sketches on the next all-time query.
+ */
+@Service
+public class RentalSketchServiceImpl implements RentalSketchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RentalSketchServiceImpl.class);
+
+    private static final double COMPRESSION = 100;
+    private static final Sketches EMPTY = new Sketches(Collections.emptyList());
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    private final Map<Long, Sketches> carSketches = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<Long, Sketches> daySketches = new ConcurrentSkipListMap<>();
+    private volatile Sketches allTime = EMPTY;
+    // Set when a rental left the all-time sketch; the next all-time query merges it again
+    private volatile boolean allTimeStale;
+    // Rentals each car contributed at its last load, to find the days a write touched; guarded by writeLock
+    private final Map<Long, Map<Long, RentalPoint>> carRentals = new HashMap<>();
+    private final Object writeLock = new Object();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            logger.error("Rental sketches could not be loaded: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    @Scheduled(cron = "0 0 5 * * *") // Run every day at 5 AM
+    public void rebuild() {
+        synchronized (writeLock) {
+            long startTime = System.currentTimeMillis();
+            Map<Long, List<RentalPoint>> byCar = new HashMap<>();
+            Map<Long, List<RentalPoint>> byDay = new HashMap<>();
+            List<RentalPoint> all = new ArrayList<>();
+            for (Object[] row : rentalRepository.findSketchRows()) {
+                RentalPoint point = new RentalPoint(row);
+                all.add(point);
+                byCar.computeIfAbsent(point.carId, id -> new ArrayList<>()).add(point);
+                byDay.computeIfAbsent(point.day, day -> new ArrayList<>()).add(point);
+            }
+
+            Map<Long, Sketches> cars = new HashMap<>(byCar.size() * 2);
+            byCar.forEach((carId, points) -> cars.put(carId, new Sketches(points)));
+            Map<Long, Sketches> days = new HashMap<>(byDay.size() * 2);
+            byDay.forEach((day, points) -> days.put(day, new Sketches(points)));
+
+            carSketches.putAll(cars);
+            carSketches.keySet().retainAll(cars.keySet());
+            daySketches.putAll(days);
+            daySketches.keySet().retainAll(days.keySet());
+            allTime = new Sketches(all);
+            allTimeStale = false;
+            carRentals.clear();
+            byCar.forEach((carId, points) -> carRentals.put(carId, index(points)));
+
+            logger.info("Rental sketches loaded for {} cars and {} days in {} ms",
+                    cars.size(), days.size(), System.currentTimeMillis() - startTime);
+        }
+    }
+
+    @Override
+    public void refreshCar(Long carId) {
+        if (carId == null) {
+            return;
+        }
+        // Reload only after the writing transaction commits
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reloadCar(carId);
+                }
+            });
+        } else {
+            reloadCar(carId);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onRentalChanged(RentalChangedEvent event) {
+        reloadCar(event.getCarId());
+    }
+
+    @Override
+    public RentalDistributionDto getDistribution(LocalDate startDate, LocalDate endDate, Long carId) {
+        // Car sketches cover the car's whole history and cannot be cut by date
+        if (carId != null && (startDate != null || endDate != null)) {
+            throw new BusinessException("Approximate distribution of a car cannot be limited by date");
+        }
+        Sketches merged;
+        if (carId != null) {
+            merged = carSketches.getOrDefault(carId, EMPTY);
+        } else if (startDate == null && endDate == null) {
+            merged = allTime();
+        } else {
+            merged = new Sketches(Collections.emptyList());
+            long from = startDate != null ? startDate.toEpochDay() : Long.MIN_VALUE;
+            long to = endDate != null ? endDate.toEpochDay() : Long.MAX_VALUE;
+            if (from > to) {
+                throw new IllegalArgumentException("Start date must not be after end date");
+            }
+            for (Sketches day : daySketches.subMap(from, true, to, true).values()) {
+                merged.merge(day);
+            }
+        }
+
+        long rentals = merged.durations.count();
+        return RentalDistributionDto.builder()
+                .startDate(carId != null ? null : startDate)
+                .endDate(carId != null ? null : endDate)
+                .carId(carId)
+                .approximate(true)
+                .rentalCount(rentals)
+                .distinctCustomers(rentals > 0 ? merged.customers.estimate() : 0L)
+                .distinctCustomersErrorRate(BigDecimal.valueOf(HyperLogLog.STANDARD_ERROR * 100).setScale(2, RoundingMode.HALF_UP))
+                .averageDuration(decimal(merged.durations.mean()))
+                .durationP50(decimal(merged.durations.quantile(0.5)))
+                .durationP90(decimal(merged.durations.quantile(0.9)))
+                .durationP99(decimal(merged.durations.quantile(0.99)))
+                .revenueP50(decimal(merged.revenue.quantile(0.5)))
+                .revenueP90(decimal(merged.revenue.quantile(0.9)))
+                .revenueP99(decimal(merged.revenue.quantile(0.99)))
+                .build();
+    }
+
+    private void reloadCar(Long carId) {
+        synchronized (writeLock) {
+            List<RentalPoint> points = new ArrayList<>();
+            for (Object[] row : rentalRepository.findSketchRowsByCarId(carId)) {
+                points.add(new RentalPoint(row));
+            }
+            Map<Long, RentalPoint> fresh = index(points);
+            Map<Long, RentalPoint> previous = carRentals.getOrDefault(carId, Collections.emptyMap());
+
+            // Days that gained, lost or changed a rental of this car
+            Set<LocalDate> touched = new HashSet<>();
+            List<RentalPoint> added = new ArrayList<>();
+            boolean removed = false;
+            for (RentalPoint point : fresh.values()) {
+                if (!point.sameAs(previous.get(point.rentalId))) {
+                    touched.add(LocalDate.ofEpochDay(point.day));
+                    added.add(point);
+                }
+            }
+            for (RentalPoint point : previous.values()) {
+                if (!point.sameAs(fresh.get(point.rentalId))) {
+                    touched.add(LocalDate.ofEpochDay(point.day));
+                    removed = true;
+                }
+            }
+
+            if (points.isEmpty()) {
+                carSketches.remove(carId);
+                carRentals.remove(carId);
+            } else {
+                carSketches.put(carId, new Sketches(points));
+                carRentals.put(carId, fresh);
+            }
+            // Sketches cannot forget a rental; only additions can be merged into the all-time sketch
+            if (removed) {
+                allTimeStale = true;
+            } else if (!added.isEmpty() && !allTimeStale) {
+                allTime = Sketches.mergeOf(List.of(allTime, new Sketches(added)));
+            }
+
+            if (!touched.isEmpty()) {
+                Map<Long, List<RentalPoint>> byDay = new HashMap<>();
+                for (Object[] row : rentalRepository.findSketchRowsByStartIn(touched)) {
+                    RentalPoint point = new RentalPoint(row);
+                    byDay.computeIfAbsent(point.day, day -> new ArrayList<>()).add(point);
+                }
+                for (LocalDate day : touched) {
+                    List<RentalPoint> dayPoints = byDay.get(day.toEpochDay());
+                    if (dayPoints == null) {
+                        daySketches.remove(day.toEpochDay());
+                    } else {
+                        daySketches.put(day.toEpochDay(), new Sketches(dayPoints));
+                    }
+                }
+            }
+        }
+    }
+
+    private Sketches allTime() {
+        if (allTimeStale) {
+            synchronized (writeLock) {
+                if (allTimeStale) {
+                    allTime = Sketches.mergeOf(carSketches.values());
+                    allTimeStale = false;
+                }
+            }
+        }
+        return allTime;
+    }
+
+    private static Map<Long, RentalPoint> index(List<RentalPoint> points) {
+        Map<Long, RentalPoint> result = new HashMap<>(points.size() * 2);
+        for (RentalPoint point : points) {
+            result.put(point.rentalId, point);
+        }
+        return result;
+    }
+
+    private static BigDecimal decimal(double value) {
+        return Double.isNaN(value) ? null : BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static final class Sketches {
+        private final HyperLogLog customers = new HyperLogLog();
+        private final TDigest durations = new TDigest(COMPRESSION);
+        private final TDigest revenue = new TDigest(COMPRESSION);
+
+        Sketches(List<RentalPoint> points) {
+            for (RentalPoint point : points) {
+                customers.add(point.customerId);
+                durations.add(point.durationDays);
+                revenue.add(point.revenue);
+            }
+            // Published sketches are read concurrently and must not compress lazily
+            durations.compress();
+            revenue.compress();
+        }
+
+        static Sketches mergeOf(Collection<Sketches> parts) {
+            Sketches merged = new Sketches(Collections.emptyList());
+            for (Sketches part : parts) {
+                merged.merge(part);
+            }
+            merged.durations.compress();
+            merged.revenue.compress();
+            return merged;
+        }
+
+        void merge(Sketches other) {
+            customers.merge(other.customers);
+            durations.add(other.durations);
+            revenue.add(other.revenue);
+        }
+    }
+
+    // Row is (id, carId, customerId, start, end, extraCosts, dailyPrice)
+    private static final class RentalPoint {
+        private final long rentalId;
+        private final long carId;
+        private final long customerId;
+        private final long day;
+        private final long durationDays;
+        private final double revenue;
+
+        RentalPoint(Object[] row) {
+            rentalId = ((Number) row[0]).longValue();
+            carId = ((Number) row[1]).longValue();
+            customerId = ((Number) row[2]).longValue();
+            LocalDate start = (LocalDate) row[3];
+            LocalDate end = (LocalDate) row[4];
+            day = start.toEpochDay();
+            durationDays = ChronoUnit.DAYS.between(start, end) + 1;
+            long extraCosts = row[5] != null ? ((Number) row[5]).longValue() : 0;
+            double dailyPrice = row[6] != null ? ((Number) row[6]).doubleValue() : 0;
+            revenue = dailyPrice * durationDays + extraCosts;
+        }
+
+        boolean sameAs(RentalPoint other) {
+            return other != null && day == other.day && customerId == other.customerId
+                    && durationDays == other.durationDays && revenue == other.revenue;
+        }
+    }
+}
@@ -3,20 +3,34 @@ package hakan.rentacar.service.impl;
 import hakan.rentacar.entities.concretes.Customer;
 import hakan.rentacar.entities.concretes.ReservationRating;
 import hakan.rentacar.entities.concretes.Rental;
+import hakan.rentacar.entities.dtos.CarRatingSummaryDto;
 import hakan.rentacar.entities.dtos.ReservationRatingDto;
+import hakan.rentacar.mappers.ReservationRatingMapper;
 import hakan.rentacar.repostories.*;
 import hakan.rentacar.service.ReservationRatingService;
-import org.modelmapper.ModelMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service
 public class ReservationRatingServiceImpl implements ReservationRatingService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ReservationRatingServiceImpl.class);
+
+    // Keeps IN lists well below the driver's bind parameter limit
+    private static final int RATING_QUERY_CHUNK_SIZE = 1000;
+
     @Autowired
     private ReservationRatingRepository reservationRatingRepository;
 
@@ -27,9 +41,36 @@ public class ReservationRatingServiceImpl implements ReservationRatingService {
     private RentalRepository rentalRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private ReservationRatingMapper reservationRatingMapper;
+
+    // Optional in-memory (sum, count) of car ratings per car; queries are used while it is disabled or not loaded
+    @Value("${rating.aggregate.enabled:true}")
+    private boolean aggregateEnabled;
+
+    private final Map<Long, RatingTotals> ratingTotals = new ConcurrentHashMap<>();
+    private volatile boolean aggregateReady = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRatingAggregate() {
+        if (!aggregateEnabled) {
+            return;
+        }
+        try {
+            Map<Long, RatingTotals> fresh = new HashMap<>();
+            for (Object[] row : reservationRatingRepository.getAllCarRatingTotals()) {
+                fresh.put(((Number) row[0]).longValue(), RatingTotals.of(row));
+            }
+            ratingTotals.putAll(fresh);
+            ratingTotals.keySet().retainAll(fresh.keySet());
+            aggregateReady = true;
+            logger.info("Car rating aggregate loaded for {} cars", fresh.size());
+        } catch (Exception e) {
+            logger.error("Car rating aggregate could not be loaded: {}", e.getMessage());
+        }
+    }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ReservationRatingDto> getByCustomerId(Long customerId) {
         List<ReservationRating> ratings = reservationRatingRepository.findByCustomerIdOrderByCreatedDateDesc(customerId);
         return ratings.stream()
@@ -38,6 +79,7 @@ public class ReservationRatingServiceImpl implements ReservationRatingService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ReservationRatingDto> getPublicCarRatings() {
         List<ReservationRating> ratings = reservationRatingRepository.findPublicCarRatings();
         return ratings.stream()
@@ -46,6 +88,7 @@ public class ReservationRatingServiceImpl implements ReservationRatingService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ReservationRatingDto> getPublicCarRatingsByCarId(Long carId) {
         List<ReservationRating> ratings = reservationRatingRepository.findPublicCarRatingsByCarId(carId);
         return ratings.stream()
@@ -58,6 +101,7 @@ public class ReservationRatingServiceImpl implements ReservationRatingService {
     public ReservationRatingDto create(ReservationRatingDto ratingDto) {
         ReservationRating rating = mapToEntity(ratingDto);
         ReservationRating savedRating = reservationRatingRepository.save(rating);
+        refreshCarRating(savedRating.getRental().getCar().getId());
         return mapToDto(savedRating);
     }
 
@@ -72,55 +116,84 @@ public class ReservationRatingServiceImpl implements ReservationRatingService {
         existingRating.setIsPublic(ratingDto.getIsPublic());
 
         ReservationRating savedRating = reservationRatingRepository.save(existingRating);
+        refreshCarRating(savedRating.getRental().getCar().getId());
         return mapToDto(savedRating);
     }
 
     @Override
+    @Transactional
     public void delete(Long ratingId) {
+        Optional<Long> carId = reservationRatingRepository.findCarIdByRatingId(ratingId);
         reservationRatingRepository.deleteById(ratingId);
+        carId.ifPresent(this::refreshCarRating);
     }
 
     @Override
     public Double getAverageCarRating(Long carId) {
+        if (aggregateReady) {
+            RatingTotals totals = ratingTotals.get(carId);
+            return totals != null ? totals.average() : 0.0;
+        }
         Double average = reservationRatingRepository.getAverageCarRating(carId);
         return average != null ? average : 0.0;
     }
 
     @Override
     public Long getCarRatingCount(Long carId) {
+        if (aggregateReady) {
+            RatingTotals totals = ratingTotals.get(carId);
+            return totals != null ? totals.count : 0L;
+        }
         return reservationRatingRepository.getCarRatingCount(carId);
     }
 
+    @Override
+    public Map<Long, CarRatingSummaryDto> getCarRatingSummaries(Collection<Long> carIds) {
+        Set<Long> distinctIds = new LinkedHashSet<>(carIds);
+        distinctIds.remove(null);
+        Map<Long, RatingTotals> totalsByCar = new HashMap<>(distinctIds.size() * 2);
+
+        if (aggregateReady) {
+            for (Long carId : distinctIds) {
+                RatingTotals totals = ratingTotals.get(carId);
+                if (totals != null) {
+                    totalsByCar.put(carId, totals);
+                }
+            }
+        } else {
+            List<Long> ids = new ArrayList<>(distinctIds);
+            for (int from = 0; from < ids.size(); from += RATING_QUERY_CHUNK_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + RATING_QUERY_CHUNK_SIZE));
+                for (Object[] row : reservationRatingRepository.getCarRatingTotals(chunk)) {
+                    totalsByCar.put(((Number) row[0]).longValue(), RatingTotals.of(row));
+                }
+            }
+        }
+
+        // Cars without ratings get an explicit zero summary
+        Map<Long, CarRatingSummaryDto> summaries = new HashMap<>(distinctIds.size() * 2);
+        for (Long carId : distinctIds) {
+            RatingTotals totals = totalsByCar.get(carId);
+            summaries.put(carId, CarRatingSummaryDto.builder()
+                    .carId(carId)
+                    .averageRating(totals != null ? totals.average() : 0.0)
+                    .ratingCount(totals != null ? totals.count : 0L)
+                    .build());
+        }
+        return summaries;
+    }
+
     @Override
     public boolean hasCustomerRatedReservation(Long customerId, Long rentalId) {
         return reservationRatingRepository.findByRentalId(rentalId).isPresent();
     }
 
     private ReservationRatingDto mapToDto(ReservationRating rating) {
-        ReservationRatingDto dto = modelMapper.map(rating, ReservationRatingDto.class);
-        
-        if (rating.getCustomer() != null) {
-            dto.setCustomerName(rating.getCustomer().getFirstName() + " " + rating.getCustomer().getLastName());
-        }
-        
-        // Set rental information for display
-        if (rating.getRental() != null) {
-            if (rating.getRental().getCar() != null) {
-                dto.setCarPlate(rating.getRental().getCar().getPlate());
-                if (rating.getRental().getCar().getModel() != null) {
-                    dto.setCarModelName(rating.getRental().getCar().getModel().getName());
-                    if (rating.getRental().getCar().getModel().getBrand() != null) {
-                        dto.setCarBrandName(rating.getRental().getCar().getModel().getBrand().getName());
-                    }
-                }
-            }
-        }
-        
-        return dto;
+        return reservationRatingMapper.toDto(rating);
     }
 
     private ReservationRating mapToEntity(ReservationRatingDto dto) {
-        ReservationRating rating = modelMapper.map(dto, ReservationRating.class);
+        ReservationRating rating = reservationRatingMapper.toEntity(dto);
         
         // Set rental relationship
         if (dto.getRentalId() != null) {
@@ -135,5 +208,49 @@ public class ReservationRatingServiceImpl implements ReservationRatingService {
         
         return rating;
     }
-}
 
+    private void refreshCarRating(Long carId) {
+        if (!aggregateReady || carId == null) {
+            return;
+        }
+        // Re-read the car's totals after commit so a rolled back rating never reaches the aggregate
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reloadCarRating(carId);
+                }
+            });
+        } else {
+            reloadCarRating(carId);
+        }
+    }
+
+    private void reloadCarRating(Long carId) {
+        List<Object[]> rows = reservationRatingRepository.getCarRatingTotals(Collections.singletonList(carId));
+        if (rows.isEmpty()) {
+            ratingTotals.remove(carId);
+        } else {
+            ratingTotals.put(carId, RatingTotals.of(rows.get(0)));
+        }
+    }
+
+    private static final class RatingTotals {
+        private final long sum;
+        private final long count;
+
+        private RatingTotals(long sum, long count) {
+            this.sum = sum;
+            this.count = count;
+        }
+
+        // Rows are (carId, ratingSum, ratingCount)
+        static RatingTotals of(Object[] row) {
+            return new RatingTotals(((Number) row[1]).longValue(), ((Number) row[2]).longValue());
+        }
+
+        double average() {
+            return count == 0 ? 0.0 : (double) sum / count;
+        }
+    }
+}
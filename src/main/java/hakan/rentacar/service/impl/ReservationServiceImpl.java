@@ -1,17 +1,26 @@
 package hakan.rentacar.service.impl;
 
 import hakan.rentacar.entities.concretes.*;
+import hakan.rentacar.entities.dtos.AvailableCarDto;
+import hakan.rentacar.entities.dtos.KeysetCursor;
+import hakan.rentacar.entities.dtos.KeysetPageDto;
 import hakan.rentacar.entities.dtos.ReservationDto;
 import hakan.rentacar.entities.dtos.NotificationDto;
+import hakan.rentacar.mappers.ReservationMapper;
 import hakan.rentacar.repostories.*;
 import hakan.rentacar.service.ReservationService;
+import hakan.rentacar.service.AvailabilityIndexService;
+import hakan.rentacar.service.BookingLockService;
 import hakan.rentacar.service.NotificationService;
 import hakan.rentacar.service.EmailService;
+import hakan.rentacar.service.RentalChangedEvent;
 import hakan.rentacar.audit.Auditable;
 import hakan.rentacar.entities.concretes.AuditLog;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.annotation.Propagation;
@@ -39,14 +48,25 @@ public class ReservationServiceImpl implements ReservationService {
     private RentalRepository rentalRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private ReservationMapper reservationMapper;
 
     @Autowired
     private NotificationService notificationService;
 
     @Autowired
     private EmailService emailService;
+
+    @Autowired
+    private AvailabilityIndexService availabilityIndexService;
+
+    @Autowired
+    private BookingLockService bookingLockService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
     
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+
     @Autowired
     @Lazy
     private ReservationServiceImpl self;
@@ -59,6 +79,20 @@ public class ReservationServiceImpl implements ReservationService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public KeysetPageDto<ReservationDto> getPage(String cursor, int size) {
+        KeysetCursor after = KeysetCursor.parse(cursor);
+        int pageSize = KeysetCursor.pageSize(size);
+        // Fetch one extra row to know whether another page exists
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<Reservation> reservations = after == null
+                ? reservationRepository.findKeysetFirstPage(limit)
+                : reservationRepository.findKeysetPageAfter(after.positionAsDate(), after.getId(), limit);
+        return KeysetPageDto.fromRows(reservations, pageSize,
+                rows -> rows.stream().map(this::mapToDto).collect(Collectors.toList()),
+                reservation -> KeysetCursor.of(reservation.getCreatedDate(), reservation.getId()));
+    }
+
     @Override
     public ReservationDto getById(Long id) {
         Reservation reservation = reservationRepository.findById(id).orElseThrow();
@@ -93,8 +127,9 @@ public class ReservationServiceImpl implements ReservationService {
     @Transactional
     @Auditable(entity = "Reservation", action = AuditLog.ActionType.CREATE, description = "Create new reservation")
     public ReservationDto create(ReservationDto reservationDto) {
-        // Check if car is available
-        if (!isCarAvailable(reservationDto.getCarId(), reservationDto.getStartDate(), reservationDto.getEndDate())) {
+        // Serialize bookings of this car until commit, then check availability against the database
+        bookingLockService.lockCarForBooking(reservationDto.getCarId());
+        if (hasConflictingBookings(reservationDto.getCarId(), reservationDto.getStartDate(), reservationDto.getEndDate())) {
             throw new RuntimeException("Car is not available for the selected dates");
         }
 
@@ -107,7 +142,14 @@ public class ReservationServiceImpl implements ReservationService {
         BigDecimal dailyPrice = BigDecimal.valueOf(car.getDailyPrice());
         reservation.setTotalAmount(dailyPrice.multiply(BigDecimal.valueOf(daysCount + 1)));
 
-        Reservation savedReservation = reservationRepository.save(reservation);
+        Reservation savedReservation;
+        try {
+            savedReservation = reservationRepository.saveAndFlush(reservation);
+        } catch (DataIntegrityViolationException e) {
+            // Overlap rejected by the reservations exclusion constraint
+            throw new RuntimeException("Car is not available for the selected dates");
+        }
+        availabilityIndexService.refreshCar(car.getId());
         System.out.println("=== CREATED RESERVATION ID: " + savedReservation.getId() + " ===");
         
         // Send notification and email after successful creation
@@ -153,13 +195,18 @@ public class ReservationServiceImpl implements ReservationService {
         existingReservation.setNote(reservationDto.getNote());
 
         Reservation savedReservation = reservationRepository.save(existingReservation);
+        availabilityIndexService.refreshCar(savedReservation.getCar().getId());
         return mapToDto(savedReservation);
     }
 
     @Override
     @Auditable(entity = "Reservation", action = AuditLog.ActionType.DELETE, description = "Delete reservation")
     public void delete(Long id) {
+        Long carId = reservationRepository.findById(id)
+                .map(reservation -> reservation.getCar().getId())
+                .orElse(null);
         reservationRepository.deleteById(id);
+        availabilityIndexService.refreshCar(carId);
     }
 
     @Override
@@ -171,6 +218,12 @@ public class ReservationServiceImpl implements ReservationService {
         Reservation reservation = reservationRepository.findById(reservationId).orElseThrow(() -> new RuntimeException("Reservation not found: " + reservationId));
         
         System.out.println("Found reservation: " + reservation.getId() + ", Status: " + reservation.getStatus());
+
+        // The rental is a booking of the car like any other: serialize it per car until commit
+        bookingLockService.lockCarForBooking(reservation.getCar().getId());
+        if (!rentalRepository.findConflictingRentals(reservation.getCar().getId(), reservation.getStartDate(), reservation.getEndDate()).isEmpty()) {
+            throw new RuntimeException("Car is not available for the selected dates");
+        }
         
         reservation.setStatus(Reservation.ReservationStatus.CONFIRMED);
         reservation.setConfirmedAt(LocalDateTime.now());
@@ -199,7 +252,15 @@ public class ReservationServiceImpl implements ReservationService {
                 .confirmedAt(reservation.getConfirmedAt())
                 .build();
         
-        Rental savedRental = rentalRepository.save(rental);
+        Rental savedRental;
+        try {
+            savedRental = rentalRepository.saveAndFlush(rental);
+        } catch (DataIntegrityViolationException e) {
+            // Overlap rejected by the rentals exclusion constraint
+            throw new RuntimeException("Car is not available for the selected dates");
+        }
+        eventPublisher.publishEvent(new RentalChangedEvent(savedRental.getId(), reservation.getCar().getId(),
+                reservation.getCustomer().getId(), reservation.getStartDate()));
         System.out.println("Rental created with ID: " + savedRental.getId());
         
         // Update car state to Rented (2)
@@ -252,6 +313,7 @@ public class ReservationServiceImpl implements ReservationService {
         reservation.setCancelledAt(LocalDateTime.now());
         
         Reservation savedReservation = reservationRepository.save(reservation);
+        availabilityIndexService.refreshCar(reservation.getCar().getId());
         
         // If reservation was previously confirmed, update car state back to available
         if (wasConfirmed) {
@@ -266,6 +328,10 @@ public class ReservationServiceImpl implements ReservationService {
             if (!relatedRentals.isEmpty()) {
                 // Delete the rental record since reservation is cancelled
                 rentalRepository.deleteAll(relatedRentals);
+                for (Rental rental : relatedRentals) {
+                    eventPublisher.publishEvent(new RentalChangedEvent(rental.getId(), reservation.getCar().getId(),
+                            reservation.getCustomer().getId(), reservation.getStartDate()));
+                }
             }
             
             // Update car state back to Available (1)
@@ -303,11 +369,10 @@ public class ReservationServiceImpl implements ReservationService {
 
     @Override
     public List<ReservationDto> getAvailableCars(LocalDate startDate, LocalDate endDate) {
-        // This would require a more complex query to find cars not booked in the date range
-        // For now, return all cars (simplified implementation)
-        List<Car> allCars = carRepository.findAll();
+        // Booked ranges come from the in-memory availability index, no per-car queries
+        List<Car> allCars = carRepository.findAllWithModelAndBrand();
         return allCars.stream()
-                .filter(car -> isCarAvailable(car.getId(), startDate, endDate))
+                .filter(car -> availabilityIndexService.isCarAvailable(car.getId(), startDate, endDate))
                 .map(car -> {
                     ReservationDto dto = new ReservationDto();
                     dto.setCarId(car.getId());
@@ -321,85 +386,60 @@ public class ReservationServiceImpl implements ReservationService {
 
     @Override
     public boolean isCarAvailable(Long carId, LocalDate startDate, LocalDate endDate) {
+        return availabilityIndexService.isCarAvailable(carId, startDate, endDate);
+    }
+
+    @Override
+    public KeysetPageDto<AvailableCarDto> searchAvailableCars(LocalDate startDate, LocalDate endDate, String segment,
+                                                              String fuelType, String transmission, Long brandId,
+                                                              String cursor, int size) {
+        if (startDate == null || endDate == null || endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("End date must be after start date");
+        }
+        Long afterId = KeysetCursor.parseId(cursor);
+        int pageSize = Math.max(1, Math.min(size, MAX_SEARCH_PAGE_SIZE));
+
+        // Fetch one extra row to know whether another page exists
+        List<Object[]> rows = carRepository.findAvailableCarsPage(startDate, endDate,
+                blankToNull(segment), blankToNull(fuelType), blankToNull(transmission), brandId,
+                afterId != null ? afterId : 0L, pageSize + 1);
+
+        return KeysetPageDto.fromRows(rows, pageSize,
+                pageRows -> pageRows.stream().map(row -> new AvailableCarDto(
+                        ((Number) row[0]).longValue(),
+                        (String) row[1],
+                        (String) row[2],
+                        (String) row[3],
+                        row[4] != null ? ((Number) row[4]).doubleValue() : null,
+                        (String) row[5],
+                        (String) row[6],
+                        (String) row[7]
+                )).collect(Collectors.toList()),
+                row -> KeysetCursor.ofId(((Number) row[0]).longValue()));
+    }
+
+    private String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private boolean hasConflictingBookings(Long carId, LocalDate startDate, LocalDate endDate) {
         // Check reservations
         List<Reservation> conflictingReservations = reservationRepository.findByCarIdAndDateRange(carId, startDate, endDate);
         if (!conflictingReservations.isEmpty()) {
-            return false;
+            return true;
         }
 
         // Check existing rentals
         List<Rental> conflictingRentals = rentalRepository.findConflictingRentals(carId, startDate, endDate);
-        return conflictingRentals.isEmpty();
+        return !conflictingRentals.isEmpty();
     }
 
     private ReservationDto mapToDto(Reservation reservation) {
-        try {
-            ReservationDto dto = modelMapper.map(reservation, ReservationDto.class);
-            
-            // Set customer name manually
-            if (reservation.getCustomer() != null) {
-                dto.setCustomerName(reservation.getCustomer().getFirstName() + " " + reservation.getCustomer().getLastName());
-            }
-            
-            // Set car information manually
-            if (reservation.getCar() != null) {
-                dto.setCarPlate(reservation.getCar().getPlate());
-                if (reservation.getCar().getModel() != null) {
-                    dto.setCarBrandName(reservation.getCar().getModel().getBrand().getName());
-                    dto.setCarModelName(reservation.getCar().getModel().getName());
-                }
-            }
-            
-            // Calculate days count
-            if (reservation.getStartDate() != null && reservation.getEndDate() != null) {
-                dto.setDaysCount(ChronoUnit.DAYS.between(reservation.getStartDate(), reservation.getEndDate()));
-            }
-            
-            return dto;
-        } catch (Exception e) {
-            // Fallback to manual mapping if ModelMapper fails
-            return mapToDtoManually(reservation);
-        }
-    }
-    
-    private ReservationDto mapToDtoManually(Reservation reservation) {
-        ReservationDto dto = new ReservationDto();
-        dto.setId(reservation.getId());
-        dto.setCustomerId(reservation.getCustomer() != null ? reservation.getCustomer().getId() : null);
-        dto.setCarId(reservation.getCar() != null ? reservation.getCar().getId() : null);
-        dto.setStartDate(reservation.getStartDate());
-        dto.setEndDate(reservation.getEndDate());
-        dto.setStatus(reservation.getStatus());
-        dto.setTotalAmount(reservation.getTotalAmount());
-        dto.setSpecialRequests(reservation.getSpecialRequests());
-        dto.setNote(reservation.getNote());
-        dto.setConfirmedAt(reservation.getConfirmedAt());
-        dto.setCancelledAt(reservation.getCancelledAt());
-        
-        // Set customer name
-        if (reservation.getCustomer() != null) {
-            dto.setCustomerName(reservation.getCustomer().getFirstName() + " " + reservation.getCustomer().getLastName());
-        }
-        
-        // Set car information
-        if (reservation.getCar() != null) {
-            dto.setCarPlate(reservation.getCar().getPlate());
-            if (reservation.getCar().getModel() != null) {
-                dto.setCarBrandName(reservation.getCar().getModel().getBrand().getName());
-                dto.setCarModelName(reservation.getCar().getModel().getName());
-            }
-        }
-        
-        // Calculate days count
-        if (reservation.getStartDate() != null && reservation.getEndDate() != null) {
-            dto.setDaysCount(ChronoUnit.DAYS.between(reservation.getStartDate(), reservation.getEndDate()));
-        }
-        
-        return dto;
+        return reservationMapper.toDto(reservation);
     }
 
     private Reservation mapToEntity(ReservationDto dto) {
-        Reservation reservation = modelMapper.map(dto, Reservation.class);
+        Reservation reservation = reservationMapper.toEntity(dto);
         
         if (dto.getCustomerId() != null) {
             Customer customer = customerRepository.findById(dto.getCustomerId()).orElseThrow();
@@ -0,0 +1,607 @@
+package hakan.rentacar.service.impl;
+
+import hakan.rentacar.entities.concretes.CustomerRentalStats;
+import hakan.rentacar.entities.dtos.CubeResultDto;
+import hakan.rentacar.entities.dtos.CubeRowDto;
+import hakan.rentacar.repostories.RentalRepository;
+import hakan.rentacar.service.RevenueCubeService;
+import hakan.rentacar.service.RentalChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory columnar revenue cube with one row per rental, attributed to the rental start day.
+ * Text dimensions are dictionary-encoded into int columns and measures are long columns
+ * (revenue in cents, rental days); a query is a parallel scan over fixed-size row chunks.
+ * Rows of a car are replaced after its rental writes commit; replaced rows are tombstoned
+ * and compacted away once they pile up.
+ */
+@Service
+public class RevenueCubeServiceImpl implements RevenueCubeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevenueCubeServiceImpl.class);
+
+    private static final int CHUNK_ROWS = 1 << 16;
+    private static final int CODE_BITS = 21;
+    private static final int MAX_CODE = (1 << CODE_BITS) - 1;
+    private static final int MAX_GROUP_BY = 3;
+    private static final int DEFAULT_ROW_LIMIT = 1000;
+    private static final String UNKNOWN = "Diğer";
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Cube cube = new Cube(0); // Guarded by lock
+    private volatile boolean ready = false;
+
+    enum Dimension {
+        YEAR, QUARTER, MONTH, DAY, BRAND, MODEL, SEGMENT, CITY, CAR, CUSTOMER_SEGMENT;
+
+        // Accepts "customerSegment", "customer_segment" and "customer-segment"
+        static Dimension parse(String name) {
+            String normalized = name.trim().replace("_", "").replace("-", "");
+            for (Dimension dimension : values()) {
+                if (dimension.name().replace("_", "").equalsIgnoreCase(normalized)) {
+                    return dimension;
+                }
+            }
+            throw new IllegalArgumentException("Unknown cube dimension: " + name);
+        }
+
+        String key() {
+            String[] parts = name().toLowerCase(Locale.ROOT).split("_");
+            StringBuilder key = new StringBuilder(parts[0]);
+            for (int i = 1; i < parts.length; i++) {
+                key.append(Character.toUpperCase(parts[i].charAt(0))).append(parts[i].substring(1));
+            }
+            return key.toString();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            logger.error("Revenue cube could not be loaded: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    @Scheduled(cron = "0 15 4 * * *") // Run every day at 4:15 AM
+    public void rebuild() {
+        long startTime = System.currentTimeMillis();
+        List<Object[]> rows = rentalRepository.findCubeRows();
+        Cube fresh = new Cube(rows.size());
+        for (Object[] row : rows) {
+            fresh.append(row);
+        }
+
+        lock.writeLock().lock();
+        try {
+            cube = fresh;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Revenue cube built with {} rows in {} ms", fresh.size, System.currentTimeMillis() - startTime);
+    }
+
+    @Override
+    public void refreshCar(Long carId) {
+        if (carId == null) {
+            return;
+        }
+        // Reload only after the writing transaction commits
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reloadCar(carId);
+                }
+            });
+        } else {
+            reloadCar(carId);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onRentalChanged(RentalChangedEvent event) {
+        reloadCar(event.getCarId());
+    }
+
+    @Override
+    public List<String> getDimensions() {
+        List<String> dimensions = new ArrayList<>();
+        for (Dimension dimension : Dimension.values()) {
+            dimensions.add(dimension.key());
+        }
+        return dimensions;
+    }
+
+    @Override
+    public CubeResultDto query(List<String> groupBy, List<String> filters, LocalDate startDate, LocalDate endDate, Integer limit) {
+        long startTime = System.currentTimeMillis();
+        Dimension[] groupDimensions = parseGroupBy(groupBy);
+        Map<Dimension, List<String>> filterValues = parseFilters(filters);
+        int fromDay = startDate != null ? (int) startDate.toEpochDay() : Integer.MIN_VALUE;
+        int toDay = endDate != null ? (int) endDate.toEpochDay() : Integer.MAX_VALUE;
+        int rowLimit = limit != null && limit > 0 ? limit : DEFAULT_ROW_LIMIT;
+
+        if (!ready) {
+            rebuild();
+        }
+
+        lock.readLock().lock();
+        try {
+            Cube current = cube;
+            int[] customerSegments = current.customerSegments();
+
+            Dimension[] filterDimensions = filterValues.keySet().toArray(new Dimension[0]);
+            BitSet[] filterCodes = new BitSet[filterDimensions.length];
+            for (int f = 0; f < filterDimensions.length; f++) {
+                filterCodes[f] = current.codesOf(filterDimensions[f], filterValues.get(filterDimensions[f]));
+            }
+
+            // Each chunk is scanned into its own map, then the partial maps are merged
+            int chunks = (current.size + CHUNK_ROWS - 1) / CHUNK_ROWS;
+            Map<Long, long[]> groups = IntStream.range(0, chunks).parallel()
+                    .mapToObj(chunk -> current.scan(chunk * CHUNK_ROWS, Math.min(current.size, (chunk + 1) * CHUNK_ROWS),
+                            groupDimensions, filterDimensions, filterCodes, fromDay, toDay, customerSegments))
+                    .reduce(RevenueCubeServiceImpl::merge)
+                    .orElseGet(HashMap::new);
+
+            long totalCents = 0;
+            long totalDays = 0;
+            long totalRentals = 0;
+            List<Map.Entry<Long, long[]>> entries = new ArrayList<>(groups.entrySet());
+            for (Map.Entry<Long, long[]> entry : entries) {
+                totalCents += entry.getValue()[0];
+                totalDays += entry.getValue()[1];
+                totalRentals += entry.getValue()[2];
+            }
+            entries.sort((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+
+            List<CubeRowDto> rows = new ArrayList<>(Math.min(rowLimit, entries.size()));
+            for (Map.Entry<Long, long[]> entry : entries.subList(0, Math.min(rowLimit, entries.size()))) {
+                rows.add(CubeRowDto.builder()
+                        .keys(current.decode(entry.getKey(), groupDimensions))
+                        .revenue(BigDecimal.valueOf(entry.getValue()[0], 2))
+                        .rentalDays(entry.getValue()[1])
+                        .rentalCount(entry.getValue()[2])
+                        .build());
+            }
+
+            Map<String, List<String>> appliedFilters = new LinkedHashMap<>();
+            filterValues.forEach((dimension, values) -> appliedFilters.put(dimension.key(), values));
+
+            return CubeResultDto.builder()
+                    .groupBy(Arrays.stream(groupDimensions).map(Dimension::key).toList())
+                    .filters(appliedFilters)
+                    .rows(rows)
+                    .groupCount(entries.size())
+                    .totalRevenue(BigDecimal.valueOf(totalCents, 2))
+                    .totalRentalDays(totalDays)
+                    .totalRentals(totalRentals)
+                    .scannedRows((long) current.size)
+                    .elapsedMs(System.currentTimeMillis() - startTime)
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void reloadCar(Long carId) {
+        List<Object[]> rows = rentalRepository.findCubeRowsByCarId(carId);
+
+        lock.writeLock().lock();
+        try {
+            cube.removeCar(carId);
+            for (Object[] row : rows) {
+                cube.append(row);
+            }
+            if (cube.needsCompaction()) {
+                cube.compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static Dimension[] parseGroupBy(List<String> groupBy) {
+        if (groupBy == null || groupBy.isEmpty()) {
+            return new Dimension[0];
+        }
+        if (groupBy.size() > MAX_GROUP_BY) {
+            throw new IllegalArgumentException("At most " + MAX_GROUP_BY + " group-by dimensions are supported");
+        }
+        Dimension[] dimensions = new Dimension[groupBy.size()];
+        for (int i = 0; i < dimensions.length; i++) {
+            dimensions[i] = Dimension.parse(groupBy.get(i));
+        }
+        return dimensions;
+    }
+
+    // "brand:BMW|Audi" -> BRAND = [BMW, Audi]
+    private static Map<Dimension, List<String>> parseFilters(List<String> filters) {
+        Map<Dimension, List<String>> result = new EnumMap<>(Dimension.class);
+        if (filters == null) {
+            return result;
+        }
+        for (String filter : filters) {
+            int separator = filter.indexOf(':');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Filter must be dimension:value, got " + filter);
+            }
+            Dimension dimension = Dimension.parse(filter.substring(0, separator));
+            List<String> values = result.computeIfAbsent(dimension, d -> new ArrayList<>());
+            for (String value : filter.substring(separator + 1).split("\\|")) {
+                if (!value.isBlank()) {
+                    values.add(value.trim());
+                }
+            }
+        }
+        return result;
+    }
+
+    private static Map<Long, long[]> merge(Map<Long, long[]> target, Map<Long, long[]> source) {
+        source.forEach((key, measures) -> {
+            long[] existing = target.get(key);
+            if (existing == null) {
+                target.put(key, measures);
+            } else {
+                existing[0] += measures[0];
+                existing[1] += measures[1];
+                existing[2] += measures[2];
+            }
+        });
+        return target;
+    }
+
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int encode(String value) {
+            String key = value != null ? value : UNKNOWN;
+            Integer code = codes.get(key);
+            if (code == null) {
+                code = values.size();
+                codes.put(key, code);
+                values.add(key);
+            }
+            return code;
+        }
+
+        int codeOf(String value) {
+            Integer code = codes.get(value);
+            return code != null ? code : -1;
+        }
+
+        String value(int code) {
+            return values.get(code);
+        }
+    }
+
+    /**
+     * Column store guarded by the service lock. Row i of every column describes one rental;
+     * live[i] is cleared when the row is replaced. Customer totals are kept per customer code
+     * so the customer segment dimension is derived at query time.
+     */
+    private static final class Cube {
+        private int size;
+        private int deadRows;
+        private long[] rentalIdCol;
+        private long[] carIdCol;
+        private int[] dayCol;
+        private int[] monthCol; // year * 12 + month - 1
+        private int[] brandCol;
+        private int[] modelCol;
+        private int[] segmentCol;
+        private int[] cityCol;
+        private int[] carCol;
+        private int[] customerCol;
+        private long[] revenueCentsCol;
+        private long[] rentalDaysCol;
+        private boolean[] live;
+
+        private final Dictionary brands = new Dictionary();
+        private final Dictionary models = new Dictionary();
+        private final Dictionary segments = new Dictionary();
+        private final Dictionary cities = new Dictionary();
+        private final Dictionary plates = new Dictionary();
+        private final Map<Long, Integer> customerCodes = new HashMap<>();
+        private long[] customerRentals = new long[16];
+        private long[] customerRevenueCents = new long[16];
+        private final Map<Long, List<Integer>> rowsByCar = new HashMap<>();
+
+        Cube(int capacity) {
+            allocate(Math.max(16, capacity));
+        }
+
+        // Row is (id, carId, customerId, start, end, extraCosts, dailyPrice, brand, model, segment, city, plate)
+        void append(Object[] row) {
+            if (size == live.length) {
+                allocate(live.length * 2);
+            }
+            LocalDate start = (LocalDate) row[3];
+            LocalDate end = (LocalDate) row[4];
+            long days = ChronoUnit.DAYS.between(start, end) + 1;
+            long extraCosts = row[5] != null ? ((Number) row[5]).longValue() : 0;
+            double dailyPrice = row[6] != null ? ((Number) row[6]).doubleValue() : 0;
+            long revenueCents = Math.round((dailyPrice * days + extraCosts) * 100);
+            Long carId = ((Number) row[1]).longValue();
+            int customer = customerCode(((Number) row[2]).longValue());
+
+            int i = size++;
+            rentalIdCol[i] = ((Number) row[0]).longValue();
+            carIdCol[i] = carId;
+            dayCol[i] = (int) start.toEpochDay();
+            monthCol[i] = start.getYear() * 12 + start.getMonthValue() - 1;
+            brandCol[i] = brands.encode((String) row[7]);
+            modelCol[i] = models.encode((String) row[8]);
+            segmentCol[i] = segments.encode((String) row[9]);
+            cityCol[i] = cities.encode((String) row[10]);
+            carCol[i] = plates.encode((String) row[11]);
+            customerCol[i] = customer;
+            revenueCentsCol[i] = revenueCents;
+            rentalDaysCol[i] = days;
+            live[i] = true;
+
+            customerRentals[customer]++;
+            customerRevenueCents[customer] += revenueCents;
+            rowsByCar.computeIfAbsent(carId, id -> new ArrayList<>()).add(i);
+        }
+
+        void removeCar(Long carId) {
+            List<Integer> rows = rowsByCar.remove(carId);
+            if (rows == null) {
+                return;
+            }
+            for (int i : rows) {
+                if (live[i]) {
+                    live[i] = false;
+                    deadRows++;
+                    customerRentals[customerCol[i]]--;
+                    customerRevenueCents[customerCol[i]] -= revenueCentsCol[i];
+                }
+            }
+        }
+
+        boolean needsCompaction() {
+            return deadRows > CHUNK_ROWS && deadRows > size / 4;
+        }
+
+        // Moves live rows to the front; dictionaries and customer totals are unchanged
+        void compact() {
+            rowsByCar.clear();
+            int j = 0;
+            for (int i = 0; i < size; i++) {
+                if (!live[i]) {
+                    continue;
+                }
+                if (i != j) {
+                    rentalIdCol[j] = rentalIdCol[i];
+                    carIdCol[j] = carIdCol[i];
+                    dayCol[j] = dayCol[i];
+                    monthCol[j] = monthCol[i];
+                    brandCol[j] = brandCol[i];
+                    modelCol[j] = modelCol[i];
+                    segmentCol[j] = segmentCol[i];
+                    cityCol[j] = cityCol[i];
+                    carCol[j] = carCol[i];
+                    customerCol[j] = customerCol[i];
+                    revenueCentsCol[j] = revenueCentsCol[i];
+                    rentalDaysCol[j] = rentalDaysCol[i];
+                    live[j] = true;
+                }
+                rowsByCar.computeIfAbsent(carIdCol[j], id -> new ArrayList<>()).add(j);
+                j++;
+            }
+            Arrays.fill(live, j, size, false);
+            size = j;
+            deadRows = 0;
+        }
+
+        Map<Long, long[]> scan(int from, int to, Dimension[] groupBy, Dimension[] filterDimensions, BitSet[] filterCodes,
+                               int fromDay, int toDay, int[] customerSegments) {
+            Map<Long, long[]> groups = new HashMap<>();
+            rows:
+            for (int i = from; i < to; i++) {
+                if (!live[i] || dayCol[i] < fromDay || dayCol[i] > toDay) {
+                    continue;
+                }
+                for (int f = 0; f < filterDimensions.length; f++) {
+                    if (!filterCodes[f].get(code(filterDimensions[f], i, customerSegments))) {
+                        continue rows;
+                    }
+                }
+                long key = 0;
+                for (Dimension dimension : groupBy) {
+                    key = (key << CODE_BITS) | code(dimension, i, customerSegments);
+                }
+                long[] measures = groups.computeIfAbsent(key, k -> new long[3]);
+                measures[0] += revenueCentsCol[i];
+                measures[1] += rentalDaysCol[i];
+                measures[2]++;
+            }
+            return groups;
+        }
+
+        private int code(Dimension dimension, int row, int[] customerSegments) {
+            switch (dimension) {
+                case YEAR:
+                    return monthCol[row] / 12;
+                case QUARTER:
+                    return (monthCol[row] / 12) * 4 + (monthCol[row] % 12) / 3;
+                case MONTH:
+                    return monthCol[row];
+                case DAY:
+                    return dayCol[row];
+                case BRAND:
+                    return brandCol[row];
+                case MODEL:
+                    return modelCol[row];
+                case SEGMENT:
+                    return segmentCol[row];
+                case CITY:
+                    return cityCol[row];
+                case CAR:
+                    return carCol[row];
+                case CUSTOMER_SEGMENT:
+                    return customerSegments[customerCol[row]];
+                default:
+                    throw new IllegalArgumentException("Unknown cube dimension: " + dimension);
+            }
+        }
+
+        List<String> decode(long key, Dimension[] groupBy) {
+            String[] labels = new String[groupBy.length];
+            for (int d = groupBy.length - 1; d >= 0; d--) {
+                labels[d] = label(groupBy[d], (int) (key & MAX_CODE));
+                key >>>= CODE_BITS;
+            }
+            return Arrays.asList(labels);
+        }
+
+        private String label(Dimension dimension, int code) {
+            switch (dimension) {
+                case YEAR:
+                    return String.valueOf(code);
+                case QUARTER:
+                    return (code / 4) + "-Q" + (code % 4 + 1);
+                case MONTH:
+                    return String.format("%d-%02d", code / 12, code % 12 + 1);
+                case DAY:
+                    return LocalDate.ofEpochDay(code).toString();
+                case BRAND:
+                    return brands.value(code);
+                case MODEL:
+                    return models.value(code);
+                case SEGMENT:
+                    return segments.value(code);
+                case CITY:
+                    return cities.value(code);
+                case CAR:
+                    return plates.value(code);
+                case CUSTOMER_SEGMENT:
+                    return CustomerRentalStats.Segment.values()[code].name();
+                default:
+                    throw new IllegalArgumentException("Unknown cube dimension: " + dimension);
+            }
+        }
+
+        // Filter labels ("2024", "2024-Q1", "2024-03", "2024-03-05", "BMW", "VIP") to dimension codes
+        BitSet codesOf(Dimension dimension, List<String> labels) {
+            BitSet codes = new BitSet();
+            for (String label : labels) {
+                int code;
+                try {
+                    switch (dimension) {
+                        case YEAR:
+                            code = Integer.parseInt(label);
+                            break;
+                        case QUARTER:
+                            String[] parts = label.toUpperCase(Locale.ROOT).split("-Q");
+                            code = Integer.parseInt(parts[0]) * 4 + Integer.parseInt(parts[1]) - 1;
+                            break;
+                        case MONTH:
+                            YearMonth month = YearMonth.parse(label);
+                            code = month.getYear() * 12 + month.getMonthValue() - 1;
+                            break;
+                        case DAY:
+                            code = (int) LocalDate.parse(label).toEpochDay();
+                            break;
+                        case BRAND:
+                            code = brands.codeOf(label);
+                            break;
+                        case MODEL:
+                            code = models.codeOf(label);
+                            break;
+                        case SEGMENT:
+                            code = segments.codeOf(label);
+                            break;
+                        case CITY:
+                            code = cities.codeOf(label);
+                            break;
+                        case CAR:
+                            code = plates.codeOf(label);
+                            break;
+                        case CUSTOMER_SEGMENT:
+                            code = CustomerRentalStats.Segment.valueOf(label.toUpperCase(Locale.ROOT)).ordinal();
+                            break;
+                        default:
+                            throw new IllegalArgumentException("Unknown cube dimension: " + dimension);
+                    }
+                } catch (RuntimeException e) {
+                    throw new IllegalArgumentException("Invalid " + dimension.key() + " filter value: " + label);
+                }
+                // Unknown dictionary values simply match nothing
+                if (code >= 0 && code <= MAX_CODE) {
+                    codes.set(code);
+                }
+            }
+            return codes;
+        }
+
+        int[] customerSegments() {
+            int[] result = new int[customerCodes.size()];
+            for (int c = 0; c < result.length; c++) {
+                result[c] = customerSegment(customerRentals[c], customerRevenueCents[c]);
+            }
+            return result;
+        }
+
+        // Same thresholds as the customer segmentation report
+        private static int customerSegment(long rentals, long revenueCents) {
+            return CustomerRentalStats.Segment.of(rentals, BigDecimal.valueOf(revenueCents, 2)).ordinal();
+        }
+
+        private int customerCode(long customerId) {
+            Integer code = customerCodes.get(customerId);
+            if (code == null) {
+                code = customerCodes.size();
+                customerCodes.put(customerId, code);
+                if (code == customerRentals.length) {
+                    customerRentals = Arrays.copyOf(customerRentals, code * 2);
+                    customerRevenueCents = Arrays.copyOf(customerRevenueCents, code * 2);
+                }
+            }
+            return code;
+        }
+
+        private void allocate(int capacity) {
+            rentalIdCol = rentalIdCol == null ? new long[capacity] : Arrays.copyOf(rentalIdCol, capacity);
+            carIdCol = carIdCol == null ? new long[capacity] : Arrays.copyOf(carIdCol, capacity);
+            dayCol = dayCol == null ? new int[capacity] : Arrays.copyOf(dayCol, capacity);
+            monthCol = monthCol == null ? new int[capacity] : Arrays.copyOf(monthCol, capacity);
+            brandCol = brandCol == null ? new int[capacity] : Arrays.copyOf(brandCol, capacity);
+            modelCol = modelCol == null ? new int[capacity] : Arrays.copyOf(modelCol, capacity);
+            segmentCol = segmentCol == null ? new int[capacity] : Arrays.copyOf(segmentCol, capacity);
+            cityCol = cityCol == null ? new int[capacity] : Arrays.copyOf(cityCol, capacity);
+            carCol = carCol == null ? new int[capacity] : Arrays.copyOf(carCol, capacity);
+            customerCol = customerCol == null ? new int[capacity] : Arrays.copyOf(customerCol, capacity);
+            revenueCentsCol = revenueCentsCol == null ? new long[capacity] : Arrays.copyOf(revenueCentsCol, capacity);
+            rentalDaysCol = rentalDaysCol == null ? new long[capacity] : Arrays.copyOf(rentalDaysCol, capacity);
+            live = live == null ? new boolean[capacity] : Arrays.copyOf(live, capacity);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package hakan.rentacar.service.impl;
+
+import hakan.rentacar.repostories.RentalRepository;
+import hakan.rentacar.repostories.RevenueRollupRepository;
+import hakan.rentacar.service.RevenueRollupService;
+import hakan.rentacar.service.RentalChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+
+/**
+ * Maintains revenue_daily_rollup, the per (start day, car, model, brand) revenue table
+ * that analytics reads instead of joining the whole rental history.
+ * Writers recompute only the (car, day) keys they touched, inside their own transaction,
+ * so a rolled back booking never reaches the rollup.
+ */
+@Service
+public class RevenueRollupServiceImpl implements RevenueRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevenueRollupServiceImpl.class);
+
+    @Autowired
+    private RevenueRollupRepository revenueRollupRepository;
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    // Startup backfill goes through the proxy so rebuild runs in a transaction
+    @Autowired
+    @Lazy
+    private RevenueRollupServiceImpl self;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        try {
+            // Existing installations start with an empty table; fill it once
+            if (self.isEmpty() && rentalRepository.count() > 0) {
+                self.rebuild();
+            }
+        } catch (Exception e) {
+            logger.error("Revenue rollup could not be backfilled: {}", e.getMessage());
+        }
+    }
+
+    // Runs after the rental write commits, in its own transaction
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onRentalChanged(RentalChangedEvent event) {
+        refreshCarDay(event.getCarId(), event.getDay());
+    }
+
+    @Override
+    @Transactional
+    public void refreshCarDay(Long carId, LocalDate day) {
+        if (carId == null || day == null) {
+            return;
+        }
+        // Pending rental changes of this transaction must be visible to the recompute
+        rentalRepository.flush();
+        revenueRollupRepository.deleteCarDay(carId, day);
+        revenueRollupRepository.insertCarDay(carId, day);
+    }
+
+    @Override
+    @Transactional
+    public void refreshCar(Long carId) {
+        if (carId == null) {
+            return;
+        }
+        rentalRepository.flush();
+        revenueRollupRepository.deleteCar(carId);
+        revenueRollupRepository.insertCar(carId);
+    }
+
+    @Override
+    @Transactional
+    public int rebuild() {
+        long startTime = System.currentTimeMillis();
+        revenueRollupRepository.deleteAllRows();
+        int rows = revenueRollupRepository.insertAll();
+        logger.info("Revenue rollup rebuilt with {} rows in {} ms", rows, System.currentTimeMillis() - startTime);
+        return rows;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isEmpty() {
+        return revenueRollupRepository.count() == 0;
+    }
+}
@@ -0,0 +1,93 @@
+package hakan.rentacar.service.impl;
+
+/**
+ * Streaming trend state over consecutive daily revenue buckets (in cents).
+ * Every window is a running sum over one ring buffer of primitive longs, so pushing a day is O(1)
+ * no matter how long the series is; missing days must be pushed as zero.
+ */
+final class RevenueTrendWindow {
+
+    static final int SHORT_WINDOW = 7;
+    static final int LONG_WINDOW = 30;
+    // 52 weeks keeps the weekday aligned for the year-over-year comparison
+    static final int YEAR_LAG = 364;
+    // History needed before the first reported day for every figure to be defined
+    static final int WARMUP_DAYS = YEAR_LAG + SHORT_WINDOW - 1;
+
+    private static final int RING_SIZE = YEAR_LAG + SHORT_WINDOW + 1;
+
+    private final long[] ring = new long[RING_SIZE];
+    private final double alpha;
+    private long count;
+
+    private long sum7;          // last 7 days
+    private long sumPrev7;      // the 7 days before those
+    private long sumYearAgo7;   // the same 7 days 52 weeks earlier
+    private long sum30;
+    private double sumSquares30;
+    private double ewma;
+    private double zScore;
+
+    RevenueTrendWindow(double alpha) {
+        this.alpha = alpha;
+    }
+
+    void push(long valueCents) {
+        // Anomaly baseline is the previous LONG_WINDOW days, today excluded
+        long baselineDays = Math.min(count, LONG_WINDOW);
+        zScore = 0;
+        if (baselineDays >= SHORT_WINDOW) {
+            double mean = (double) sum30 / baselineDays;
+            double variance = sumSquares30 / baselineDays - mean * mean;
+            if (variance > 0) {
+                zScore = (valueCents - mean) / Math.sqrt(variance);
+            }
+        }
+
+        ring[(int) (count % RING_SIZE)] = valueCents;
+        count++;
+
+        sum7 += valueCents - lag(SHORT_WINDOW);
+        sumPrev7 += lag(SHORT_WINDOW) - lag(2 * SHORT_WINDOW);
+        sumYearAgo7 += lag(YEAR_LAG) - lag(YEAR_LAG + SHORT_WINDOW);
+        long leaving30 = lag(LONG_WINDOW);
+        sum30 += valueCents - leaving30;
+        sumSquares30 += (double) valueCents * valueCents - (double) leaving30 * leaving30;
+
+        ewma = count == 1 ? valueCents : alpha * valueCents + (1 - alpha) * ewma;
+    }
+
+    double movingAverage7() {
+        return (double) sum7 / Math.min(count, SHORT_WINDOW);
+    }
+
+    double movingAverage30() {
+        return (double) sum30 / Math.min(count, LONG_WINDOW);
+    }
+
+    double ewma() {
+        return ewma;
+    }
+
+    // Percent change of the last 7 days against the previous 7, NaN while undefined
+    double weekOverWeek() {
+        return count >= 2 * SHORT_WINDOW ? percentChange(sum7, sumPrev7) : Double.NaN;
+    }
+
+    double yearOverYear() {
+        return count >= YEAR_LAG + SHORT_WINDOW ? percentChange(sum7, sumYearAgo7) : Double.NaN;
+    }
+
+    double zScore() {
+        return zScore;
+    }
+
+    private static double percentChange(long current, long previous) {
+        return previous > 0 ? (current - previous) * 100.0 / previous : Double.NaN;
+    }
+
+    // Value pushed k days before the newest one, 0 before the series started
+    private long lag(int k) {
+        return count > k ? ring[(int) ((count - 1 - k) % RING_SIZE)] : 0;
+    }
+}
@@ -4,7 +4,6 @@ import hakan.rentacar.entities.concretes.Reservation;
 import hakan.rentacar.entities.concretes.Rental;
 import hakan.rentacar.repostories.ReservationRepository;
 import hakan.rentacar.repostories.RentalRepository;
-import hakan.rentacar.service.ContractService;
 import hakan.rentacar.service.NotificationService;
 import hakan.rentacar.service.ScheduledNotificationService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,9 +25,6 @@ public class ScheduledNotificationServiceImpl implements ScheduledNotificationSe
     @Autowired
     private RentalRepository rentalRepository;
 
-    @Autowired
-    private ContractService contractService;
-
     @Override
     @Scheduled(cron = "0 0 9 * * *") // Run every day at 9 AM
     public void processReservationReminders() {
@@ -109,15 +105,4 @@ public class ScheduledNotificationServiceImpl implements ScheduledNotificationSe
             System.err.println("Error processing pending notifications: " + e.getMessage());
         }
     }
-
-    @Override
-    @Scheduled(cron = "0 0 1 * * ?") // Run every day at 1 AM
-    public void processContractExpirations() {
-        try {
-            contractService.markAsExpired();
-            System.out.println("Processed contract expirations");
-        } catch (Exception e) {
-            System.err.println("Error processing contract expirations: " + e.getMessage());
-        }
-    }
 }
@@ -0,0 +1,175 @@
+package hakan.rentacar.service.impl;
+
+/**
+ * Merging t-digest for quantiles of a stream of doubles. Values are buffered and folded into
+ * at most about compression centroids with the arcsine scale function, which keeps centroids small
+ * near the tails: with compression 100 the rank error stays well under 1% around the median and is
+ * tighter still at p90/p99. Digests merge by adding each other's centroids.
+ */
+final class TDigest {
+
+    private final double compression;
+    private final double[] means;
+    private final double[] weights;
+    private int centroids;
+
+    private final double[] bufferValues;
+    private final double[] bufferWeights;
+    private int buffered;
+
+    private double totalWeight;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    TDigest(double compression) {
+        this.compression = compression;
+        int capacity = 2 * (int) Math.ceil(compression);
+        this.means = new double[capacity];
+        this.weights = new double[capacity];
+        this.bufferValues = new double[5 * capacity];
+        this.bufferWeights = new double[5 * capacity];
+    }
+
+    void add(double value) {
+        add(value, 1);
+    }
+
+    void add(TDigest other) {
+        for (int i = 0; i < other.centroids; i++) {
+            add(other.means[i], other.weights[i]);
+        }
+        for (int i = 0; i < other.buffered; i++) {
+            add(other.bufferValues[i], other.bufferWeights[i]);
+        }
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    long count() {
+        return Math.round(totalWeight);
+    }
+
+    double mean() {
+        compress();
+        double sum = 0;
+        for (int i = 0; i < centroids; i++) {
+            sum += means[i] * weights[i];
+        }
+        return totalWeight > 0 ? sum / totalWeight : Double.NaN;
+    }
+
+    double quantile(double q) {
+        compress();
+        if (centroids == 0) {
+            return Double.NaN;
+        }
+        if (centroids == 1) {
+            return means[0];
+        }
+        double index = q * totalWeight;
+        if (index <= 0) {
+            return min;
+        }
+        if (index >= totalWeight) {
+            return max;
+        }
+        // Interpolate between centroid centers; the outer halves run to min and max
+        double weightSoFar = weights[0] / 2;
+        if (index < weightSoFar) {
+            return min + (means[0] - min) * index / weightSoFar;
+        }
+        for (int i = 0; i < centroids - 1; i++) {
+            double gap = (weights[i] + weights[i + 1]) / 2;
+            if (weightSoFar + gap > index) {
+                return means[i] + (means[i + 1] - means[i]) * (index - weightSoFar) / gap;
+            }
+            weightSoFar += gap;
+        }
+        double lastHalf = weights[centroids - 1] / 2;
+        return means[centroids - 1] + (max - means[centroids - 1]) * Math.min(1, (index - weightSoFar) / lastHalf);
+    }
+
+    // Folds the buffer into the centroids; a no-op when nothing is buffered
+    void compress() {
+        if (buffered == 0) {
+            return;
+        }
+        int n = centroids + buffered;
+        double[] sortedMeans = new double[n];
+        double[] sortedWeights = new double[n];
+        System.arraycopy(means, 0, sortedMeans, 0, centroids);
+        System.arraycopy(weights, 0, sortedWeights, 0, centroids);
+        System.arraycopy(bufferValues, 0, sortedMeans, centroids, buffered);
+        System.arraycopy(bufferWeights, 0, sortedWeights, centroids, buffered);
+        sort(sortedMeans, sortedWeights, 0, n - 1);
+
+        double normalizer = compression / (2 * Math.PI);
+        double weightBefore = 0;
+        int last = 0;
+        means[0] = sortedMeans[0];
+        weights[0] = sortedWeights[0];
+        for (int i = 1; i < n; i++) {
+            double proposed = weights[last] + sortedWeights[i];
+            double kLow = normalizer * Math.asin(2 * weightBefore / totalWeight - 1);
+            double kHigh = normalizer * Math.asin(Math.min(1, 2 * (weightBefore + proposed) / totalWeight - 1));
+            if (kHigh - kLow <= 1) {
+                means[last] += (sortedMeans[i] - means[last]) * sortedWeights[i] / proposed;
+                weights[last] = proposed;
+            } else {
+                weightBefore += weights[last];
+                last++;
+                means[last] = sortedMeans[i];
+                weights[last] = sortedWeights[i];
+            }
+        }
+        centroids = last + 1;
+        buffered = 0;
+    }
+
+    private void add(double value, double weight) {
+        if (buffered == bufferValues.length) {
+            compress();
+        }
+        bufferValues[buffered] = value;
+        bufferWeights[buffered] = weight;
+        buffered++;
+        totalWeight += weight;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    // Quicksort of the means with their weights carried along
+    private static void sort(double[] keys, double[] values, int low, int high) {
+        while (low < high) {
+            double pivot = keys[(low + high) >>> 1];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (keys[i] < pivot) {
+                    i++;
+                }
+                while (keys[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    double key = keys[i];
+                    keys[i] = keys[j];
+                    keys[j] = key;
+                    double value = values[i];
+                    values[i] = values[j];
+                    values[j] = value;
+                    i++;
+                    j--;
+                }
+            }
+            // Recurse into the smaller half to bound the stack depth
+            if (j - low < high - i) {
+                sort(keys, values, low, j);
+                low = i;
+            } else {
+                sort(keys, values, i, high);
+                high = j;
+            }
+        }
+    }
+}
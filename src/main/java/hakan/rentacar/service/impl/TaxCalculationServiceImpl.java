@@ -15,6 +15,7 @@ import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.stream.Collectors;
 
 @Service
 public class TaxCalculationServiceImpl implements TaxCalculationService {
@@ -85,54 +86,132 @@ public class TaxCalculationServiceImpl implements TaxCalculationService {
     @Override
     @Transactional
     public void calculateTaxForInvoice(Invoice invoice) {
-        if (invoice.getTaxAmount() == null || invoice.getTaxRate() == null) {
-            return; // Skip if invoice doesn't have tax information
-        }
-        
-        TaxCalculation calculation = TaxCalculation.builder()
-                .invoice(invoice)
-                .taxType(TaxCalculation.TaxType.VAT)
-                .taxableAmount(invoice.getSubtotal())
-                .taxRate(invoice.getTaxRate())
-                .taxAmount(invoice.getTaxAmount())
-                .calculationDate(LocalDateTime.now())
-                .taxPeriod(getCurrentTaxPeriod())
-                .calculationDetails(String.format("Fatura KDV hesaplaması - Fatura No: %s", invoice.getInvoiceNumber()))
-                .build();
-        
-        taxCalculationRepository.save(calculation);
+        calculateTaxForInvoices(List.of(invoice));
     }
 
     @Override
     @Transactional
     public void calculateTaxForPayment(Payment payment) {
-        // Calculate withholding tax for certain payment types
-        if (payment.getMethod() == Payment.PaymentMethod.BANK_TRANSFER) {
-            calculateWithholdingTax(payment.getAmount());
+        calculateTaxForPayments(List.of(payment));
+    }
+
+    // Calculations already recorded for a source are kept; only the change to the current amount is added
+    @Override
+    @Transactional
+    public void calculateTaxForInvoices(List<Invoice> invoices) {
+        if (invoices.isEmpty()) {
+            return;
         }
-        
-        // Create VAT calculation record for the payment (reverse calculation)
-        if (payment.getAmount().compareTo(BigDecimal.valueOf(1000)) > 0) {
-            // For large payments, calculate and record VAT
+        Map<List<Object>, BigDecimal[]> recorded = recordedTax(taxCalculationRepository.getRecordedTaxByInvoice(
+                invoices.stream().map(Invoice::getId).collect(Collectors.toSet())));
+        for (Invoice invoice : invoices) {
+            BigDecimal[] current = recorded.get(List.of(invoice.getId(), TaxCalculation.TaxType.VAT));
+            boolean taxed = invoice.getTaxAmount() != null && invoice.getTaxRate() != null
+                    && LedgerAmounts.of(invoice).signum() != 0;
+            if (!taxed && current == null) {
+                continue; // Skip if invoice doesn't have tax information
+            }
+            BigDecimal rate = invoice.getTaxRate() != null ? invoice.getTaxRate() : TaxCalculation.TaxType.VAT.getDefaultRate();
+            recordDifference(TaxCalculation.builder().invoice(invoice).taxType(TaxCalculation.TaxType.VAT).taxRate(rate),
+                    current,
+                    taxed ? invoice.getSubtotal() : BigDecimal.ZERO,
+                    taxed ? invoice.getTaxAmount() : BigDecimal.ZERO,
+                    String.format("Fatura KDV hesaplaması - Fatura No: %s", invoice.getInvoiceNumber()));
+        }
+    }
+
+    @Override
+    @Transactional
+    public void calculateTaxForPayments(List<Payment> payments) {
+        if (payments.isEmpty()) {
+            return;
+        }
+        Map<List<Object>, BigDecimal[]> recorded = recordedTax(taxCalculationRepository.getRecordedTaxByPayment(
+                payments.stream().map(Payment::getId).collect(Collectors.toSet())));
+        for (Payment payment : payments) {
+            BigDecimal amount = LedgerAmounts.of(payment);
+
+            // Calculate withholding tax for certain payment types
+            BigDecimal withholdingRate = TaxCalculation.TaxType.WITHHOLDING_TAX.getDefaultRate();
+            BigDecimal withheldAmount = payment.getMethod() == Payment.PaymentMethod.BANK_TRANSFER ? amount : BigDecimal.ZERO;
+            recordDifference(TaxCalculation.builder().payment(payment).taxType(TaxCalculation.TaxType.WITHHOLDING_TAX).taxRate(withholdingRate),
+                    recorded.get(List.of(payment.getId(), TaxCalculation.TaxType.WITHHOLDING_TAX)),
+                    withheldAmount,
+                    withheldAmount.multiply(withholdingRate).setScale(2, RoundingMode.HALF_UP),
+                    String.format("Stopaj hesaplaması - %s%% oranında", withholdingRate.multiply(BigDecimal.valueOf(100))));
+
+            // For large payments (and their refunds), record VAT by reverse calculation
             BigDecimal vatRate = TaxCalculation.TaxType.VAT.getDefaultRate();
-            BigDecimal amountWithoutVAT = payment.getAmount().divide(BigDecimal.ONE.add(vatRate), 2, RoundingMode.HALF_UP);
-            BigDecimal vatAmount = payment.getAmount().subtract(amountWithoutVAT);
-            
-            TaxCalculation calculation = TaxCalculation.builder()
-                    .payment(payment)
-                    .taxType(TaxCalculation.TaxType.VAT)
-                    .taxableAmount(amountWithoutVAT)
-                    .taxRate(vatRate)
-                    .taxAmount(vatAmount)
-                    .calculationDate(LocalDateTime.now())
-                    .taxPeriod(getCurrentTaxPeriod())
-                    .calculationDetails(String.format("Ödeme KDV hesaplaması - Ödeme ID: %d", payment.getId()))
-                    .build();
-            
-            taxCalculationRepository.save(calculation);
+            BigDecimal amountWithoutVAT = BigDecimal.ZERO;
+            BigDecimal vatAmount = BigDecimal.ZERO;
+            if (amount.abs().compareTo(BigDecimal.valueOf(1000)) > 0) {
+                amountWithoutVAT = amount.divide(BigDecimal.ONE.add(vatRate), 2, RoundingMode.HALF_UP);
+                vatAmount = amount.subtract(amountWithoutVAT);
+            }
+            recordDifference(TaxCalculation.builder().payment(payment).taxType(TaxCalculation.TaxType.VAT).taxRate(vatRate),
+                    recorded.get(List.of(payment.getId(), TaxCalculation.TaxType.VAT)),
+                    amountWithoutVAT,
+                    vatAmount,
+                    String.format("Ödeme KDV hesaplaması - Ödeme ID: %d", payment.getId()));
         }
     }
 
+    // Calculations reference the source by foreign key, so a deleted source is reversed in its delete
+    // transaction and its rows are unlinked before the source row goes
+    @Override
+    @Transactional
+    public void reverseTaxForDeletedInvoice(Invoice invoice) {
+        String details = String.format("Fatura silindi - Fatura No: %s", invoice.getInvoiceNumber());
+        for (Object[] row : taxCalculationRepository.getRecordedTaxByInvoice(Set.of(invoice.getId()))) {
+            reverseRecorded(row, details);
+        }
+        taxCalculationRepository.detachInvoice(invoice.getId());
+    }
+
+    @Override
+    @Transactional
+    public void reverseTaxForDeletedPayment(Payment payment) {
+        String details = String.format("Ödeme silindi - Ödeme ID: %d", payment.getId());
+        for (Object[] row : taxCalculationRepository.getRecordedTaxByPayment(Set.of(payment.getId()))) {
+            reverseRecorded(row, details);
+        }
+        taxCalculationRepository.detachPayment(payment.getId());
+    }
+
+    // Row is (sourceId, taxType, taxableAmount, taxAmount); the reversal is saved without a source
+    private void reverseRecorded(Object[] row, String details) {
+        TaxCalculation.TaxType taxType = (TaxCalculation.TaxType) row[1];
+        recordDifference(TaxCalculation.builder().taxType(taxType).taxRate(taxType.getDefaultRate()),
+                new BigDecimal[]{(BigDecimal) row[2], (BigDecimal) row[3]},
+                BigDecimal.ZERO, BigDecimal.ZERO, details);
+    }
+
+    // (sourceId, taxType) -> {taxableAmount, taxAmount} recorded so far
+    private static Map<List<Object>, BigDecimal[]> recordedTax(List<Object[]> rows) {
+        Map<List<Object>, BigDecimal[]> recorded = new HashMap<>();
+        for (Object[] row : rows) {
+            recorded.put(List.of(row[0], row[1]), new BigDecimal[]{(BigDecimal) row[2], (BigDecimal) row[3]});
+        }
+        return recorded;
+    }
+
+    // Saves the difference between the target and the recorded amounts; negative when the source shrank
+    private void recordDifference(TaxCalculation.TaxCalculationBuilder builder, BigDecimal[] recorded,
+                                  BigDecimal taxableAmount, BigDecimal taxAmount, String details) {
+        BigDecimal taxableDifference = taxableAmount.subtract(recorded != null ? recorded[0] : BigDecimal.ZERO);
+        BigDecimal taxDifference = taxAmount.subtract(recorded != null ? recorded[1] : BigDecimal.ZERO);
+        if (taxableDifference.signum() == 0 && taxDifference.signum() == 0) {
+            return;
+        }
+        taxCalculationRepository.save(builder
+                .taxableAmount(taxableDifference)
+                .taxAmount(taxDifference)
+                .calculationDate(LocalDateTime.now())
+                .taxPeriod(getCurrentTaxPeriod())
+                .calculationDetails(recorded != null ? "Düzeltme - " + details : details)
+                .build());
+    }
+
     @Override
     public Map<String, Object> getTaxReportForPeriod(String taxPeriod) {
         List<TaxCalculation> taxes = taxCalculationRepository.findByTaxPeriod(taxPeriod);
@@ -168,22 +247,15 @@ public class TaxCalculationServiceImpl implements TaxCalculationService {
 
     @Override
     public Map<String, Object> getVATReport(LocalDateTime startDate, LocalDateTime endDate) {
-        List<TaxCalculation> vatCalculations = taxCalculationRepository
-                .findByTaxTypeAndCalculationDateBetween(TaxCalculation.TaxType.VAT, startDate, endDate);
+        // Totals are summed in the database instead of loading every calculation
+        Object[] totals = taxCalculationRepository
+                .getTaxTotalsBetween(TaxCalculation.TaxType.VAT, startDate, endDate).get(0);
         
         Map<String, Object> vatReport = new HashMap<>();
-        BigDecimal totalVATCollected = BigDecimal.ZERO;
-        BigDecimal totalVATPaid = BigDecimal.ZERO;
-        BigDecimal totalTaxAmount = BigDecimal.ZERO;
-        
-        for (TaxCalculation calculation : vatCalculations) {
-            totalTaxAmount = totalTaxAmount.add(calculation.getTaxAmount());
-            if (calculation.getInvoice() != null) {
-                totalVATCollected = totalVATCollected.add(calculation.getTaxAmount());
-            } else if (calculation.getPayment() != null) {
-                totalVATPaid = totalVATPaid.add(calculation.getTaxAmount());
-            }
-        }
+        long vatCalculations = ((Number) totals[0]).longValue();
+        BigDecimal totalTaxAmount = (BigDecimal) totals[1];
+        BigDecimal totalVATCollected = (BigDecimal) totals[2];
+        BigDecimal totalVATPaid = (BigDecimal) totals[3];
         
         BigDecimal netVAT = totalVATCollected.subtract(totalVATPaid);
         
@@ -195,7 +267,7 @@ public class TaxCalculationServiceImpl implements TaxCalculationService {
         vatReport.put("totalVATCollected", totalVATCollected);
         vatReport.put("totalVATPaid", totalVATPaid);
         vatReport.put("netVAT", netVAT);
-        vatReport.put("vatCalculations", vatCalculations.size());
+        vatReport.put("vatCalculations", vatCalculations);
         vatReport.put("totalTaxAmount", totalTaxAmount);
         vatReport.put("vatRate", vatRate.multiply(BigDecimal.valueOf(100))); // Convert to percentage
         vatReport.put("totalTaxLiability", totalTaxAmount);
@@ -0,0 +1,413 @@
+package hakan.rentacar.service.impl;
+
+import hakan.rentacar.entities.dtos.CarAnalyticsDto;
+import hakan.rentacar.entities.dtos.FleetUtilizationDto;
+import hakan.rentacar.entities.dtos.UtilizationGroupDto;
+import hakan.rentacar.repostories.CarRepository;
+import hakan.rentacar.repostories.MaintenanceRecordRepository;
+import hakan.rentacar.repostories.RentalRepository;
+import hakan.rentacar.service.UtilizationService;
+import hakan.rentacar.service.RentalChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fleet utilization: rented days divided by available days for every car over any window.
+ * Each car keeps its rentals as merged, disjoint day intervals with prefix sums plus its sorted
+ * maintenance days, so one car is answered with a few binary searches whatever the window size.
+ * Cars are refreshed one at a time after rental or maintenance writes commit.
+ */
+@Service
+public class UtilizationServiceImpl implements UtilizationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UtilizationServiceImpl.class);
+
+    private static final String UNKNOWN_GROUP = "Diğer";
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    @Autowired
+    private MaintenanceRecordRepository maintenanceRecordRepository;
+
+    private final Map<Long, CarTimeline> timelines = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    private volatile boolean ready = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            logger.error("Utilization engine could not be loaded: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    @Scheduled(cron = "0 45 3 * * *") // Run every day at 3:45 AM
+    public void rebuild() {
+        synchronized (writeLock) {
+            long startTime = System.currentTimeMillis();
+            Map<Long, CarTimeline> fresh = load(carRepository.findUtilizationCarRows(),
+                    rentalRepository.findBookedRanges(), maintenanceRecordRepository.findMaintenanceDays());
+
+            timelines.putAll(fresh);
+            timelines.keySet().retainAll(fresh.keySet());
+            ready = true;
+
+            logger.info("Utilization engine loaded for {} cars in {} ms",
+                    fresh.size(), System.currentTimeMillis() - startTime);
+        }
+    }
+
+    @Override
+    public void refreshCar(Long carId) {
+        if (carId == null) {
+            return;
+        }
+        // Reload only after the writing transaction commits
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reloadCar(carId);
+                }
+            });
+        } else {
+            reloadCar(carId);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onRentalChanged(RentalChangedEvent event) {
+        reloadCar(event.getCarId());
+    }
+
+    @Override
+    public List<CarAnalyticsDto> getCarUtilization(LocalDate startDate, LocalDate endDate) {
+        long from = startDate.toEpochDay();
+        long to = endDate.toEpochDay();
+        validateWindow(from, to);
+
+        List<CarAnalyticsDto> result = new ArrayList<>(timelines.size());
+        for (CarTimeline timeline : current()) {
+            WindowUsage usage = timeline.usage(from, to);
+            result.add(CarAnalyticsDto.builder()
+                    .carId(timeline.carId)
+                    .plate(timeline.plate)
+                    .brandName(timeline.brand)
+                    .modelName(timeline.model)
+                    .totalRentals(timeline.rentalsOverlapping(from, to))
+                    .totalRentalDays(usage.rentedDays)
+                    .utilizationRate(rate(usage.rentedDays, usage.availableDays))
+                    .averageDailyRevenue(timeline.dailyPrice != null ? BigDecimal.valueOf(timeline.dailyPrice) : BigDecimal.ZERO)
+                    .build());
+        }
+        result.sort(Comparator.comparing(CarAnalyticsDto::getUtilizationRate).reversed());
+        return result;
+    }
+
+    @Override
+    public FleetUtilizationDto getFleetUtilization(LocalDate startDate, LocalDate endDate) {
+        long from = startDate.toEpochDay();
+        long to = endDate.toEpochDay();
+        validateWindow(from, to);
+
+        GroupTotals fleet = new GroupTotals(null);
+        Map<String, GroupTotals> segments = new TreeMap<>();
+        Map<String, GroupTotals> brands = new TreeMap<>();
+        for (CarTimeline timeline : current()) {
+            WindowUsage usage = timeline.usage(from, to);
+            fleet.add(usage);
+            segments.computeIfAbsent(timeline.segment, GroupTotals::new).add(usage);
+            brands.computeIfAbsent(timeline.brand != null ? timeline.brand : UNKNOWN_GROUP, GroupTotals::new).add(usage);
+        }
+
+        return FleetUtilizationDto.builder()
+                .startDate(startDate)
+                .endDate(endDate)
+                .carCount(fleet.carCount)
+                .rentedDays(fleet.rentedDays)
+                .availableDays(fleet.availableDays)
+                .maintenanceDays(fleet.maintenanceDays)
+                .utilizationRate(rate(fleet.rentedDays, fleet.availableDays))
+                .segments(segments.values().stream().map(GroupTotals::toDto).toList())
+                .brands(brands.values().stream().map(GroupTotals::toDto).toList())
+                .build();
+    }
+
+    @Override
+    public Map<Long, BigDecimal> getUtilizationRates(LocalDate startDate, LocalDate endDate) {
+        long from = startDate.toEpochDay();
+        long to = endDate.toEpochDay();
+        validateWindow(from, to);
+
+        Map<Long, BigDecimal> rates = new HashMap<>(timelines.size() * 2);
+        for (CarTimeline timeline : current()) {
+            WindowUsage usage = timeline.usage(from, to);
+            rates.put(timeline.carId, rate(usage.rentedDays, usage.availableDays));
+        }
+        return rates;
+    }
+
+    private Collection<CarTimeline> current() {
+        if (!ready) {
+            rebuild();
+        }
+        return timelines.values();
+    }
+
+    private void reloadCar(Long carId) {
+        Map<Long, CarTimeline> fresh = load(carRepository.findUtilizationCarRowsByCarId(carId),
+                rentalRepository.findBookedRangesByCarId(carId),
+                maintenanceRecordRepository.findMaintenanceDaysByCarId(carId));
+
+        synchronized (writeLock) {
+            CarTimeline timeline = fresh.get(carId);
+            if (timeline == null) {
+                timelines.remove(carId);
+            } else {
+                timelines.put(carId, timeline);
+            }
+        }
+    }
+
+    // Car rows are (id, plate, brand, model, segment, dailyPrice, createdDate),
+    // rental rows (carId, start, end) and maintenance rows (carId, maintenanceDate)
+    private Map<Long, CarTimeline> load(List<Object[]> cars, List<Object[]> rentals, List<Object[]> maintenance) {
+        Map<Long, List<long[]>> rangesByCar = new HashMap<>();
+        for (Object[] row : rentals) {
+            rangesByCar.computeIfAbsent(((Number) row[0]).longValue(), id -> new ArrayList<>())
+                    .add(new long[]{((LocalDate) row[1]).toEpochDay(), ((LocalDate) row[2]).toEpochDay()});
+        }
+        Map<Long, List<Long>> maintenanceByCar = new HashMap<>();
+        for (Object[] row : maintenance) {
+            maintenanceByCar.computeIfAbsent(((Number) row[0]).longValue(), id -> new ArrayList<>())
+                    .add(((LocalDate) row[1]).toEpochDay());
+        }
+
+        Map<Long, CarTimeline> result = new HashMap<>(cars.size() * 2);
+        for (Object[] row : cars) {
+            Long carId = ((Number) row[0]).longValue();
+            Date createdDate = (Date) row[6];
+            long availableFrom = createdDate != null
+                    ? Instant.ofEpochMilli(createdDate.getTime()).atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay()
+                    : Long.MIN_VALUE;
+            result.put(carId, new CarTimeline(carId, (String) row[1], (String) row[2], (String) row[3],
+                    row[4] != null ? (String) row[4] : UNKNOWN_GROUP, (Double) row[5], availableFrom,
+                    rangesByCar.getOrDefault(carId, Collections.emptyList()),
+                    maintenanceByCar.getOrDefault(carId, Collections.emptyList())));
+        }
+        return result;
+    }
+
+    private static void validateWindow(long from, long to) {
+        if (to < from) {
+            throw new IllegalArgumentException("End date must be after start date");
+        }
+    }
+
+    private static BigDecimal rate(long rentedDays, long availableDays) {
+        if (availableDays <= 0) {
+            return BigDecimal.ZERO;
+        }
+        return BigDecimal.valueOf(rentedDays * 100.0 / availableDays).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static final class WindowUsage {
+        private final long rentedDays;
+        private final long availableDays;
+        private final long maintenanceDays;
+
+        private WindowUsage(long rentedDays, long availableDays, long maintenanceDays) {
+            this.rentedDays = rentedDays;
+            this.availableDays = availableDays;
+            this.maintenanceDays = maintenanceDays;
+        }
+    }
+
+    private static final class GroupTotals {
+        private final String name;
+        private long carCount;
+        private long rentedDays;
+        private long availableDays;
+        private long maintenanceDays;
+
+        private GroupTotals(String name) {
+            this.name = name;
+        }
+
+        void add(WindowUsage usage) {
+            carCount++;
+            rentedDays += usage.rentedDays;
+            availableDays += usage.availableDays;
+            maintenanceDays += usage.maintenanceDays;
+        }
+
+        UtilizationGroupDto toDto() {
+            return UtilizationGroupDto.builder()
+                    .name(name)
+                    .carCount(carCount)
+                    .rentedDays(rentedDays)
+                    .availableDays(availableDays)
+                    .maintenanceDays(maintenanceDays)
+                    .utilizationRate(rate(rentedDays, availableDays))
+                    .build();
+        }
+    }
+
+    /**
+     * Immutable rental and maintenance days of one car as inclusive epoch days.
+     * Rentals are merged into disjoint sorted intervals; prefixDays[i] is the total length
+     * of the first i intervals. Raw rental starts/ends are kept sorted for rental counts.
+     */
+    static final class CarTimeline {
+        private final Long carId;
+        private final String plate;
+        private final String brand;
+        private final String model;
+        private final String segment;
+        private final Double dailyPrice;
+        private final long availableFrom;
+        private final long[] starts;
+        private final long[] ends;
+        private final long[] prefixDays;
+        private final long[] rentalStarts;
+        private final long[] rentalEnds;
+        private final long[] maintenanceDays;
+
+        CarTimeline(Long carId, String plate, String brand, String model, String segment, Double dailyPrice,
+                    long availableFrom, List<long[]> rentals, List<Long> maintenance) {
+            this.carId = carId;
+            this.plate = plate;
+            this.brand = brand;
+            this.model = model;
+            this.segment = segment;
+            this.dailyPrice = dailyPrice;
+            this.availableFrom = availableFrom;
+
+            rentalStarts = new long[rentals.size()];
+            rentalEnds = new long[rentals.size()];
+            for (int i = 0; i < rentals.size(); i++) {
+                rentalStarts[i] = rentals.get(i)[0];
+                rentalEnds[i] = rentals.get(i)[1];
+            }
+            Arrays.sort(rentalStarts);
+            Arrays.sort(rentalEnds);
+
+            // Merge overlapping or touching intervals
+            List<long[]> sorted = new ArrayList<>(rentals);
+            sorted.sort((a, b) -> Long.compare(a[0], b[0]));
+            long[] mergedStarts = new long[sorted.size()];
+            long[] mergedEnds = new long[sorted.size()];
+            int count = 0;
+            for (long[] range : sorted) {
+                if (count > 0 && range[0] <= mergedEnds[count - 1] + 1) {
+                    mergedEnds[count - 1] = Math.max(mergedEnds[count - 1], range[1]);
+                } else {
+                    mergedStarts[count] = range[0];
+                    mergedEnds[count] = range[1];
+                    count++;
+                }
+            }
+            starts = Arrays.copyOf(mergedStarts, count);
+            ends = Arrays.copyOf(mergedEnds, count);
+            prefixDays = new long[count + 1];
+            for (int i = 0; i < count; i++) {
+                prefixDays[i + 1] = prefixDays[i] + ends[i] - starts[i] + 1;
+            }
+
+            maintenanceDays = maintenance.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+        }
+
+        WindowUsage usage(long from, long to) {
+            long windowFrom = Math.max(from, availableFrom);
+            if (windowFrom > to) {
+                return new WindowUsage(0, 0, 0);
+            }
+            long maintenance = 0;
+            long maintenanceWhileRented = 0;
+            for (int i = lowerBound(maintenanceDays, windowFrom); i < maintenanceDays.length && maintenanceDays[i] <= to; i++) {
+                maintenance++;
+                if (isRented(maintenanceDays[i])) {
+                    maintenanceWhileRented++;
+                }
+            }
+            long availableDays = to - windowFrom + 1 - maintenance;
+            long rentedDays = rentedDays(windowFrom, to) - maintenanceWhileRented;
+            return new WindowUsage(rentedDays, availableDays, maintenance);
+        }
+
+        long rentalsOverlapping(long from, long to) {
+            // Rentals starting on or before the window end minus those that ended before it began
+            return upperBound(rentalStarts, to) - lowerBound(rentalEnds, from);
+        }
+
+        private long rentedDays(long from, long to) {
+            int first = lowerBound(ends, from);
+            int last = upperBound(starts, to) - 1;
+            if (first > last) {
+                return 0;
+            }
+            long days = prefixDays[last + 1] - prefixDays[first];
+            days -= Math.max(0, from - starts[first]);
+            days -= Math.max(0, ends[last] - to);
+            return days;
+        }
+
+        private boolean isRented(long day) {
+            int index = upperBound(starts, day) - 1;
+            return index >= 0 && ends[index] >= day;
+        }
+
+        // First index with values[i] >= key
+        private static int lowerBound(long[] values, long key) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] < key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // First index with values[i] > key
+        private static int upperBound(long[] values, long key) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] <= key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
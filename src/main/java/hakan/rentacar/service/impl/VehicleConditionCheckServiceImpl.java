@@ -4,11 +4,11 @@ import hakan.rentacar.entities.concretes.Car;
 import hakan.rentacar.entities.concretes.Rental;
 import hakan.rentacar.entities.concretes.VehicleConditionCheck;
 import hakan.rentacar.entities.dtos.VehicleConditionCheckDto;
+import hakan.rentacar.mappers.VehicleConditionCheckMapper;
 import hakan.rentacar.repostories.CarRepository;
 import hakan.rentacar.repostories.RentalRepository;
 import hakan.rentacar.repostories.VehicleConditionCheckRepository;
 import hakan.rentacar.service.VehicleConditionCheckService;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -32,7 +32,7 @@ public class VehicleConditionCheckServiceImpl implements VehicleConditionCheckSe
     private CarRepository carRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private VehicleConditionCheckMapper vehicleConditionCheckMapper;
 
     @Override
     public List<VehicleConditionCheckDto> getAll() {
@@ -85,6 +85,8 @@ public class VehicleConditionCheckServiceImpl implements VehicleConditionCheckSe
                 .orElseThrow(() -> new RuntimeException("Car not found"));
 
         VehicleConditionCheck check = DtoToEntity(checkDto);
+        check.setRental(rental);
+        check.setCar(car);
         VehicleConditionCheck savedCheck = vehicleConditionCheckRepository.save(check);
         return EntityToDto(savedCheck);
     }
@@ -182,13 +184,13 @@ public class VehicleConditionCheckServiceImpl implements VehicleConditionCheckSe
     @Override
     public VehicleConditionCheckDto EntityToDto(VehicleConditionCheck check) {
         if (check == null) return null;
-        return modelMapper.map(check, VehicleConditionCheckDto.class);
+        return vehicleConditionCheckMapper.toDto(check);
     }
 
     @Override
     public VehicleConditionCheck DtoToEntity(VehicleConditionCheckDto checkDto) {
         if (checkDto == null) return null;
-        return modelMapper.map(checkDto, VehicleConditionCheck.class);
+        return vehicleConditionCheckMapper.toEntity(checkDto);
     }
 }
 
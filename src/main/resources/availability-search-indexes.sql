@@ -0,0 +1,14 @@
+-- Availability Search Indexes
+-- Supports the anti-join used by /api/customer-portal/available-cars/search
+
+-- Overlap probes per car on rentals and active reservations
+CREATE INDEX IF NOT EXISTS idx_rentals_car_period ON rentals(car_id, start, "end");
+CREATE INDEX IF NOT EXISTS idx_reservations_car_period_active ON reservations(car_id, start_date, "end")
+    WHERE status IN ('CONFIRMED', 'PENDING');
+
+-- Attribute filters on cars (keyset pagination walks the primary key)
+CREATE INDEX IF NOT EXISTS idx_cars_segment_id ON cars(segment, id);
+CREATE INDEX IF NOT EXISTS idx_cars_fuel_type_transmission ON cars(fuel_type, transmission);
+CREATE INDEX IF NOT EXISTS idx_models_brand_id ON models(brand_id);
+
+COMMENT ON INDEX idx_reservations_car_period_active IS 'Partial index: only reservations that block a car';
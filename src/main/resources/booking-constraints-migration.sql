@@ -0,0 +1,28 @@
+-- Booking Constraints Migration Script
+-- Database-level guard against double booking of the same car.
+-- The application already serializes bookings per car (advisory locks); these
+-- constraints reject any overlap that slips past it, e.g. from manual inserts.
+
+-- Required for combining "=" on car_id with "&&" on date ranges in one GiST index
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- Check for existing overlaps before adding the constraints (both queries must return no rows)
+-- SELECT a.id, b.id FROM rentals a JOIN rentals b ON a.car_id = b.car_id AND a.id < b.id
+--  WHERE daterange(a.start, a."end", '[]') && daterange(b.start, b."end", '[]');
+-- SELECT a.id, b.id FROM reservations a JOIN reservations b ON a.car_id = b.car_id AND a.id < b.id
+--  WHERE a.status IN ('CONFIRMED', 'PENDING') AND b.status IN ('CONFIRMED', 'PENDING')
+--    AND daterange(a.start_date, a."end", '[]') && daterange(b.start_date, b."end", '[]');
+
+-- Rentals of one car may not overlap (inclusive dates)
+ALTER TABLE rentals DROP CONSTRAINT IF EXISTS excl_rentals_car_period;
+ALTER TABLE rentals ADD CONSTRAINT excl_rentals_car_period
+    EXCLUDE USING gist (car_id WITH =, daterange(start, "end", '[]') WITH &&);
+
+-- Active reservations of one car may not overlap; cancelled/completed ones are ignored
+ALTER TABLE reservations DROP CONSTRAINT IF EXISTS excl_reservations_car_period;
+ALTER TABLE reservations ADD CONSTRAINT excl_reservations_car_period
+    EXCLUDE USING gist (car_id WITH =, daterange(start_date, "end", '[]') WITH &&)
+    WHERE (status IN ('CONFIRMED', 'PENDING'));
+
+COMMENT ON CONSTRAINT excl_rentals_car_period ON rentals IS 'Prevents overlapping rentals for the same car';
+COMMENT ON CONSTRAINT excl_reservations_car_period ON reservations IS 'Prevents overlapping active reservations for the same car';
@@ -0,0 +1,18 @@
+-- Created Date Backfill Migration Script
+-- List endpoints page by (created_date, id). Rows inserted by the earlier SQL scripts have no
+-- created_date and would have no keyset position, so they are backfilled from the nearest date the
+-- row has, and the column becomes NOT NULL with a default for future plain SQL inserts.
+
+UPDATE cars SET created_date = COALESCE(date, update_date, NOW()) WHERE created_date IS NULL;
+UPDATE customers SET created_date = COALESCE(date, update_date, NOW()) WHERE created_date IS NULL;
+UPDATE rentals SET created_date = COALESCE(date, update_date, NOW()) WHERE created_date IS NULL;
+UPDATE reservations SET created_date = COALESCE(date, update_date, NOW()) WHERE created_date IS NULL;
+UPDATE invoices SET created_date = COALESCE(issue_date, date, update_date, NOW()) WHERE created_date IS NULL;
+UPDATE payments SET created_date = COALESCE(paid_at, date, update_date, NOW()) WHERE created_date IS NULL;
+
+ALTER TABLE cars ALTER COLUMN created_date SET DEFAULT NOW(), ALTER COLUMN created_date SET NOT NULL;
+ALTER TABLE customers ALTER COLUMN created_date SET DEFAULT NOW(), ALTER COLUMN created_date SET NOT NULL;
+ALTER TABLE rentals ALTER COLUMN created_date SET DEFAULT NOW(), ALTER COLUMN created_date SET NOT NULL;
+ALTER TABLE reservations ALTER COLUMN created_date SET DEFAULT NOW(), ALTER COLUMN created_date SET NOT NULL;
+ALTER TABLE invoices ALTER COLUMN created_date SET DEFAULT NOW(), ALTER COLUMN created_date SET NOT NULL;
+ALTER TABLE payments ALTER COLUMN created_date SET DEFAULT NOW(), ALTER COLUMN created_date SET NOT NULL;
@@ -0,0 +1,55 @@
+-- Customer Segmentation Migration Script
+-- customer_rental_stats holds lifetime rental counters per customer and
+-- customer_segment_totals the running totals per segment. The application moves
+-- customers between segments on rental writes; the segmentation report reads the totals.
+
+CREATE TABLE IF NOT EXISTS customer_rental_stats (
+    customer_id BIGINT PRIMARY KEY,
+    rental_count BIGINT NOT NULL,
+    lifetime_revenue NUMERIC(14, 2) NOT NULL,
+    segment VARCHAR(20) NOT NULL,
+    updated_at TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS customer_segment_totals (
+    segment VARCHAR(20) PRIMARY KEY,
+    customer_count BIGINT NOT NULL,
+    total_revenue NUMERIC(16, 2) NOT NULL,
+    total_rentals BIGINT NOT NULL
+);
+
+-- Campaign targeting by segment
+CREATE INDEX IF NOT EXISTS idx_customer_rental_stats_segment ON customer_rental_stats (segment);
+
+-- Rental writes recompute one customer's counters from rentals
+CREATE INDEX IF NOT EXISTS idx_rentals_customer_id ON rentals (customer_id);
+
+-- Backfill (same as POST /api/monitoring/customer-segments/rebuild)
+DELETE FROM customer_segment_totals;
+DELETE FROM customer_rental_stats;
+INSERT INTO customer_rental_stats (customer_id, rental_count, lifetime_revenue, segment, updated_at)
+SELECT t.id, t.rental_count, t.revenue,
+       CASE
+           WHEN t.rental_count >= 10 AND t.revenue > 10000 THEN 'VIP'
+           WHEN t.rental_count >= 5 THEN 'REGULAR'
+           WHEN t.rental_count >= 2 THEN 'FREQUENT'
+           WHEN t.rental_count >= 1 THEN 'OCCASIONAL'
+           ELSE 'NEW'
+       END,
+       NOW()
+FROM (
+    SELECT cu.id,
+           COUNT(r.id) as rental_count,
+           COALESCE(SUM(c.daily_price * ((r."end" - r.start) + 1) + COALESCE(r.extra_costs, 0)), 0) as revenue
+    FROM customers cu
+    LEFT JOIN rentals r ON cu.id = r.customer_id
+    LEFT JOIN cars c ON r.car_id = c.id
+    GROUP BY cu.id
+) t;
+INSERT INTO customer_segment_totals (segment, customer_count, total_revenue, total_rentals)
+SELECT s.segment, COUNT(*), COALESCE(SUM(s.lifetime_revenue), 0), COALESCE(SUM(s.rental_count), 0)
+FROM customer_rental_stats s
+GROUP BY s.segment;
+
+COMMENT ON TABLE customer_rental_stats IS 'Lifetime rental count and revenue per customer with the derived segment';
+COMMENT ON TABLE customer_segment_totals IS 'Running customer, revenue and rental totals per customer segment';
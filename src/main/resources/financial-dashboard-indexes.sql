@@ -0,0 +1,11 @@
+-- Financial Dashboard Indexes
+-- The dashboard summary sums open payments and counts invoices per status with a due-date split.
+-- Covering indexes let these aggregates run as index-only scans instead of reading every row.
+
+CREATE INDEX IF NOT EXISTS idx_payments_status_due_date ON payments (status, due_date) INCLUDE (amount);
+CREATE INDEX IF NOT EXISTS idx_invoices_status_due_date ON invoices (status, due_date);
+CREATE INDEX IF NOT EXISTS idx_tax_calculations_type_date ON tax_calculations (tax_type, calculation_date) INCLUDE (tax_amount, invoice_id, payment_id);
+
+COMMENT ON INDEX idx_payments_status_due_date IS 'Dashboard totals of payments by status, split by due date';
+COMMENT ON INDEX idx_invoices_status_due_date IS 'Dashboard counts of invoices by status, split by due date';
+COMMENT ON INDEX idx_tax_calculations_type_date IS 'VAT report totals for a calculation date range';
@@ -72,9 +72,9 @@ CREATE TABLE IF NOT EXISTS tax_calculations (
     invoice_id BIGINT,
     payment_id BIGINT,
     tax_type VARCHAR(50) NOT NULL,
-    taxable_amount DECIMAL(12,2) NOT NULL CHECK (taxable_amount >= 0),
+    taxable_amount DECIMAL(12,2) NOT NULL,
     tax_rate DECIMAL(5,4) NOT NULL CHECK (tax_rate >= 0 AND tax_rate <= 1),
-    tax_amount DECIMAL(12,2) NOT NULL CHECK (tax_amount >= 0),
+    tax_amount DECIMAL(12,2) NOT NULL,
     calculation_date TIMESTAMP NOT NULL,
     calculation_details TEXT,
     is_reported BOOLEAN DEFAULT FALSE,
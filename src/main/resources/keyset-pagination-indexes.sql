@@ -0,0 +1,15 @@
+-- Keyset Pagination Indexes
+-- List endpoints read one page after a (sort_column, id) cursor, ordered by sort_column, id with a LIMIT.
+-- These indexes let every page be read as a short index range scan, however deep the cursor is.
+
+CREATE INDEX IF NOT EXISTS idx_cars_created_date_id ON cars (created_date, id);
+CREATE INDEX IF NOT EXISTS idx_customers_created_date_id ON customers (created_date, id);
+CREATE INDEX IF NOT EXISTS idx_rentals_created_date_id ON rentals (created_date, id);
+CREATE INDEX IF NOT EXISTS idx_reservations_created_date_id ON reservations (created_date, id);
+CREATE INDEX IF NOT EXISTS idx_invoices_created_date_id ON invoices (created_date, id);
+CREATE INDEX IF NOT EXISTS idx_payments_created_date_id ON payments (created_date, id);
+CREATE INDEX IF NOT EXISTS idx_general_ledger_transaction_date_id ON general_ledger (transaction_date, id);
+CREATE INDEX IF NOT EXISTS idx_general_ledger_account_type_date_id ON general_ledger (account_type, transaction_date, id);
+
+COMMENT ON INDEX idx_general_ledger_transaction_date_id IS 'Keyset pagination of ledger entries by (transaction_date, id)';
+COMMENT ON INDEX idx_general_ledger_account_type_date_id IS 'Keyset pagination of one account''s transactions by (transaction_date, id)';
@@ -0,0 +1,11 @@
+-- Ledger Document Number Migration Script
+-- Journal document numbers come from gl_document_number_seq. The application reserves
+-- 50 numbers per nextval (INCREMENT BY must stay 50) and formats them as GL-0000000001.
+-- Earlier documents keep their GL-<epoch millis> numbers.
+
+CREATE SEQUENCE IF NOT EXISTS gl_document_number_seq START WITH 1 INCREMENT BY 50;
+
+-- Lookups of all lines of one document
+CREATE INDEX IF NOT EXISTS idx_general_ledger_document_number ON general_ledger (document_number);
+
+COMMENT ON SEQUENCE gl_document_number_seq IS 'Journal document numbers, reserved by the application in blocks of 50';
@@ -0,0 +1,30 @@
+-- Ledger Outbox Migration Script
+-- Payment and invoice changes (including refunds, cancellations and deletions) write one row to
+-- ledger_outbox_events in their own transaction. A worker claims pending rows every few seconds and
+-- brings the ledger and tax entries of each source to its current amount in batches. The unique
+-- (event_type, source_id) key keeps one row per source; a later change re-queues that row.
+
+CREATE TABLE IF NOT EXISTS ledger_outbox_events (
+    id BIGSERIAL PRIMARY KEY,
+    event_type VARCHAR(30) NOT NULL,
+    source_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INTEGER NOT NULL,
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL,
+    processed_at TIMESTAMP,
+    CONSTRAINT uk_ledger_outbox_event_source UNIQUE (event_type, source_id)
+);
+
+-- Workers read only the pending head of the queue
+CREATE INDEX IF NOT EXISTS idx_ledger_outbox_events_pending ON ledger_outbox_events (id) WHERE status = 'PENDING';
+
+COMMENT ON TABLE ledger_outbox_events IS 'Payment and invoice events queued for ledger and tax posting';
+
+-- Changes after posting record negative adjusting tax rows
+ALTER TABLE tax_calculations DROP CONSTRAINT IF EXISTS tax_calculations_taxable_amount_check;
+ALTER TABLE tax_calculations DROP CONSTRAINT IF EXISTS tax_calculations_tax_amount_check;
+
+-- Event types were renamed when they started covering every change of their source
+UPDATE ledger_outbox_events SET event_type = 'PAYMENT_CHANGED' WHERE event_type = 'PAYMENT_COMPLETED';
+UPDATE ledger_outbox_events SET event_type = 'INVOICE_CHANGED' WHERE event_type = 'INVOICE_ISSUED';
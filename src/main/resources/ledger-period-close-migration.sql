@@ -0,0 +1,20 @@
+-- Ledger Period Close Migration Script
+-- ledger_period_closes holds cumulative debit and credit totals per account at each
+-- closed period end. Trial balance, balance sheet and account balance read the latest
+-- closing balances and add only the general_ledger entries dated after them.
+
+CREATE TABLE IF NOT EXISTS ledger_period_closes (
+    period_end TIMESTAMP NOT NULL,
+    account_type VARCHAR(255) NOT NULL,
+    account_code VARCHAR(100) NOT NULL,
+    account_name VARCHAR(200) NOT NULL,
+    total_debit NUMERIC(16, 2) NOT NULL,
+    total_credit NUMERIC(16, 2) NOT NULL,
+    closed_at TIMESTAMP,
+    PRIMARY KEY (period_end, account_type, account_code, account_name)
+);
+
+-- Open-period account balance reads one account's entries after the last close through
+-- idx_general_ledger_account_type_date_id (keyset-pagination-indexes.sql)
+
+COMMENT ON TABLE ledger_period_closes IS 'Cumulative closing balances per account at each closed accounting period end';
@@ -0,0 +1,28 @@
+-- Lifecycle Sweep Migration Script
+-- Overdue invoices, expired contracts and finished rentals are moved by a nightly sweeper in chunks
+-- of one UPDATE ... RETURNING id each. Every chunk commits together with the sweep's checkpoint row,
+-- so a run stopped by a crash resumes after the last committed chunk.
+
+CREATE TABLE IF NOT EXISTS lifecycle_sweep_checkpoints (
+    sweep_name VARCHAR(50) PRIMARY KEY,
+    last_id BIGINT NOT NULL,
+    pending_ids TEXT,
+    run_started_at TIMESTAMP,
+    run_rows BIGINT NOT NULL,
+    last_completed_at TIMESTAMP,
+    last_rows BIGINT,
+    last_duration_ms BIGINT,
+    last_rows_per_second BIGINT
+);
+
+-- One instance runs a sweep at a time: it owns the checkpoint row until lease_until, renewed by every
+-- chunk; an instance that crashed is taken over once its lease has expired
+ALTER TABLE lifecycle_sweep_checkpoints ADD COLUMN IF NOT EXISTS run_owner VARCHAR(64);
+ALTER TABLE lifecycle_sweep_checkpoints ADD COLUMN IF NOT EXISTS lease_until TIMESTAMP;
+
+-- Each chunk reads the next candidates in id order; partial indexes keep that a short range scan
+CREATE INDEX IF NOT EXISTS idx_invoices_sent_id ON invoices (id) WHERE status = 'SENT';
+CREATE INDEX IF NOT EXISTS idx_contracts_open_id ON contracts (id) WHERE status NOT IN ('CANCELLED', 'EXPIRED');
+CREATE INDEX IF NOT EXISTS idx_rentals_open_id ON rentals (id) WHERE status IN ('PENDING', 'CONFIRMED');
+
+COMMENT ON TABLE lifecycle_sweep_checkpoints IS 'Progress of the lifecycle sweeps; last_id and pending_ids let an interrupted run resume';
@@ -0,0 +1,28 @@
+-- Payment Balance Migration Script
+-- rental_payment_balances holds the amount due, paid (COMPLETED) and refunded per rental.
+-- Payment writes move the row in the same transaction; a nightly job compares it with the
+-- payments table and repairs drift. Balance lookups read one row instead of summing payments.
+
+CREATE TABLE IF NOT EXISTS rental_payment_balances (
+    rental_id BIGINT PRIMARY KEY,
+    amount_due NUMERIC(12, 2) NOT NULL,
+    amount_paid NUMERIC(12, 2) NOT NULL,
+    amount_refunded NUMERIC(12, 2) NOT NULL,
+    outstanding NUMERIC(12, 2) NOT NULL,
+    updated_at TIMESTAMP
+);
+
+-- Backfill (same as POST /api/monitoring/payment-balances/rebuild)
+DELETE FROM rental_payment_balances;
+INSERT INTO rental_payment_balances (rental_id, amount_due, amount_paid, amount_refunded, outstanding, updated_at)
+SELECT r.id, COALESCE(r.total_amount, 0), t.paid, t.refunded, COALESCE(r.total_amount, 0) - t.paid, NOW()
+FROM (
+    SELECT p.rental_id,
+           COALESCE(SUM(p.amount) FILTER (WHERE p.status = 'COMPLETED'), 0) as paid,
+           COALESCE(-SUM(p.amount) FILTER (WHERE p.status = 'REFUNDED'), 0) as refunded
+    FROM payments p
+    GROUP BY p.rental_id
+) t
+JOIN rentals r ON r.id = t.rental_id;
+
+COMMENT ON TABLE rental_payment_balances IS 'Amount due, paid and refunded per rental, maintained on payment writes';
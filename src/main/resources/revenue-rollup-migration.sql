@@ -0,0 +1,38 @@
+-- Revenue Rollup Migration Script
+-- revenue_daily_rollup holds rental revenue per (start day, car, model, brand).
+-- The application keeps it current in the same transaction as rental writes;
+-- analytics reports read it instead of joining the whole rental history.
+
+CREATE TABLE IF NOT EXISTS revenue_daily_rollup (
+    day DATE NOT NULL,
+    car_id BIGINT NOT NULL,
+    model_id BIGINT NOT NULL,
+    brand_id BIGINT NOT NULL,
+    revenue NUMERIC(14, 2) NOT NULL,
+    rental_count BIGINT NOT NULL,
+    rental_days BIGINT NOT NULL,
+    updated_at TIMESTAMP,
+    PRIMARY KEY (day, car_id, model_id, brand_id)
+);
+
+-- Per-car recompute (rental writes, car price changes) and per-car report grouping
+CREATE INDEX IF NOT EXISTS idx_revenue_daily_rollup_car_day ON revenue_daily_rollup (car_id, day);
+
+-- Rental writes recompute one (car, start day) key from rentals
+CREATE INDEX IF NOT EXISTS idx_rentals_car_id_start ON rentals (car_id, start);
+
+-- Backfill (same as POST /api/monitoring/revenue-rollup/rebuild)
+DELETE FROM revenue_daily_rollup;
+INSERT INTO revenue_daily_rollup (day, car_id, model_id, brand_id, revenue, rental_count, rental_days, updated_at)
+SELECT r.start, c.id, m.id, m.brand_id,
+       SUM(c.daily_price * ((r."end" - r.start) + 1) + COALESCE(r.extra_costs, 0)),
+       COUNT(r.id),
+       SUM((r."end" - r.start) + 1),
+       NOW()
+FROM rentals r
+JOIN cars c ON r.car_id = c.id
+JOIN models m ON c.model_id = m.id
+WHERE m.brand_id IS NOT NULL
+GROUP BY r.start, c.id, m.id, m.brand_id;
+
+COMMENT ON TABLE revenue_daily_rollup IS 'Daily rental revenue per car, model and brand (attributed to the rental start day)';
@@ -0,0 +1,44 @@
+package hakan.rentacar.api.controllers;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class FinancialReportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void rejectsNullJournalEntry() throws Exception {
+        postJournalEntries("[null]");
+    }
+
+    @Test
+    void rejectsEmptyPosting() throws Exception {
+        postJournalEntries("[]");
+    }
+
+    @Test
+    void rejectsNullJournalLine() throws Exception {
+        postJournalEntries("[{\"transactionType\":\"ASSET\",\"lines\":[null,"
+                + "{\"accountType\":\"CASH_ASSET\",\"debitAmount\":10}]}]");
+    }
+
+    private void postJournalEntries(String body) throws Exception {
+        mockMvc.perform(post("/api/financial-reports/journal-entries")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,71 @@
+package hakan.rentacar.api.controllers;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Fails when a list endpoint needs more SQL statements than its budget. The budgets do not depend on the
+ * number of rows, so a lazy load per row (N+1) on invoice, payment or reservation DTO assembly breaks the
+ * test as soon as the database holds more rows than the budget (e.g. with financial-sample-data.sql loaded).
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=hakan.rentacar.api.controllers.QueryCountInspector")
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class QueryBudgetTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryBudgetTest.class);
+
+    // One fetch-graph query per list, plus batch fetches of lazy collections (default_batch_fetch_size)
+    private static final Map<String, Integer> BUDGETS = new LinkedHashMap<>();
+
+    static {
+        BUDGETS.put("/api/invoices", 4);
+        BUDGETS.put("/api/invoices/all", 4);
+        BUDGETS.put("/api/invoices/pending", 4);
+        BUDGETS.put("/api/invoices/overdue", 4);
+        BUDGETS.put("/api/payments", 4);
+        BUDGETS.put("/api/payments/all", 4);
+        BUDGETS.put("/api/payments/pending", 4);
+        BUDGETS.put("/api/payments/overdue", 4);
+        BUDGETS.put("/api/payments/completed", 4);
+        BUDGETS.put("/api/reservations", 4);
+        BUDGETS.put("/api/reservations/all", 4);
+        BUDGETS.put("/api/reservations/pending", 4);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void listEndpointsStayWithinQueryBudget() throws Exception {
+        StringBuilder exceeded = new StringBuilder();
+        for (Map.Entry<String, Integer> endpoint : BUDGETS.entrySet()) {
+            QueryCountInspector.start();
+            int queryCount;
+            try {
+                mockMvc.perform(get(endpoint.getKey())).andExpect(status().isOk());
+            } finally {
+                queryCount = QueryCountInspector.stop();
+            }
+            logger.info("{}: {} queries (budget {})", endpoint.getKey(), queryCount, endpoint.getValue());
+            if (queryCount > endpoint.getValue()) {
+                exceeded.append(endpoint.getKey()).append(": ").append(queryCount)
+                        .append(" > ").append(endpoint.getValue()).append('\n');
+            }
+        }
+        assertTrue(exceeded.length() == 0, () -> "Query budget exceeded:\n" + exceeded);
+    }
+}
@@ -0,0 +1,31 @@
+package hakan.rentacar.api.controllers;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread between {@link #start()} and {@link #stop()}.
+ * Registered by class name through {@code hibernate.session_factory.statement_inspector} in the query budget test.
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    private static final ThreadLocal<int[]> CURRENT = new ThreadLocal<>();
+
+    public static void start() {
+        CURRENT.set(new int[1]);
+    }
+
+    public static int stop() {
+        int[] current = CURRENT.get();
+        CURRENT.remove();
+        return current != null ? current[0] : 0;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] current = CURRENT.get();
+        if (current != null) {
+            current[0]++;
+        }
+        return sql;
+    }
+}
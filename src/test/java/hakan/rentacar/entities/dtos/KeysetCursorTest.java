@@ -0,0 +1,79 @@
+package hakan.rentacar.entities.dtos;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeysetCursorTest {
+
+    private static final LocalDateTime POSITION = LocalDateTime.of(2024, 1, 15, 10, 30, 0, 123_456_000);
+
+    @Test
+    void encodesPositionAndId() {
+        assertEquals("2024-01-15T10:30:00.123456_42", KeysetCursor.of(POSITION, 42L).encode());
+    }
+
+    @Test
+    void roundTripsPositionAndId() {
+        KeysetCursor cursor = KeysetCursor.parse(KeysetCursor.of(POSITION, 42L).encode());
+        assertEquals(POSITION, cursor.getPosition());
+        assertEquals(42L, cursor.getId().longValue());
+    }
+
+    @Test
+    void keepsSubMillisecondPartOfTimestamps() {
+        Timestamp timestamp = Timestamp.valueOf(POSITION);
+        KeysetCursor cursor = KeysetCursor.of(timestamp, 1L);
+        assertEquals(POSITION, cursor.getPosition());
+        assertEquals(timestamp, cursor.positionAsDate());
+    }
+
+    @Test
+    void acceptsPlainDates() {
+        Date date = new Date(1_700_000_000_123L);
+        assertEquals(date.getTime(), KeysetCursor.of(date, 1L).positionAsDate().getTime());
+    }
+
+    @Test
+    void rejectsRowsWithoutPosition() {
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.of((Date) null, 1L));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.of((LocalDateTime) null, 1L));
+    }
+
+    @Test
+    void blankCursorMeansFirstPage() {
+        assertNull(KeysetCursor.parse(null));
+        assertNull(KeysetCursor.parse(" "));
+        assertNull(KeysetCursor.parseId(null));
+        assertNull(KeysetCursor.parseId(""));
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.parse("42"));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.parse("_42"));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.parse("yesterday_42"));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.parse("2024-01-15T10:30:00_x"));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.parse("2024-01-15T10:30:00_42_abc"));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.parseId("2024-01-15T10:30:00_42"));
+    }
+
+    @Test
+    void idCursorRoundTrips() {
+        assertEquals("42", KeysetCursor.ofId(42L).encode());
+        assertEquals(42L, KeysetCursor.parseId(KeysetCursor.ofId(42L).encode()).longValue());
+    }
+
+    @Test
+    void clampsPageSize() {
+        assertEquals(1, KeysetCursor.pageSize(0));
+        assertEquals(20, KeysetCursor.pageSize(20));
+        assertEquals(KeysetCursor.MAX_PAGE_SIZE, KeysetCursor.pageSize(10_000));
+    }
+}
@@ -0,0 +1,148 @@
+package hakan.rentacar.mappers;
+
+import hakan.rentacar.entities.concretes.Brand;
+import hakan.rentacar.entities.concretes.Car;
+import hakan.rentacar.entities.concretes.MaintenanceRecord;
+import hakan.rentacar.entities.concretes.Model;
+import hakan.rentacar.entities.dtos.CarDto;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of mapping one page of cars with the explicit CarMapper versus the ModelMapper it replaced.
+ * Run with {@link #main} to get gc.alloc.rate.norm (bytes allocated per page) next to the timings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CarMapperBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    private final CarMapper carMapper = new CarMapper();
+    private final ModelMapper modelMapper = new ModelMapper();
+
+    private List<Car> cars;
+    private List<CarDto> carDtos;
+
+    @Setup
+    public void setUp() {
+        Brand brand = new Brand();
+        brand.setId(1L);
+        brand.setName("Renault");
+        Model model = new Model();
+        model.setId(1L);
+        model.setName("Clio");
+        model.setBrand(brand);
+
+        cars = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            cars.add(car(i, model));
+        }
+        carDtos = new ArrayList<>(PAGE_SIZE);
+        for (Car car : cars) {
+            carDtos.add(carMapper.toDto(car));
+        }
+        // Warm the type maps so the baseline is steady-state ModelMapper, not its first-call setup
+        modelMapper.map(cars.get(0), CarDto.class);
+        modelMapper.map(carDtos.get(0), Car.class);
+    }
+
+    @Benchmark
+    public void explicitToDto(Blackhole blackhole) {
+        for (Car car : cars) {
+            blackhole.consume(carMapper.toDto(car));
+        }
+    }
+
+    @Benchmark
+    public void modelMapperToDto(Blackhole blackhole) {
+        for (Car car : cars) {
+            blackhole.consume(modelMapper.map(car, CarDto.class));
+        }
+    }
+
+    @Benchmark
+    public void explicitToEntity(Blackhole blackhole) {
+        for (CarDto dto : carDtos) {
+            blackhole.consume(carMapper.toEntity(dto));
+        }
+    }
+
+    @Benchmark
+    public void modelMapperToEntity(Blackhole blackhole) {
+        for (CarDto dto : carDtos) {
+            blackhole.consume(modelMapper.map(dto, Car.class));
+        }
+    }
+
+    private static Car car(int i, Model model) {
+        Car car = new Car();
+        car.setId((long) i + 1);
+        car.setPlate(String.format("34ABC%03d", i));
+        car.setDailyPrice(750.0 + i);
+        car.setModelYear(2020);
+        car.setState(1);
+        car.setModel(model);
+        car.setMileage(25_000L + i);
+        car.setFuelType("Benzin");
+        car.setTransmission("Otomatik");
+        car.setSegment("Ekonomi");
+        car.setColor("Beyaz");
+        car.setFeatures(List.of("Klima", "Navigasyon", "Bluetooth"));
+        car.setImages(List.of("/images/" + i + "/1.jpg", "/images/" + i + "/2.jpg"));
+        car.setLastMaintenanceDate(LocalDate.of(2024, 1, 15));
+        car.setNextMaintenanceDate(LocalDate.of(2024, 7, 15));
+        List<MaintenanceRecord> history = new ArrayList<>();
+        for (int m = 0; m < 3; m++) {
+            MaintenanceRecord record = new MaintenanceRecord();
+            record.setId((long) i * 10 + m);
+            record.setCar(car);
+            record.setMaintenanceDate(LocalDate.of(2023, 1 + m, 10));
+            record.setType("Periyodik");
+            record.setDescription("Yag ve filtre degisimi");
+            record.setCost(BigDecimal.valueOf(1500));
+            record.setMileage(10_000L * (m + 1));
+            record.setServiceProvider("Yetkili Servis");
+            history.add(record);
+        }
+        car.setMaintenanceHistory(history);
+        car.setInsuranceExpiryDate(LocalDate.of(2025, 3, 1));
+        car.setInsuranceCompany("Anadolu Sigorta");
+        car.setGpsLatitude(41.0082);
+        car.setGpsLongitude(28.9784);
+        car.setLastLocationUpdate(LocalDateTime.of(2024, 5, 1, 12, 0));
+        return car;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CarMapperBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,62 @@
+package hakan.rentacar.service.impl;
+
+import hakan.rentacar.entities.concretes.Car;
+import hakan.rentacar.repostories.CarRepository;
+import hakan.rentacar.repostories.RentalRepository;
+import hakan.rentacar.repostories.ReservationRepository;
+import hakan.rentacar.service.AvailabilityIndexService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Compares the in-memory availability index with the database queries it replaces
+@SpringBootTest
+class AvailabilityIndexConsistencyTest {
+
+    @Autowired
+    private AvailabilityIndexService availabilityIndexService;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    @Test
+    void indexAnswersMatchDatabase() {
+        availabilityIndexService.rebuild();
+
+        LocalDate today = LocalDate.now();
+        List<LocalDate[]> windows = List.of(
+                new LocalDate[]{today, today},
+                new LocalDate[]{today, today.plusDays(7)},
+                new LocalDate[]{today.minusDays(30), today.minusDays(1)},
+                new LocalDate[]{today.plusDays(30), today.plusDays(60)},
+                new LocalDate[]{today.minusYears(1), today.plusYears(1)});
+
+        for (Car car : carRepository.findAll()) {
+            for (LocalDate[] window : windows) {
+                boolean database = reservationRepository.findByCarIdAndDateRange(car.getId(), window[0], window[1]).isEmpty()
+                        && rentalRepository.findConflictingRentals(car.getId(), window[0], window[1]).isEmpty();
+                assertEquals(database, availabilityIndexService.isCarAvailable(car.getId(), window[0], window[1]),
+                        "car " + car.getId() + " [" + window[0] + ", " + window[1] + "]");
+            }
+        }
+    }
+
+    @Test
+    void verifierFindsNoDriftAfterRebuild() {
+        availabilityIndexService.rebuild();
+        Map<String, Object> report = availabilityIndexService.verifyConsistency();
+        assertEquals(0, ((Number) report.get("mismatchedCars")).intValue(), "mismatched cars: " + report.get("mismatchedCarIds"));
+    }
+}
@@ -0,0 +1,76 @@
+package hakan.rentacar.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookedIntervalsTest {
+
+    @Test
+    void emptyIndexHasNoOverlap() {
+        AvailabilityIndexServiceImpl.BookedIntervals intervals = AvailabilityIndexServiceImpl.BookedIntervals.of(new ArrayList<>());
+        assertFalse(intervals.overlaps(0, 100));
+    }
+
+    @Test
+    void rangeBoundsAreInclusive() {
+        AvailabilityIndexServiceImpl.BookedIntervals intervals = of(new long[]{10, 20});
+        assertTrue(intervals.overlaps(20, 25));
+        assertTrue(intervals.overlaps(5, 10));
+        assertTrue(intervals.overlaps(12, 15));
+        assertTrue(intervals.overlaps(0, 30));
+        assertFalse(intervals.overlaps(21, 25));
+        assertFalse(intervals.overlaps(0, 9));
+    }
+
+    @Test
+    void longRangeCoversGapsBetweenLaterShortRanges() {
+        // The short ranges start after the long one, so only maxEnds sees the long range
+        AvailabilityIndexServiceImpl.BookedIntervals intervals = of(new long[]{0, 100}, new long[]{10, 11}, new long[]{50, 51});
+        assertTrue(intervals.overlaps(30, 40));
+        assertTrue(intervals.overlaps(99, 120));
+        assertFalse(intervals.overlaps(101, 120));
+    }
+
+    @Test
+    void matchesBruteForceOnRandomRanges() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            List<long[]> ranges = new ArrayList<>();
+            int count = random.nextInt(20);
+            for (int i = 0; i < count; i++) {
+                long start = random.nextInt(365);
+                ranges.add(new long[]{start, start + random.nextInt(30)});
+            }
+            AvailabilityIndexServiceImpl.BookedIntervals intervals = AvailabilityIndexServiceImpl.BookedIntervals.of(new ArrayList<>(ranges));
+
+            for (int query = 0; query < 50; query++) {
+                long from = random.nextInt(400);
+                long to = from + random.nextInt(20);
+                boolean expected = ranges.stream().anyMatch(range -> range[0] <= to && range[1] >= from);
+                assertTrue(intervals.overlaps(from, to) == expected,
+                        "round " + round + " query [" + from + ", " + to + "]");
+            }
+        }
+    }
+
+    @Test
+    void sameRangesIgnoresInputOrder() {
+        AvailabilityIndexServiceImpl.BookedIntervals a = of(new long[]{1, 2}, new long[]{5, 8});
+        AvailabilityIndexServiceImpl.BookedIntervals b = of(new long[]{5, 8}, new long[]{1, 2});
+        AvailabilityIndexServiceImpl.BookedIntervals c = of(new long[]{5, 9}, new long[]{1, 2});
+        assertTrue(AvailabilityIndexServiceImpl.BookedIntervals.sameRanges(a, b));
+        assertFalse(AvailabilityIndexServiceImpl.BookedIntervals.sameRanges(a, c));
+        assertFalse(AvailabilityIndexServiceImpl.BookedIntervals.sameRanges(a, null));
+        assertTrue(AvailabilityIndexServiceImpl.BookedIntervals.sameRanges(null, null));
+    }
+
+    private static AvailabilityIndexServiceImpl.BookedIntervals of(long[]... ranges) {
+        return AvailabilityIndexServiceImpl.BookedIntervals.of(new ArrayList<>(List.of(ranges)));
+    }
+}
@@ -0,0 +1,238 @@
+package hakan.rentacar.service.impl;
+
+import hakan.rentacar.entities.concretes.Brand;
+import hakan.rentacar.entities.concretes.Car;
+import hakan.rentacar.entities.concretes.Customer;
+import hakan.rentacar.entities.concretes.Model;
+import hakan.rentacar.entities.dtos.RentalDto;
+import hakan.rentacar.entities.dtos.ReservationDto;
+import hakan.rentacar.repostories.BrandRepostory;
+import hakan.rentacar.repostories.CarRepository;
+import hakan.rentacar.repostories.CustomerRepository;
+import hakan.rentacar.repostories.ModelRepostory;
+import hakan.rentacar.repostories.RentalRepository;
+import hakan.rentacar.service.EmailService;
+import hakan.rentacar.service.NotificationService;
+import hakan.rentacar.service.RentalService;
+import hakan.rentacar.service.ReservationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Races thousands of bookings of one fixture car for overlapping dates; exactly one per window must survive
+@SpringBootTest
+class BookingConcurrencyTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingConcurrencyTest.class);
+
+    private static final int THREADS = 32;
+    private static final int WINDOWS = 64;
+    private static final int ATTEMPTS_PER_WINDOW = 64;
+    private static final int WINDOW_DAYS = 10;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private RentalService rentalService;
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private ModelRepostory modelRepostory;
+
+    @Autowired
+    private BrandRepostory brandRepostory;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    // Reservation paths notify the customer; the race measures booking, not mail delivery
+    @MockBean
+    private EmailService emailService;
+
+    @MockBean
+    private NotificationService notificationService;
+
+    private Brand brand;
+    private Model model;
+    private Car car;
+    private Customer customer;
+
+    private final List<Long> reservationIds = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    void createFixtures() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        brand = brandRepostory.save(Brand.builder().name("Race " + suffix).build());
+        model = modelRepostory.save(Model.builder().name("Race " + suffix).brand(brand).build());
+        car = carRepository.save(Car.builder()
+                .plate("RACE-" + suffix)
+                .dailyPrice(100.0)
+                .modelYear(2024)
+                .state(1)
+                .model(model)
+                .build());
+        customer = customerRepository.save(Customer.builder()
+                .firstName("Race")
+                .lastName(suffix)
+                .street("Test")
+                .zipcode(34000)
+                .city("Istanbul")
+                .phone("5550000000")
+                .email("race-" + suffix + "@example.com")
+                .dateOfBirth(LocalDate.of(1990, 1, 1))
+                .idNumber("RACE-" + suffix)
+                .driverLicenseNumber("RACE-" + suffix)
+                .build());
+    }
+
+    @AfterEach
+    void removeFixtures() {
+        reservationIds.forEach(reservationService::delete);
+        rentalRepository.findByCarId(car.getId())
+                .forEach(rental -> rentalService.delete(rental.getId()));
+        customerRepository.delete(customer);
+        carRepository.delete(car);
+        modelRepostory.delete(model);
+        brandRepostory.delete(brand);
+    }
+
+    @Test
+    void concurrentReservationsKeepOneBookingPerWindow() throws Exception {
+        LocalDate base = LocalDate.now().plusDays(1);
+
+        List<Long> created = race("reservations", attempts(base, window -> () -> {
+            Long id = reservationService.create(ReservationDto.builder()
+                    .carId(car.getId())
+                    .customerId(customer.getId())
+                    .startDate(window[0])
+                    .endDate(window[1])
+                    .build()).getId();
+            reservationIds.add(id);
+            return id;
+        }));
+        assertEquals(WINDOWS, created.size(), "one reservation per overlapping window");
+    }
+
+    @Test
+    void concurrentRentalsKeepOneBookingPerWindow() throws Exception {
+        LocalDate base = LocalDate.now().plusDays(1);
+
+        List<Long> created = race("rentals", attempts(base, this::addRental));
+        assertEquals(WINDOWS, created.size(), "one rental per overlapping window");
+        assertEquals(WINDOWS, bookedRentals());
+    }
+
+    // Confirming a reservation inserts a rental, so it races the direct rental path for the same car
+    @Test
+    void confirmationsAndRentalsKeepOneRentalPerWindow() throws Exception {
+        LocalDate base = LocalDate.now().plusDays(1);
+        List<Callable<Long>> attempts = attempts(base, this::addRental);
+        for (int w = 0; w < WINDOWS; w++) {
+            LocalDate start = windowStart(base, w);
+            Long reservationId = reservationService.create(ReservationDto.builder()
+                    .carId(car.getId())
+                    .customerId(customer.getId())
+                    .startDate(start)
+                    .endDate(start.plusDays(WINDOW_DAYS / 2))
+                    .build()).getId();
+            reservationIds.add(reservationId);
+            attempts.add(() -> reservationService.confirmReservation(reservationId).getId());
+        }
+        Collections.shuffle(attempts);
+
+        race("confirmations and rentals", attempts);
+        assertEquals(WINDOWS, bookedRentals());
+    }
+
+    private Callable<Long> addRental(LocalDate[] window) {
+        return () -> rentalService.add(RentalDto.builder()
+                .carId(car.getId())
+                .customerId(customer.getId())
+                .start(window[0])
+                .end(window[1])
+                .extraCosts(0)
+                .build()).getId();
+    }
+
+    private long bookedRentals() {
+        return rentalRepository.findByCarId(car.getId()).size();
+    }
+
+    // Every attempt for window w starts inside [windowStart(w), + WINDOW_DAYS), so attempts of the same
+    // window overlap each other and windows never overlap one another
+    private List<Callable<Long>> attempts(LocalDate base, Function<LocalDate[], Callable<Long>> book) {
+        List<Callable<Long>> attempts = new ArrayList<>();
+        for (int w = 0; w < WINDOWS; w++) {
+            for (int a = 0; a < ATTEMPTS_PER_WINDOW; a++) {
+                LocalDate start = windowStart(base, w).plusDays(a % (WINDOW_DAYS / 2));
+                attempts.add(book.apply(new LocalDate[]{start, start.plusDays(WINDOW_DAYS / 2)}));
+            }
+        }
+        Collections.shuffle(attempts);
+        return attempts;
+    }
+
+    private static LocalDate windowStart(LocalDate base, int window) {
+        return base.plusDays((long) window * 2 * WINDOW_DAYS);
+    }
+
+    private List<Long> race(String label, List<Callable<Long>> attempts) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Future<Long>> futures = new ArrayList<>();
+        for (Callable<Long> attempt : attempts) {
+            futures.add(executor.submit(() -> {
+                startSignal.await();
+                try {
+                    return attempt.call();
+                } catch (RuntimeException rejected) {
+                    return null;
+                }
+            }));
+        }
+
+        long startTime = System.nanoTime();
+        startSignal.countDown();
+        List<Long> created = new ArrayList<>();
+        for (Future<Long> future : futures) {
+            Long id = future.get(5, TimeUnit.MINUTES);
+            if (id != null) {
+                created.add(id);
+            }
+        }
+        long elapsedNanos = System.nanoTime() - startTime;
+        executor.shutdown();
+
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        logger.info("{}: {} attempts on {} threads, {} accepted, {} ms, {} bookings/s",
+                label, attempts.size(), THREADS, created.size(), elapsedNanos / 1_000_000,
+                String.format("%.1f", attempts.size() / seconds));
+        return created;
+    }
+}
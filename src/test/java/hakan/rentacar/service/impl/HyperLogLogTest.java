@@ -0,0 +1,62 @@
+package hakan.rentacar.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperLogLogTest {
+
+    // Three standard errors: a correct sketch stays inside in more than 99% of runs
+    private static final double BOUND = 3 * HyperLogLog.STANDARD_ERROR;
+
+    @Test
+    void emptyCounterEstimatesZero() {
+        assertEquals(0L, new HyperLogLog().estimate());
+    }
+
+    @Test
+    void duplicatesAreCountedOnce() {
+        HyperLogLog counter = new HyperLogLog();
+        for (int round = 0; round < 10; round++) {
+            for (long id = 1; id <= 500; id++) {
+                counter.add(id);
+            }
+        }
+        assertWithinBound(500, counter.estimate());
+    }
+
+    @Test
+    void estimateStaysWithinErrorBoundAcrossCardinalities() {
+        Random random = new Random(11);
+        for (int cardinality : new int[]{100, 1_000, 10_000, 100_000, 1_000_000}) {
+            HyperLogLog counter = new HyperLogLog();
+            long base = random.nextLong() & 0x0000_FFFF_FFFF_FFFFL;
+            for (int i = 0; i < cardinality; i++) {
+                counter.add(base + i);
+            }
+            assertWithinBound(cardinality, counter.estimate());
+        }
+    }
+
+    @Test
+    void mergeEstimatesTheUnion() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        for (long id = 0; id < 60_000; id++) {
+            first.add(id);
+        }
+        for (long id = 40_000; id < 100_000; id++) {
+            second.add(id);
+        }
+        first.merge(second);
+        assertWithinBound(100_000, first.estimate());
+    }
+
+    private static void assertWithinBound(long expected, long estimate) {
+        double error = Math.abs(estimate - expected) / (double) expected;
+        assertTrue(error <= BOUND, () -> "estimate " + estimate + " for " + expected + ", error " + error);
+    }
+}
@@ -0,0 +1,108 @@
+package hakan.rentacar.service.impl;
+
+import hakan.rentacar.entities.concretes.Invoice.InvoiceStatus;
+import hakan.rentacar.entities.dtos.InvoiceSummaryDto;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InvoiceStatusTotalsTest {
+
+    @Test
+    void emptyTotalsAreZero() {
+        InvoiceSummaryDto summary = new InvoiceStatusTotals().toSummary();
+        assertEquals(0L, summary.getCount().longValue());
+        assertAmount("0", summary.getTotalAmount());
+        assertEquals(InvoiceStatus.values().length, summary.getByStatus().size());
+    }
+
+    @Test
+    void buildsSummaryFromGroupedRows() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{InvoiceStatus.PENDING, 3L, new BigDecimal("300.00")});
+        rows.add(new Object[]{InvoiceStatus.PAID, 2, new BigDecimal("250.50")});
+        rows.add(new Object[]{InvoiceStatus.OVERDUE, 1L, null});
+
+        InvoiceSummaryDto summary = InvoiceStatusTotals.of(rows).toSummary();
+        assertEquals(6L, summary.getCount().longValue());
+        assertAmount("550.50", summary.getTotalAmount());
+        assertAmount("300.00", summary.getPendingAmount());
+        assertAmount("250.50", summary.getPaidAmount());
+        assertAmount("0", summary.getOverdueAmount());
+        assertEquals(2L, summary.getByStatus().get("PAID").getCount().longValue());
+    }
+
+    @Test
+    void moveShiftsCountAndAmountBetweenStatuses() {
+        InvoiceStatusTotals totals = new InvoiceStatusTotals();
+        totals.move(null, null, InvoiceStatus.PENDING, new BigDecimal("100"));
+        totals.move(null, null, InvoiceStatus.PENDING, new BigDecimal("40"));
+        totals.move(InvoiceStatus.PENDING, new BigDecimal("100"), InvoiceStatus.PAID, new BigDecimal("100"));
+        // Amount edit without a status change
+        totals.move(InvoiceStatus.PENDING, new BigDecimal("40"), InvoiceStatus.PENDING, new BigDecimal("45"));
+
+        InvoiceSummaryDto summary = totals.toSummary();
+        assertEquals(2L, summary.getCount().longValue());
+        assertAmount("45", summary.getPendingAmount());
+        assertAmount("100", summary.getPaidAmount());
+        assertAmount("145", summary.getTotalAmount());
+
+        // Deleting an invoice
+        totals.move(InvoiceStatus.PAID, new BigDecimal("100"), null, null);
+        assertEquals(1L, totals.toSummary().getCount().longValue());
+        assertAmount("0", totals.toSummary().getPaidAmount());
+    }
+
+    @Test
+    void replaceWithCopiesReseededTotals() {
+        InvoiceStatusTotals live = new InvoiceStatusTotals();
+        live.move(null, null, InvoiceStatus.PENDING, new BigDecimal("999"));
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{InvoiceStatus.SENT, 4L, new BigDecimal("80")});
+
+        live.replaceWith(InvoiceStatusTotals.of(rows));
+        InvoiceSummaryDto summary = live.toSummary();
+        assertEquals(4L, summary.getCount().longValue());
+        assertAmount("0", summary.getPendingAmount());
+        assertAmount("80", summary.getByStatus().get("SENT").getAmount());
+    }
+
+    @Test
+    void concurrentMovesMatchSequentialTotals() throws Exception {
+        InvoiceStatus[] statuses = InvoiceStatus.values();
+        InvoiceStatusTotals concurrent = new InvoiceStatusTotals();
+        InvoiceStatusTotals sequential = new InvoiceStatusTotals();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        Random random = new Random(1);
+        for (int i = 0; i < 10_000; i++) {
+            InvoiceStatus from = random.nextBoolean() ? statuses[random.nextInt(statuses.length)] : null;
+            InvoiceStatus to = statuses[random.nextInt(statuses.length)];
+            BigDecimal amount = BigDecimal.valueOf(random.nextInt(100_000), 2);
+            sequential.move(from, amount, to, amount);
+            executor.execute(() -> concurrent.move(from, amount, to, amount));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        InvoiceSummaryDto expected = sequential.toSummary();
+        InvoiceSummaryDto actual = concurrent.toSummary();
+        assertEquals(expected.getCount(), actual.getCount());
+        assertAmount(expected.getTotalAmount().toPlainString(), actual.getTotalAmount());
+        for (InvoiceStatus status : statuses) {
+            assertEquals(expected.getByStatus().get(status.name()).getCount(), actual.getByStatus().get(status.name()).getCount());
+        }
+    }
+
+    private static void assertAmount(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), () -> "expected " + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,64 @@
+package hakan.rentacar.service.impl;
+
+import hakan.rentacar.entities.concretes.GeneralLedger;
+import hakan.rentacar.entities.dtos.JournalEntryDto;
+import hakan.rentacar.entities.dtos.JournalPostingResultDto;
+import hakan.rentacar.service.GeneralLedgerService;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Month-end bulk posting: 50,000 two-line documents (100,000 ledger lines) in one call.
+ * Reports lines/s; the test transaction is rolled back, so nothing stays in the ledger.
+ */
+@SpringBootTest
+@Transactional
+class JournalPostingBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalPostingBenchmarkTest.class);
+
+    private static final int DOCUMENTS = 50_000;
+
+    @Autowired
+    private GeneralLedgerService generalLedgerService;
+
+    @Test
+    void postsMonthEndBatch() {
+        List<JournalEntryDto> entries = new ArrayList<>(DOCUMENTS);
+        for (int i = 0; i < DOCUMENTS; i++) {
+            BigDecimal amount = BigDecimal.valueOf(100 + i % 900, 0);
+            entries.add(JournalEntryDto.builder()
+                    .transactionType(GeneralLedger.TransactionType.REVENUE)
+                    .description("Ay sonu toplu kayit #" + i)
+                    .lines(List.of(
+                            JournalEntryDto.Line.builder()
+                                    .accountType(GeneralLedger.AccountType.ACCOUNTS_RECEIVABLE)
+                                    .debitAmount(amount)
+                                    .build(),
+                            JournalEntryDto.Line.builder()
+                                    .accountType(GeneralLedger.AccountType.RENTAL_REVENUE)
+                                    .creditAmount(amount)
+                                    .build()))
+                    .build());
+        }
+
+        long startTime = System.nanoTime();
+        JournalPostingResultDto result = generalLedgerService.postJournalEntries(entries);
+        long elapsedMs = (System.nanoTime() - startTime) / 1_000_000;
+
+        assertEquals(DOCUMENTS, result.getDocuments().intValue());
+        assertEquals(2 * DOCUMENTS, result.getLines().intValue());
+        logger.info("Posted {} documents ({} lines) in {} ms, {} lines/s",
+                result.getDocuments(), result.getLines(), elapsedMs, result.getLines() * 1000L / Math.max(1, elapsedMs));
+    }
+}
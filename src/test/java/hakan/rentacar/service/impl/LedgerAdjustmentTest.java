@@ -0,0 +1,320 @@
+package hakan.rentacar.service.impl;
+
+import hakan.rentacar.entities.concretes.GeneralLedger;
+import hakan.rentacar.entities.concretes.Invoice;
+import hakan.rentacar.entities.concretes.Payment;
+import hakan.rentacar.entities.concretes.Rental;
+import hakan.rentacar.entities.concretes.TaxCalculation;
+import hakan.rentacar.repostories.GeneralLedgerBatchRepository;
+import hakan.rentacar.repostories.GeneralLedgerRepository;
+import hakan.rentacar.repostories.LedgerPeriodCloseRepository;
+import hakan.rentacar.repostories.TaxCalculationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.AuditorAware;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Posting the same source again after it changed books only the difference: amount edits, cancelled
+ * invoices, refunded, failed and deleted sources end up with ledger and tax totals matching the
+ * source. The ledger and tax tables are kept in memory, so the reconciliation reads back exactly
+ * what it wrote.
+ */
+class LedgerAdjustmentTest {
+
+    private final List<GeneralLedger> ledger = new ArrayList<>();
+    private final List<TaxCalculation> taxes = new ArrayList<>();
+
+    private GeneralLedgerServiceImpl generalLedgerService;
+    private TaxCalculationServiceImpl taxCalculationService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        GeneralLedgerBatchRepository batchRepository = new InMemoryLedgerBatch();
+        LedgerDocumentNumbers documentNumbers = new LedgerDocumentNumbers();
+        inject(documentNumbers, "generalLedgerBatchRepository", batchRepository);
+
+        generalLedgerService = new GeneralLedgerServiceImpl();
+        inject(generalLedgerService, "generalLedgerRepository", fake(GeneralLedgerRepository.class, this::ledgerQuery));
+        inject(generalLedgerService, "ledgerPeriodCloseRepository", fake(LedgerPeriodCloseRepository.class,
+                (proxy, method, args) -> method.getName().equals("findLatestPeriodEnd") ? null : unsupported(method)));
+        inject(generalLedgerService, "generalLedgerBatchRepository", batchRepository);
+        inject(generalLedgerService, "ledgerDocumentNumbers", documentNumbers);
+        inject(generalLedgerService, "auditorAware", (AuditorAware<String>) Optional::empty);
+
+        taxCalculationService = new TaxCalculationServiceImpl();
+        inject(taxCalculationService, "taxCalculationRepository", fake(TaxCalculationRepository.class, this::taxQuery));
+    }
+
+    @Test
+    void invoiceEditsAndCancellationAdjustTheReceivable() {
+        Invoice invoice = invoice(1L, "1000.00", "180.00");
+
+        postInvoice(invoice);
+        assertAmount("1180.00", postedNet("INVOICE", 1L, GeneralLedger.AccountType.ACCOUNTS_RECEIVABLE));
+        assertAmount("-1180.00", postedNet("INVOICE", 1L, GeneralLedger.AccountType.RENTAL_REVENUE));
+        assertAmount("180.00", recordedTax(invoiceTaxes(1L)));
+
+        invoice.setSubtotal(new BigDecimal("1200.00"));
+        invoice.setTaxAmount(new BigDecimal("216.00"));
+        invoice.setTotalAmount(new BigDecimal("1416.00"));
+        postInvoice(invoice);
+        assertAmount("1416.00", postedNet("INVOICE", 1L, GeneralLedger.AccountType.ACCOUNTS_RECEIVABLE));
+        assertAmount("216.00", recordedTax(invoiceTaxes(1L)));
+        assertEquals("Fatura düzeltmesi - Kiralama #7", lastDescription("INVOICE", 1L));
+
+        invoice.setStatus(Invoice.InvoiceStatus.CANCELLED);
+        postInvoice(invoice);
+        assertAmount("0", postedNet("INVOICE", 1L, GeneralLedger.AccountType.ACCOUNTS_RECEIVABLE));
+        assertAmount("0", postedNet("INVOICE", 1L, GeneralLedger.AccountType.RENTAL_REVENUE));
+        assertAmount("0", recordedTax(invoiceTaxes(1L)));
+        assertEquals("Fatura iptali - Kiralama #7", lastDescription("INVOICE", 1L));
+
+        // Re-posting an unchanged source adds nothing
+        int rows = ledger.size();
+        assertEquals(0, generalLedgerService.recordBusinessEvents(List.of(), List.of(invoice)));
+        assertEquals(rows, ledger.size());
+        assertBalanced();
+    }
+
+    @Test
+    void refundsAndFailedPaymentsReverseTheCash() {
+        Payment payment = payment(1L, "1500.00", Payment.PaymentStatus.COMPLETED);
+        postPayment(payment);
+        assertAmount("1500.00", postedNet("PAYMENT", 1L, GeneralLedger.AccountType.CASH_ASSET));
+        assertAmount("228.81", recordedTax(paymentTaxes(1L, TaxCalculation.TaxType.VAT)));
+        assertAmount("22.50", recordedTax(paymentTaxes(1L, TaxCalculation.TaxType.WITHHOLDING_TAX)));
+
+        Payment refund = payment(2L, "-1200.00", Payment.PaymentStatus.REFUNDED);
+        postPayment(refund);
+        assertAmount("-1200.00", postedNet("PAYMENT", 2L, GeneralLedger.AccountType.CASH_ASSET));
+        assertAmount("1200.00", postedNet("PAYMENT", 2L, GeneralLedger.AccountType.ACCOUNTS_RECEIVABLE));
+        assertAmount("-183.05", recordedTax(paymentTaxes(2L, TaxCalculation.TaxType.VAT)));
+        assertEquals("Ödeme iadesi - Kiralama #7", lastDescription("PAYMENT", 2L));
+
+        payment.setStatus(Payment.PaymentStatus.FAILED);
+        postPayment(payment);
+        assertAmount("0", postedNet("PAYMENT", 1L, GeneralLedger.AccountType.CASH_ASSET));
+        assertAmount("0", recordedTax(paymentTaxes(1L, TaxCalculation.TaxType.VAT)));
+        assertAmount("0", recordedTax(paymentTaxes(1L, TaxCalculation.TaxType.WITHHOLDING_TAX)));
+
+        assertEquals(0, generalLedgerService.recordBusinessEvents(List.of(payment, refund), List.of()));
+        assertBalanced();
+    }
+
+    @Test
+    void deletedSourcesAreReversed() {
+        Invoice invoice = invoice(1L, "1000.00", "180.00");
+        Payment payment = payment(2L, "1180.00", Payment.PaymentStatus.COMPLETED);
+        postInvoice(invoice);
+        postPayment(payment);
+
+        taxCalculationService.reverseTaxForDeletedInvoice(invoice);
+        taxCalculationService.reverseTaxForDeletedPayment(payment);
+        assertEquals(2, generalLedgerService.reverseDeletedSources(Set.of(2L), Set.of(1L)));
+
+        assertAmount("0", postedNet("INVOICE", 1L, GeneralLedger.AccountType.ACCOUNTS_RECEIVABLE));
+        assertAmount("0", postedNet("PAYMENT", 2L, GeneralLedger.AccountType.CASH_ASSET));
+        assertEquals("Fatura silindi - Fatura #1", lastDescription("INVOICE", 1L));
+        assertEquals("Ödeme silindi - Ödeme #2", lastDescription("PAYMENT", 2L));
+        // The calculations stay in the books, unlinked and summing to zero
+        assertEquals(0, taxes.stream().filter(tax -> tax.getInvoice() != null || tax.getPayment() != null).count());
+        assertAmount("0", recordedTax(taxes));
+
+        // Nothing left to reverse on a second delivery
+        assertEquals(0, generalLedgerService.reverseDeletedSources(Set.of(2L), Set.of(1L)));
+        assertBalanced();
+    }
+
+    private void postInvoice(Invoice invoice) {
+        generalLedgerService.recordBusinessEvents(List.of(), List.of(invoice));
+        taxCalculationService.calculateTaxForInvoices(List.of(invoice));
+    }
+
+    private void postPayment(Payment payment) {
+        generalLedgerService.recordBusinessEvents(List.of(payment), List.of());
+        taxCalculationService.calculateTaxForPayments(List.of(payment));
+    }
+
+    private static Invoice invoice(Long id, String subtotal, String taxAmount) {
+        Invoice invoice = new Invoice();
+        invoice.setId(id);
+        invoice.setRental(rental());
+        invoice.setInvoiceNumber("INV-" + id);
+        invoice.setStatus(Invoice.InvoiceStatus.SENT);
+        invoice.setSubtotal(new BigDecimal(subtotal));
+        invoice.setTaxRate(new BigDecimal("0.18"));
+        invoice.setTaxAmount(new BigDecimal(taxAmount));
+        invoice.setTotalAmount(invoice.getSubtotal().add(invoice.getTaxAmount()));
+        return invoice;
+    }
+
+    private static Payment payment(Long id, String amount, Payment.PaymentStatus status) {
+        Payment payment = new Payment();
+        payment.setId(id);
+        payment.setRental(rental());
+        payment.setAmount(new BigDecimal(amount));
+        payment.setStatus(status);
+        payment.setMethod(Payment.PaymentMethod.BANK_TRANSFER);
+        return payment;
+    }
+
+    private static Rental rental() {
+        Rental rental = new Rental();
+        rental.setId(7L);
+        return rental;
+    }
+
+    private BigDecimal postedNet(String referenceType, Long referenceId, GeneralLedger.AccountType accountType) {
+        return ledger.stream()
+                .filter(row -> row.getReferenceType().equals(referenceType) && row.getReferenceId().equals(referenceId)
+                        && row.getAccountType() == accountType)
+                .map(row -> row.getDebitAmount().subtract(row.getCreditAmount()))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private String lastDescription(String referenceType, Long referenceId) {
+        return ledger.stream()
+                .filter(row -> row.getReferenceType().equals(referenceType) && row.getReferenceId().equals(referenceId))
+                .reduce((first, second) -> second)
+                .map(GeneralLedger::getDescription)
+                .orElse(null);
+    }
+
+    private List<TaxCalculation> invoiceTaxes(Long invoiceId) {
+        return taxes.stream().filter(tax -> tax.getInvoice() != null && tax.getInvoice().getId().equals(invoiceId))
+                .collect(Collectors.toList());
+    }
+
+    private List<TaxCalculation> paymentTaxes(Long paymentId, TaxCalculation.TaxType taxType) {
+        return taxes.stream().filter(tax -> tax.getPayment() != null && tax.getPayment().getId().equals(paymentId)
+                        && tax.getTaxType() == taxType)
+                .collect(Collectors.toList());
+    }
+
+    private static BigDecimal recordedTax(List<TaxCalculation> calculations) {
+        return calculations.stream().map(TaxCalculation::getTaxAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private void assertBalanced() {
+        BigDecimal debits = ledger.stream().map(GeneralLedger::getDebitAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal credits = ledger.stream().map(GeneralLedger::getCreditAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertAmount(debits.toPlainString(), credits);
+    }
+
+    private static void assertAmount(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), () -> "expected " + expected + " but was " + actual);
+    }
+
+    // getPostedNetByReference over the in-memory ledger: (referenceId, debit - credit)
+    @SuppressWarnings("unchecked")
+    private Object ledgerQuery(Object proxy, Method method, Object[] args) {
+        if (!method.getName().equals("getPostedNetByReference")) {
+            return unsupported(method);
+        }
+        Collection<Long> referenceIds = (Collection<Long>) args[1];
+        Map<Long, BigDecimal> net = new LinkedHashMap<>();
+        for (GeneralLedger row : ledger) {
+            if (row.getReferenceType().equals(args[0]) && referenceIds.contains(row.getReferenceId())
+                    && row.getAccountType() == args[2]) {
+                net.merge(row.getReferenceId(), row.getDebitAmount().subtract(row.getCreditAmount()), BigDecimal::add);
+            }
+        }
+        return net.entrySet().stream().map(entry -> new Object[]{entry.getKey(), entry.getValue()}).collect(Collectors.toList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object taxQuery(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "save":
+                taxes.add((TaxCalculation) args[0]);
+                return args[0];
+            case "getRecordedTaxByInvoice":
+                return recordedBySource((Collection<Long>) args[0], tax -> tax.getInvoice() != null ? tax.getInvoice().getId() : null);
+            case "getRecordedTaxByPayment":
+                return recordedBySource((Collection<Long>) args[0], tax -> tax.getPayment() != null ? tax.getPayment().getId() : null);
+            case "detachInvoice":
+                taxes.stream().filter(tax -> tax.getInvoice() != null && tax.getInvoice().getId().equals(args[0]))
+                        .forEach(tax -> tax.setInvoice(null));
+                return 0;
+            case "detachPayment":
+                taxes.stream().filter(tax -> tax.getPayment() != null && tax.getPayment().getId().equals(args[0]))
+                        .forEach(tax -> tax.setPayment(null));
+                return 0;
+            default:
+                return unsupported(method);
+        }
+    }
+
+    // (sourceId, taxType, taxableAmount, taxAmount) like the repository's GROUP BY
+    private List<Object[]> recordedBySource(Collection<Long> sourceIds, Function<TaxCalculation, Long> sourceOf) {
+        Map<List<Object>, BigDecimal[]> sums = new LinkedHashMap<>();
+        for (TaxCalculation tax : taxes) {
+            Long sourceId = sourceOf.apply(tax);
+            if (sourceId != null && sourceIds.contains(sourceId)) {
+                BigDecimal[] sum = sums.computeIfAbsent(List.of(sourceId, tax.getTaxType()),
+                        key -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+                sum[0] = sum[0].add(tax.getTaxableAmount());
+                sum[1] = sum[1].add(tax.getTaxAmount());
+            }
+        }
+        return sums.entrySet().stream()
+                .map(entry -> new Object[]{entry.getKey().get(0), entry.getKey().get(1), entry.getValue()[0], entry.getValue()[1]})
+                .collect(Collectors.toList());
+    }
+
+    private static Object unsupported(Method method) {
+        throw new UnsupportedOperationException(method.getName());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T fake(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static void inject(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    // Keeps inserted journal lines in the test's ledger and numbers documents from a local sequence
+    private class InMemoryLedgerBatch extends GeneralLedgerBatchRepository {
+
+        private long sequence = 1;
+
+        @Override
+        public List<Long> nextDocumentNumberBlocks(int blocks) {
+            List<Long> starts = LongStream.range(0, blocks)
+                    .map(block -> sequence + block * DOCUMENT_NUMBER_ALLOCATION_SIZE)
+                    .boxed()
+                    .collect(Collectors.toList());
+            sequence += (long) blocks * DOCUMENT_NUMBER_ALLOCATION_SIZE;
+            return starts;
+        }
+
+        @Override
+        public void insertAll(List<GeneralLedger> entries, String createdBy) {
+            entries.forEach(entry -> Objects.requireNonNull(entry.getDocumentNumber()));
+            ledger.addAll(entries);
+        }
+    }
+}
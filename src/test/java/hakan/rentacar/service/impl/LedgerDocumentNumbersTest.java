@@ -0,0 +1,107 @@
+package hakan.rentacar.service.impl;
+
+import hakan.rentacar.repostories.GeneralLedgerBatchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LedgerDocumentNumbersTest {
+
+    private static final int BLOCK = GeneralLedgerBatchRepository.DOCUMENT_NUMBER_ALLOCATION_SIZE;
+
+    private FakeSequence sequence;
+    private LedgerDocumentNumbers documentNumbers;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        sequence = new FakeSequence();
+        documentNumbers = new LedgerDocumentNumbers();
+        Field repository = LedgerDocumentNumbers.class.getDeclaredField("generalLedgerBatchRepository");
+        repository.setAccessible(true);
+        repository.set(documentNumbers, sequence);
+    }
+
+    @Test
+    void formatsNumbersWithFixedWidth() {
+        assertEquals(List.of("GL-0000000001", "GL-0000000002"), documentNumbers.allocate(2));
+    }
+
+    @Test
+    void usesUpABlockBeforeCallingTheSequenceAgain() {
+        for (int i = 0; i < BLOCK; i++) {
+            documentNumbers.allocate(1);
+        }
+        assertEquals(1, sequence.calls);
+        assertEquals(List.of(String.format("GL-%010d", BLOCK + 1)), documentNumbers.allocate(1));
+        assertEquals(2, sequence.calls);
+    }
+
+    @Test
+    void bulkAllocationReservesAllBlocksInOneCall() {
+        documentNumbers.allocate(3);
+        List<String> numbers = documentNumbers.allocate(10 * BLOCK);
+        assertEquals(10 * BLOCK, numbers.size());
+        // The rest of the first block, then 10 new blocks in a single round trip
+        assertEquals(2, sequence.calls);
+        assertEquals("GL-0000000004", numbers.get(0));
+        assertEquals(10 * BLOCK, new HashSet<>(numbers).size());
+    }
+
+    @Test
+    void blocksFromOtherInstancesLeaveGapsButNoDuplicates() {
+        Set<String> seen = new HashSet<>();
+        seen.addAll(documentNumbers.allocate(BLOCK / 2));
+        // Another application instance takes the next block
+        sequence.nextDocumentNumberBlocks(1);
+        seen.addAll(documentNumbers.allocate(BLOCK));
+        assertEquals(BLOCK / 2 + BLOCK, seen.size());
+        assertTrue(seen.contains(String.format("GL-%010d", 2 * BLOCK + 1)));
+    }
+
+    @Test
+    void concurrentAllocationsNeverShareANumber() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<List<String>>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            int count = 1 + i % 70;
+            futures.add(executor.submit(() -> documentNumbers.allocate(count)));
+        }
+        Set<String> all = new HashSet<>();
+        int total = 0;
+        for (Future<List<String>> future : futures) {
+            List<String> numbers = future.get();
+            total += numbers.size();
+            all.addAll(numbers);
+        }
+        executor.shutdown();
+        assertEquals(total, all.size());
+    }
+
+    // gl_document_number_seq: START WITH 1 INCREMENT BY DOCUMENT_NUMBER_ALLOCATION_SIZE
+    private static class FakeSequence extends GeneralLedgerBatchRepository {
+        private long value = 1 - BLOCK;
+        private int calls;
+
+        @Override
+        public synchronized List<Long> nextDocumentNumberBlocks(int blocks) {
+            calls++;
+            List<Long> starts = new ArrayList<>(blocks);
+            for (int i = 0; i < blocks; i++) {
+                value += BLOCK;
+                starts.add(value);
+            }
+            return starts;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package hakan.rentacar.service.impl;
+
+import hakan.rentacar.entities.concretes.Invoice;
+import hakan.rentacar.entities.concretes.LedgerOutboxEvent;
+import hakan.rentacar.entities.concretes.Payment;
+import hakan.rentacar.repostories.InvoiceRepository;
+import hakan.rentacar.repostories.LedgerOutboxEventRepository;
+import hakan.rentacar.repostories.PaymentRepository;
+import hakan.rentacar.service.FinancialDashboardService;
+import hakan.rentacar.service.GeneralLedgerService;
+import hakan.rentacar.service.TaxCalculationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Outbox worker flow against an in-memory queue: batches are claimed and marked done together, a
+ * failing event rolls back its batch and is retried alone, it is parked after five attempts, and
+ * retryFailed puts it back in the queue. A failing batch writes nothing, like the rolled back
+ * transaction it stands for.
+ */
+class LedgerPostingServiceTest {
+
+    private final Map<Long, LedgerOutboxEvent> queue = new TreeMap<>();
+    private final Map<Long, Invoice> invoices = new HashMap<>();
+    private final Map<Long, Payment> payments = new HashMap<>();
+    private final Set<Long> poisonedInvoiceIds = new HashSet<>();
+    private final List<List<Long>> postedInvoiceBatches = new ArrayList<>();
+    private final List<Long> postedPaymentIds = new ArrayList<>();
+    private final Set<Long> reversedInvoiceIds = new HashSet<>();
+
+    private LedgerPostingServiceImpl service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        service = new LedgerPostingServiceImpl();
+        inject("ledgerOutboxEventRepository", fake(LedgerOutboxEventRepository.class, this::outbox));
+        inject("invoiceRepository", fake(InvoiceRepository.class, (proxy, method, args) ->
+                method.getName().equals("findAllById") ? load(invoices, args[0]) : unsupported(method.getName())));
+        inject("paymentRepository", fake(PaymentRepository.class, (proxy, method, args) ->
+                method.getName().equals("findAllById") ? load(payments, args[0]) : unsupported(method.getName())));
+        inject("generalLedgerService", fake(GeneralLedgerService.class, this::ledger));
+        inject("taxCalculationService", fake(TaxCalculationService.class, (proxy, method, args) -> null));
+        inject("financialDashboardService", fake(FinancialDashboardService.class, (proxy, method, args) -> null));
+        inject("self", service);
+        inject("batchSize", 500);
+    }
+
+    @Test
+    void postsPendingEventsInOneBatch() {
+        queueInvoice(1L);
+        queueInvoice(2L);
+        queuePayment(3L);
+
+        assertEquals(3, service.processPending());
+        assertEquals(List.of(List.of(1L, 2L)), postedInvoiceBatches);
+        assertEquals(List.of(3L), postedPaymentIds);
+        queue.values().forEach(event -> {
+            assertEquals(LedgerOutboxEvent.Status.DONE, event.getStatus());
+            assertNotNull(event.getProcessedAt());
+        });
+    }
+
+    @Test
+    void drainsTheQueueInBatches() throws Exception {
+        inject("batchSize", 2);
+        for (long id = 1; id <= 5; id++) {
+            queueInvoice(id);
+        }
+
+        assertEquals(5, service.processPending());
+        assertEquals(List.of(List.of(1L, 2L), List.of(3L, 4L), List.of(5L)), postedInvoiceBatches);
+    }
+
+    @Test
+    void failingEventIsRetriedAloneAndParkedAfterFiveAttempts() {
+        queueInvoice(1L);
+        LedgerOutboxEvent poisoned = queueInvoice(2L);
+        queueInvoice(3L);
+        poisonedInvoiceIds.add(2L);
+
+        // The batch fails as a whole, then the other two post one by one
+        assertEquals(2, service.processPending());
+        assertEquals(LedgerOutboxEvent.Status.DONE, queue.get(1L).getStatus());
+        assertEquals(LedgerOutboxEvent.Status.DONE, queue.get(3L).getStatus());
+        assertEquals(LedgerOutboxEvent.Status.PENDING, poisoned.getStatus());
+        assertEquals(1, poisoned.getAttempts().intValue());
+        assertEquals("Ledger rejected invoice 2", poisoned.getLastError());
+
+        for (int run = 0; run < 4; run++) {
+            assertEquals(0, service.processPending());
+        }
+        assertEquals(LedgerOutboxEvent.Status.FAILED, poisoned.getStatus());
+        assertEquals(5, poisoned.getAttempts().intValue());
+
+        // Parked events are no longer claimed
+        assertEquals(0, service.processPending());
+        assertEquals(5, poisoned.getAttempts().intValue());
+    }
+
+    @Test
+    void retryFailedRequeuesParkedEvents() {
+        LedgerOutboxEvent poisoned = queueInvoice(1L);
+        poisonedInvoiceIds.add(1L);
+        for (int run = 0; run < 5; run++) {
+            service.processPending();
+        }
+        assertEquals(LedgerOutboxEvent.Status.FAILED, poisoned.getStatus());
+
+        poisonedInvoiceIds.clear();
+        assertEquals(1, service.retryFailed());
+        assertEquals(LedgerOutboxEvent.Status.PENDING, poisoned.getStatus());
+        assertEquals(0, poisoned.getAttempts().intValue());
+
+        assertEquals(1, service.processPending());
+        assertEquals(LedgerOutboxEvent.Status.DONE, poisoned.getStatus());
+    }
+
+    @Test
+    void deletedSourceIsReversedInsteadOfParked() {
+        LedgerOutboxEvent event = queueInvoice(9L);
+        invoices.remove(9L);
+
+        assertEquals(1, service.processPending());
+        assertEquals(Set.of(9L), reversedInvoiceIds);
+        assertEquals(LedgerOutboxEvent.Status.DONE, event.getStatus());
+    }
+
+    private LedgerOutboxEvent queueInvoice(Long invoiceId) {
+        Invoice invoice = new Invoice();
+        invoice.setId(invoiceId);
+        invoices.put(invoiceId, invoice);
+        return queue(LedgerOutboxEvent.EventType.INVOICE_CHANGED, invoiceId);
+    }
+
+    private void queuePayment(Long paymentId) {
+        Payment payment = new Payment();
+        payment.setId(paymentId);
+        payments.put(paymentId, payment);
+        queue(LedgerOutboxEvent.EventType.PAYMENT_CHANGED, paymentId);
+    }
+
+    private LedgerOutboxEvent queue(LedgerOutboxEvent.EventType eventType, Long sourceId) {
+        long id = queue.size() + 1L;
+        LedgerOutboxEvent event = LedgerOutboxEvent.builder()
+                .id(id)
+                .eventType(eventType)
+                .sourceId(sourceId)
+                .status(LedgerOutboxEvent.Status.PENDING)
+                .attempts(0)
+                .createdAt(LocalDateTime.now())
+                .build();
+        queue.put(id, event);
+        return event;
+    }
+
+    // In-memory stand-in for the outbox table; claims only return rows, marking them is separate
+    @SuppressWarnings("unchecked")
+    private Object outbox(Object proxy, java.lang.reflect.Method method, Object[] args) {
+        switch (method.getName()) {
+            case "claimPending":
+                return pending().stream().limit((Integer) args[0]).collect(Collectors.toList());
+            case "claimById":
+                return Optional.ofNullable(queue.get((Long) args[0]))
+                        .filter(event -> event.getStatus() == LedgerOutboxEvent.Status.PENDING);
+            case "findPendingIds":
+                return pending().stream().limit(((Pageable) args[0]).getPageSize())
+                        .map(LedgerOutboxEvent::getId).collect(Collectors.toList());
+            case "findById":
+                return Optional.ofNullable(queue.get((Long) args[0]));
+            case "markDone":
+                int done = 0;
+                for (Long id : (Collection<Long>) args[0]) {
+                    queue.get(id).setStatus(LedgerOutboxEvent.Status.DONE);
+                    queue.get(id).setProcessedAt((LocalDateTime) args[1]);
+                    done++;
+                }
+                return done;
+            case "resetFailed":
+                int reset = 0;
+                for (LedgerOutboxEvent event : queue.values()) {
+                    if (event.getStatus() == LedgerOutboxEvent.Status.FAILED) {
+                        event.setStatus(LedgerOutboxEvent.Status.PENDING);
+                        event.setAttempts(0);
+                        reset++;
+                    }
+                }
+                return reset;
+            default:
+                return unsupported(method.getName());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object ledger(Object proxy, java.lang.reflect.Method method, Object[] args) {
+        switch (method.getName()) {
+            case "recordBusinessEvents":
+                List<Payment> paymentsToPost = (List<Payment>) args[0];
+                List<Invoice> invoicesToPost = (List<Invoice>) args[1];
+                for (Invoice invoice : invoicesToPost) {
+                    if (poisonedInvoiceIds.contains(invoice.getId())) {
+                        throw new IllegalStateException("Ledger rejected invoice " + invoice.getId());
+                    }
+                }
+                if (!invoicesToPost.isEmpty()) {
+                    postedInvoiceBatches.add(invoicesToPost.stream().map(Invoice::getId).collect(Collectors.toList()));
+                }
+                paymentsToPost.forEach(payment -> postedPaymentIds.add(payment.getId()));
+                return paymentsToPost.size() + invoicesToPost.size();
+            case "reverseDeletedSources":
+                reversedInvoiceIds.addAll((Set<Long>) args[1]);
+                return 0;
+            default:
+                return unsupported(method.getName());
+        }
+    }
+
+    private List<LedgerOutboxEvent> pending() {
+        return queue.values().stream()
+                .filter(event -> event.getStatus() == LedgerOutboxEvent.Status.PENDING)
+                .collect(Collectors.toList());
+    }
+
+    private static <T> List<T> load(Map<Long, T> sources, Object ids) {
+        List<T> found = new ArrayList<>();
+        for (Object id : (Iterable<?>) ids) {
+            if (sources.containsKey(id)) {
+                found.add(sources.get(id));
+            }
+        }
+        return found;
+    }
+
+    private static Object unsupported(String method) {
+        throw new UnsupportedOperationException(method);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T fake(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private void inject(String name, Object value) throws Exception {
+        Field field = LedgerPostingServiceImpl.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(service, value);
+    }
+}
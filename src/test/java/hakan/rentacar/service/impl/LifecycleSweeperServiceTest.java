@@ -0,0 +1,197 @@
+package hakan.rentacar.service.impl;
+
+import hakan.rentacar.entities.concretes.LifecycleSweepCheckpoint;
+import hakan.rentacar.entities.dtos.SweepResultDto;
+import hakan.rentacar.exceptions.BusinessException;
+import hakan.rentacar.repostories.LifecycleSweepCheckpointRepository;
+import hakan.rentacar.service.LifecycleSweep;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sweeper runs against an in-memory checkpoint table shared by several instances: a crash after a
+ * committed chunk, the resume that replays it, the reset at the end of a run and the lease that keeps
+ * a second instance out while the first one is alive.
+ */
+class LifecycleSweeperServiceTest {
+
+    private static final String SWEEP = "test-sweep";
+
+    private final Map<String, LifecycleSweepCheckpoint> checkpoints = new HashMap<>();
+    private final FakeSweep sweep = new FakeSweep();
+
+    @Test
+    void resumesAfterCrashByReplayingTheCommittedChunk() throws Exception {
+        sweep.open(LongStream.rangeClosed(1, 10));
+        sweep.crashOnCall = 2;
+        LifecycleSweeperServiceImpl first = instance();
+
+        assertThrows(Crash.class, () -> first.sweep(SWEEP));
+        LifecycleSweepCheckpoint checkpoint = checkpoints.get(SWEEP);
+        assertEquals(6L, checkpoint.getLastId().longValue());
+        assertEquals(6L, checkpoint.getRunRows().longValue());
+        assertEquals("4,5,6", checkpoint.getPendingIds());
+
+        // The crashed instance still holds the lease
+        LifecycleSweeperServiceImpl second = instance();
+        assertThrows(BusinessException.class, () -> second.sweep(SWEEP));
+
+        checkpoint.setLeaseUntil(LocalDateTime.now().minusSeconds(1));
+        sweep.calls.clear();
+        SweepResultDto result = second.sweep(SWEEP);
+
+        assertTrue(result.getResumed());
+        assertEquals(10L, result.getRows().longValue());
+        assertEquals(List.of("[4, 5, 6] replay", "[7, 8, 9]", "[10]"), sweep.calls);
+        assertEquals(ids(1, 10), sweep.moved);
+    }
+
+    @Test
+    void finishedRunResetsTheCheckpoint() throws Exception {
+        sweep.open(LongStream.rangeClosed(1, 7));
+        LifecycleSweeperServiceImpl service = instance();
+
+        SweepResultDto result = service.sweep(SWEEP);
+        assertEquals(7L, result.getRows().longValue());
+        LifecycleSweepCheckpoint checkpoint = checkpoints.get(SWEEP);
+        assertEquals(0L, checkpoint.getLastId().longValue());
+        assertEquals(0L, checkpoint.getRunRows().longValue());
+        assertNull(checkpoint.getPendingIds());
+        assertNull(checkpoint.getRunStartedAt());
+        assertNull(checkpoint.getRunOwner());
+        assertNull(checkpoint.getLeaseUntil());
+        assertEquals(7L, checkpoint.getLastRows().longValue());
+
+        // The next run starts from the first id again, so rows that became due below the old position move
+        sweep.open(LongStream.of(2, 20));
+        sweep.calls.clear();
+        result = service.sweep(SWEEP);
+        assertEquals(2L, result.getRows().longValue());
+        assertFalse(result.getResumed());
+        assertEquals(List.of("[2, 20]"), sweep.calls);
+    }
+
+    @Test
+    void instanceThatLostItsLeaseStopsWithoutMovingRows() throws Exception {
+        sweep.open(LongStream.rangeClosed(1, 10));
+        LifecycleSweeperServiceImpl first = instance();
+        LifecycleSweeperServiceImpl second = instance();
+        // The first instance stalls in its handlers past its lease and the second one takes over
+        sweep.onCall = 1;
+        sweep.hook = () -> {
+            checkpoints.get(SWEEP).setLeaseUntil(LocalDateTime.now().minusSeconds(1));
+            second.sweep(SWEEP);
+        };
+
+        BusinessException lost = assertThrows(BusinessException.class, () -> first.sweep(SWEEP));
+        assertTrue(lost.getMessage().contains("taken over"));
+        assertEquals(ids(1, 10), sweep.moved);
+        assertNull(checkpoints.get(SWEEP).getRunOwner());
+        assertEquals(10L, checkpoints.get(SWEEP).getLastRows().longValue());
+    }
+
+    private static List<Long> ids(long from, long to) {
+        return LongStream.rangeClosed(from, to).boxed().collect(Collectors.toList());
+    }
+
+    private LifecycleSweeperServiceImpl instance() throws Exception {
+        LifecycleSweepCheckpointRepository repository = (LifecycleSweepCheckpointRepository) Proxy.newProxyInstance(
+                LifecycleSweepCheckpointRepository.class.getClassLoader(),
+                new Class<?>[]{LifecycleSweepCheckpointRepository.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findById":
+                        case "findByIdForUpdate":
+                            return Optional.ofNullable(checkpoints.get((String) args[0]));
+                        case "findAll":
+                            return new ArrayList<>(checkpoints.values());
+                        case "save":
+                            LifecycleSweepCheckpoint checkpoint = (LifecycleSweepCheckpoint) args[0];
+                            checkpoints.put(checkpoint.getSweepName(), checkpoint);
+                            return checkpoint;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        LifecycleSweeperServiceImpl service = new LifecycleSweeperServiceImpl();
+        inject(service, "checkpointRepository", repository);
+        inject(service, "sweeps", List.of(sweep));
+        inject(service, "self", service);
+        inject(service, "chunkSize", 3);
+        inject(service, "leaseSeconds", 600L);
+        return service;
+    }
+
+    private static void inject(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    // Stands in for a process dying between a committed chunk and the end of its handlers
+    private static final class Crash extends Error {
+    }
+
+    private static final class FakeSweep implements LifecycleSweep {
+        private final TreeSet<Long> open = new TreeSet<>();
+        private final List<Long> moved = new ArrayList<>();
+        private final List<String> calls = new ArrayList<>();
+        private int handlerCalls;
+        private int crashOnCall;
+        private int onCall;
+        private ThrowingRunnable hook;
+
+        void open(LongStream ids) {
+            ids.forEach(open::add);
+        }
+
+        @Override
+        public String getName() {
+            return SWEEP;
+        }
+
+        @Override
+        public List<Long> transition(long afterId, int limit) {
+            List<Long> ids = open.tailSet(afterId, false).stream().limit(limit).collect(Collectors.toList());
+            open.removeAll(ids);
+            moved.addAll(ids);
+            return ids;
+        }
+
+        @Override
+        public void afterTransition(List<Long> ids, boolean replay) {
+            calls.add(ids + (replay ? " replay" : ""));
+            handlerCalls++;
+            if (handlerCalls == crashOnCall) {
+                throw new Crash();
+            }
+            if (handlerCalls == onCall && hook != null) {
+                try {
+                    hook.run();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+    }
+
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,72 @@
+package hakan.rentacar.service.impl;
+
+import hakan.rentacar.entities.dtos.BalanceVerificationDto;
+import hakan.rentacar.repostories.RentalPaymentBalanceRepository;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Repair recomputes drifted balances and drops the balance rows of deleted rentals
+class PaymentBalanceServiceTest {
+
+    private final List<String> calls = new ArrayList<>();
+
+    @Test
+    void repairDeletesBalancesOfDeletedRentals() throws Exception {
+        PaymentBalanceServiceImpl service = service(List.of(
+                new Object[]{7L, new BigDecimal("500.00"), new BigDecimal("600.00"), BigDecimal.ZERO, BigDecimal.ZERO,
+                        BigDecimal.ZERO, BigDecimal.ZERO, false},
+                new Object[]{9L, new BigDecimal("300.00"), BigDecimal.ZERO, new BigDecimal("300.00"), BigDecimal.ZERO,
+                        BigDecimal.ZERO, BigDecimal.ZERO, true}));
+
+        BalanceVerificationDto result = service.verify(true);
+
+        assertEquals(List.of("recompute 7", "deleteOrphan 9"), calls);
+        assertEquals(2L, result.getDriftedRentals().longValue());
+        assertFalse(result.getDrifts().get(0).getRentalDeleted());
+        assertTrue(result.getDrifts().get(1).getRentalDeleted());
+    }
+
+    @Test
+    void verifyWithoutRepairOnlyReports() throws Exception {
+        PaymentBalanceServiceImpl service = service(List.<Object[]>of(
+                new Object[]{9L, new BigDecimal("300.00"), BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO,
+                        BigDecimal.ZERO, BigDecimal.ZERO, true}));
+
+        BalanceVerificationDto result = service.verify(false);
+
+        assertTrue(calls.isEmpty());
+        assertEquals(1L, result.getDriftedRentals().longValue());
+        assertFalse(result.getRepaired());
+    }
+
+    private PaymentBalanceServiceImpl service(List<Object[]> drift) throws Exception {
+        RentalPaymentBalanceRepository repository = (RentalPaymentBalanceRepository) Proxy.newProxyInstance(
+                RentalPaymentBalanceRepository.class.getClassLoader(),
+                new Class<?>[]{RentalPaymentBalanceRepository.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findDrift":
+                            return drift;
+                        case "recompute":
+                        case "deleteOrphan":
+                            calls.add(method.getName() + " " + args[0]);
+                            return 1;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        PaymentBalanceServiceImpl service = new PaymentBalanceServiceImpl();
+        Field field = PaymentBalanceServiceImpl.class.getDeclaredField("rentalPaymentBalanceRepository");
+        field.setAccessible(true);
+        field.set(service, repository);
+        return service;
+    }
+}
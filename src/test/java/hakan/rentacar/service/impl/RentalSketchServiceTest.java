@@ -0,0 +1,114 @@
+package hakan.rentacar.service.impl;
+
+import hakan.rentacar.entities.dtos.RentalDistributionDto;
+import hakan.rentacar.repostories.RentalRepository;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// All-time sketch kept up to date by merging new rentals and merged again only after a rental left it
+class RentalSketchServiceTest {
+
+    private static final LocalDate BASE = LocalDate.of(2024, 1, 1);
+
+    // Row is (id, carId, customerId, start, end, extraCosts, dailyPrice)
+    private final List<Object[]> rentals = new ArrayList<>();
+    private long nextRentalId = 1;
+
+    @Test
+    void newRentalsAreMergedWithoutRemergingEveryCar() throws Exception {
+        for (long carId = 1; carId <= 50; carId++) {
+            for (int i = 0; i < 20; i++) {
+                rentals.add(rental(carId, i));
+            }
+        }
+        RentalSketchServiceImpl service = service();
+        Object before = allTime(service);
+
+        rentals.add(rental(7, 3));
+        rentals.add(rental(7, 4));
+        service.refreshCar(7L);
+
+        assertFalse(stale(service));
+        assertTrue(allTime(service) != before, "published sketch is replaced, not modified");
+        assertEquals(1002L, allTimeCount(service));
+        assertEquals(22L, service.getDistribution(null, null, 7L).getRentalCount().longValue());
+    }
+
+    @Test
+    void removedRentalsRemergeAllTimeOnNextQuery() throws Exception {
+        for (long carId = 1; carId <= 10; carId++) {
+            for (int i = 0; i < 5; i++) {
+                rentals.add(rental(carId, i));
+            }
+        }
+        RentalSketchServiceImpl service = service();
+
+        rentals.removeIf(row -> (Long) row[1] == 3L);
+        service.refreshCar(3L);
+        assertTrue(stale(service));
+        // Rentals added while stale are picked up by the same re-merge
+        rentals.add(rental(4, 9));
+        service.refreshCar(4L);
+
+        assertEquals(46L, allTimeCount(service));
+        assertFalse(stale(service));
+        assertEquals(0L, service.getDistribution(null, null, 3L).getRentalCount().longValue());
+        RentalDistributionDto day = service.getDistribution(BASE.plusDays(9), BASE.plusDays(9), null);
+        assertEquals(1L, day.getRentalCount().longValue());
+    }
+
+    private Object[] rental(long carId, int dayOffset) {
+        LocalDate start = BASE.plusDays(dayOffset);
+        return new Object[]{nextRentalId++, carId, carId * 100 + dayOffset, start, start.plusDays(dayOffset % 5), 0, 100.0};
+    }
+
+    private static long allTimeCount(RentalSketchServiceImpl service) {
+        return service.getDistribution(null, null, null).getRentalCount();
+    }
+
+    private static Object allTime(RentalSketchServiceImpl service) throws Exception {
+        Field field = RentalSketchServiceImpl.class.getDeclaredField("allTime");
+        field.setAccessible(true);
+        return field.get(service);
+    }
+
+    private static boolean stale(RentalSketchServiceImpl service) throws Exception {
+        Field field = RentalSketchServiceImpl.class.getDeclaredField("allTimeStale");
+        field.setAccessible(true);
+        return field.getBoolean(service);
+    }
+
+    private RentalSketchServiceImpl service() throws Exception {
+        RentalRepository repository = (RentalRepository) Proxy.newProxyInstance(RentalRepository.class.getClassLoader(),
+                new Class<?>[]{RentalRepository.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findSketchRows":
+                            return new ArrayList<>(rentals);
+                        case "findSketchRowsByCarId":
+                            return rentals.stream().filter(row -> row[1].equals(args[0])).collect(Collectors.toList());
+                        case "findSketchRowsByStartIn":
+                            Collection<?> days = (Collection<?>) args[0];
+                            return rentals.stream().filter(row -> days.contains(row[3])).collect(Collectors.toList());
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        RentalSketchServiceImpl service = new RentalSketchServiceImpl();
+        Field field = RentalSketchServiceImpl.class.getDeclaredField("rentalRepository");
+        field.setAccessible(true);
+        field.set(service, repository);
+        service.rebuild();
+        return service;
+    }
+}
@@ -0,0 +1,217 @@
+package hakan.rentacar.service.impl;
+
+import hakan.rentacar.entities.concretes.CustomerRentalStats;
+import hakan.rentacar.entities.dtos.CubeResultDto;
+import hakan.rentacar.entities.dtos.CubeRowDto;
+import hakan.rentacar.repostories.RentalRepository;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cube rollups compared with a plain GROUP BY over the same rentals. The fleet has more rows than
+ * two scan chunks, and enough cars are reloaded to trigger compaction, so chunk boundaries and
+ * compacted columns are both covered.
+ */
+class RevenueCubeServiceTest {
+
+    private static final int CARS = 300;
+    private static final int ROWS = 150_000;
+    private static final LocalDate BASE = LocalDate.of(2023, 1, 1);
+    private static final String[] BRANDS = {"BMW", "Audi", "Fiat", "Renault", "Toyota"};
+    private static final String[] CITIES = {"İstanbul", "Ankara", "İzmir", null};
+    private static final String[] SEGMENTS = {"Ekonomi", "Komfort", "Lüks", null};
+
+    // Row is (id, carId, customerId, start, end, extraCosts, dailyPrice, brand, model, segment, city, plate)
+    private final List<Object[]> rentals = new ArrayList<>();
+    private final Random random = new Random(2024);
+    private long nextRentalId = 1;
+
+    @Test
+    void rollupsMatchGroupByAcrossChunksAndCompaction() throws Exception {
+        for (int i = 0; i < ROWS; i++) {
+            rentals.add(rental(1 + random.nextInt(CARS)));
+        }
+        RevenueCubeServiceImpl service = service();
+        assertRollupsMatch(service);
+
+        // Replacing two thirds of the cars leaves enough dead rows to compact; without compaction
+        // the cube would still hold every row ever appended
+        long appended = ROWS;
+        for (long carId = 1; carId <= CARS * 2 / 3; carId++) {
+            long car = carId;
+            rentals.removeIf(row -> (Long) row[1] == car && random.nextInt(3) == 0);
+            for (int i = random.nextInt(20); i > 0; i--) {
+                rentals.add(rental(car));
+            }
+            appended += rentals.stream().filter(row -> (Long) row[1] == car).count();
+            service.refreshCar(carId);
+        }
+        assertRollupsMatch(service);
+        assertTrue(scannedRows(service) < appended, "replaced rows were compacted away");
+
+        // Row positions moved during compaction; later reloads must still find each car's rows
+        for (long carId = 1; carId <= CARS; carId += 7) {
+            long car = carId;
+            rentals.removeIf(row -> (Long) row[1] == car);
+            rentals.add(rental(car));
+            service.refreshCar(carId);
+        }
+        assertRollupsMatch(service);
+        assertEquals(rentals.size(), scannedRows(service) - deadRows(service));
+    }
+
+    private void assertRollupsMatch(RevenueCubeServiceImpl service) {
+        Map<Long, CustomerRentalStats.Segment> customerSegments = customerSegments();
+        assertGroupsMatch(service, List.of("brand", "month"), null, null, null,
+                row -> List.of(label(row[7]), String.format("%d-%02d", start(row).getYear(), start(row).getMonthValue())));
+        assertGroupsMatch(service, List.of("year", "quarter", "city"), null, null, null,
+                row -> List.of(String.valueOf(start(row).getYear()),
+                        start(row).getYear() + "-Q" + ((start(row).getMonthValue() - 1) / 3 + 1), label(row[10])));
+        assertGroupsMatch(service, List.of("customerSegment", "segment"), null, null, null,
+                row -> List.of(customerSegments.get((Long) row[2]).name(), label(row[9])));
+
+        LocalDate from = BASE.plusDays(100);
+        LocalDate to = BASE.plusDays(400);
+        assertGroupsMatch(service, List.of("model"), List.of("brand:BMW|Audi", "city:Ankara"), from, to,
+                row -> List.of(label(row[8])));
+        assertGroupsMatch(service, List.of(), List.of("customer_segment:VIP|REGULAR"), from, null,
+                row -> List.of());
+    }
+
+    private void assertGroupsMatch(RevenueCubeServiceImpl service, List<String> groupBy, List<String> filters,
+                                   LocalDate from, LocalDate to, Function<Object[], List<String>> key) {
+        Map<Long, CustomerRentalStats.Segment> customerSegments = customerSegments();
+        Map<List<String>, long[]> expected = new HashMap<>();
+        for (Object[] row : rentals) {
+            if ((from != null && start(row).isBefore(from)) || (to != null && start(row).isAfter(to))
+                    || !matches(row, filters, customerSegments)) {
+                continue;
+            }
+            long[] measures = expected.computeIfAbsent(key.apply(row), k -> new long[3]);
+            measures[0] += revenueCents(row);
+            measures[1] += days(row);
+            measures[2]++;
+        }
+
+        CubeResultDto result = service.query(groupBy, filters, from, to, Integer.MAX_VALUE);
+        String label = "group by " + groupBy + " where " + filters;
+        assertEquals(expected.size(), result.getGroupCount().intValue(), label + " group count");
+        for (CubeRowDto row : result.getRows()) {
+            long[] measures = expected.get(row.getKeys());
+            assertTrue(measures != null, label + " unexpected group " + row.getKeys());
+            assertEquals(BigDecimal.valueOf(measures[0], 2), row.getRevenue(), label + " revenue of " + row.getKeys());
+            assertEquals(measures[1], row.getRentalDays().longValue(), label + " days of " + row.getKeys());
+            assertEquals(measures[2], row.getRentalCount().longValue(), label + " rentals of " + row.getKeys());
+        }
+    }
+
+    // Mirrors the filters used above: brand, city and customer segment
+    private static boolean matches(Object[] row, List<String> filters, Map<Long, CustomerRentalStats.Segment> customerSegments) {
+        if (filters == null) {
+            return true;
+        }
+        for (String filter : filters) {
+            String[] parts = filter.split(":");
+            List<String> values = List.of(parts[1].split("\\|"));
+            String value;
+            switch (parts[0]) {
+                case "brand":
+                    value = label(row[7]);
+                    break;
+                case "city":
+                    value = label(row[10]);
+                    break;
+                default:
+                    value = customerSegments.get((Long) row[2]).name();
+            }
+            if (!values.contains(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Map<Long, CustomerRentalStats.Segment> customerSegments() {
+        Map<Long, long[]> totals = new HashMap<>();
+        for (Object[] row : rentals) {
+            long[] customer = totals.computeIfAbsent((Long) row[2], id -> new long[2]);
+            customer[0]++;
+            customer[1] += revenueCents(row);
+        }
+        return totals.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey,
+                entry -> CustomerRentalStats.Segment.of(entry.getValue()[0], BigDecimal.valueOf(entry.getValue()[1], 2))));
+    }
+
+    private Object[] rental(long carId) {
+        LocalDate start = BASE.plusDays(random.nextInt(730));
+        String brand = BRANDS[(int) (carId % BRANDS.length)];
+        return new Object[]{nextRentalId++, carId, (long) random.nextInt(2000), start, start.plusDays(random.nextInt(14)),
+                random.nextInt(4) == 0 ? random.nextInt(500) : 0, 500.0 + carId % 13 * 25.5, brand,
+                brand + " " + carId % 4, SEGMENTS[(int) (carId % SEGMENTS.length)],
+                CITIES[(int) (carId % CITIES.length)], "34 RC " + carId};
+    }
+
+    private static LocalDate start(Object[] row) {
+        return (LocalDate) row[3];
+    }
+
+    private static long days(Object[] row) {
+        return ChronoUnit.DAYS.between((LocalDate) row[3], (LocalDate) row[4]) + 1;
+    }
+
+    private static long revenueCents(Object[] row) {
+        return Math.round(((Double) row[6] * days(row) + (Integer) row[5]) * 100);
+    }
+
+    private static String label(Object value) {
+        return value != null ? (String) value : "Diğer";
+    }
+
+    private static long scannedRows(RevenueCubeServiceImpl service) {
+        return service.query(List.of(), null, null, null, null).getScannedRows();
+    }
+
+    private static long deadRows(RevenueCubeServiceImpl service) throws Exception {
+        Field cubeField = RevenueCubeServiceImpl.class.getDeclaredField("cube");
+        cubeField.setAccessible(true);
+        Object cube = cubeField.get(service);
+        Field deadRows = cube.getClass().getDeclaredField("deadRows");
+        deadRows.setAccessible(true);
+        return deadRows.getInt(cube);
+    }
+
+    private RevenueCubeServiceImpl service() throws Exception {
+        RentalRepository repository = (RentalRepository) Proxy.newProxyInstance(RentalRepository.class.getClassLoader(),
+                new Class<?>[]{RentalRepository.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findCubeRows":
+                            return new ArrayList<>(rentals);
+                        case "findCubeRowsByCarId":
+                            return rentals.stream().filter(row -> row[1].equals(args[0])).collect(Collectors.toList());
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        RevenueCubeServiceImpl service = new RevenueCubeServiceImpl();
+        Field field = RevenueCubeServiceImpl.class.getDeclaredField("rentalRepository");
+        field.setAccessible(true);
+        field.set(service, repository);
+        service.rebuild();
+        return service;
+    }
+}
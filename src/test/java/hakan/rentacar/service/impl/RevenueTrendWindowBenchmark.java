@@ -0,0 +1,105 @@
+package hakan.rentacar.service.impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trend engine over 10 years of daily revenue: the streaming RevenueTrendWindow used by
+ * getDailyRevenueTrend against recomputing every window from the raw series for each day.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RevenueTrendWindowBenchmark {
+
+    private static final int DAYS = 10 * 365 + RevenueTrendWindow.WARMUP_DAYS;
+    private static final double ALPHA = 0.3;
+
+    private long[] series;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        series = new long[DAYS];
+        for (int day = 0; day < DAYS; day++) {
+            series[day] = random.nextInt(10) == 0 ? 0 : 10_000 + random.nextInt(90_000);
+        }
+    }
+
+    @Benchmark
+    public void streamingWindow(Blackhole blackhole) {
+        RevenueTrendWindow window = new RevenueTrendWindow(ALPHA);
+        for (long value : series) {
+            window.push(value);
+            blackhole.consume(window.movingAverage7());
+            blackhole.consume(window.movingAverage30());
+            blackhole.consume(window.ewma());
+            blackhole.consume(window.weekOverWeek());
+            blackhole.consume(window.yearOverYear());
+            blackhole.consume(window.zScore());
+        }
+    }
+
+    @Benchmark
+    public void recomputePerDay(Blackhole blackhole) {
+        double ewma = 0;
+        for (int day = 0; day < series.length; day++) {
+            long sum7 = sum(day, RevenueTrendWindow.SHORT_WINDOW);
+            long sum30 = sum(day, RevenueTrendWindow.LONG_WINDOW);
+            ewma = day == 0 ? series[day] : ALPHA * series[day] + (1 - ALPHA) * ewma;
+            blackhole.consume((double) sum7 / Math.min(day + 1, RevenueTrendWindow.SHORT_WINDOW));
+            blackhole.consume((double) sum30 / Math.min(day + 1, RevenueTrendWindow.LONG_WINDOW));
+            blackhole.consume(ewma);
+            blackhole.consume(sum7 - sum(day - RevenueTrendWindow.SHORT_WINDOW, RevenueTrendWindow.SHORT_WINDOW));
+            blackhole.consume(sum7 - sum(day - RevenueTrendWindow.YEAR_LAG, RevenueTrendWindow.SHORT_WINDOW));
+            blackhole.consume(variance(day - 1, RevenueTrendWindow.LONG_WINDOW));
+        }
+    }
+
+    private long sum(int day, int n) {
+        long total = 0;
+        for (int i = Math.max(0, day - n + 1); i <= day; i++) {
+            total += series[i];
+        }
+        return total;
+    }
+
+    private double variance(int day, int n) {
+        int from = Math.max(0, day - n + 1);
+        if (day < from) {
+            return 0;
+        }
+        double mean = (double) sum(day, n) / (day - from + 1);
+        double squares = 0;
+        for (int i = from; i <= day; i++) {
+            squares += (series[i] - mean) * (series[i] - mean);
+        }
+        return squares / (day - from + 1);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RevenueTrendWindowBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
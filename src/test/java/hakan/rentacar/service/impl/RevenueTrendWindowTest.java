@@ -0,0 +1,127 @@
+package hakan.rentacar.service.impl;
+
+import hakan.rentacar.exceptions.BusinessException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RevenueTrendWindowTest {
+
+    private static final double ALPHA = 0.3;
+    private static final double DELTA = 1e-6;
+
+    @Test
+    void movingAveragesUseAvailableDaysWhileWarmingUp() {
+        RevenueTrendWindow window = new RevenueTrendWindow(ALPHA);
+        window.push(100);
+        window.push(300);
+        assertEquals(200.0, window.movingAverage7(), DELTA);
+        assertEquals(200.0, window.movingAverage30(), DELTA);
+        assertTrue(Double.isNaN(window.weekOverWeek()));
+        assertTrue(Double.isNaN(window.yearOverYear()));
+        assertEquals(0.0, window.zScore(), DELTA);
+    }
+
+    @Test
+    void constantSeriesHasNoTrendAndNoAnomaly() {
+        RevenueTrendWindow window = new RevenueTrendWindow(ALPHA);
+        for (int day = 0; day < 400; day++) {
+            window.push(50_000);
+        }
+        assertEquals(50_000.0, window.movingAverage7(), DELTA);
+        assertEquals(50_000.0, window.movingAverage30(), DELTA);
+        assertEquals(50_000.0, window.ewma(), DELTA);
+        assertEquals(0.0, window.weekOverWeek(), DELTA);
+        assertEquals(0.0, window.yearOverYear(), DELTA);
+        assertEquals(0.0, window.zScore(), DELTA);
+    }
+
+    @Test
+    void percentChangeIsUndefinedAgainstZeroRevenue() {
+        RevenueTrendWindow window = new RevenueTrendWindow(ALPHA);
+        for (int day = 0; day < 2 * RevenueTrendWindow.SHORT_WINDOW; day++) {
+            window.push(day < RevenueTrendWindow.SHORT_WINDOW ? 0 : 1_000);
+        }
+        assertTrue(Double.isNaN(window.weekOverWeek()));
+    }
+
+    @Test
+    void matchesRecomputationOverTwoYearsOfRandomDays() {
+        Random random = new Random(7);
+        int days = 2 * 365 + 10;
+        long[] series = new long[days];
+        RevenueTrendWindow window = new RevenueTrendWindow(ALPHA);
+        double ewma = 0;
+        for (int day = 0; day < days; day++) {
+            // Some zero days, like a car lot closed on holidays
+            series[day] = random.nextInt(10) == 0 ? 0 : 10_000 + random.nextInt(90_000);
+            double expectedZ = zScore(series, day);
+            window.push(series[day]);
+            ewma = day == 0 ? series[day] : ALPHA * series[day] + (1 - ALPHA) * ewma;
+
+            String at = "day " + day;
+            assertEquals(average(series, day, RevenueTrendWindow.SHORT_WINDOW), window.movingAverage7(), DELTA, at);
+            assertEquals(average(series, day, RevenueTrendWindow.LONG_WINDOW), window.movingAverage30(), DELTA, at);
+            assertEquals(ewma, window.ewma(), DELTA, at);
+            assertEquals(expectedZ, window.zScore(), 1e-6, at);
+            if (day + 1 >= 2 * RevenueTrendWindow.SHORT_WINDOW) {
+                assertEquals(percentChange(sum(series, day, 7), sum(series, day - 7, 7)), window.weekOverWeek(), DELTA, at);
+            }
+            if (day + 1 >= RevenueTrendWindow.YEAR_LAG + RevenueTrendWindow.SHORT_WINDOW) {
+                assertEquals(percentChange(sum(series, day, 7), sum(series, day - RevenueTrendWindow.YEAR_LAG, 7)),
+                        window.yearOverYear(), DELTA, at);
+            } else {
+                assertTrue(Double.isNaN(window.yearOverYear()), at);
+            }
+        }
+    }
+
+    // Sum of the n days ending at day (inclusive), days before the series count as zero
+    @Test
+    void dailyTrendRejectsRangesLongerThanFiveYears() {
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        BusinessException tooLong = assertThrows(BusinessException.class,
+                () -> new AnalyticsServiceImpl().getDailyRevenueTrend(start, start.plusYears(5).plusDays(1), ALPHA, 3));
+        assertTrue(tooLong.getMessage().contains("5 years"));
+    }
+
+    private static long sum(long[] series, int day, int n) {
+        long total = 0;
+        for (int i = Math.max(0, day - n + 1); i <= day; i++) {
+            total += series[i];
+        }
+        return total;
+    }
+
+    private static double average(long[] series, int day, int n) {
+        return (double) sum(series, day, n) / Math.min(day + 1, n);
+    }
+
+    private static double percentChange(long current, long previous) {
+        return previous > 0 ? (current - previous) * 100.0 / previous : Double.NaN;
+    }
+
+    // Z-score of series[day] against the up to 30 days before it, population variance
+    private static double zScore(long[] series, int day) {
+        int n = Math.min(day, RevenueTrendWindow.LONG_WINDOW);
+        if (n < RevenueTrendWindow.SHORT_WINDOW) {
+            return 0;
+        }
+        double mean = 0;
+        for (int i = day - n; i < day; i++) {
+            mean += series[i];
+        }
+        mean /= n;
+        double variance = 0;
+        for (int i = day - n; i < day; i++) {
+            variance += (series[i] - mean) * (series[i] - mean);
+        }
+        variance /= n;
+        return variance > 0 ? (series[day] - mean) / Math.sqrt(variance) : 0;
+    }
+}
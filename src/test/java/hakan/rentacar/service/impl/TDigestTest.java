@@ -0,0 +1,123 @@
+package hakan.rentacar.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TDigestTest {
+
+    private static final double COMPRESSION = 100;
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+    // Rank error allowed at each of QUANTILES
+    private static final double[] RANK_ERROR = {0.01, 0.005, 0.002};
+
+    @Test
+    void emptyDigestHasNoQuantiles() {
+        TDigest digest = new TDigest(COMPRESSION);
+        assertEquals(0L, digest.count());
+        assertTrue(Double.isNaN(digest.quantile(0.5)));
+        assertTrue(Double.isNaN(digest.mean()));
+    }
+
+    @Test
+    void uniformValuesStayWithinRankError() {
+        Random random = new Random(3);
+        double[] values = new double[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextDouble() * 1_000;
+        }
+        assertRankError(values, digestOf(values));
+    }
+
+    @Test
+    void skewedValuesStayWithinRankError() {
+        // Rental durations: mostly short, a long tail of monthly rentals
+        Random random = new Random(5);
+        double[] values = new double[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.ceil(-Math.log(1 - random.nextDouble()) * 4) + (random.nextInt(50) == 0 ? 30 : 0);
+        }
+        assertRankError(values, digestOf(values));
+    }
+
+    @Test
+    void mergedDigestsMatchOneDigestOverAllValues() {
+        Random random = new Random(9);
+        double[] values = new double[100_000];
+        TDigest merged = new TDigest(COMPRESSION);
+        // Per-day digests merged at query time, as the rental sketches do
+        for (int day = 0; day < 100; day++) {
+            TDigest daily = new TDigest(COMPRESSION);
+            for (int i = 0; i < 1_000; i++) {
+                double value = random.nextGaussian() * 200 + 1_500;
+                values[day * 1_000 + i] = value;
+                daily.add(value);
+            }
+            daily.compress();
+            merged.add(daily);
+        }
+        assertEquals(values.length, merged.count());
+        assertRankError(values, merged);
+    }
+
+    @Test
+    void meanIsExact() {
+        double[] values = {1, 2, 3, 4, 10};
+        assertEquals(4.0, digestOf(values).mean(), 1e-9);
+    }
+
+    private static TDigest digestOf(double[] values) {
+        TDigest digest = new TDigest(COMPRESSION);
+        for (double value : values) {
+            digest.add(value);
+        }
+        return digest;
+    }
+
+    private static void assertRankError(double[] values, TDigest digest) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        for (int i = 0; i < QUANTILES.length; i++) {
+            double q = QUANTILES[i];
+            double estimate = digest.quantile(q);
+            // Ranks of the estimate among the true values; ties make it a range
+            double lowRank = lowerBound(sorted, estimate) / (double) sorted.length;
+            double highRank = upperBound(sorted, estimate) / (double) sorted.length;
+            double error = q < lowRank ? lowRank - q : q > highRank ? q - highRank : 0;
+            double allowed = RANK_ERROR[i];
+            assertTrue(error <= allowed, () -> "p" + (int) (q * 100) + " rank error " + error + " > " + allowed);
+        }
+    }
+
+    private static int lowerBound(double[] sorted, double value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int upperBound(double[] sorted, double value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
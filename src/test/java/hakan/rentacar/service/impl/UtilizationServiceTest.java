@@ -0,0 +1,173 @@
+package hakan.rentacar.service.impl;
+
+import hakan.rentacar.entities.dtos.CarAnalyticsDto;
+import hakan.rentacar.entities.dtos.FleetUtilizationDto;
+import hakan.rentacar.repostories.CarRepository;
+import hakan.rentacar.repostories.MaintenanceRecordRepository;
+import hakan.rentacar.repostories.RentalRepository;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Utilization answers from the in-memory timelines compared with counting every day of the window
+class UtilizationServiceTest {
+
+    private static final LocalDate BASE = LocalDate.of(2024, 1, 1);
+
+    private final List<Object[]> cars = new ArrayList<>();
+    private final List<Object[]> rentals = new ArrayList<>();
+    private final List<Object[]> maintenance = new ArrayList<>();
+
+    @Test
+    void matchesDayByDayCountOnRandomFleets() throws Exception {
+        Random random = new Random(7);
+        for (int round = 0; round < 50; round++) {
+            cars.clear();
+            rentals.clear();
+            maintenance.clear();
+            addRandomCars(random, 20, 15);
+            UtilizationServiceImpl service = service();
+
+            for (int query = 0; query < 20; query++) {
+                LocalDate from = BASE.plusDays(random.nextInt(400) - 20);
+                LocalDate to = from.plusDays(random.nextInt(120));
+                String label = "round " + round + " window " + from + ".." + to;
+
+                Map<Long, CarAnalyticsDto> byCar = service.getCarUtilization(from, to).stream()
+                        .collect(Collectors.toMap(CarAnalyticsDto::getCarId, Function.identity()));
+                long fleetRented = 0;
+                long fleetAvailable = 0;
+                long fleetMaintenance = 0;
+                for (Object[] car : cars) {
+                    long[] expected = countDays((Long) car[0], (Date) car[6], from, to);
+                    CarAnalyticsDto actual = byCar.get((Long) car[0]);
+                    assertEquals(expected[0], actual.getTotalRentalDays().longValue(), label + " rented days of car " + car[0]);
+                    assertEquals(expected[3], actual.getTotalRentals().longValue(), label + " rentals of car " + car[0]);
+                    assertEquals(rate(expected[0], expected[1]), actual.getUtilizationRate(), label + " rate of car " + car[0]);
+                    fleetRented += expected[0];
+                    fleetAvailable += expected[1];
+                    fleetMaintenance += expected[2];
+                }
+
+                FleetUtilizationDto fleet = service.getFleetUtilization(from, to);
+                assertEquals(fleetRented, fleet.getRentedDays().longValue(), label);
+                assertEquals(fleetAvailable, fleet.getAvailableDays().longValue(), label);
+                assertEquals(fleetMaintenance, fleet.getMaintenanceDays().longValue(), label);
+            }
+        }
+    }
+
+    @Test
+    void answersFiveThousandCarsWithinHundredMilliseconds() throws Exception {
+        addRandomCars(new Random(11), 5000, 60);
+        UtilizationServiceImpl service = service();
+        LocalDate to = BASE.plusDays(364);
+
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < 10; run++) {
+            long start = System.nanoTime();
+            Map<Long, BigDecimal> rates = service.getUtilizationRates(BASE, to);
+            best = Math.min(best, System.nanoTime() - start);
+            assertEquals(5000, rates.size());
+        }
+        assertTrue(best < 100_000_000L, "5000 cars took " + best / 1_000_000 + " ms");
+    }
+
+    // Cars get overlapping rentals, maintenance days and sometimes a creation date inside the range
+    private void addRandomCars(Random random, int carCount, int maxRentals) {
+        for (long carId = 1; carId <= carCount; carId++) {
+            Date createdDate = random.nextInt(4) == 0
+                    ? Date.from(BASE.plusDays(random.nextInt(200)).atStartOfDay(ZoneId.systemDefault()).toInstant())
+                    : null;
+            cars.add(new Object[]{carId, "34 T " + carId, "Marka " + carId % 7, "Model " + carId % 11,
+                    random.nextBoolean() ? "Ekonomi" : null, 100.0, createdDate});
+            int rentalCount = random.nextInt(maxRentals + 1);
+            for (int i = 0; i < rentalCount; i++) {
+                LocalDate start = BASE.plusDays(random.nextInt(380) - 10);
+                rentals.add(new Object[]{carId, start, start.plusDays(random.nextInt(15))});
+            }
+            int maintenanceCount = random.nextInt(6);
+            for (int i = 0; i < maintenanceCount; i++) {
+                maintenance.add(new Object[]{carId, BASE.plusDays(random.nextInt(380))});
+            }
+        }
+    }
+
+    // {rented days, available days, maintenance days, rentals overlapping the window}
+    private long[] countDays(Long carId, Date createdDate, LocalDate from, LocalDate to) {
+        LocalDate availableFrom = createdDate != null
+                ? createdDate.toInstant().atZone(ZoneId.systemDefault()).toLocalDate()
+                : from;
+        Set<LocalDate> maintenanceDays = new HashSet<>();
+        maintenance.stream().filter(row -> row[0].equals(carId)).forEach(row -> maintenanceDays.add((LocalDate) row[1]));
+        List<Object[]> carRentals = rentals.stream().filter(row -> row[0].equals(carId)).collect(Collectors.toList());
+
+        long rented = 0;
+        long available = 0;
+        long inMaintenance = 0;
+        for (LocalDate day = availableFrom.isAfter(from) ? availableFrom : from; !day.isAfter(to); day = day.plusDays(1)) {
+            if (maintenanceDays.contains(day)) {
+                inMaintenance++;
+                continue;
+            }
+            available++;
+            LocalDate current = day;
+            if (carRentals.stream().anyMatch(row -> !((LocalDate) row[1]).isAfter(current) && !((LocalDate) row[2]).isBefore(current))) {
+                rented++;
+            }
+        }
+        long overlapping = carRentals.stream()
+                .filter(row -> !((LocalDate) row[1]).isAfter(to) && !((LocalDate) row[2]).isBefore(from))
+                .count();
+        return new long[]{rented, available, inMaintenance, overlapping};
+    }
+
+    private static BigDecimal rate(long rentedDays, long availableDays) {
+        if (availableDays <= 0) {
+            return BigDecimal.ZERO;
+        }
+        return BigDecimal.valueOf(rentedDays * 100.0 / availableDays).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private UtilizationServiceImpl service() throws Exception {
+        UtilizationServiceImpl service = new UtilizationServiceImpl();
+        inject(service, "carRepository", fake(CarRepository.class, "findUtilizationCarRows", cars));
+        inject(service, "rentalRepository", fake(RentalRepository.class, "findBookedRanges", rentals));
+        inject(service, "maintenanceRecordRepository", fake(MaintenanceRecordRepository.class, "findMaintenanceDays", maintenance));
+        service.rebuild();
+        return service;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T fake(Class<T> type, String method, List<Object[]> rows) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, called, args) -> {
+            if (called.getName().equals(method)) {
+                return rows;
+            }
+            throw new UnsupportedOperationException(called.getName());
+        });
+    }
+
+    private static void inject(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}